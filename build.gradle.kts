@@ -19,6 +19,8 @@ repositories {
 
 dependencies {
     implementation("org.jetbrains.kotlin:kotlin-stdlib")
+    // 渲染核心，markdown库使用IDE内置Markdown插件中的版本
+    implementation(project(":markdown-core"))
     
     intellijPlatform {
         intellijIdeaCommunity("2024.3")
@@ -0,0 +1,93 @@
+// 渲染核心：解析、块模型、行内格式、代码高亮和HTML输出，不依赖IntelliJ平台
+// 插件运行时markdown库和Kotlin标准库由IDE提供，所以这里只在编译时引入，避免插件里出现第二份；
+// 基准测试、对抗性检查等在普通JVM上运行的任务单独引入运行时依赖
+plugins {
+    id("java-library")
+    id("me.champeau.jmh") version "0.7.2"
+}
+
+group = "com.markdown.editor"
+version = rootProject.version
+
+repositories {
+    mavenCentral()
+}
+
+val markdownLibrary = "org.jetbrains:markdown:0.7.3"
+
+// 对抗性输入语料检查：验证渲染耗时与输入大小成线性关系
+val adversarial by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath
+    runtimeClasspath += output + compileClasspath
+}
+
+// 打包进批量渲染器可执行jar的运行时依赖
+val headless by configurations.creating
+
+dependencies {
+    compileOnly(markdownLibrary)
+    compileOnly("org.jetbrains.kotlin:kotlin-stdlib:1.9.21")
+    compileOnly("org.jetbrains:annotations:24.0.1")
+
+    headless(markdownLibrary)
+    "adversarialRuntimeOnly"(markdownLibrary)
+    jmh(markdownLibrary)
+
+    // 单元测试在普通JVM上运行，同样需要运行时依赖
+    testImplementation(markdownLibrary)
+    testImplementation("org.jetbrains.kotlin:kotlin-stdlib:1.9.21")
+    testImplementation("junit:junit:4.13.2")
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_17
+    targetCompatibility = JavaVersion.VERSION_17
+}
+
+jmh {
+    jmhVersion = "1.37"
+    warmupIterations = 2
+    iterations = 5
+    fork = 1
+    profilers.add("gc")
+    resultFormat = "JSON"
+    jvmArgs.addAll("-Xmx2g", "-Dfile.encoding=UTF-8")
+    providers.gradleProperty("jmhIncludes").orNull?.let { includes.add(it) }
+}
+
+tasks {
+    withType<JavaCompile> {
+        options.encoding = "UTF-8"
+    }
+
+    test {
+        jvmArgs("-Dfile.encoding=UTF-8")
+    }
+
+    val checkAdversarialCorpus by registering(JavaExec::class) {
+        group = "verification"
+        description = "用 src/adversarial/corpus 中的病态输入检查两种渲染引擎是否为线性时间"
+        classpath = adversarial.runtimeClasspath
+        mainClass.set("com.markdown.editor.preview.AdversarialCorpusCheck")
+        args(file("src/adversarial/corpus").absolutePath)
+        jvmArgs("-Dfile.encoding=UTF-8")
+    }
+
+    named("check") {
+        dependsOn(checkAdversarialCorpus)
+    }
+
+    // 可在CI中直接运行的批量渲染器: java -jar markdown-batch-renderer.jar <输入目录> <输出目录>
+    register<Jar>("batchRendererJar") {
+        group = "distribution"
+        description = "打包包含markdown库的批量渲染器可执行jar"
+        archiveBaseName.set("markdown-batch-renderer")
+        manifest {
+            attributes("Main-Class" to "com.markdown.editor.batch.BatchRenderer")
+        }
+        from(sourceSets.main.get().output)
+        from({ headless.map { if (it.isDirectory) it else zipTree(it) } })
+        exclude("META-INF/*.SF", "META-INF/*.DSA", "META-INF/*.RSA", "META-INF/versions/**/module-info.class")
+        duplicatesStrategy = DuplicatesStrategy.EXCLUDE
+    }
+}
@@ -0,0 +1,233 @@
+package com.markdown.editor.preview;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 对抗性输入语料检查
+ * 把语料目录中的每个用例放大到几种不同的大小，分别用两种渲染引擎渲染，
+ * 如果最大输入上每个字符的耗时明显高于最小输入（说明渲染不是线性时间），以非零状态退出使构建失败
+ *
+ * 用例文件格式：第一个标记行之前的内容为前缀，之后按标记行分段，每段内容不含标记行前的换行
+ * <pre>
+ * 前缀
+ * %%% repeat
+ * 重复 k 次的单元
+ * %%% middle
+ * 中间内容
+ * %%% close
+ * 中间内容之后重复 k 次的单元（用于构造嵌套）
+ * %%% suffix
+ * 后缀
+ * </pre>
+ * 只有 repeat 段是必需的；需要以换行结尾的段在下一个标记行（或文件末尾）之前多留一个空行
+ */
+public class AdversarialCorpusCheck {
+
+    /** 放大后的输入大小（字符数） */
+    private static final int[] SIZES = {16 * 1024, 64 * 1024, 256 * 1024};
+
+    /** 最大输入与最小输入每字符耗时之比的上限；平方复杂度在16倍输入上约为16 */
+    private static final double MAX_SLOWDOWN = 4.0;
+
+    /** 最大输入耗时低于该值时不做比较，避免计时误差导致误报 */
+    private static final long MIN_SIGNIFICANT_NANOS = 50_000_000L;
+
+    /** 每个大小重复渲染的次数，取最短耗时 */
+    private static final int RUNS = 3;
+
+    /** 单次渲染的最长时间，超过即判定失败，避免非线性的实现让构建挂起 */
+    private static final long RENDER_TIMEOUT_SECONDS = 20;
+
+    private static final ExecutorService RENDER_THREAD = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "adversarial-render");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("用法: AdversarialCorpusCheck <语料目录>");
+            System.exit(2);
+        }
+        File[] files = new File(args[0]).listFiles((dir, name) -> name.endsWith(".md"));
+        if (files == null || files.length == 0) {
+            System.err.println("❌ 语料目录为空: " + args[0]);
+            System.exit(2);
+        }
+        Arrays.sort(files);
+
+        PrintStream out = System.out;
+        List<String> failures = new ArrayList<>();
+        for (File file : files) {
+            Case testCase = Case.parse(file.getName(), new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+            for (RenderEngine engine : RenderEngine.values()) {
+                String result = check(testCase, engine, out);
+                if (result != null) {
+                    failures.add(result);
+                }
+            }
+        }
+
+        if (!failures.isEmpty()) {
+            System.err.println("❌ 以下用例的渲染耗时不是线性的:");
+            for (String failure : failures) {
+                System.err.println("  " + failure);
+            }
+            System.exit(1);
+        }
+        out.println("✅ 对抗性语料全部通过 (" + files.length + " 个用例)");
+    }
+
+    /**
+     * @return 失败时返回描述，通过时返回null
+     */
+    private static String check(Case testCase, RenderEngine engine, PrintStream out) {
+        double firstNanosPerChar = 0;
+        double slowdown = 0;
+        StringBuilder report = new StringBuilder();
+        try {
+            // 预热一次，避免把JIT编译计入最小输入的耗时
+            renderWithTimeout(testCase.generate(SIZES[0]), engine);
+
+            for (int i = 0; i < SIZES.length; i++) {
+                String input = testCase.generate(SIZES[i]);
+                long best = Long.MAX_VALUE;
+                for (int run = 0; run < RUNS; run++) {
+                    best = Math.min(best, renderWithTimeout(input, engine));
+                }
+                double nanosPerChar = (double) best / input.length();
+                report.append(String.format(" %dKB=%.1fms", input.length() / 1024, best / 1e6));
+                if (i == 0) {
+                    firstNanosPerChar = nanosPerChar;
+                    continue;
+                }
+                slowdown = nanosPerChar / firstNanosPerChar;
+                // 已经明显非线性时不再尝试更大的输入
+                if (best >= MIN_SIGNIFICANT_NANOS && slowdown > MAX_SLOWDOWN) {
+                    out.println(String.format("%-32s %-5s%s 放大比=%.2f", testCase.name, engine, report, slowdown));
+                    return String.format("%s [%s] 每字符耗时放大 %.1f 倍", testCase.name, engine, slowdown);
+                }
+            }
+        } catch (TimeoutException e) {
+            out.println(String.format("%-32s %-5s%s 超时", testCase.name, engine, report));
+            return String.format("%s [%s] 单次渲染超过 %d 秒", testCase.name, engine, RENDER_TIMEOUT_SECONDS);
+        }
+        out.println(String.format("%-32s %-5s%s 放大比=%.2f", testCase.name, engine, report, slowdown));
+        return null;
+    }
+
+    private static long renderWithTimeout(String input, RenderEngine engine) throws TimeoutException {
+        Future<Long> future = RENDER_THREAD.submit(() -> render(input, engine));
+        try {
+            return future.get(RENDER_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("渲染失败", e.getCause());
+        }
+    }
+
+    /**
+     * 用新的处理器渲染一次（不使用增量解析缓存，也不限制时间预算），返回耗时纳秒
+     */
+    private static long render(String input, RenderEngine engine) {
+        MarkdownProcessor processor = new MarkdownProcessor();
+        processor.setRenderEngine(engine);
+        processor.setRenderBudgetMillis(RenderBudget.UNLIMITED);
+
+        // 渲染过程中的调试输出不计入耗时
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            long start = System.nanoTime();
+            processor.processMarkdown(input);
+            long elapsed = System.nanoTime() - start;
+            processor.dispose();
+            return elapsed;
+        } finally {
+            System.setOut(out);
+        }
+    }
+
+    private static final class Case {
+        private final String name;
+        private String prefix = "";
+        private String repeat;
+        private String middle = "";
+        private String close = "";
+        private String suffix = "";
+
+        private Case(String name) {
+            this.name = name;
+        }
+
+        static Case parse(String name, String text) {
+            Case result = new Case(name);
+            if (text.endsWith("\n")) {
+                text = text.substring(0, text.length() - 1);
+            }
+            String section = "prefix";
+            StringBuilder content = new StringBuilder();
+            for (String line : text.split("\n", -1)) {
+                if (line.startsWith("%%% ")) {
+                    result.set(section, content);
+                    section = line.substring(4).trim();
+                    content.setLength(0);
+                } else {
+                    content.append(line).append('\n');
+                }
+            }
+            result.set(section, content);
+            if (result.repeat == null || result.repeat.isEmpty()) {
+                throw new IllegalArgumentException(name + ": 缺少 repeat 段");
+            }
+            return result;
+        }
+
+        private void set(String section, StringBuilder content) {
+            // 去掉标记行之前的换行
+            String value = content.length() > 0 ? content.substring(0, content.length() - 1) : "";
+            switch (section) {
+                case "prefix": prefix = value; break;
+                case "repeat": repeat = value; break;
+                case "middle": middle = value; break;
+                case "close": close = value; break;
+                case "suffix": suffix = value; break;
+                default: throw new IllegalArgumentException(name + ": 未知的段 " + section);
+            }
+        }
+
+        /**
+         * 生成大约 size 个字符的输入
+         */
+        String generate(int size) {
+            int fixed = prefix.length() + middle.length() + suffix.length();
+            int count = Math.max(1, (size - fixed) / (repeat.length() + close.length()));
+            StringBuilder result = new StringBuilder(size + 64);
+            result.append(prefix);
+            for (int i = 0; i < count; i++) {
+                result.append(repeat);
+            }
+            result.append(middle);
+            for (int i = 0; !close.isEmpty() && i < count; i++) {
+                result.append(close);
+            }
+            return result.append(suffix).toString();
+        }
+    }
+}
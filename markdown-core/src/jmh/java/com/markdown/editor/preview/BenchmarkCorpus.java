@@ -0,0 +1,151 @@
+package com.markdown.editor.preview;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试的输入语料
+ * 小文档直接使用 src/jmh/resources/corpus 中的文件；"generated-" 开头的名称
+ * 通过重复 guide.md 生成指定大小的文档，避免把几十MB的文件提交到仓库
+ */
+final class BenchmarkCorpus {
+
+    private static final String RESOURCE_DIR = "/corpus/";
+
+    private static PrintStream originalOut;
+
+    private BenchmarkCorpus() {
+    }
+
+    /**
+     * 按名称加载文档，例如 "note"、"guide"、"generated-1mb"
+     */
+    static String load(String name) {
+        if (name.startsWith("generated-")) {
+            return generate(parseSize(name.substring("generated-".length())));
+        }
+        return readResource(name + ".md");
+    }
+
+    /**
+     * 生成大约 size 个字符的文档：重复 guide.md 的内容，每次重复使用不同的一级标题
+     */
+    static String generate(int size) {
+        String guide = readResource("guide.md");
+        String body = guide.substring(guide.indexOf('\n') + 1);
+        StringBuilder result = new StringBuilder(size + guide.length());
+        for (int part = 1; result.length() < size; part++) {
+            result.append("# 第 ").append(part).append(" 部分\n").append(body).append('\n');
+        }
+        return result.toString();
+    }
+
+    /**
+     * 生成一个 rows 行、columns 列的GFM表格，单元格中带有行内格式
+     */
+    static String table(int rows, int columns) {
+        StringBuilder result = new StringBuilder(rows * columns * 16);
+        result.append("# 表格\n\n|");
+        for (int column = 0; column < columns; column++) {
+            result.append(" 列").append(column).append(" |");
+        }
+        result.append("\n|");
+        for (int column = 0; column < columns; column++) {
+            result.append(column % 2 == 0 ? "------|" : ":----:|");
+        }
+        for (int row = 0; row < rows; row++) {
+            result.append("\n|");
+            for (int column = 0; column < columns; column++) {
+                switch (column % 3) {
+                    case 0: result.append(" **").append(row).append("** |"); break;
+                    case 1: result.append(" `cell-").append(column).append("` |"); break;
+                    default: result.append(" [链接](https://example.com/").append(row).append(") |"); break;
+                }
+            }
+        }
+        return result.append('\n').toString();
+    }
+
+    /**
+     * guide.md 中某种语言的全部代码行（按代码块的语言标注匹配，"generic" 表示没有标注）
+     */
+    static List<String> codeLines(String language) {
+        String fenceInfo = "generic".equals(language) ? "" : language;
+        List<String> lines = new ArrayList<>();
+        boolean inFence = false;
+        boolean matches = false;
+        for (String line : readResource("guide.md").split("\n")) {
+            if (line.startsWith("```")) {
+                matches = !inFence && line.substring(3).trim().equals(fenceInfo);
+                inFence = !inFence;
+            } else if (inFence && matches) {
+                lines.add(line);
+            }
+        }
+        if (lines.isEmpty()) {
+            throw new IllegalArgumentException("语料中没有该语言的代码块: " + language);
+        }
+        return lines;
+    }
+
+    /**
+     * guide.md 中所有段落和列表项的文本，用于行内格式基准
+     */
+    static List<String> inlineLines() {
+        List<String> lines = new ArrayList<>();
+        boolean inFence = false;
+        for (String line : readResource("guide.md").split("\n")) {
+            if (line.startsWith("```")) {
+                inFence = !inFence;
+            } else if (!inFence && !line.isEmpty() && !line.startsWith("#") && !line.startsWith("|")) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * 屏蔽渲染过程中的调试输出，避免控制台输出计入测量结果
+     */
+    static synchronized void muteStdout() {
+        if (originalOut == null) {
+            originalOut = System.out;
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        }
+    }
+
+    static synchronized void restoreStdout() {
+        if (originalOut != null) {
+            System.setOut(originalOut);
+            originalOut = null;
+        }
+    }
+
+    private static int parseSize(String size) {
+        String lower = size.toLowerCase();
+        if (lower.endsWith("mb")) {
+            return Integer.parseInt(lower.substring(0, lower.length() - 2)) * 1024 * 1024;
+        }
+        if (lower.endsWith("kb")) {
+            return Integer.parseInt(lower.substring(0, lower.length() - 2)) * 1024;
+        }
+        return Integer.parseInt(lower);
+    }
+
+    private static String readResource(String fileName) {
+        try (InputStream in = BenchmarkCorpus.class.getResourceAsStream(RESOURCE_DIR + fileName)) {
+            if (in == null) {
+                throw new IllegalArgumentException("找不到语料文件: " + fileName);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
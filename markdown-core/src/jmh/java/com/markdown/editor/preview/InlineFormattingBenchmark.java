@@ -0,0 +1,47 @@
+package com.markdown.editor.preview;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 正则引擎的行内格式处理（粗体、斜体、链接、行内代码），每次调用处理 guide.md 中的全部段落行
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class InlineFormattingBenchmark {
+
+    private List<String> lines;
+    private MarkdownProcessor processor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkCorpus.muteStdout();
+        lines = BenchmarkCorpus.inlineLines();
+        processor = new MarkdownProcessor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        processor.dispose();
+        BenchmarkCorpus.restoreStdout();
+    }
+
+    @Benchmark
+    public void processInlineFormatting(Blackhole blackhole) {
+        for (String line : lines) {
+            blackhole.consume(processor.processInlineFormatting(line));
+        }
+    }
+}
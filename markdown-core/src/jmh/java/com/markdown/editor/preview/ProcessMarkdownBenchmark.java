@@ -0,0 +1,61 @@
+package com.markdown.editor.preview;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 完整渲染一篇文档（MarkdownProcessor.processMarkdown）的吞吐量
+ * 每次调用都使用新的处理器，AST引擎不会命中增量解析缓存；不设时间预算，测量的是完整渲染
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ProcessMarkdownBenchmark {
+
+    @Param({"note", "guide", "generated-100kb", "generated-1mb", "generated-10mb"})
+    public String corpus;
+
+    @Param({"REGEX", "AST"})
+    public RenderEngine engine;
+
+    private String markdown;
+    private MarkdownProcessor processor;
+
+    @Setup(Level.Trial)
+    public void loadCorpus() {
+        BenchmarkCorpus.muteStdout();
+        markdown = BenchmarkCorpus.load(corpus);
+    }
+
+    @Setup(Level.Invocation)
+    public void createProcessor() {
+        processor = new MarkdownProcessor();
+        processor.setRenderEngine(engine);
+        processor.setRenderBudgetMillis(RenderBudget.UNLIMITED);
+    }
+
+    @TearDown(Level.Invocation)
+    public void disposeProcessor() {
+        processor.dispose();
+    }
+
+    @TearDown(Level.Trial)
+    public void restoreOutput() {
+        BenchmarkCorpus.restoreStdout();
+    }
+
+    @Benchmark
+    public String processMarkdown() {
+        return processor.processMarkdown(markdown);
+    }
+}
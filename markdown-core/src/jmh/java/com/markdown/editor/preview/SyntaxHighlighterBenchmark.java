@@ -0,0 +1,51 @@
+package com.markdown.editor.preview;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 各语言代码块的逐行高亮（包括缩进处理和高亮后的转义），每次调用处理该语言的全部示例代码行
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SyntaxHighlighterBenchmark {
+
+    @Param({"java", "javascript", "python", "html", "css", "json", "generic"})
+    public String language;
+
+    private List<String> lines;
+    private MarkdownProcessor processor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkCorpus.muteStdout();
+        lines = BenchmarkCorpus.codeLines(language);
+        processor = new MarkdownProcessor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        processor.dispose();
+        BenchmarkCorpus.restoreStdout();
+    }
+
+    @Benchmark
+    public void highlight(Blackhole blackhole) {
+        for (String line : lines) {
+            blackhole.consume(processor.applySyntaxHighlighting(line, language));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.markdown.editor.preview;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 只包含一个大表格的文档的渲染耗时，单元格中带有粗体、行内代码和链接
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TableRenderingBenchmark {
+
+    @Param({"100", "10000"})
+    public int rows;
+
+    @Param({"6"})
+    public int columns;
+
+    @Param({"REGEX", "AST"})
+    public RenderEngine engine;
+
+    private String markdown;
+    private MarkdownProcessor processor;
+
+    @Setup(Level.Trial)
+    public void generateTable() {
+        BenchmarkCorpus.muteStdout();
+        markdown = BenchmarkCorpus.table(rows, columns);
+    }
+
+    @Setup(Level.Invocation)
+    public void createProcessor() {
+        processor = new MarkdownProcessor();
+        processor.setRenderEngine(engine);
+        processor.setRenderBudgetMillis(RenderBudget.UNLIMITED);
+    }
+
+    @TearDown(Level.Invocation)
+    public void disposeProcessor() {
+        processor.dispose();
+    }
+
+    @TearDown(Level.Trial)
+    public void restoreOutput() {
+        BenchmarkCorpus.restoreStdout();
+    }
+
+    @Benchmark
+    public String renderTable() {
+        return processor.processMarkdown(markdown);
+    }
+}
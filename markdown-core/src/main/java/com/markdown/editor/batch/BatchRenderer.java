@@ -0,0 +1,228 @@
+package com.markdown.editor.batch;
+
+import com.markdown.editor.preview.MarkdownProcessor;
+import com.markdown.editor.preview.PreviewStyles;
+import com.markdown.editor.preview.RenderBudget;
+import com.markdown.editor.preview.RenderEngine;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 无界面的批量渲染器
+ * 把输入目录下的全部Markdown文件渲染为输出目录中相同相对路径的 .html 文件，输出与插件预览一致。
+ * 文件在多个线程上并行渲染（每个线程一个处理器），内容哈希与上一次运行的清单相同的文件直接跳过，
+ * 每个文件渲染完成后立即写入磁盘，不在内存中累积结果
+ *
+ * <pre>
+ * java -jar markdown-batch-renderer.jar &lt;输入目录&gt; &lt;输出目录&gt; [--threads=N] [--engine=REGEX|AST] [--force]
+ * </pre>
+ */
+public class BatchRenderer {
+
+    /** 输出目录中清单文件的名称 */
+    public static final String MANIFEST_FILE = ".markdown-render-manifest";
+
+    private final Path inputDir;
+    private final Path outputDir;
+    private final int threads;
+    private final RenderEngine engine;
+    private final boolean force;
+
+    /**
+     * @param threads 渲染线程数，小于等于0时使用CPU核数
+     * @param force 为true时忽略清单，重新渲染全部文件
+     */
+    public BatchRenderer(Path inputDir, Path outputDir, int threads, RenderEngine engine, boolean force) {
+        this.inputDir = inputDir.toAbsolutePath().normalize();
+        this.outputDir = outputDir.toAbsolutePath().normalize();
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.engine = engine != null ? engine : RenderEngine.REGEX;
+        this.force = force;
+    }
+
+    public static void main(String[] args) {
+        List<String> paths = new ArrayList<>();
+        int threads = 0;
+        RenderEngine engine = RenderEngine.REGEX;
+        boolean force = false;
+        try {
+            for (String arg : args) {
+                if (arg.startsWith("--threads=")) {
+                    threads = Integer.parseInt(arg.substring("--threads=".length()));
+                } else if (arg.startsWith("--engine=")) {
+                    engine = RenderEngine.valueOf(arg.substring("--engine=".length()).toUpperCase(Locale.ROOT));
+                } else if (arg.equals("--force")) {
+                    force = true;
+                } else if (arg.startsWith("--")) {
+                    throw new IllegalArgumentException("未知的选项 " + arg);
+                } else {
+                    paths.add(arg);
+                }
+            }
+            if (paths.size() != 2) {
+                throw new IllegalArgumentException("需要输入目录和输出目录");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("❌ " + e.getMessage());
+            System.err.println("用法: BatchRenderer <输入目录> <输出目录> [--threads=N] [--engine=REGEX|AST] [--force]");
+            System.exit(2);
+            return;
+        }
+
+        try {
+            RenderSummary summary = new BatchRenderer(Paths.get(paths.get(0)), Paths.get(paths.get(1)), threads, engine, force).run();
+            System.out.println(summary);
+            if (summary.getFailed() > 0) {
+                System.exit(1);
+            }
+        } catch (IOException e) {
+            System.err.println("❌ 批量渲染失败: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * 渲染全部文件并更新清单；单个文件失败不会中止其他文件
+     */
+    public RenderSummary run() throws IOException {
+        if (!Files.isDirectory(inputDir)) {
+            throw new IOException("输入目录不存在: " + inputDir);
+        }
+        long start = System.nanoTime();
+        List<Path> sources = collectSources();
+        Path manifestFile = outputDir.resolve(MANIFEST_FILE);
+        RenderManifest manifest = RenderManifest.load(manifestFile, configuration());
+
+        AtomicInteger rendered = new AtomicInteger();
+        AtomicInteger skipped = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicLong renderedBytes = new AtomicLong();
+
+        // 渲染核心的调试输出在批量模式下没有意义，还会让多个线程争用控制台
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        Queue<MarkdownProcessor> processors = new ConcurrentLinkedQueue<>();
+        ThreadLocal<MarkdownProcessor> processor = ThreadLocal.withInitial(() -> {
+            MarkdownProcessor created = new MarkdownProcessor();
+            created.setRenderEngine(engine);
+            created.setRenderBudgetMillis(RenderBudget.UNLIMITED);
+            created.setFoldLinks(false);
+            processors.add(created);
+            return created;
+        });
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "markdown-batch-render");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>(sources.size());
+            for (Path source : sources) {
+                futures.add(pool.submit(() -> {
+                    String relativePath = relativePath(source);
+                    try {
+                        byte[] content = Files.readAllBytes(source);
+                        String hash = RenderManifest.hash(content);
+                        Path target = targetFor(relativePath);
+                        if (!force && manifest.isUnchanged(relativePath, hash) && Files.exists(target)) {
+                            skipped.incrementAndGet();
+                            return;
+                        }
+                        String html = PreviewStyles.standalonePage(
+                                processor.get().processMarkdown(new String(content, StandardCharsets.UTF_8)));
+                        OutputFiles.write(target, html);
+                        manifest.put(relativePath, hash);
+                        rendered.incrementAndGet();
+                        renderedBytes.addAndGet(content.length);
+                    } catch (IOException | RuntimeException e) {
+                        manifest.remove(relativePath);
+                        failed.incrementAndGet();
+                        System.err.println("❌ 渲染失败 " + relativePath + ": " + e.getMessage());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    failed.incrementAndGet();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("批量渲染被中断", e);
+        } finally {
+            pool.shutdownNow();
+            processors.forEach(MarkdownProcessor::dispose);
+            System.setOut(out);
+        }
+
+        removeStaleOutputs(manifest, sources);
+        manifest.save(manifestFile);
+        return new RenderSummary(sources.size(), rendered.get(), skipped.get(), failed.get(),
+                renderedBytes.get(), System.nanoTime() - start, false);
+    }
+
+    private List<Path> collectSources() throws IOException {
+        try (Stream<Path> files = Files.walk(inputDir)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(file -> !file.startsWith(outputDir))
+                    .filter(BatchRenderer::isMarkdownFile)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * 删除已经不存在的源文件对应的输出
+     */
+    private void removeStaleOutputs(RenderManifest manifest, List<Path> sources) throws IOException {
+        Set<String> current = new HashSet<>();
+        for (Path source : sources) {
+            current.add(relativePath(source));
+        }
+        for (String path : new ArrayList<>(manifest.getPaths())) {
+            if (!current.contains(path)) {
+                Files.deleteIfExists(targetFor(path));
+                manifest.remove(path);
+            }
+        }
+    }
+
+    private String configuration() {
+        return "renderer=" + MarkdownProcessor.RENDERER_VERSION + " engine=" + engine + " page=styled";
+    }
+
+    private String relativePath(Path source) {
+        return inputDir.relativize(source).toString().replace('\\', '/');
+    }
+
+    private Path targetFor(String relativePath) {
+        return OutputFiles.targetFor(outputDir, relativePath);
+    }
+
+    private static boolean isMarkdownFile(Path file) {
+        return OutputFiles.isMarkdownPath(file.getFileName().toString());
+    }
+}
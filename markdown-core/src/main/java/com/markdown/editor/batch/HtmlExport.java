@@ -0,0 +1,197 @@
+package com.markdown.editor.batch;
+
+import com.markdown.editor.preview.MarkdownProcessor;
+import com.markdown.editor.preview.PreviewStyles;
+import com.markdown.editor.preview.RenderBudget;
+import com.markdown.editor.preview.RenderEngine;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 把一组Markdown文件增量导出为互相链接的HTML页面
+ * 与 BatchRenderer 相比，导出会把页面之间的 .md 链接改写为 .html，因此页面的输出还取决于被链接的文件是否存在：
+ * 除了内容哈希变化的文件，链接到新增或删除文件的页面也会重新导出。
+ * 文件在调用方提供的（有界）线程池上并行渲染，取消后已完成的文件仍然写入清单，下次导出从中断处继续
+ */
+public class HtmlExport {
+
+    /** 输出目录中清单文件的名称 */
+    public static final String MANIFEST_FILE = ".markdown-export-manifest";
+
+    /**
+     * 待导出的文件
+     */
+    public interface Source {
+        /** 相对导出根目录的路径，使用 / 分隔 */
+        String getPath();
+
+        /** 读取当前内容（可能来自尚未保存的编辑器），在线程池中调用 */
+        String readText() throws IOException;
+    }
+
+    /**
+     * 进度回调，在线程池中调用
+     */
+    public interface Progress {
+        boolean isCanceled();
+
+        void fileDone(String path, int done, int total);
+    }
+
+    private final Path outputDir;
+    private final RenderEngine engine;
+    private final Executor executor;
+
+    public HtmlExport(Path outputDir, RenderEngine engine, Executor executor) {
+        this.outputDir = outputDir.toAbsolutePath().normalize();
+        this.engine = engine != null ? engine : RenderEngine.REGEX;
+        this.executor = executor;
+    }
+
+    /**
+     * 导出全部文件、删除已不存在的源文件对应的页面并保存清单
+     */
+    public RenderSummary export(List<? extends Source> sources, Progress progress) throws IOException {
+        long start = System.nanoTime();
+        Path manifestFile = outputDir.resolve(MANIFEST_FILE);
+        RenderManifest manifest = RenderManifest.load(manifestFile, configuration());
+
+        Set<String> currentPaths = new HashSet<>();
+        for (Source source : sources) {
+            currentPaths.add(source.getPath());
+        }
+        // 与上一次导出相比新增或删除的文件，链接到它们的页面需要重新改写链接
+        Set<String> appearedOrRemoved = new HashSet<>(currentPaths);
+        appearedOrRemoved.removeAll(manifest.getPaths());
+        for (String previous : manifest.getPaths()) {
+            if (!currentPaths.contains(previous)) {
+                appearedOrRemoved.add(previous);
+            }
+        }
+
+        AtomicInteger done = new AtomicInteger();
+        AtomicInteger rendered = new AtomicInteger();
+        AtomicInteger skipped = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicLong renderedBytes = new AtomicLong();
+        Queue<MarkdownProcessor> processors = new ConcurrentLinkedQueue<>();
+        List<MarkdownProcessor> created = new ArrayList<>();
+
+        CompletionService<Void> completion = new ExecutorCompletionService<>(executor);
+        for (Source source : sources) {
+            completion.submit(() -> {
+                if (progress.isCanceled()) {
+                    return null;
+                }
+                String path = source.getPath();
+                try {
+                    byte[] content = source.readText().getBytes(StandardCharsets.UTF_8);
+                    String hash = RenderManifest.hash(content);
+                    Path target = OutputFiles.targetFor(outputDir, path);
+                    if (manifest.isUnchanged(path, hash) && Files.exists(target)
+                            && !linksAny(manifest.getLinks(path), appearedOrRemoved)) {
+                        skipped.incrementAndGet();
+                    } else {
+                        MarkdownProcessor processor = processors.poll();
+                        if (processor == null) {
+                            processor = createProcessor(created);
+                        }
+                        try {
+                            String html = PreviewStyles.standalonePage(
+                                    processor.processMarkdown(new String(content, StandardCharsets.UTF_8)));
+                            LinkRewriter.Result result = LinkRewriter.rewrite(html, path, currentPaths);
+                            OutputFiles.write(target, result.html);
+                            manifest.put(path, hash, result.linkedPaths);
+                        } finally {
+                            processors.add(processor);
+                        }
+                        rendered.incrementAndGet();
+                        renderedBytes.addAndGet(content.length);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    manifest.remove(path);
+                    failed.incrementAndGet();
+                    System.err.println("❌ 导出失败 " + path + ": " + e.getMessage());
+                }
+                progress.fileDone(path, done.incrementAndGet(), sources.size());
+                return null;
+            });
+        }
+
+        try {
+            for (int i = 0; i < sources.size(); i++) {
+                try {
+                    completion.take().get();
+                } catch (ExecutionException e) {
+                    failed.incrementAndGet();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("导出被中断", e);
+        } finally {
+            synchronized (created) {
+                created.forEach(MarkdownProcessor::dispose);
+            }
+        }
+
+        boolean canceled = progress.isCanceled();
+        if (!canceled) {
+            removeStaleOutputs(manifest, currentPaths);
+        }
+        manifest.save(manifestFile);
+        return new RenderSummary(sources.size(), rendered.get(), skipped.get(), failed.get(),
+                renderedBytes.get(), System.nanoTime() - start, canceled);
+    }
+
+    private MarkdownProcessor createProcessor(List<MarkdownProcessor> created) {
+        MarkdownProcessor processor = new MarkdownProcessor();
+        processor.setRenderEngine(engine);
+        processor.setRenderBudgetMillis(RenderBudget.UNLIMITED);
+        processor.setFoldLinks(false);
+        synchronized (created) {
+            created.add(processor);
+        }
+        return processor;
+    }
+
+    private void removeStaleOutputs(RenderManifest manifest, Set<String> currentPaths) throws IOException {
+        for (String path : new ArrayList<>(manifest.getPaths())) {
+            if (!currentPaths.contains(path)) {
+                Files.deleteIfExists(OutputFiles.targetFor(outputDir, path));
+                manifest.remove(path);
+            }
+        }
+    }
+
+    private static boolean linksAny(List<String> links, Set<String> paths) {
+        if (paths.isEmpty()) {
+            return false;
+        }
+        for (String link : links) {
+            if (paths.contains(link)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String configuration() {
+        return "renderer=" + MarkdownProcessor.RENDERER_VERSION + " engine=" + engine + " links=html" + " page=styled";
+    }
+}
@@ -0,0 +1,139 @@
+package com.markdown.editor.batch;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 导出时改写页面之间的相对链接
+ * 渲染结果中指向其他Markdown文件的相对链接（例如 href="../guide/setup.md#install"），
+ * 目标文件也在本次导出中时改为对应的 .html；同时记录页面链接到的全部Markdown路径，
+ * 目标文件增删时据此找出需要重新导出的页面
+ */
+final class LinkRewriter {
+
+    private static final String HREF = "href=\"";
+
+    private LinkRewriter() {
+    }
+
+    /**
+     * 改写结果
+     */
+    static final class Result {
+        final String html;
+        /** 链接到的Markdown文件（相对导出根目录，不论是否存在） */
+        final List<String> linkedPaths;
+
+        Result(String html, List<String> linkedPaths) {
+            this.html = html;
+            this.linkedPaths = linkedPaths;
+        }
+    }
+
+    /**
+     * @param pagePath 当前页面的相对路径
+     * @param exportedPaths 本次导出的全部Markdown文件
+     */
+    static Result rewrite(String html, String pagePath, Set<String> exportedPaths) {
+        Set<String> linked = new LinkedHashSet<>();
+        StringBuilder result = null;
+        int copied = 0;
+        int from = 0;
+        while (true) {
+            int start = html.indexOf(HREF, from);
+            if (start < 0) {
+                break;
+            }
+            int valueStart = start + HREF.length();
+            int valueEnd = html.indexOf('"', valueStart);
+            if (valueEnd < 0) {
+                break;
+            }
+            from = valueEnd + 1;
+
+            String href = html.substring(valueStart, valueEnd);
+            int suffixStart = suffixStart(href);
+            String target = href.substring(0, suffixStart);
+            if (!isRelative(target) || !OutputFiles.isMarkdownPath(target)) {
+                continue;
+            }
+            String resolved = resolve(pagePath, target);
+            if (resolved == null) {
+                continue;
+            }
+            linked.add(resolved);
+            if (exportedPaths.contains(resolved)) {
+                if (result == null) {
+                    result = new StringBuilder(html.length() + 64);
+                }
+                result.append(html, copied, valueStart)
+                      .append(OutputFiles.htmlPath(target))
+                      .append(href, suffixStart, href.length());
+                copied = valueEnd;
+            }
+        }
+        String rewritten = result == null ? html : result.append(html, copied, html.length()).toString();
+        return new Result(rewritten, new ArrayList<>(linked));
+    }
+
+    /**
+     * 链接中锚点或查询参数开始的位置
+     */
+    private static int suffixStart(String href) {
+        for (int i = 0; i < href.length(); i++) {
+            char c = href.charAt(i);
+            if (c == '#' || c == '?') {
+                return i;
+            }
+        }
+        return href.length();
+    }
+
+    /**
+     * 不带协议、不以 / 开头的链接视为相对链接
+     */
+    private static boolean isRelative(String target) {
+        if (target.isEmpty() || target.startsWith("/") || target.startsWith("\\")) {
+            return false;
+        }
+        for (int i = 0; i < target.length(); i++) {
+            char c = target.charAt(i);
+            if (c == ':') {
+                return false;
+            }
+            if (c == '/') {
+                break;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 相对于页面所在目录解析链接，越过导出根目录时返回null
+     */
+    static String resolve(String pagePath, String target) {
+        List<String> segments = new ArrayList<>();
+        int slash = pagePath.lastIndexOf('/');
+        if (slash > 0) {
+            for (String segment : pagePath.substring(0, slash).split("/")) {
+                segments.add(segment);
+            }
+        }
+        for (String segment : target.replace('\\', '/').split("/")) {
+            if (segment.isEmpty() || segment.equals(".")) {
+                continue;
+            }
+            if (segment.equals("..")) {
+                if (segments.isEmpty()) {
+                    return null;
+                }
+                segments.remove(segments.size() - 1);
+            } else {
+                segments.add(segment);
+            }
+        }
+        return segments.isEmpty() ? null : String.join("/", segments);
+    }
+}
@@ -0,0 +1,55 @@
+package com.markdown.editor.batch;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+
+/**
+ * 批量输出共用的文件操作
+ */
+final class OutputFiles {
+
+    private OutputFiles() {
+    }
+
+    /**
+     * 先写入同目录下的临时文件再替换，输出目录中不会出现写了一半的页面
+     */
+    static void write(Path target, String html) throws IOException {
+        Path parent = target.getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, target.getFileName().toString(), ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write(html);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 源文件（相对路径）对应的HTML文件
+     */
+    static Path targetFor(Path outputDir, String relativePath) {
+        return outputDir.resolve(htmlPath(relativePath));
+    }
+
+    /**
+     * 把Markdown扩展名替换为 .html
+     */
+    static String htmlPath(String markdownPath) {
+        int dot = markdownPath.lastIndexOf('.');
+        int slash = markdownPath.lastIndexOf('/');
+        return (dot > slash ? markdownPath.substring(0, dot) : markdownPath) + ".html";
+    }
+
+    static boolean isMarkdownPath(String path) {
+        String name = path.toLowerCase(Locale.ROOT);
+        return name.endsWith(".md") || name.endsWith(".markdown") || name.endsWith(".mdown") || name.endsWith(".mkd");
+    }
+}
@@ -0,0 +1,158 @@
+package com.markdown.editor.batch;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 批量渲染的内容哈希清单
+ * 记录每个源文件（相对路径）上一次渲染时的内容哈希，内容未变的文件在下一次运行时跳过。
+ * 清单第一行记录格式版本和渲染配置（渲染器版本、引擎等），配置变化时所有文件都会重新渲染。
+ * 路径之后可以跟该文件链接到的其他Markdown文件（相对输入目录），用于在被链接的文件增删时找出需要重新输出的页面
+ *
+ * <pre>
+ * # markdown-render-manifest v1 renderer=1 engine=REGEX
+ * 9f86d081...	docs/index.md	docs/setup.md	README.md
+ * </pre>
+ */
+public class RenderManifest {
+
+    private static final String HEADER_PREFIX = "# markdown-render-manifest v1 ";
+
+    private final String configuration;
+    private final Map<String, String> hashes = new ConcurrentHashMap<>();
+    private final Map<String, List<String>> links = new ConcurrentHashMap<>();
+
+    /**
+     * @param configuration 影响输出的渲染配置，例如 "renderer=1 engine=REGEX"
+     */
+    public RenderManifest(String configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * 读取清单；文件不存在或格式无法识别时返回空清单。
+     * 配置不同时保留路径但丢弃哈希，所有文件都会重新渲染，已删除的源文件仍能找到对应的输出
+     */
+    public static RenderManifest load(Path file, String configuration) throws IOException {
+        RenderManifest manifest = new RenderManifest(configuration);
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            if (header == null || !header.startsWith(HEADER_PREFIX)) {
+                return manifest;
+            }
+            boolean sameConfiguration = header.equals(HEADER_PREFIX + configuration);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\t");
+                if (fields.length < 2 || fields[0].isEmpty()) {
+                    continue;
+                }
+                manifest.hashes.put(fields[1], sameConfiguration ? fields[0] : "");
+                if (fields.length > 2) {
+                    manifest.links.put(fields[1], List.of(Arrays.copyOfRange(fields, 2, fields.length)));
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // 第一次运行
+        }
+        return manifest;
+    }
+
+    /**
+     * 按路径排序写入清单，先写临时文件再替换，中途失败不会留下损坏的清单
+     */
+    public void save(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write(HEADER_PREFIX + configuration);
+            writer.newLine();
+            for (Map.Entry<String, String> entry : new TreeMap<>(hashes).entrySet()) {
+                writer.write(entry.getValue());
+                writer.write('\t');
+                writer.write(entry.getKey());
+                for (String link : getLinks(entry.getKey())) {
+                    writer.write('\t');
+                    writer.write(link);
+                }
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 文件内容与上一次渲染时是否相同
+     */
+    public boolean isUnchanged(String relativePath, String hash) {
+        return hash.equals(hashes.get(relativePath));
+    }
+
+    public void put(String relativePath, String hash) {
+        hashes.put(relativePath, hash);
+        links.remove(relativePath);
+    }
+
+    /**
+     * @param linkedPaths 该文件链接到的Markdown文件（相对路径，无论目标是否存在）
+     */
+    public void put(String relativePath, String hash, List<String> linkedPaths) {
+        hashes.put(relativePath, hash);
+        if (linkedPaths.isEmpty()) {
+            links.remove(relativePath);
+        } else {
+            links.put(relativePath, List.copyOf(linkedPaths));
+        }
+    }
+
+    public void remove(String relativePath) {
+        hashes.remove(relativePath);
+        links.remove(relativePath);
+    }
+
+    /**
+     * 上一次渲染时该文件链接到的Markdown文件
+     */
+    public List<String> getLinks(String relativePath) {
+        return links.getOrDefault(relativePath, Collections.emptyList());
+    }
+
+    public Set<String> getPaths() {
+        return Collections.unmodifiableSet(hashes.keySet());
+    }
+
+    /**
+     * 内容的SHA-256哈希（十六进制）
+     */
+    public static String hash(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder result = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                result.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return result.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+}
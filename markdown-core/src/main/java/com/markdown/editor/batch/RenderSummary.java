@@ -0,0 +1,70 @@
+package com.markdown.editor.batch;
+
+import java.util.Locale;
+
+/**
+ * 一次批量渲染或导出的统计
+ */
+public final class RenderSummary {
+    private final int total;
+    private final int rendered;
+    private final int skipped;
+    private final int failed;
+    private final long renderedBytes;
+    private final long elapsedNanos;
+    private final boolean canceled;
+
+    RenderSummary(int total, int rendered, int skipped, int failed, long renderedBytes, long elapsedNanos,
+                  boolean canceled) {
+        this.total = total;
+        this.rendered = rendered;
+        this.skipped = skipped;
+        this.failed = failed;
+        this.renderedBytes = renderedBytes;
+        this.elapsedNanos = elapsedNanos;
+        this.canceled = canceled;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getRendered() {
+        return rendered;
+    }
+
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    /** 是否在完成前被取消（已完成的文件仍然记录在清单中） */
+    public boolean isCanceled() {
+        return canceled;
+    }
+
+    /** 每秒渲染的文件数（不含跳过的文件） */
+    public double getFilesPerSecond() {
+        return rendered / seconds();
+    }
+
+    /** 每秒渲染的输入字节数（MB） */
+    public double getMegabytesPerSecond() {
+        return renderedBytes / (1024.0 * 1024.0) / seconds();
+    }
+
+    private double seconds() {
+        return Math.max(elapsedNanos, 1) / 1e9;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "%s 共 %d 个文件%s: 渲染 %d, 跳过 %d, 失败 %d, 用时 %.2fs, %.1f 文件/秒, %.2f MB/秒",
+                failed > 0 || canceled ? "⚠️" : "✅", total, canceled ? " (已取消)" : "",
+                rendered, skipped, failed, seconds(), getFilesPerSecond(), getMegabytesPerSecond());
+    }
+}
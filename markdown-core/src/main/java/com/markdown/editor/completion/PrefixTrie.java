@@ -0,0 +1,197 @@
+package com.markdown.editor.completion;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * 按前缀查找的字典树，一个键可以对应多个值
+ * 子节点按字符排序保存在数组中，查找时二分；按前缀收集时按字典序深度优先遍历，
+ * 达到数量上限即停止，因此查找的开销只与前缀长度、键长和返回的数量有关，与树的大小无关。
+ * 不是线程安全的，调用方负责同步
+ */
+public final class PrefixTrie<V> {
+
+    private static final char[] NO_LABELS = new char[0];
+
+    private static final class Node {
+        char[] labels = NO_LABELS;
+        Node[] children;
+        // 没有值时为null，一个值时为值本身，多个值时为ValueList
+        Object values;
+
+        Node child(char c) {
+            int index = Arrays.binarySearch(labels, c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node getOrCreateChild(char c) {
+            int index = Arrays.binarySearch(labels, c);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insert = -index - 1;
+            int count = labels.length;
+            char[] newLabels = new char[count + 1];
+            Node[] newChildren = new Node[count + 1];
+            System.arraycopy(labels, 0, newLabels, 0, insert);
+            newLabels[insert] = c;
+            System.arraycopy(labels, insert, newLabels, insert + 1, count - insert);
+            if (children != null) {
+                System.arraycopy(children, 0, newChildren, 0, insert);
+                System.arraycopy(children, insert, newChildren, insert + 1, count - insert);
+            }
+            Node child = new Node();
+            newChildren[insert] = child;
+            labels = newLabels;
+            children = newChildren;
+            return child;
+        }
+
+        void removeChild(char c) {
+            int index = Arrays.binarySearch(labels, c);
+            if (index < 0) {
+                return;
+            }
+            int count = labels.length;
+            if (count == 1) {
+                labels = NO_LABELS;
+                children = null;
+                return;
+            }
+            char[] newLabels = new char[count - 1];
+            Node[] newChildren = new Node[count - 1];
+            System.arraycopy(labels, 0, newLabels, 0, index);
+            System.arraycopy(labels, index + 1, newLabels, index, count - index - 1);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(children, index + 1, newChildren, index, count - index - 1);
+            labels = newLabels;
+            children = newChildren;
+        }
+
+        boolean isEmpty() {
+            return values == null && labels.length == 0;
+        }
+    }
+
+    private final Node root = new Node();
+    private int size;
+
+    /**
+     * 添加一个键值对，同一键值对重复添加时会保存多份
+     */
+    public void add(String key, V value) {
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.getOrCreateChild(key.charAt(i));
+        }
+        if (node.values == null) {
+            node.values = value;
+        } else if (node.values instanceof ValueList) {
+            ((ValueList) node.values).items.add(value);
+        } else {
+            ValueList list = new ValueList();
+            list.items.add(node.values);
+            list.items.add(value);
+            node.values = list;
+        }
+        size++;
+    }
+
+    /**
+     * 删除一个键值对，并删除因此变空的节点
+     * @return 是否找到并删除
+     */
+    public boolean remove(String key, V value) {
+        Node[] path = new Node[key.length() + 1];
+        Node node = root;
+        path[0] = node;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.child(key.charAt(i));
+            if (node == null) {
+                return false;
+            }
+            path[i + 1] = node;
+        }
+        if (node.values == null) {
+            return false;
+        }
+        if (node.values instanceof ValueList) {
+            List<Object> items = ((ValueList) node.values).items;
+            if (!items.remove(value)) {
+                return false;
+            }
+            if (items.size() == 1) {
+                node.values = items.get(0);
+            }
+        } else if (node.values.equals(value)) {
+            node.values = null;
+        } else {
+            return false;
+        }
+        size--;
+        for (int i = key.length(); i > 0 && path[i].isEmpty(); i--) {
+            path[i - 1].removeChild(key.charAt(i - 1));
+        }
+        return true;
+    }
+
+    /**
+     * 收集以prefix开头的键对应的值，按键的字典序
+     * @param limit 最多返回的数量
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> collect(String prefix, int limit) {
+        List<V> result = new ArrayList<>(Math.min(limit, 64));
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i));
+        }
+        if (node == null || limit <= 0) {
+            return result;
+        }
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(node);
+        while (!stack.isEmpty()) {
+            Node current = stack.pop();
+            if (current.values instanceof ValueList) {
+                for (Object value : ((ValueList) current.values).items) {
+                    result.add((V) value);
+                    if (result.size() >= limit) {
+                        return result;
+                    }
+                }
+            } else if (current.values != null) {
+                result.add((V) current.values);
+                if (result.size() >= limit) {
+                    return result;
+                }
+            }
+            if (current.children != null) {
+                for (int i = current.children.length - 1; i >= 0; i--) {
+                    stack.push(current.children[i]);
+                }
+            }
+        }
+        return result;
+    }
+
+    /** 键值对的数量 */
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        root.labels = NO_LABELS;
+        root.children = null;
+        root.values = null;
+        size = 0;
+    }
+
+    // 与值本身区分开，值也可能是List
+    private static final class ValueList {
+        final List<Object> items = new ArrayList<>(2);
+    }
+}
@@ -0,0 +1,87 @@
+package com.markdown.editor.links;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 通过HTTP请求检查外部链接，只检查 http/https 链接
+ * 同一个地址在一次检查中只请求一次：并发的检查线程等待第一次请求的结果
+ */
+public class HttpLinkProbe implements LinkChecker.ExternalProbe {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final String INTERRUPTED = "检查被中断";
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(TIMEOUT)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+    private final ConcurrentMap<String, CompletableFuture<String>> results = new ConcurrentHashMap<>();
+
+    @Override
+    public String probe(String url) {
+        int hash = url.indexOf('#');
+        String address = hash >= 0 ? url.substring(0, hash) : url;
+        String lower = address.toLowerCase(Locale.ROOT);
+        if (!lower.startsWith("http://") && !lower.startsWith("https://")) {
+            return null;
+        }
+        CompletableFuture<String> result = new CompletableFuture<>();
+        CompletableFuture<String> existing = results.putIfAbsent(address, result);
+        if (existing != null) {
+            return existing.join();
+        }
+        // 无论请求如何结束都要完成result，否则等待同一地址的线程会一直阻塞
+        try {
+            String problem = request(address);
+            result.complete(problem);
+            return problem;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            // 中断不是链接的问题，不保留结果，下一次检查重新请求
+            results.remove(address, result);
+            result.complete(INTERRUPTED);
+            return INTERRUPTED;
+        } catch (RuntimeException | Error e) {
+            results.remove(address, result);
+            result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private String request(String address) throws InterruptedException {
+        try {
+            URI uri = URI.create(address);
+            int status = send(uri, "HEAD");
+            // 有些服务器不支持HEAD
+            if (status == 405 || status == 501) {
+                status = send(uri, "GET");
+            }
+            return status >= 400 ? "HTTP " + status : null;
+        } catch (IllegalArgumentException e) {
+            return "地址格式错误";
+        } catch (IOException | UncheckedIOException e) {
+            return e.getClass().getSimpleName();
+        }
+    }
+
+    /**
+     * 发送一次请求并返回状态码
+     */
+    int send(URI uri, String method) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(TIMEOUT)
+                .method(method, HttpRequest.BodyPublishers.noBody())
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,125 @@
+package com.markdown.editor.links;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 图片的尺寸和缩略图
+ * 尺寸只读取文件头，不解码像素；缩略图按比例隔行隔列采样解码，大图也只解码很少的像素
+ */
+public final class ImageInfo {
+
+    // SVG只从根元素的属性中取尺寸
+    private static final Pattern SVG_SIZE = Pattern.compile(
+            "<svg\\b[^>]*?\\bwidth\\s*=\\s*[\"']([0-9.]+)(?:px)?[\"'][^>]*?\\bheight\\s*=\\s*[\"']([0-9.]+)(?:px)?[\"']",
+            Pattern.CASE_INSENSITIVE);
+    private static final int SVG_HEADER_BYTES = 4096;
+
+    /** 尺寸未知、没有缩略图 */
+    public static final ImageInfo UNKNOWN = new ImageInfo(-1, -1, null);
+
+    private final int width;
+    private final int height;
+    private final BufferedImage thumbnail;
+
+    private ImageInfo(int width, int height, BufferedImage thumbnail) {
+        this.width = width;
+        this.height = height;
+        this.thumbnail = thumbnail;
+    }
+
+    /** 图片宽度，未知时为-1 */
+    public int getWidth() {
+        return width;
+    }
+
+    /** 图片高度，未知时为-1 */
+    public int getHeight() {
+        return height;
+    }
+
+    /** 缩略图，格式不支持或没有要求缩略图时为null */
+    public BufferedImage getThumbnail() {
+        return thumbnail;
+    }
+
+    public boolean hasSize() {
+        return width > 0 && height > 0;
+    }
+
+    /**
+     * 读取图片的尺寸，thumbnailSize大于0时同时生成不超过该尺寸的缩略图
+     * @param svg 是否按SVG读取（ImageIO不支持SVG，只读取尺寸）
+     * @return 无法识别的格式返回尺寸未知的结果
+     */
+    public static ImageInfo read(InputStream in, boolean svg, int thumbnailSize) throws IOException {
+        if (svg) {
+            return readSvg(in);
+        }
+        try (ImageInputStream stream = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = stream != null ? ImageIO.getImageReaders(stream) : null;
+            if (readers == null || !readers.hasNext()) {
+                return UNKNOWN;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(stream, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                BufferedImage thumbnail = null;
+                if (thumbnailSize > 0 && width > 0 && height > 0) {
+                    ImageReadParam param = reader.getDefaultReadParam();
+                    // 采样后仍保留约两倍的像素，缩放时更平滑
+                    int step = Math.max(1, Math.max(width, height) / (thumbnailSize * 2));
+                    param.setSourceSubsampling(step, step, 0, 0);
+                    thumbnail = scale(reader.read(0, param), thumbnailSize);
+                }
+                return new ImageInfo(width, height, thumbnail);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static ImageInfo readSvg(InputStream in) throws IOException {
+        byte[] head = in.readNBytes(SVG_HEADER_BYTES);
+        Matcher matcher = SVG_SIZE.matcher(new String(head, StandardCharsets.UTF_8));
+        if (matcher.find()) {
+            try {
+                return new ImageInfo((int) Double.parseDouble(matcher.group(1)),
+                        (int) Double.parseDouble(matcher.group(2)), null);
+            } catch (NumberFormatException e) {
+                // 尺寸未知
+            }
+        }
+        return UNKNOWN;
+    }
+
+    private static BufferedImage scale(BufferedImage image, int size) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double ratio = Math.min(1.0, (double) size / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(height * ratio));
+        BufferedImage result = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = result.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(image, 0, 0, targetWidth, targetHeight, null);
+        } finally {
+            g.dispose();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,288 @@
+package com.markdown.editor.links;
+
+import com.markdown.editor.batch.RenderManifest;
+import com.markdown.editor.outline.DocumentSummary;
+import com.markdown.editor.outline.LinkReference;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 检查Markdown文档中的相对文件链接和 #锚点 是否有效，外部链接可选
+ * 目标文件是否存在、有哪些锚点由调用方的解析器回答（通常来自索引），检查本身不读取其他文件。
+ * 批量检查在调用方提供的线程池上并行进行，每个文件的结果按内容哈希缓存：
+ * 内容不变、链接到的本地目标状态也不变的文件直接复用上一次的结果
+ */
+public class LinkChecker {
+
+    /**
+     * 解析文档中的本地链接，可能在线程池中调用
+     */
+    public interface Resolver {
+        /**
+         * @param link 本地链接，路径不为空
+         */
+        LinkTarget resolve(LinkReference link);
+    }
+
+    /**
+     * 外部链接检查
+     */
+    public interface ExternalProbe {
+        /**
+         * @return 链接有效时返回null，否则返回问题说明
+         */
+        String probe(String url);
+    }
+
+    /**
+     * 待检查的文件，同时负责解析其中的本地链接
+     */
+    public interface Source extends Resolver {
+        /** 文件的唯一路径 */
+        String getPath();
+
+        /** 读取当前内容（可能来自尚未保存的编辑器），在线程池中调用 */
+        String readText() throws IOException;
+    }
+
+    /**
+     * 进度回调，在线程池中调用
+     */
+    public interface Progress {
+        boolean isCanceled();
+
+        void fileDone(String path, int done, int total);
+    }
+
+    /**
+     * 一次批量检查的结果
+     */
+    public static final class Result {
+        private final Map<String, List<LinkProblem>> problems;
+        private final int checked;
+        private final int skipped;
+        private final int failed;
+        private final long elapsedNanos;
+        private final boolean canceled;
+
+        Result(Map<String, List<LinkProblem>> problems, int checked, int skipped, int failed, long elapsedNanos,
+               boolean canceled) {
+            this.problems = problems;
+            this.checked = checked;
+            this.skipped = skipped;
+            this.failed = failed;
+            this.elapsedNanos = elapsedNanos;
+            this.canceled = canceled;
+        }
+
+        /** 有问题的文件及其问题，按路径排序 */
+        public Map<String, List<LinkProblem>> getProblems() {
+            return problems;
+        }
+
+        public int getProblemCount() {
+            int count = 0;
+            for (List<LinkProblem> list : problems.values()) {
+                count += list.size();
+            }
+            return count;
+        }
+
+        public boolean isCanceled() {
+            return canceled;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%d 个文件中发现 %d 个无效链接（检查 %d，未变化跳过 %d，失败 %d，耗时 %.1f 秒）%s",
+                    problems.size(), getProblemCount(), checked, skipped, failed, elapsedNanos / 1e9,
+                    canceled ? "，已取消" : "");
+        }
+    }
+
+    /**
+     * 缓存的单个文件结果，以及结果所依赖的本地目标状态
+     */
+    private static final class Entry {
+        final String hash;
+        final boolean external;
+        final List<LinkReference> dependencies;
+        final List<String> stamps;
+        final List<LinkProblem> problems;
+
+        Entry(String hash, boolean external, List<LinkReference> dependencies, List<String> stamps,
+              List<LinkProblem> problems) {
+            this.hash = hash;
+            this.external = external;
+            this.dependencies = dependencies;
+            this.stamps = stamps;
+            this.problems = problems;
+        }
+
+        boolean isValid(String hash, boolean external, Resolver resolver) {
+            if (!this.hash.equals(hash) || this.external != external) {
+                return false;
+            }
+            for (int i = 0; i < dependencies.size(); i++) {
+                if (!resolver.resolve(dependencies.get(i)).stamp().equals(stamps.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+
+    /**
+     * 检查一个文档，不使用缓存
+     * @param probe 外部链接检查，为null时跳过外部链接
+     * @return 按文档顺序排列的问题
+     */
+    public static List<LinkProblem> check(DocumentSummary summary, Resolver resolver, ExternalProbe probe) {
+        return check(summary, resolver, probe, null, null);
+    }
+
+    private static List<LinkProblem> check(DocumentSummary summary, Resolver resolver, ExternalProbe probe,
+                                           List<LinkReference> dependencies, List<String> stamps) {
+        List<LinkProblem> problems = new ArrayList<>();
+        // 同一路径只解析一次
+        Map<String, LinkTarget> targets = new HashMap<>();
+        LinkTarget self = null;
+        for (LinkReference link : summary.getLinks()) {
+            String path = link.getPath();
+            if (path == null) {
+                if (probe != null) {
+                    String detail = probe.probe(link.getDestination());
+                    if (detail != null) {
+                        problems.add(new LinkProblem(link, LinkProblem.Kind.UNREACHABLE, detail));
+                    }
+                }
+                continue;
+            }
+            LinkTarget target;
+            if (path.isEmpty()) {
+                if (self == null) {
+                    self = LinkTarget.markdown(summary.getAnchors());
+                }
+                target = self;
+            } else {
+                target = targets.get(path);
+                if (target == null) {
+                    target = resolver.resolve(link);
+                    targets.put(path, target);
+                    if (dependencies != null) {
+                        dependencies.add(link);
+                        stamps.add(target.stamp());
+                    }
+                }
+            }
+            if (!target.exists()) {
+                problems.add(new LinkProblem(link, LinkProblem.Kind.MISSING_FILE, null));
+            } else {
+                String fragment = link.getFragment();
+                if (fragment != null && !target.hasAnchor(fragment)) {
+                    problems.add(new LinkProblem(link, LinkProblem.Kind.MISSING_ANCHOR, null));
+                }
+            }
+        }
+        return problems;
+    }
+
+    /**
+     * 并行检查全部文件，内容和依赖的目标都未变化的文件复用上一次的结果
+     * @param probe 外部链接检查，为null时跳过外部链接
+     */
+    public Result checkAll(List<? extends Source> sources, ExternalProbe probe, Executor executor, Progress progress)
+            throws IOException {
+        long start = System.nanoTime();
+        Map<String, List<LinkProblem>> problems = new ConcurrentHashMap<>();
+        AtomicInteger done = new AtomicInteger();
+        AtomicInteger checked = new AtomicInteger();
+        AtomicInteger skipped = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        boolean external = probe != null;
+
+        CompletionService<Void> completion = new ExecutorCompletionService<>(executor);
+        for (Source source : sources) {
+            completion.submit(() -> {
+                if (progress.isCanceled()) {
+                    return null;
+                }
+                String path = source.getPath();
+                try {
+                    String text = source.readText();
+                    String hash = RenderManifest.hash(text.getBytes(StandardCharsets.UTF_8));
+                    Entry entry = cache.get(path);
+                    if (entry != null && entry.isValid(hash, external, source)) {
+                        skipped.incrementAndGet();
+                    } else {
+                        List<LinkReference> dependencies = new ArrayList<>();
+                        List<String> stamps = new ArrayList<>();
+                        List<LinkProblem> found = check(DocumentSummary.scan(text), source, probe, dependencies, stamps);
+                        entry = new Entry(hash, external, dependencies, stamps, Collections.unmodifiableList(found));
+                        cache.put(path, entry);
+                        checked.incrementAndGet();
+                    }
+                    if (!entry.problems.isEmpty()) {
+                        problems.put(path, entry.problems);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    cache.remove(path);
+                    failed.incrementAndGet();
+                    System.err.println("❌ 链接检查失败 " + path + ": " + e.getMessage());
+                }
+                progress.fileDone(path, done.incrementAndGet(), sources.size());
+                return null;
+            });
+        }
+
+        try {
+            for (int i = 0; i < sources.size(); i++) {
+                try {
+                    completion.take().get();
+                } catch (ExecutionException e) {
+                    failed.incrementAndGet();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("链接检查被中断", e);
+        }
+
+        boolean canceled = progress.isCanceled();
+        if (!canceled) {
+            // 丢弃已不存在的文件的结果
+            Set<String> currentPaths = new HashSet<>();
+            for (Source source : sources) {
+                currentPaths.add(source.getPath());
+            }
+            cache.keySet().retainAll(currentPaths);
+        }
+        return new Result(Collections.unmodifiableMap(new TreeMap<>(problems)), checked.get(), skipped.get(),
+                failed.get(), System.nanoTime() - start, canceled);
+    }
+
+    /**
+     * 清空缓存，下一次检查所有文件（例如外部链接恢复后重新检查）
+     */
+    public void clearCache() {
+        cache.clear();
+    }
+}
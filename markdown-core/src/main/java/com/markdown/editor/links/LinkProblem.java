@@ -0,0 +1,58 @@
+package com.markdown.editor.links;
+
+import com.markdown.editor.outline.LinkReference;
+
+/**
+ * 一个无效的链接
+ */
+public final class LinkProblem {
+
+    public enum Kind {
+        /** 本地文件不存在 */
+        MISSING_FILE,
+        /** 目标文件中没有该锚点对应的标题 */
+        MISSING_ANCHOR,
+        /** 外部链接无法访问 */
+        UNREACHABLE
+    }
+
+    private final LinkReference link;
+    private final Kind kind;
+    private final String detail;
+
+    public LinkProblem(LinkReference link, Kind kind, String detail) {
+        this.link = link;
+        this.kind = kind;
+        this.detail = detail;
+    }
+
+    public LinkReference getLink() {
+        return link;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /** 附加说明，例如HTTP状态码，可能为null */
+    public String getDetail() {
+        return detail;
+    }
+
+    public String getMessage() {
+        String what = link.isImage() ? "图片" : "链接";
+        switch (kind) {
+            case MISSING_FILE:
+                return what + "目标不存在: " + link.getDestination();
+            case MISSING_ANCHOR:
+                return "找不到锚点 #" + link.getFragment() + " 对应的标题";
+            default:
+                return "外部" + what + "无法访问: " + link.getDestination() + (detail != null ? " (" + detail + ")" : "");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return link.getOffset() + ": " + getMessage();
+    }
+}
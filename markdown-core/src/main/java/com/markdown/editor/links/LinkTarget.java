@@ -0,0 +1,56 @@
+package com.markdown.editor.links;
+
+import java.util.List;
+
+/**
+ * 本地链接解析的结果：目标不存在、存在但不检查锚点，或者是带有锚点列表的Markdown文件
+ */
+public final class LinkTarget {
+
+    public static final LinkTarget MISSING = new LinkTarget(false, null);
+
+    /** 目标存在，但不是Markdown文件或锚点未知，不检查片段 */
+    public static final LinkTarget EXISTS = new LinkTarget(true, null);
+
+    private final boolean exists;
+    private final List<String> anchors;
+
+    private LinkTarget(boolean exists, List<String> anchors) {
+        this.exists = exists;
+        this.anchors = anchors;
+    }
+
+    public static LinkTarget markdown(List<String> anchors) {
+        return new LinkTarget(true, anchors);
+    }
+
+    public boolean exists() {
+        return exists;
+    }
+
+    /** 目标文件的锚点，不检查片段时为null */
+    public List<String> getAnchors() {
+        return anchors;
+    }
+
+    /**
+     * 片段是否指向目标中存在的标题；不检查片段的目标总是返回true
+     */
+    public boolean hasAnchor(String fragment) {
+        if (anchors == null || fragment.isEmpty()) {
+            return true;
+        }
+        // GitHub的锚点都是小写，浏览器中大小写不同的片段也能跳转
+        return anchors.contains(fragment) || anchors.contains(fragment.toLowerCase());
+    }
+
+    /**
+     * 检查结果所依赖的目标状态，状态不变时缓存的检查结果仍然有效
+     */
+    String stamp() {
+        if (!exists) {
+            return "-";
+        }
+        return anchors == null ? "+" : "#" + anchors.hashCode();
+    }
+}
@@ -0,0 +1,481 @@
+package com.markdown.editor.outline;
+
+import java.util.Arrays;
+
+/**
+ * 按行扫描Markdown的块结构，不构建语法树
+ * 只识别ATX/Setext标题和围栏代码块，其余的块只用来判断下一行能否成为Setext标题；
+ * 接收者需要时，同时在代码块之外的行中查找链接、图片、自动链接和链接定义的目标。
+ * 扫描可以从任意空行之后（且不在代码块内）的行首开始，结果与从文档开头扫描一致，
+ * 调用方在这些行首决定是否提前停止，用于增量维护标题目录
+ */
+public final class BlockScanner {
+
+    /** 当前不在段落中 */
+    private static final int NO_PARAGRAPH = -1;
+    /** 当前在列表、引用等容器块中，后续行不能成为Setext标题 */
+    private static final int IN_CONTAINER = -2;
+
+    /**
+     * 扫描结果的接收者
+     */
+    public interface Sink {
+        /**
+         * @param rawTitle 标题的原始文本（含行内标记）
+         * @param offset 标题起始偏移
+         */
+        void heading(int level, String rawTitle, int offset);
+
+        /**
+         * 围栏代码块，end为结束围栏的下一行行首；没有结束围栏时为文档末尾
+         */
+        default void fence(int start, int end) {
+        }
+
+        /**
+         * 是否需要链接；不需要时跳过行内扫描
+         */
+        default boolean collectsLinks() {
+            return false;
+        }
+
+        /**
+         * 链接或图片的目标
+         * @param destination 目标的原始文本（不含尖括号和标题）
+         * @param offset 目标在文档中的偏移
+         * @param image 是否为图片
+         */
+        default void link(String destination, int offset, boolean image) {
+        }
+    }
+
+    /**
+     * 决定是否在某个行首停止扫描，只在前一行为空行且不在代码块内的行首询问
+     */
+    public interface StopCondition {
+        boolean canStopAt(int lineStart, int previousLineStart);
+    }
+
+    private BlockScanner() {
+    }
+
+    /**
+     * 扫描整个文本
+     */
+    public static void scan(CharSequence text, Sink sink) {
+        scan(text, 0, sink, null);
+    }
+
+    /**
+     * 从from开始扫描，from必须是文档开头或空行之后不在代码块内的行首
+     * @return 停止扫描的行首，扫描到文档末尾时为文本长度
+     */
+    public static int scan(CharSequence text, int from, Sink sink, StopCondition stop) {
+        boolean links = sink.collectsLinks();
+        int length = text.length();
+        int paragraphStart = NO_PARAGRAPH;
+        int fenceStart = -1;
+        char fenceChar = 0;
+        int fenceLength = 0;
+        boolean previousBlank = true;
+        int previousLineStart = -1;
+        // 上一行是否为块开始处连续的链接定义
+        boolean definitions = false;
+
+        int lineStart = from;
+        while (lineStart < length) {
+            if (stop != null && lineStart > from && previousBlank && fenceStart < 0
+                    && stop.canStopAt(lineStart, previousLineStart)) {
+                return lineStart;
+            }
+            int newline = indexOf(text, '\n', lineStart, length);
+            int next = newline < 0 ? length : newline + 1;
+            int contentEnd = newline < 0 ? length : newline;
+            if (contentEnd > lineStart && text.charAt(contentEnd - 1) == '\r') {
+                contentEnd--;
+            }
+            previousLineStart = lineStart;
+            int lineOffset = lineStart;
+            lineStart = next;
+
+            int indent = 0;
+            int pos = lineOffset;
+            while (pos < contentEnd) {
+                char c = text.charAt(pos);
+                if (c == ' ') {
+                    indent++;
+                } else if (c == '\t') {
+                    indent += 4 - indent % 4;
+                } else {
+                    break;
+                }
+                pos++;
+            }
+            boolean blank = pos >= contentEnd;
+
+            if (fenceStart >= 0) {
+                if (!blank && indent < 4 && isClosingFence(text, pos, contentEnd, fenceChar, fenceLength)) {
+                    sink.fence(fenceStart, next);
+                    fenceStart = -1;
+                }
+                previousBlank = false;
+                continue;
+            }
+            if (blank) {
+                paragraphStart = NO_PARAGRAPH;
+                previousBlank = true;
+                definitions = false;
+                continue;
+            }
+            previousBlank = false;
+            boolean afterDefinition = definitions;
+            definitions = false;
+            if (indent >= 4) {
+                // 缩进代码块，或者段落（列表项）的延续行
+                if (links && paragraphStart != NO_PARAGRAPH) {
+                    scanInline(text, pos, contentEnd, false, sink);
+                }
+                continue;
+            }
+
+            char c = text.charAt(pos);
+            if (c == '`' || c == '~') {
+                int run = run(text, pos, contentEnd, c);
+                if (run >= 3 && (c == '~' || indexOf(text, '`', pos + run, contentEnd) < 0)) {
+                    fenceStart = lineOffset;
+                    fenceChar = c;
+                    fenceLength = run;
+                    paragraphStart = NO_PARAGRAPH;
+                    continue;
+                }
+            }
+            if (c == '#') {
+                int run = run(text, pos, contentEnd, '#');
+                if (run <= 6 && (pos + run == contentEnd || isSpace(text.charAt(pos + run)))) {
+                    sink.heading(run, atxTitle(text, pos + run, contentEnd), lineOffset);
+                    if (links) {
+                        scanInline(text, pos + run, contentEnd, false, sink);
+                    }
+                    paragraphStart = NO_PARAGRAPH;
+                    continue;
+                }
+            }
+            if (paragraphStart >= 0 && (c == '=' || c == '-')
+                    && isBlank(text, pos + run(text, pos, contentEnd, c), contentEnd)) {
+                sink.heading(c == '=' ? 1 : 2, setextTitle(text, paragraphStart, lineOffset), paragraphStart);
+                paragraphStart = NO_PARAGRAPH;
+                continue;
+            }
+            if (isThematicBreak(text, pos, contentEnd)) {
+                paragraphStart = NO_PARAGRAPH;
+                continue;
+            }
+            if (links) {
+                // 链接定义不能打断段落，但可以紧跟在另一个链接定义之后
+                definitions = scanInline(text, pos, contentEnd, paragraphStart == NO_PARAGRAPH || afterDefinition, sink);
+            }
+            if (isContainerStart(text, pos, contentEnd)) {
+                paragraphStart = IN_CONTAINER;
+            } else if (paragraphStart == NO_PARAGRAPH) {
+                paragraphStart = lineOffset;
+            }
+        }
+        if (fenceStart >= 0) {
+            sink.fence(fenceStart, length);
+        }
+        return length;
+    }
+
+    /**
+     * 在一行中查找链接 [text](dest)、图片 ![alt](src)、自动链接 <scheme:...> 和链接定义 [id]: dest，
+     * 跳过转义字符和行内代码
+     * @param blockStart 该行是否位于块的开始（可以是链接定义）
+     * @return 该行是否为链接定义
+     */
+    private static boolean scanInline(CharSequence text, int start, int end, boolean blockStart, Sink sink) {
+        if (blockStart && text.charAt(start) == '[') {
+            int close = indexOf(text, ']', start + 1, end);
+            if (close > start + 1 && close + 1 < end && text.charAt(close + 1) == ':') {
+                int destination = skipSpaces(text, close + 2, end);
+                int destinationEnd = destinationEnd(text, destination, end);
+                if (destinationEnd > destination) {
+                    reportDestination(text, destination, destinationEnd, false, sink);
+                    return true;
+                }
+            }
+        }
+        // 尚未配对的左方括号位置
+        int[] brackets = new int[8];
+        int depth = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '`') {
+                int run = run(text, i, end, '`');
+                int close = findBacktickRun(text, i + run, end, run);
+                i = (close < 0 ? i + run : close + run) - 1;
+            } else if (c == '[') {
+                if (depth == brackets.length) {
+                    brackets = Arrays.copyOf(brackets, depth * 2);
+                }
+                brackets[depth++] = i;
+            } else if (c == ']' && depth > 0) {
+                int open = brackets[--depth];
+                if (i + 1 < end && text.charAt(i + 1) == '(') {
+                    int destination = skipSpaces(text, i + 2, end);
+                    int destinationEnd = destinationEnd(text, destination, end);
+                    int close = closingParen(text, destinationEnd, end);
+                    if (close >= 0) {
+                        boolean image = open > start && text.charAt(open - 1) == '!';
+                        reportDestination(text, destination, destinationEnd, image, sink);
+                        i = close;
+                    }
+                }
+            } else if (c == '<') {
+                int close = indexOf(text, '>', i + 1, end);
+                if (close > i + 1 && isAutolink(text, i + 1, close)) {
+                    sink.link(text.subSequence(i + 1, close).toString(), i + 1, false);
+                    i = close;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void reportDestination(CharSequence text, int start, int end, boolean image, Sink sink) {
+        if (text.charAt(start) == '<') {
+            start++;
+            end--;
+        }
+        if (end > start) {
+            sink.link(text.subSequence(start, end).toString(), start, image);
+        }
+    }
+
+    /**
+     * 链接目标的结束位置：<...> 或到空白、不配对的右括号为止，不是有效目标时返回start
+     */
+    private static int destinationEnd(CharSequence text, int start, int end) {
+        if (start >= end) {
+            return start;
+        }
+        if (text.charAt(start) == '<') {
+            int close = indexOf(text, '>', start + 1, end);
+            return close < 0 ? start : close + 1;
+        }
+        int depth = 0;
+        int i = start;
+        while (i < end) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < end) {
+                i += 2;
+                continue;
+            }
+            if (isSpace(c)) {
+                break;
+            }
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                if (depth == 0) {
+                    break;
+                }
+                depth--;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * 目标之后（可能带有标题）的右括号位置，不是有效链接时返回-1
+     */
+    private static int closingParen(CharSequence text, int from, int end) {
+        int i = skipSpaces(text, from, end);
+        if (i < end && (text.charAt(i) == '"' || text.charAt(i) == '\'')) {
+            int close = indexOf(text, text.charAt(i), i + 1, end);
+            if (close < 0) {
+                return -1;
+            }
+            i = skipSpaces(text, close + 1, end);
+        }
+        return i < end && text.charAt(i) == ')' ? i : -1;
+    }
+
+    /**
+     * 自动链接：scheme: 开头且不含空白，例如 <https://example.com>、<mailto:a@b.c>
+     */
+    private static boolean isAutolink(CharSequence text, int start, int end) {
+        int colon = indexOf(text, ':', start, end);
+        if (colon < start + 2 || colon > start + 32 || !Character.isLetter(text.charAt(start))) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (isSpace(c) || c == '<') {
+                return false;
+            }
+            if (i < colon && !(Character.isLetterOrDigit(c) || c == '+' || c == '.' || c == '-')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int findBacktickRun(CharSequence text, int from, int end, int length) {
+        int i = from;
+        while (i < end) {
+            if (text.charAt(i) != '`') {
+                i++;
+                continue;
+            }
+            int run = run(text, i, end, '`');
+            if (run == length) {
+                return i;
+            }
+            i += run;
+        }
+        return -1;
+    }
+
+    private static int skipSpaces(CharSequence text, int from, int end) {
+        int i = from;
+        while (i < end && isSpace(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * ATX标题的文本：去掉首尾空白和结尾的 # 序列
+     */
+    private static String atxTitle(CharSequence text, int start, int end) {
+        while (start < end && isSpace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && isSpace(text.charAt(end - 1))) {
+            end--;
+        }
+        int closing = end;
+        while (closing > start && text.charAt(closing - 1) == '#') {
+            closing--;
+        }
+        if (closing == start) {
+            return "";
+        }
+        if (closing < end && isSpace(text.charAt(closing - 1))) {
+            end = closing;
+            while (end > start && isSpace(text.charAt(end - 1))) {
+                end--;
+            }
+        }
+        return text.subSequence(start, end).toString();
+    }
+
+    /**
+     * Setext标题的文本：段落各行去掉首尾空白后用空格连接
+     */
+    private static String setextTitle(CharSequence text, int start, int end) {
+        StringBuilder title = new StringBuilder();
+        int lineStart = start;
+        while (lineStart < end) {
+            int newline = indexOf(text, '\n', lineStart, end);
+            int lineEnd = newline < 0 ? end : newline;
+            int s = lineStart;
+            int e = lineEnd;
+            while (s < e && Character.isWhitespace(text.charAt(s))) {
+                s++;
+            }
+            while (e > s && Character.isWhitespace(text.charAt(e - 1))) {
+                e--;
+            }
+            if (e > s) {
+                if (title.length() > 0) {
+                    title.append(' ');
+                }
+                title.append(text, s, e);
+            }
+            lineStart = lineEnd + 1;
+        }
+        return title.toString();
+    }
+
+    private static boolean isClosingFence(CharSequence text, int pos, int end, char fenceChar, int fenceLength) {
+        int run = run(text, pos, end, fenceChar);
+        return run >= fenceLength && isBlank(text, pos + run, end);
+    }
+
+    /**
+     * 分隔线：至少三个相同的 * - _，中间只有空白
+     */
+    private static boolean isThematicBreak(CharSequence text, int pos, int end) {
+        char marker = text.charAt(pos);
+        if (marker != '*' && marker != '-' && marker != '_') {
+            return false;
+        }
+        int count = 0;
+        for (int i = pos; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == marker) {
+                count++;
+            } else if (!isSpace(c)) {
+                return false;
+            }
+        }
+        return count >= 3;
+    }
+
+    /**
+     * 引用和列表项的开始
+     */
+    private static boolean isContainerStart(CharSequence text, int pos, int end) {
+        char c = text.charAt(pos);
+        if (c == '>') {
+            return true;
+        }
+        if (c == '-' || c == '*' || c == '+') {
+            return pos + 1 == end || isSpace(text.charAt(pos + 1));
+        }
+        int digits = 0;
+        while (pos + digits < end && digits < 10 && Character.isDigit(text.charAt(pos + digits))) {
+            digits++;
+        }
+        if (digits == 0 || digits > 9 || pos + digits == end) {
+            return false;
+        }
+        char delimiter = text.charAt(pos + digits);
+        int after = pos + digits + 1;
+        return (delimiter == '.' || delimiter == ')') && (after == end || isSpace(text.charAt(after)));
+    }
+
+    private static int run(CharSequence text, int pos, int end, char c) {
+        int i = pos;
+        while (i < end && text.charAt(i) == c) {
+            i++;
+        }
+        return i - pos;
+    }
+
+    private static boolean isBlank(CharSequence text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!isSpace(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t';
+    }
+
+    static int indexOf(CharSequence text, char c, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (text.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
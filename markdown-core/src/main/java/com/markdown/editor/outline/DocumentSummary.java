@@ -0,0 +1,187 @@
+package com.markdown.editor.outline;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 一个Markdown文档的摘要：标题（含锚点）和对外的链接、图片引用
+ * 由块扫描器一次扫描得到，可以写成紧凑的二进制格式保存在索引中。
+ * 格式：标题数、每个标题的级别/偏移增量/文本，链接数、每个链接的标志/偏移增量/目标；
+ * 整数用变长编码，偏移按文档顺序存增量，字符串存UTF-8字节数和字节。
+ * 格式变化时必须增加FORMAT_VERSION，使已有的索引失效
+ */
+public final class DocumentSummary {
+
+    public static final int FORMAT_VERSION = 1;
+
+    public static final DocumentSummary EMPTY = new DocumentSummary(Collections.emptyList(), Collections.emptyList());
+
+    private static final int FLAG_IMAGE = 1;
+
+    private final List<Heading> headings;
+    private final List<LinkReference> links;
+    private volatile List<String> anchors;
+
+    public DocumentSummary(List<Heading> headings, List<LinkReference> links) {
+        this.headings = Collections.unmodifiableList(headings);
+        this.links = Collections.unmodifiableList(links);
+    }
+
+    /**
+     * 扫描文档生成摘要
+     */
+    public static DocumentSummary scan(CharSequence text) {
+        List<Heading> headings = new ArrayList<>();
+        List<LinkReference> links = new ArrayList<>();
+        BlockScanner.scan(text, new BlockScanner.Sink() {
+            @Override
+            public void heading(int level, String rawTitle, int offset) {
+                headings.add(new Heading(level, HeadingSlugger.plainText(rawTitle), offset));
+            }
+
+            @Override
+            public boolean collectsLinks() {
+                return true;
+            }
+
+            @Override
+            public void link(String destination, int offset, boolean image) {
+                links.add(new LinkReference(destination, offset, image));
+            }
+        });
+        if (headings.isEmpty() && links.isEmpty()) {
+            return EMPTY;
+        }
+        return new DocumentSummary(headings, links);
+    }
+
+    /** 标题，按文档顺序 */
+    public List<Heading> getHeadings() {
+        return headings;
+    }
+
+    /** 与标题一一对应的锚点 */
+    public List<String> getAnchors() {
+        List<String> result = anchors;
+        if (result == null) {
+            HeadingSlugger slugger = new HeadingSlugger();
+            result = new ArrayList<>(headings.size());
+            for (Heading heading : headings) {
+                result.add(slugger.slug(heading.getTitle()));
+            }
+            result = Collections.unmodifiableList(result);
+            anchors = result;
+        }
+        return result;
+    }
+
+    /** 链接和图片引用，按文档顺序 */
+    public List<LinkReference> getLinks() {
+        return links;
+    }
+
+    /**
+     * 查找锚点对应的标题，没有时返回null
+     */
+    public Heading findHeading(String anchor) {
+        int index = getAnchors().indexOf(anchor);
+        return index < 0 ? null : headings.get(index);
+    }
+
+    public void write(DataOutput out) throws IOException {
+        writeVarInt(out, headings.size());
+        int previous = 0;
+        for (Heading heading : headings) {
+            out.writeByte(heading.getLevel());
+            writeVarInt(out, heading.getOffset() - previous);
+            writeString(out, heading.getTitle());
+            previous = heading.getOffset();
+        }
+        writeVarInt(out, links.size());
+        previous = 0;
+        for (LinkReference link : links) {
+            out.writeByte(link.isImage() ? FLAG_IMAGE : 0);
+            writeVarInt(out, link.getOffset() - previous);
+            writeString(out, link.getDestination());
+            previous = link.getOffset();
+        }
+    }
+
+    public static DocumentSummary read(DataInput in) throws IOException {
+        int headingCount = readVarInt(in);
+        List<Heading> headings = new ArrayList<>(headingCount);
+        int offset = 0;
+        for (int i = 0; i < headingCount; i++) {
+            int level = in.readUnsignedByte();
+            offset += readVarInt(in);
+            headings.add(new Heading(level, readString(in), offset));
+        }
+        int linkCount = readVarInt(in);
+        List<LinkReference> links = new ArrayList<>(linkCount);
+        offset = 0;
+        for (int i = 0; i < linkCount; i++) {
+            int flags = in.readUnsignedByte();
+            offset += readVarInt(in);
+            links.add(new LinkReference(readString(in), offset, (flags & FLAG_IMAGE) != 0));
+        }
+        if (headings.isEmpty() && links.isEmpty()) {
+            return EMPTY;
+        }
+        return new DocumentSummary(headings, links);
+    }
+
+    static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("变长整数格式错误");
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[readVarInt(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DocumentSummary)) return false;
+        DocumentSummary that = (DocumentSummary) o;
+        return headings.equals(that.headings) && links.equals(that.links);
+    }
+
+    @Override
+    public int hashCode() {
+        return headings.hashCode() * 31 + links.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "DocumentSummary{headings=" + headings.size() + ", links=" + links.size() + "}";
+    }
+}
@@ -0,0 +1,53 @@
+package com.markdown.editor.outline;
+
+/**
+ * 文档中的一个标题
+ */
+public final class Heading {
+    private final int level;
+    private final String title;
+    private final int offset;
+
+    public Heading(int level, String title, int offset) {
+        this.level = level;
+        this.title = title;
+        this.offset = offset;
+    }
+
+    /** 标题级别，1-6 */
+    public int getLevel() {
+        return level;
+    }
+
+    /** 去掉行内标记后的标题文本 */
+    public String getTitle() {
+        return title;
+    }
+
+    /** 标题在文档中的起始偏移（Setext标题为标题文本的第一行） */
+    public int getOffset() {
+        return offset;
+    }
+
+    Heading shifted(int delta) {
+        return delta == 0 ? this : new Heading(level, title, offset + delta);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Heading)) return false;
+        Heading that = (Heading) o;
+        return level == that.level && offset == that.offset && title.equals(that.title);
+    }
+
+    @Override
+    public int hashCode() {
+        return (level * 31 + offset) * 31 + title.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "h" + level + "@" + offset + " " + title;
+    }
+}
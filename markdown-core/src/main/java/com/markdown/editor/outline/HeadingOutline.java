@@ -0,0 +1,274 @@
+package com.markdown.editor.outline;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 增量维护的标题目录
+ * 第一次使用时扫描整个文档，之后只接收文档的修改区间：下次读取时从修改处之前的空行开始重新扫描，
+ * 扫描到修改区间之后、与旧文档状态重新一致的空行处停止，其后的标题直接复用并平移偏移量。
+ * 因此编辑后更新目录的开销只与被修改的块有关；读取目录、跳转到标题都不需要扫描文档。
+ * 调用方必须通过markDirty报告每一次修改，update传入的文本必须与报告的修改一致
+ */
+public final class HeadingOutline {
+
+    private List<Heading> headings = Collections.emptyList();
+    // 围栏代码块的起止偏移，按起点排序，用于判断增量扫描能否在某个位置停止
+    private int[] fenceStarts = new int[0];
+    private int[] fenceEnds = new int[0];
+
+    // 上一次扫描时的文本长度，-1表示还没有扫描过
+    private int textLength = -1;
+
+    // 尚未处理的修改区间，以当前文本为准：[dirtyStart, dirtyEnd)，以及累计的长度变化
+    private int dirtyStart = -1;
+    private int dirtyEnd;
+    private int dirtyDelta;
+
+    private List<String> anchors;
+
+    // 最近一次更新重新扫描的字符数，用于调试和基准测试
+    private int lastRescannedLength;
+
+    /**
+     * 记录一次文档修改：offset处的oldLength个字符被替换为newLength个字符
+     */
+    public synchronized void markDirty(int offset, int oldLength, int newLength) {
+        if (textLength < 0) {
+            return;
+        }
+        int change = newLength - oldLength;
+        if (dirtyStart < 0) {
+            dirtyStart = offset;
+            dirtyEnd = offset + newLength;
+            dirtyDelta = change;
+            return;
+        }
+        // 与之前的修改区间合并：区间之后的文本平移，修改区间内的部分并入新区间
+        int end = offset + newLength;
+        if (dirtyEnd >= offset + oldLength) {
+            end = Math.max(end, dirtyEnd + change);
+        }
+        dirtyStart = Math.min(dirtyStart, offset);
+        dirtyEnd = end;
+        dirtyDelta += change;
+    }
+
+    /**
+     * 处理尚未处理的修改，返回当前文本的标题（按文档顺序，不可修改）
+     */
+    public synchronized List<Heading> update(CharSequence text) {
+        if (textLength >= 0 && dirtyStart < 0 && text.length() == textLength) {
+            return headings;
+        }
+        if (textLength < 0 || dirtyStart < 0 || text.length() != textLength + dirtyDelta || dirtyEnd > text.length()) {
+            fullScan(text);
+        } else {
+            rescan(text);
+        }
+        dirtyStart = -1;
+        dirtyDelta = 0;
+        textLength = text.length();
+        anchors = null;
+        return headings;
+    }
+
+    /**
+     * 最近一次update返回的标题
+     */
+    public synchronized List<Heading> getHeadings() {
+        return headings;
+    }
+
+    /**
+     * 最近一次update返回的标题对应的GitHub风格锚点，与标题一一对应
+     */
+    public synchronized List<String> getAnchors() {
+        if (anchors == null) {
+            HeadingSlugger slugger = new HeadingSlugger();
+            List<String> result = new ArrayList<>(headings.size());
+            for (Heading heading : headings) {
+                result.add(slugger.slug(heading.getTitle()));
+            }
+            anchors = Collections.unmodifiableList(result);
+        }
+        return anchors;
+    }
+
+    public synchronized int getLastRescannedLength() {
+        return lastRescannedLength;
+    }
+
+    /**
+     * 偏移所在的标题（最后一个起始偏移不大于offset的标题）的下标，在第一个标题之前时返回-1
+     */
+    public static int indexAt(List<Heading> headings, int offset) {
+        int low = 0;
+        int high = headings.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (headings.get(mid).getOffset() <= offset) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+
+    private void fullScan(CharSequence text) {
+        Collector collector = new Collector();
+        BlockScanner.scan(text, collector);
+        headings = Collections.unmodifiableList(collector.headings);
+        fenceStarts = collector.starts();
+        fenceEnds = collector.ends();
+        lastRescannedLength = text.length();
+    }
+
+    private void rescan(CharSequence text) {
+        int delta = dirtyDelta;
+        int newDirtyEnd = dirtyEnd;
+
+        // 从修改处所在段落之前的空行开始；修改处之前的文本没有变化，可以直接在新文本中查找
+        int regionStart = lineStart(text, dirtyStart);
+        while (regionStart > 0) {
+            int previous = lineStart(text, regionStart - 1);
+            if (isBlankLine(text, previous, regionStart - 1)) {
+                break;
+            }
+            regionStart = previous;
+        }
+        int fence = fenceContaining(regionStart);
+        if (fence >= 0) {
+            regionStart = fenceStarts[fence];
+        }
+
+        // 在修改区间之后找到与旧文档状态一致的位置：前一行连同它之前的换行符都未被修改（在旧文档中也是空行），
+        // 且在旧文档中不在代码块内
+        Collector collector = new Collector();
+        int stop = BlockScanner.scan(text, regionStart, collector,
+                (lineStart, previousLineStart) -> previousLineStart > newDirtyEnd
+                        && fenceContaining(lineStart - delta) < 0);
+        int oldStop = stop < text.length() ? stop - delta : textLength;
+
+        int firstRemoved = lowerBound(headings, regionStart);
+        int firstKept = lowerBound(headings, oldStop);
+        List<Heading> result = new ArrayList<>(firstRemoved + collector.headings.size() + headings.size() - firstKept);
+        result.addAll(headings.subList(0, firstRemoved));
+        result.addAll(collector.headings);
+        for (int i = firstKept; i < headings.size(); i++) {
+            result.add(headings.get(i).shifted(delta));
+        }
+        headings = Collections.unmodifiableList(result);
+
+        int firstFenceRemoved = lowerBound(fenceStarts, regionStart);
+        int firstFenceKept = lowerBound(fenceStarts, oldStop);
+        int[] newStarts = collector.starts();
+        int[] newEnds = collector.ends();
+        int count = firstFenceRemoved + newStarts.length + fenceStarts.length - firstFenceKept;
+        int[] starts = Arrays.copyOf(fenceStarts, count);
+        int[] ends = Arrays.copyOf(fenceEnds, count);
+        System.arraycopy(newStarts, 0, starts, firstFenceRemoved, newStarts.length);
+        System.arraycopy(newEnds, 0, ends, firstFenceRemoved, newEnds.length);
+        for (int i = firstFenceKept, j = firstFenceRemoved + newStarts.length; i < fenceStarts.length; i++, j++) {
+            starts[j] = fenceStarts[i] + delta;
+            ends[j] = fenceEnds[i] + delta;
+        }
+        fenceStarts = starts;
+        fenceEnds = ends;
+        lastRescannedLength = stop - regionStart;
+    }
+
+    /**
+     * 严格包含offset的代码块（offset不在代码块的起点）的下标，不存在时返回-1
+     * 延续到文档末尾的代码块（可能没有结束围栏）也包含文档末尾，之后追加的内容仍在代码块内
+     */
+    private int fenceContaining(int offset) {
+        int index = lowerBound(fenceStarts, offset) - 1;
+        return index >= 0 && (offset < fenceEnds[index] || fenceEnds[index] == textLength) ? index : -1;
+    }
+
+    private static int lowerBound(List<Heading> list, int offset) {
+        int low = 0;
+        int high = list.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (list.get(mid).getOffset() < offset) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int lowerBound(int[] sorted, int value) {
+        int index = Arrays.binarySearch(sorted, value);
+        if (index < 0) {
+            return -index - 1;
+        }
+        while (index > 0 && sorted[index - 1] == value) {
+            index--;
+        }
+        return index;
+    }
+
+    private static int lineStart(CharSequence text, int offset) {
+        int i = Math.min(offset, text.length());
+        while (i > 0 && text.charAt(i - 1) != '\n') {
+            i--;
+        }
+        return i;
+    }
+
+    private static boolean isBlankLine(CharSequence text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!Character.isWhitespace(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 收集一次扫描的标题和代码块
+     */
+    private static final class Collector implements BlockScanner.Sink {
+        final List<Heading> headings = new ArrayList<>();
+        private int[] fences = new int[16];
+        private int fenceCount;
+
+        @Override
+        public void heading(int level, String rawTitle, int offset) {
+            headings.add(new Heading(level, HeadingSlugger.plainText(rawTitle), offset));
+        }
+
+        @Override
+        public void fence(int start, int end) {
+            if (fenceCount * 2 == fences.length) {
+                fences = Arrays.copyOf(fences, fences.length * 2);
+            }
+            fences[fenceCount * 2] = start;
+            fences[fenceCount * 2 + 1] = end;
+            fenceCount++;
+        }
+
+        int[] starts() {
+            int[] starts = new int[fenceCount];
+            for (int i = 0; i < fenceCount; i++) {
+                starts[i] = fences[i * 2];
+            }
+            return starts;
+        }
+
+        int[] ends() {
+            int[] ends = new int[fenceCount];
+            for (int i = 0; i < fenceCount; i++) {
+                ends[i] = fences[i * 2 + 1];
+            }
+            return ends;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.markdown.editor.outline;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 按GitHub的规则生成标题锚点
+ * 转为小写，去掉标点和符号（保留字母、数字、下划线和连字符），空格替换为连字符；
+ * 同一文档中重复的锚点依次加上 -1、-2 后缀。一个实例对应一篇文档，按文档顺序调用
+ */
+public final class HeadingSlugger {
+
+    private final Map<String, Integer> occurrences = new HashMap<>();
+
+    /**
+     * 文档中下一个标题的锚点
+     * @param title 去掉行内标记后的标题文本
+     */
+    public String slug(String title) {
+        String base = baseSlug(title);
+        String result = base;
+        while (occurrences.containsKey(result)) {
+            int count = occurrences.merge(base, 1, Integer::sum);
+            result = base + "-" + count;
+        }
+        occurrences.put(result, 0);
+        return result;
+    }
+
+    /**
+     * 不考虑重复时的锚点
+     */
+    public static String baseSlug(String title) {
+        String lower = title.toLowerCase(Locale.ROOT);
+        StringBuilder slug = new StringBuilder(lower.length());
+        for (int i = 0; i < lower.length(); ) {
+            int codePoint = lower.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (codePoint == ' ') {
+                slug.append('-');
+            } else if (codePoint == '-' || isKept(codePoint)) {
+                slug.appendCodePoint(codePoint);
+            }
+        }
+        return slug.toString();
+    }
+
+    private static boolean isKept(int codePoint) {
+        if (Character.isLetterOrDigit(codePoint)) {
+            return true;
+        }
+        switch (Character.getType(codePoint)) {
+            case Character.NON_SPACING_MARK:
+            case Character.COMBINING_SPACING_MARK:
+            case Character.ENCLOSING_MARK:
+            case Character.LETTER_NUMBER:
+            case Character.OTHER_NUMBER:
+            case Character.CONNECTOR_PUNCTUATION:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * 去掉标题中的行内标记，得到渲染后显示的文本
+     * 处理转义、行内代码、图片、链接、自动链接、HTML标签和强调标记
+     */
+    public static String plainText(String raw) {
+        if (raw.indexOf('\\') < 0 && raw.indexOf('`') < 0 && raw.indexOf('[') < 0 && raw.indexOf('<') < 0
+                && raw.indexOf('*') < 0 && raw.indexOf('_') < 0 && raw.indexOf('~') < 0) {
+            return raw;
+        }
+        StringBuilder text = new StringBuilder(raw.length());
+        int length = raw.length();
+        int i = 0;
+        while (i < length) {
+            char c = raw.charAt(i);
+            if (c == '\\' && i + 1 < length && isAsciiPunctuation(raw.charAt(i + 1))) {
+                text.append(raw.charAt(i + 1));
+                i += 2;
+            } else if (c == '`') {
+                int run = 1;
+                while (i + run < length && raw.charAt(i + run) == '`') {
+                    run++;
+                }
+                int close = findBacktickRun(raw, i + run, run);
+                if (close < 0) {
+                    text.append(raw, i, i + run);
+                    i += run;
+                } else {
+                    text.append(raw.substring(i + run, close).trim());
+                    i = close + run;
+                }
+            } else if (c == '!' && i + 1 < length && raw.charAt(i + 1) == '[') {
+                int end = linkEnd(raw, i + 1);
+                if (end < 0) {
+                    text.append(c);
+                    i++;
+                } else {
+                    text.append(plainText(raw.substring(i + 2, labelEnd(raw, i + 1))));
+                    i = end;
+                }
+            } else if (c == '[') {
+                int end = linkEnd(raw, i);
+                if (end < 0) {
+                    text.append(c);
+                    i++;
+                } else {
+                    text.append(plainText(raw.substring(i + 1, labelEnd(raw, i))));
+                    i = end;
+                }
+            } else if (c == '<') {
+                int close = raw.indexOf('>', i + 1);
+                if (close < 0) {
+                    text.append(c);
+                    i++;
+                } else {
+                    String inner = raw.substring(i + 1, close);
+                    if (inner.contains("://") || inner.startsWith("mailto:")) {
+                        // 自动链接显示为链接本身
+                        text.append(inner);
+                    } else if (!isTag(inner)) {
+                        text.append(raw, i, close + 1);
+                    }
+                    i = close + 1;
+                }
+            } else if (c == '*' || c == '~') {
+                i++;
+            } else if (c == '_' && isEmphasisUnderscore(raw, i)) {
+                i++;
+            } else {
+                text.append(c);
+                i++;
+            }
+        }
+        return text.toString().trim();
+    }
+
+    /**
+     * 链接文本 [ ... ] 的右括号位置，允许嵌套，找不到时返回-1
+     */
+    private static int labelEnd(String raw, int open) {
+        int depth = 0;
+        for (int i = open; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '[') {
+                depth++;
+            } else if (c == ']' && --depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 链接 [text](url) 或 [text][ref] 之后的位置，不是链接时返回-1
+     * 单独的 [text] 可能只是普通文本，保留原样
+     */
+    private static int linkEnd(String raw, int open) {
+        int close = labelEnd(raw, open);
+        if (close < 0) {
+            return -1;
+        }
+        int after = close + 1;
+        if (after < raw.length() && raw.charAt(after) == '(') {
+            int end = raw.indexOf(')', after);
+            return end < 0 ? -1 : end + 1;
+        }
+        if (after < raw.length() && raw.charAt(after) == '[') {
+            int end = raw.indexOf(']', after);
+            return end < 0 ? -1 : end + 1;
+        }
+        return -1;
+    }
+
+    private static int findBacktickRun(String raw, int from, int run) {
+        int i = from;
+        while (i < raw.length()) {
+            if (raw.charAt(i) != '`') {
+                i++;
+                continue;
+            }
+            int end = i;
+            while (end < raw.length() && raw.charAt(end) == '`') {
+                end++;
+            }
+            if (end - i == run) {
+                return i;
+            }
+            i = end;
+        }
+        return -1;
+    }
+
+    private static boolean isTag(String inner) {
+        if (inner.isEmpty()) {
+            return false;
+        }
+        char first = inner.charAt(0);
+        return Character.isLetter(first) || first == '/' || first == '!';
+    }
+
+    /**
+     * 单词内部的下划线是普通字符（例如 snake_case），位于单词边界的才是强调标记
+     */
+    private static boolean isEmphasisUnderscore(String raw, int index) {
+        boolean letterBefore = index > 0 && Character.isLetterOrDigit(raw.charAt(index - 1));
+        boolean letterAfter = index + 1 < raw.length() && Character.isLetterOrDigit(raw.charAt(index + 1));
+        return !(letterBefore && letterAfter);
+    }
+
+    private static boolean isAsciiPunctuation(char c) {
+        return c >= '!' && c <= '/' || c >= ':' && c <= '@' || c >= '[' && c <= '`' || c >= '{' && c <= '~';
+    }
+}
@@ -0,0 +1,151 @@
+package com.markdown.editor.outline;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 文档中的一个链接或图片目标
+ */
+public final class LinkReference {
+    private final String destination;
+    private final int offset;
+    private final boolean image;
+
+    public LinkReference(String destination, int offset, boolean image) {
+        this.destination = destination;
+        this.offset = offset;
+        this.image = image;
+    }
+
+    /** 目标的原始文本 */
+    public String getDestination() {
+        return destination;
+    }
+
+    /** 目标在文档中的偏移 */
+    public int getOffset() {
+        return offset;
+    }
+
+    public boolean isImage() {
+        return image;
+    }
+
+    /**
+     * 是否为外部链接：带有协议（http:、mailto: 等）或以 // 开头
+     */
+    public boolean isExternal() {
+        if (destination.startsWith("//")) {
+            return true;
+        }
+        int colon = destination.indexOf(':');
+        if (colon < 2) {
+            // 没有协议，或者是Windows盘符之类的单字母前缀
+            return false;
+        }
+        if (!Character.isLetter(destination.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < colon; i++) {
+            char c = destination.charAt(i);
+            if (!(Character.isLetterOrDigit(c) || c == '+' || c == '.' || c == '-')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 本地目标的路径部分（去掉 #片段 和 ?查询，已解码）；外部链接返回null，只有片段时返回空字符串
+     */
+    public String getPath() {
+        if (isExternal()) {
+            return null;
+        }
+        int end = destination.length();
+        int hash = destination.indexOf('#');
+        if (hash >= 0) {
+            end = hash;
+        }
+        int query = destination.indexOf('?');
+        if (query >= 0 && query < end) {
+            end = query;
+        }
+        return decode(destination.substring(0, end));
+    }
+
+    /**
+     * 片段（# 之后的部分，已解码），没有片段时返回null
+     */
+    public String getFragment() {
+        int hash = destination.indexOf('#');
+        return hash < 0 ? null : decode(destination.substring(hash + 1));
+    }
+
+    /**
+     * 本地目标的文件名（路径的最后一段），外部链接和只有片段的链接返回null
+     */
+    public String getTargetFileName() {
+        String path = getPath();
+        if (path == null) {
+            return null;
+        }
+        int end = path.length();
+        while (end > 0 && path.charAt(end - 1) == '/') {
+            end--;
+        }
+        if (end == 0) {
+            return null;
+        }
+        return path.substring(path.lastIndexOf('/', end - 1) + 1, end);
+    }
+
+    /**
+     * 解码 %XX 转义（按UTF-8），格式不正确的转义保持原样
+     */
+    static String decode(String value) {
+        if (value.indexOf('%') < 0) {
+            return value;
+        }
+        StringBuilder result = new StringBuilder(value.length());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        int i = 0;
+        while (i < value.length()) {
+            char c = value.charAt(i);
+            if (c == '%' && i + 2 < value.length()
+                    && Character.digit(value.charAt(i + 1), 16) >= 0 && Character.digit(value.charAt(i + 2), 16) >= 0) {
+                bytes.write(Character.digit(value.charAt(i + 1), 16) * 16 + Character.digit(value.charAt(i + 2), 16));
+                i += 3;
+                continue;
+            }
+            if (bytes.size() > 0) {
+                result.append(new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+                bytes.reset();
+            }
+            result.append(c);
+            i++;
+        }
+        if (bytes.size() > 0) {
+            result.append(new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+        }
+        return result.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LinkReference)) return false;
+        LinkReference that = (LinkReference) o;
+        return offset == that.offset && image == that.image && destination.equals(that.destination);
+    }
+
+    @Override
+    public int hashCode() {
+        return (destination.hashCode() * 31 + offset) * 31 + (image ? 1 : 0);
+    }
+
+    @Override
+    public String toString() {
+        return (image ? "image@" : "link@") + offset + " " + destination;
+    }
+}
@@ -0,0 +1,439 @@
+package com.markdown.editor.preview;
+
+import org.intellij.markdown.IElementType;
+import org.intellij.markdown.MarkdownElementTypes;
+import org.intellij.markdown.MarkdownTokenTypes;
+import org.intellij.markdown.ast.ASTNode;
+import org.intellij.markdown.parser.LinkMap;
+import org.intellij.markdown.parser.MarkdownParser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 增量Markdown解析器
+ * 保存上一次解析得到的顶层块列表及其源码偏移。文本变化时只重新解析从第一个受影响的顶层块
+ * 到第一个重新同步的块之间的区域，之后的块复用语法树，只生成平移了偏移量的新块对象，
+ * 因此一次按键后的解析开销只与被编辑的块有关，而与文档大小无关。
+ * 返回过的块不会再被修改，调用方可以继续持有上一次的结果
+ */
+public class IncrementalMarkdownParser {
+    private final MarkdownParser parser;
+
+    private String text;
+    private List<Block> blocks = Collections.emptyList();
+
+    // 最近一次解析重新解析的字符数，用于调试和基准测试
+    private int lastReparsedLength;
+
+    public IncrementalMarkdownParser(MarkdownParser parser) {
+        this.parser = parser;
+    }
+
+    /**
+     * 顶层块：AST节点的偏移量相对于 source，source 在文档中的起始位置为 base。块是不可变的
+     */
+    public static final class Block {
+        private final String source;
+        private final ASTNode node;
+        private final List<ASTNode> linkDefinitions;
+        private final boolean tooDeep;
+        private final int base;
+
+        Block(String source, ASTNode node, int base) {
+            this.source = source;
+            this.node = node;
+            this.base = base;
+            this.tooDeep = NestingGuard.isTooDeep(node);
+            this.linkDefinitions = tooDeep ? Collections.emptyList() : collectLinkDefinitions(node);
+        }
+
+        private Block(Block block, int base) {
+            this.source = block.source;
+            this.node = block.node;
+            this.base = base;
+            this.tooDeep = block.tooDeep;
+            this.linkDefinitions = block.linkDefinitions;
+        }
+
+        /**
+         * 平移后的块，与原块共用源码和语法树，原块保持不变
+         */
+        Block shifted(int delta) {
+            return delta == 0 ? this : new Block(this, base + delta);
+        }
+
+        public String getSource() {
+            return source;
+        }
+
+        public ASTNode getNode() {
+            return node;
+        }
+
+        public IElementType getType() {
+            return node.getType();
+        }
+
+        /** 块在当前文档中的起始偏移 */
+        public int getStartOffset() {
+            return base + node.getStartOffset();
+        }
+
+        /** 块在当前文档中的结束偏移 */
+        public int getEndOffset() {
+            return base + node.getEndOffset();
+        }
+
+        List<ASTNode> getLinkDefinitions() {
+            return linkDefinitions;
+        }
+
+        /** 语法树超过 NestingGuard.MAX_TREE_DEPTH，应按纯文本渲染 */
+        boolean isTooDeep() {
+            return tooDeep;
+        }
+    }
+
+    /**
+     * 解析新文本，尽可能复用上一次的顶层块
+     * @return 按文档顺序排列的顶层块（不含块之间的空行）
+     */
+    public synchronized List<Block> parse(String newText) {
+        if (text == null || blocks.isEmpty()) {
+            return fullParse(newText);
+        }
+        if (newText.equals(text)) {
+            lastReparsedLength = 0;
+            return blocks;
+        }
+
+        // 计算公共前缀和公共后缀，得到旧文本中的变化区间 [changeStart, oldChangeEnd)
+        int oldLength = text.length();
+        int newLength = newText.length();
+        int maxCommon = Math.min(oldLength, newLength);
+        int changeStart = 0;
+        while (changeStart < maxCommon && text.charAt(changeStart) == newText.charAt(changeStart)) {
+            changeStart++;
+        }
+        int suffix = 0;
+        while (suffix < maxCommon - changeStart
+                && text.charAt(oldLength - 1 - suffix) == newText.charAt(newLength - 1 - suffix)) {
+            suffix++;
+        }
+        int oldChangeEnd = oldLength - suffix;
+        int delta = newLength - oldLength;
+
+        // 第一个受影响的块：结束位置不早于变化起点的块，再向前多退一个块
+        // （例如在段落下方输入 "---" 会把前一个段落变成标题）
+        int first = 0;
+        while (first < blocks.size() && blocks.get(first).getEndOffset() < changeStart) {
+            first++;
+        }
+        first = Math.max(0, first - 1);
+
+        // 第一个完全位于变化区间之后的块（在块起点处插入也会改变该块）
+        int next = first;
+        while (next < blocks.size() && blocks.get(next).getStartOffset() <= oldChangeEnd) {
+            next++;
+        }
+
+        int extra = 1;
+        while (true) {
+            int regionStart = first == 0 ? 0 : lineStart(text, blocks.get(first).getStartOffset());
+            int regionEndNew = next >= blocks.size()
+                    ? newLength
+                    : lineStart(newText, blocks.get(next).getStartOffset() + delta);
+
+            List<Block> reparsed = regionEndNew > regionStart
+                    ? parseRegion(newText, regionStart, regionEndNew)
+                    : Collections.emptyList();
+
+            // 重新解析的区域为空时，两侧保留的块直接相邻
+            Block previous = first == 0 ? null : blocks.get(first - 1);
+            Block following = next >= blocks.size() ? null : blocks.get(next);
+            boolean startSynced = first == 0 || (reparsed.isEmpty()
+                    ? isSynchronized(newText, previous, regionStart, following, delta)
+                    : isSynchronized(newText, previous, regionStart, reparsed.get(0), 0));
+            boolean endSynced = next >= blocks.size() || isSynchronized(newText,
+                    reparsed.isEmpty() ? previous : reparsed.get(reparsed.size() - 1), regionEndNew,
+                    following, delta);
+
+            if (startSynced && endSynced) {
+                List<Block> result = new ArrayList<>(first + reparsed.size() + blocks.size() - next);
+                result.addAll(blocks.subList(0, first));
+                result.addAll(reparsed);
+                if (delta == 0) {
+                    result.addAll(blocks.subList(next, blocks.size()));
+                } else {
+                    // 上一次返回的块可能仍被渲染器或缓存持有，不能原地修改
+                    for (int i = next; i < blocks.size(); i++) {
+                        result.add(blocks.get(i).shifted(delta));
+                    }
+                }
+                text = newText;
+                blocks = result;
+                lastReparsedLength = regionEndNew - regionStart;
+                return blocks;
+            }
+
+            // 没有同步，按倍数扩大重新解析的区域，避免退化成二次复杂度
+            if (!startSynced) {
+                first = Math.max(0, first - extra);
+            }
+            if (!endSynced) {
+                next = Math.min(blocks.size(), next + extra);
+            }
+            extra *= 2;
+        }
+    }
+
+    /**
+     * 由已有的完整AST初始化块列表（例如来自IDE的PSI树），下一次编辑时在此基础上增量解析
+     * 只用于第一次解析：之后再次reset会丢掉增量状态，退化为每次完整转换
+     */
+    public synchronized List<Block> reset(String newText, ASTNode root) {
+        text = newText;
+        blocks = toBlocks(newText, root, 0);
+        lastReparsedLength = newText.length();
+        return blocks;
+    }
+
+    /**
+     * 是否保存有上一次的解析结果，有结果时下一次解析是增量的
+     */
+    public synchronized boolean hasState() {
+        return text != null;
+    }
+
+    /**
+     * 丢弃上一次的解析结果
+     */
+    public synchronized void clear() {
+        text = null;
+        blocks = Collections.emptyList();
+    }
+
+    public int getLastReparsedLength() {
+        return lastReparsedLength;
+    }
+
+    /**
+     * 根据所有块中的链接定义构建LinkMap，同名定义以文档中第一次出现的为准
+     */
+    public static LinkMap buildLinkMap(List<Block> blocks) {
+        Map<CharSequence, LinkMap.LinkInfo> links = new HashMap<>();
+        for (Block block : blocks) {
+            for (ASTNode definition : block.getLinkDefinitions()) {
+                for (ASTNode child : definition.getChildren()) {
+                    if (child.getType() == MarkdownElementTypes.LINK_LABEL) {
+                        CharSequence label = LinkMap.Builder.normalizeLabel(
+                                block.getSource().substring(child.getStartOffset(), child.getEndOffset()));
+                        links.putIfAbsent(label, LinkMap.LinkInfo.Companion.create(definition, block.getSource()));
+                        break;
+                    }
+                }
+            }
+        }
+        return new LinkMap(links);
+    }
+
+    private List<Block> fullParse(String newText) {
+        text = newText;
+        blocks = newText.isEmpty() ? Collections.emptyList() : parseRegion(newText, 0, newText.length());
+        lastReparsedLength = newText.length();
+        return blocks;
+    }
+
+    private List<Block> parseRegion(String newText, int start, int end) {
+        String source = newText.substring(start, end);
+        // 解析截断了过深容器标记的文本，块仍然引用原文（两者偏移完全一致）
+        return toBlocks(source, parser.buildMarkdownTreeFromString(NestingGuard.limitContainerNesting(source)), start);
+    }
+
+    private static List<Block> toBlocks(String source, ASTNode root, int base) {
+        List<Block> result = new ArrayList<>();
+        for (ASTNode child : root.getChildren()) {
+            IElementType type = child.getType();
+            if (type != MarkdownTokenTypes.EOL && type != MarkdownTokenTypes.WHITE_SPACE) {
+                result.add(new Block(source, child, base));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 判断边界两侧的块是否彼此独立：边界前是空行，且前一个块不会延续到后一个块
+     * @param before 边界之前的块（可能为null）
+     * @param boundary 边界在新文本中的偏移，总是位于行首
+     * @param after 边界之后的块（可能为null）
+     * @param afterDelta after块需要平移的偏移量（旧块为编辑增量，新解析的块为0）
+     */
+    private static boolean isSynchronized(String newText, Block before, int boundary, Block after, int afterDelta) {
+        if (after == null) {
+            return true;
+        }
+        // 只含空白的行不一定是空行：其后的 "---" 或 "===" 会把它变成Setext标题，而不是分隔线
+        if (isSetextUnderline(newText, boundary) && previousLineLength(newText, boundary) > 0) {
+            return false;
+        }
+        if (before == null) {
+            return true;
+        }
+        if (!precededByBlankLine(newText, boundary)) {
+            return false;
+        }
+        // 块的结束位置越过了最后一个非空行，说明它在区域末尾仍未结束（例如列表中未闭合的围栏）
+        if (before.getEndOffset() > contentEnd(newText, boundary)) {
+            return false;
+        }
+        IElementType beforeType = before.getType();
+        // 未闭合的围栏代码块和HTML块会一直延续下去
+        if (beforeType == MarkdownElementTypes.CODE_FENCE && !hasChild(before.getNode(), MarkdownTokenTypes.CODE_FENCE_END)) {
+            return false;
+        }
+        if (beforeType == MarkdownElementTypes.HTML_BLOCK) {
+            return false;
+        }
+        // 缩进代码块跨过空行延续到下一段缩进的内容
+        if (beforeType == MarkdownElementTypes.CODE_BLOCK && isIndentedCode(newText, boundary)) {
+            return false;
+        }
+        // 列表之后的列表或缩进内容可能属于同一个列表
+        if (beforeType == MarkdownElementTypes.UNORDERED_LIST || beforeType == MarkdownElementTypes.ORDERED_LIST) {
+            IElementType afterType = after.getType();
+            if (afterType == MarkdownElementTypes.UNORDERED_LIST || afterType == MarkdownElementTypes.ORDERED_LIST) {
+                return false;
+            }
+            if (boundary < newText.length() && Character.isWhitespace(newText.charAt(boundary))) {
+                return false;
+            }
+        }
+        // 边界到后一个块之间只能是缩进空白，否则编辑发生在这一行上
+        for (int i = boundary; i < after.getStartOffset() + afterDelta; i++) {
+            if (!Character.isWhitespace(newText.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasChild(ASTNode node, IElementType type) {
+        for (ASTNode child : node.getChildren()) {
+            if (child.getType() == type) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * offset位于行首，且上一行为空白行
+     */
+    private static boolean precededByBlankLine(String text, int offset) {
+        if (offset == 0) {
+            return true;
+        }
+        if (text.charAt(offset - 1) != '\n') {
+            return false;
+        }
+        for (int i = offset - 2; i >= 0; i--) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                return true;
+            }
+            if (!Character.isWhitespace(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 行首的缩进达到缩进代码块的宽度（4列，制表符对齐到4的倍数），且这一行不是空白行
+     */
+    private static boolean isIndentedCode(String text, int lineStart) {
+        int column = 0;
+        for (int i = lineStart; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == ' ') {
+                column++;
+            } else if (c == '\t') {
+                column += 4 - column % 4;
+            } else {
+                return column >= 4 && c != '\n' && c != '\r';
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 从行首开始的一行是否只由 '=' 或 '-' 组成（允许前后空白），即可能的Setext标题下划线
+     */
+    private static boolean isSetextUnderline(String text, int lineStart) {
+        int end = text.indexOf('\n', lineStart);
+        String line = text.substring(lineStart, end < 0 ? text.length() : end).trim();
+        if (line.isEmpty() || (line.charAt(0) != '=' && line.charAt(0) != '-')) {
+            return false;
+        }
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) != line.charAt(0)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * offset之前最后一个非空白字符之后的位置
+     */
+    private static int contentEnd(String text, int offset) {
+        int end = offset;
+        while (end > 0 && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * 行首offset之前一行的长度（不含换行符）
+     */
+    private static int previousLineLength(String text, int offset) {
+        if (offset == 0) {
+            return 0;
+        }
+        int end = offset - 1;
+        if (end > 0 && text.charAt(end - 1) == '\r') {
+            end--;
+        }
+        return end - lineStart(text, end);
+    }
+
+    private static int lineStart(String text, int offset) {
+        int i = Math.min(offset, text.length());
+        while (i > 0 && text.charAt(i - 1) != '\n') {
+            i--;
+        }
+        return i;
+    }
+
+    private static List<ASTNode> collectLinkDefinitions(ASTNode node) {
+        if (node.getType() == MarkdownElementTypes.LINK_DEFINITION) {
+            return Collections.singletonList(node);
+        }
+        // 只有容器块内部才可能出现链接定义，段落、代码块等叶子块无需遍历
+        IElementType type = node.getType();
+        if (type != MarkdownElementTypes.BLOCK_QUOTE && type != MarkdownElementTypes.UNORDERED_LIST
+                && type != MarkdownElementTypes.ORDERED_LIST && type != MarkdownElementTypes.LIST_ITEM) {
+            return Collections.emptyList();
+        }
+        List<ASTNode> result = new ArrayList<>();
+        for (ASTNode child : node.getChildren()) {
+            result.addAll(collectLinkDefinitions(child));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,121 @@
+package com.markdown.editor.preview;
+
+import kotlin.ranges.IntRange;
+import org.intellij.markdown.IElementType;
+import org.intellij.markdown.MarkdownTokenTypes;
+import org.intellij.markdown.flavours.gfm.GFMFlavourDescriptor;
+import org.intellij.markdown.lexer.TokenInfo;
+import org.intellij.markdown.parser.sequentialparsers.SequentialParser;
+import org.intellij.markdown.parser.sequentialparsers.SequentialParserManager;
+import org.intellij.markdown.parser.sequentialparsers.TokensCache;
+import org.intellij.markdown.parser.sequentialparsers.impl.ImageParser;
+import org.intellij.markdown.parser.sequentialparsers.impl.InlineLinkParser;
+import org.intellij.markdown.parser.sequentialparsers.impl.ReferenceLinkParser;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 保证行内解析为线性时间的GFM方言
+ * 内置解析器的链接和图片解析会从每个 [ 向后扫描到与之匹配的 ]，
+ * 在未闭合或深度嵌套的方括号上退化为平方复杂度（例如几万个 "[" 组成的段落会让预览卡住几十秒）。
+ * 这里在运行这些解析器之前用一个栈线性地估算扫描总量，超出线性上限时跳过该段落的链接解析，
+ * 方括号按普通文本显示
+ */
+public class LinearTimeFlavourDescriptor extends GFMFlavourDescriptor {
+
+    /** 每个token允许的平均扫描长度 */
+    static final int SCAN_COST_PER_TOKEN = 16;
+
+    /** 短段落不受限制的扫描量 */
+    static final int SCAN_COST_ALLOWANCE = 64 * 1024;
+
+    private final SequentialParserManager guardedManager;
+
+    public LinearTimeFlavourDescriptor() {
+        SequentialParserManager delegate = super.getSequentialParserManager();
+        List<SequentialParser> sequence = new ArrayList<>();
+        for (SequentialParser parser : delegate.getParserSequence()) {
+            boolean scansBrackets = parser instanceof InlineLinkParser
+                    || parser instanceof ReferenceLinkParser
+                    || parser instanceof ImageParser;
+            sequence.add(scansBrackets ? new BracketGuard(parser) : parser);
+        }
+        List<SequentialParser> guardedSequence = Collections.unmodifiableList(sequence);
+        this.guardedManager = new SequentialParserManager() {
+            @NotNull
+            @Override
+            public List<SequentialParser> getParserSequence() {
+                return guardedSequence;
+            }
+        };
+    }
+
+    @NotNull
+    @Override
+    public SequentialParserManager getSequentialParserManager() {
+        return guardedManager;
+    }
+
+    /**
+     * 估算链接解析器在这些范围上的扫描总量：每个 [ 扫描到与之匹配的 ]，未匹配的扫描到末尾
+     */
+    static long bracketScanCost(TokensCache tokensCache, List<IntRange> ranges) {
+        List<TokenInfo> tokens = tokensCache.getFilteredTokens();
+        int[] openPositions = new int[16];
+        int depth = 0;
+        int position = 0;
+        long cost = 0;
+        for (IntRange range : ranges) {
+            int last = Math.min(range.getLast(), tokens.size() - 1);
+            for (int index = range.getFirst(); index <= last; index++, position++) {
+                IElementType type = tokens.get(index).getType();
+                if (type == MarkdownTokenTypes.LBRACKET) {
+                    if (depth == openPositions.length) {
+                        int[] grown = new int[depth * 2];
+                        System.arraycopy(openPositions, 0, grown, 0, depth);
+                        openPositions = grown;
+                    }
+                    openPositions[depth++] = position;
+                } else if (type == MarkdownTokenTypes.RBRACKET && depth > 0) {
+                    cost += position - openPositions[--depth];
+                }
+            }
+        }
+        while (depth > 0) {
+            cost += position - openPositions[--depth];
+        }
+        return cost;
+    }
+
+    private static int tokenCount(List<IntRange> ranges) {
+        int count = 0;
+        for (IntRange range : ranges) {
+            count += Math.max(0, range.getLast() - range.getFirst() + 1);
+        }
+        return count;
+    }
+
+    /**
+     * 扫描量超过线性上限时不运行被包装的解析器，把范围原样交给后续解析器
+     */
+    private static final class BracketGuard implements SequentialParser {
+        private final SequentialParser delegate;
+
+        BracketGuard(SequentialParser delegate) {
+            this.delegate = delegate;
+        }
+
+        @NotNull
+        @Override
+        public ParsingResult parse(@NotNull TokensCache tokensCache, @NotNull List<IntRange> rangesToGlue) {
+            long limit = (long) tokenCount(rangesToGlue) * SCAN_COST_PER_TOKEN + SCAN_COST_ALLOWANCE;
+            if (bracketScanCost(tokensCache, rangesToGlue) > limit) {
+                return new ParsingResultBuilder().withFurtherProcessing(rangesToGlue);
+            }
+            return delegate.parse(tokensCache, rangesToGlue);
+        }
+    }
+}
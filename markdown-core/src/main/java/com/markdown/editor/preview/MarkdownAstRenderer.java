@@ -0,0 +1,400 @@
+package com.markdown.editor.preview;
+
+import org.intellij.markdown.IElementType;
+import org.intellij.markdown.MarkdownElementTypes;
+import org.intellij.markdown.MarkdownTokenTypes;
+import org.intellij.markdown.ast.ASTNode;
+import org.intellij.markdown.ast.ASTNodeKt;
+import org.intellij.markdown.flavours.gfm.GFMElementTypes;
+import org.intellij.markdown.flavours.gfm.GFMFlavourDescriptor;
+import org.intellij.markdown.flavours.gfm.GFMTokenTypes;
+import org.intellij.markdown.html.GeneratingProvider;
+import org.intellij.markdown.html.HtmlGenerator;
+import org.intellij.markdown.html.ListItemGeneratingProvider;
+import org.intellij.markdown.parser.LinkMap;
+import org.intellij.markdown.parser.MarkdownParser;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基于AST的Markdown渲染器
+ * 使用内置的 org.intellij.markdown 解析器对文档做一次线性解析，
+ * 再通过自定义的 GeneratingProvider 输出 JTextPane 可以正确显示的HTML子集
+ */
+public class MarkdownAstRenderer {
+    private final MarkdownProcessor processor;
+    private final GFMFlavourDescriptor flavour;
+    private final MarkdownParser parser;
+
+    public MarkdownAstRenderer(MarkdownProcessor processor, GFMFlavourDescriptor flavour, MarkdownParser parser) {
+        this.processor = processor;
+        this.flavour = flavour;
+        this.parser = parser;
+    }
+
+    /**
+     * 解析并渲染Markdown文本，返回body内部的HTML片段
+     */
+    public String render(String markdown) {
+        ASTNode root = parser.buildMarkdownTreeFromString(NestingGuard.limitContainerNesting(markdown));
+        return render(markdown, root);
+    }
+
+    /**
+     * 渲染已经解析好的AST
+     * @param markdown 与AST偏移量对应的原始文本
+     * @param root 根节点
+     */
+    public String render(String markdown, ASTNode root) {
+        if (NestingGuard.isTooDeep(root)) {
+            return renderPlain(markdown, root);
+        }
+        Map<IElementType, GeneratingProvider> providers = createProviders(
+                LinkMap.Builder.buildLinkMap(root, markdown), new RenderBudget(RenderBudget.UNLIMITED));
+        return new HtmlGenerator(markdown, root, providers, false).generateHtml(new SwingTagRenderer());
+    }
+
+    /**
+     * 按顺序渲染增量解析得到的顶层块
+     */
+    public String render(List<IncrementalMarkdownParser.Block> blocks) {
+        return render(blocks, new RenderBudget(RenderBudget.UNLIMITED));
+    }
+
+    /**
+     * 按顺序渲染顶层块，每个块之前检查时间预算
+     * 预算耗尽后从下一个标题开始，未展开的章节只输出标题和占位链接
+     */
+    public String render(List<IncrementalMarkdownParser.Block> blocks, RenderBudget budget) {
+        return render(blocks, budget, null);
+    }
+
+    /**
+     * 按顺序渲染顶层块，并在每个块的开始标签上标注源文件行号（见 SourceMap）
+     * @param documentText 块所在的完整文档，为null时不标注行号
+     */
+    public String render(List<IncrementalMarkdownParser.Block> blocks, RenderBudget budget, String documentText) {
+        Map<IElementType, GeneratingProvider> providers = createProviders(IncrementalMarkdownParser.buildLinkMap(blocks), budget);
+        SwingTagRenderer tagRenderer = new SwingTagRenderer();
+        Map<String, Integer> sectionOccurrences = new HashMap<>();
+        StringBuilder html = new StringBuilder();
+        // 行号按块的起始偏移递增计算，整篇文档只扫描一遍
+        int line = 0;
+        int lineCountedTo = 0;
+        for (int i = 0; i < blocks.size(); i++) {
+            budget.checkpoint();
+            IncrementalMarkdownParser.Block block = blocks.get(i);
+            // 嵌套过深的块无法递归生成HTML，按纯文本显示
+            String blockHtml = block.isTooDeep()
+                    ? renderPlain(block.getSource(), block.getNode())
+                    : generate(block, providers, tagRenderer);
+            if (documentText != null) {
+                int start = Math.min(block.getStartOffset(), documentText.length());
+                for (; lineCountedTo < start; lineCountedTo++) {
+                    if (documentText.charAt(lineCountedTo) == '\n') {
+                        line++;
+                    }
+                }
+                appendWithLineId(html, blockHtml, line);
+            } else {
+                html.append(blockHtml);
+            }
+            if (!budget.isActive(RenderBudget.Degradation.DEFERRED_SECTIONS) || !isHeading(block)
+                    || block.getEndOffset() < RenderBudget.EAGER_RENDER_CHARS) {
+                continue;
+            }
+
+            int end = i + 1;
+            int deferredLength = 0;
+            while (end < blocks.size() && !isHeading(blocks.get(end))) {
+                deferredLength += blocks.get(end).getEndOffset() - blocks.get(end).getStartOffset();
+                end++;
+            }
+            String sectionId = processor.sectionId(textOf(block.getSource(), block.getNode()), sectionOccurrences);
+            if (end > i + 1 && !processor.isRegionExpanded(sectionId)) {
+                processor.appendDeferredSection(html, sectionId, deferredLength);
+                i = end - 1;
+            }
+        }
+        return html.toString();
+    }
+
+    /**
+     * 在块的第一个标签上加上行号ID后输出，标签已有ID或块不以标签开头时原样输出
+     */
+    private static void appendWithLineId(StringBuilder html, String blockHtml, int line) {
+        int nameEnd = 1;
+        if (blockHtml.isEmpty() || blockHtml.charAt(0) != '<') {
+            html.append(blockHtml);
+            return;
+        }
+        while (nameEnd < blockHtml.length() && Character.isLetterOrDigit(blockHtml.charAt(nameEnd))) {
+            nameEnd++;
+        }
+        int tagEnd = blockHtml.indexOf('>', nameEnd);
+        if (nameEnd == 1 || tagEnd < 0 || blockHtml.substring(nameEnd, tagEnd).contains(" id=")) {
+            html.append(blockHtml);
+            return;
+        }
+        html.append(blockHtml, 0, nameEnd);
+        SourceMap.appendLineId(html, line);
+        html.append(blockHtml, nameEnd, blockHtml.length());
+    }
+
+    private static String generate(IncrementalMarkdownParser.Block block,
+                                   Map<IElementType, GeneratingProvider> providers, SwingTagRenderer tagRenderer) {
+        return new HtmlGenerator(block.getSource(), block.getNode(), providers, false).generateHtml(tagRenderer);
+    }
+
+    private static String renderPlain(String text, ASTNode node) {
+        return "<p>" + escapeHtml(textOf(text, node)).replace("\n", "<br>\n") + "</p>\n";
+    }
+
+    private static boolean isHeading(IncrementalMarkdownParser.Block block) {
+        IElementType type = block.getType();
+        return type == MarkdownElementTypes.ATX_1 || type == MarkdownElementTypes.ATX_2
+                || type == MarkdownElementTypes.ATX_3 || type == MarkdownElementTypes.ATX_4
+                || type == MarkdownElementTypes.ATX_5 || type == MarkdownElementTypes.ATX_6
+                || type == MarkdownElementTypes.SETEXT_1 || type == MarkdownElementTypes.SETEXT_2;
+    }
+
+    /**
+     * 在GFM默认Provider的基础上替换JTextPane不支持或显示异常的节点
+     */
+    private Map<IElementType, GeneratingProvider> createProviders(LinkMap linkMap, RenderBudget budget) {
+        Map<IElementType, GeneratingProvider> providers =
+                new HashMap<>(flavour.createHtmlGeneratingProviders(linkMap, null));
+
+        // 代码块编号基于在文档中的位置，与正则引擎保持一致，折叠状态才能在两种引擎间通用
+        int[] codeBlockIndex = {0};
+        GeneratingProvider codeProvider = (visitor, text, node) -> {
+            codeBlockIndex[0]++;
+            budget.checkpoint();
+            boolean highlight = !budget.isActive(RenderBudget.Degradation.PLAIN_FENCES);
+            visitor.consumeHtml(renderCodeBlock(text, node, "codeblock-" + codeBlockIndex[0], highlight));
+        };
+
+        // 预算不足时大表格只输出前几行，其余行通过展开链接按需渲染
+        GeneratingProvider tableProvider = providers.get(GFMElementTypes.TABLE);
+        int[] tableIndex = {0};
+        providers.put(GFMElementTypes.TABLE, (visitor, text, node) -> {
+            tableIndex[0]++;
+            String tableId = "table-" + tableIndex[0];
+            budget.checkpoint();
+            int rows = countRows(node);
+            if (budget.isActive(RenderBudget.Degradation.COLLAPSED_TABLES)
+                    && rows > RenderBudget.COLLAPSED_TABLE_ROWS && !processor.isRegionExpanded(tableId)) {
+                tableProvider.processNode(visitor, text, new RowLimitedNode(node, RenderBudget.COLLAPSED_TABLE_ROWS));
+                StringBuilder notice = new StringBuilder();
+                processor.appendCollapsedTableNotice(notice, tableId, rows - RenderBudget.COLLAPSED_TABLE_ROWS);
+                visitor.consumeHtml(notice);
+            } else {
+                tableProvider.processNode(visitor, text, node);
+            }
+        });
+
+        // 根节点不输出<body>，由MarkdownProcessor统一包装
+        providers.put(MarkdownElementTypes.MARKDOWN_FILE, (visitor, text, node) -> ASTNodeKt.acceptChildren(node, visitor));
+        providers.put(MarkdownElementTypes.CODE_FENCE, codeProvider);
+        providers.put(MarkdownElementTypes.CODE_BLOCK, codeProvider);
+
+        // 原始HTML一律转义显示，避免JTextPane解析任意标签
+        GeneratingProvider escapedProvider = (visitor, text, node) ->
+                visitor.consumeHtml(escapeHtml(textOf(text, node)));
+        providers.put(MarkdownElementTypes.HTML_BLOCK, (visitor, text, node) ->
+                visitor.consumeHtml("<p>" + escapeHtml(textOf(text, node)) + "</p>"));
+        providers.put(MarkdownTokenTypes.HTML_TAG, escapedProvider);
+
+        // GFM的任务列表会输出<input>，JTextPane会把它渲染成真实的表单组件，改为字符显示
+        providers.put(MarkdownElementTypes.LIST_ITEM, new ListItemGeneratingProvider());
+        providers.put(GFMTokenTypes.CHECK_BOX, (visitor, text, node) ->
+                visitor.consumeHtml(textOf(text, node).trim().equalsIgnoreCase("[x]") ? "☑ " : "☐ "));
+
+        providers.put(MarkdownTokenTypes.HORIZONTAL_RULE, (visitor, text, node) -> visitor.consumeHtml("<hr>"));
+
+        // 删除线使用HTML 3.2的<strike>
+        providers.put(GFMElementTypes.STRIKETHROUGH, (visitor, text, node) -> {
+            visitor.consumeHtml("<strike>");
+            for (ASTNode child : node.getChildren()) {
+                if (child.getType() == GFMTokenTypes.TILDE) {
+                    continue;
+                }
+                if (child.getChildren().isEmpty()) {
+                    visitor.visitLeaf(child);
+                } else {
+                    ASTNodeKt.accept(child, visitor);
+                }
+            }
+            visitor.consumeHtml("</strike>");
+        });
+
+        return providers;
+    }
+
+    /**
+     * 渲染围栏代码块和缩进代码块：复用MarkdownProcessor的折叠头部与语法高亮
+     */
+    private String renderCodeBlock(String text, ASTNode node, String codeBlockId, boolean highlight) {
+        String language = "text";
+        int contentStart = node.getStartOffset();
+        int contentEnd = node.getEndOffset();
+
+        if (node.getType() == MarkdownElementTypes.CODE_FENCE) {
+            boolean headerDone = false;
+            for (ASTNode child : node.getChildren()) {
+                IElementType type = child.getType();
+                if (type == MarkdownTokenTypes.FENCE_LANG) {
+                    String lang = textOf(text, child).trim();
+                    if (!lang.isEmpty()) {
+                        language = lang;
+                    }
+                } else if (type == MarkdownTokenTypes.EOL && !headerDone) {
+                    contentStart = child.getEndOffset();
+                    headerDone = true;
+                } else if (type == MarkdownTokenTypes.CODE_FENCE_END) {
+                    contentEnd = child.getStartOffset();
+                }
+            }
+            if (!headerDone) {
+                contentStart = contentEnd;
+            }
+        }
+
+        StringBuilder html = new StringBuilder();
+        boolean isCollapsed = processor.openCodeBlock(html, codeBlockId, language, -1);
+        if (!isCollapsed && contentEnd > contentStart) {
+            String code = text.substring(contentStart, contentEnd);
+            if (code.endsWith("\n")) {
+                code = code.substring(0, code.length() - 1);
+            }
+            boolean indented = node.getType() == MarkdownElementTypes.CODE_BLOCK;
+            for (String line : code.split("\n", -1)) {
+                if (indented) {
+                    line = stripIndent(line);
+                }
+                html.append(highlight ? processor.applySyntaxHighlighting(line, language) : processor.escapeCodeLine(line))
+                        .append("\n");
+            }
+        }
+        if (!isCollapsed) {
+            html.append("</code></pre>");
+        }
+        html.append("</div>\n");
+        return html.toString();
+    }
+
+    /**
+     * 去掉缩进代码块每行最多4个空格（或一个制表符）的缩进
+     */
+    private static String stripIndent(String line) {
+        if (line.startsWith("\t")) {
+            return line.substring(1);
+        }
+        int i = 0;
+        while (i < 4 && i < line.length() && line.charAt(i) == ' ') {
+            i++;
+        }
+        return line.substring(i);
+    }
+
+    private static int countRows(ASTNode table) {
+        int rows = 0;
+        for (ASTNode child : table.getChildren()) {
+            if (child.getType() == GFMElementTypes.ROW) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * 只保留表头和前 maxRows 个数据行的表格视图
+     * 不能用 CompositeASTNode 重新组装，它会修改原有子节点的父节点
+     */
+    private static class RowLimitedNode implements ASTNode {
+        private final ASTNode table;
+        private final List<ASTNode> children;
+
+        RowLimitedNode(ASTNode table, int maxRows) {
+            this.table = table;
+            this.children = new ArrayList<>();
+            int rows = 0;
+            for (ASTNode child : table.getChildren()) {
+                if (child.getType() == GFMElementTypes.ROW && ++rows > maxRows) {
+                    break;
+                }
+                children.add(child);
+            }
+        }
+
+        @NotNull
+        @Override
+        public IElementType getType() {
+            return table.getType();
+        }
+
+        @Override
+        public int getStartOffset() {
+            return table.getStartOffset();
+        }
+
+        @Override
+        public int getEndOffset() {
+            return children.isEmpty() ? table.getEndOffset() : children.get(children.size() - 1).getEndOffset();
+        }
+
+        @Nullable
+        @Override
+        public ASTNode getParent() {
+            return table.getParent();
+        }
+
+        @NotNull
+        @Override
+        public List<ASTNode> getChildren() {
+            return children;
+        }
+    }
+
+    private static String textOf(String text, ASTNode node) {
+        return text.substring(node.getStartOffset(), node.getEndOffset());
+    }
+
+    private static String escapeHtml(String text) {
+        return text.replace("&", "&amp;")
+                   .replace("<", "&lt;")
+                   .replace(">", "&gt;")
+                   .replace("\"", "&quot;");
+    }
+
+    /**
+     * 输出HTML 3.2风格的标签：JTextPane的解析器不认识XHTML的自闭合写法
+     */
+    private static class SwingTagRenderer implements HtmlGenerator.TagRenderer {
+        @Override
+        public CharSequence openTag(ASTNode node, CharSequence tagName, CharSequence[] attributes, boolean autoClose) {
+            StringBuilder tag = new StringBuilder("<").append(tagName);
+            for (CharSequence attribute : attributes) {
+                if (attribute != null) {
+                    tag.append(' ').append(attribute);
+                }
+            }
+            return tag.append('>');
+        }
+
+        @Override
+        public CharSequence closeTag(CharSequence tagName) {
+            return "</" + tagName + ">";
+        }
+
+        @Override
+        public CharSequence printHtml(CharSequence html) {
+            return html;
+        }
+    }
+}
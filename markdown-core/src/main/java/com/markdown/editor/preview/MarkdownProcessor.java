@@ -12,8 +12,22 @@ import java.util.Stack;
  * 负责将Markdown文本转换为HTML
  */
 public class MarkdownProcessor {
+    
+    /**
+     * 渲染输出的版本号，修改任何会改变输出HTML的逻辑时递增，
+     * 用于使批量渲染清单等基于内容哈希的缓存失效
+     */
+    public static final int RENDERER_VERSION = 3;
+    
     private final MarkdownParser parser;
     private final GFMFlavourDescriptor flavour;
+    private final MarkdownAstRenderer astRenderer;
+    
+    // AST引擎使用的增量解析器，保存上一次的顶层块以便编辑后只重新解析受影响的部分
+    private final IncrementalMarkdownParser incrementalParser;
+    
+    // 当前使用的渲染引擎，可在两种实现之间切换对比
+    private volatile RenderEngine renderEngine = RenderEngine.REGEX;
     
     // 添加内存管理标记
     private volatile boolean disposed = false;
@@ -21,12 +35,37 @@ public class MarkdownProcessor {
     // 代码块折叠状态管理
     private final java.util.Map<String, Boolean> codeBlockFoldStates = new java.util.concurrent.ConcurrentHashMap<>();
     
+    // 渲染时间预算（毫秒），小于等于0表示不限制
+    private volatile long renderBudgetMillis = 200;
+    
+    // 降级渲染后用户手动展开的表格和章节
+    private final java.util.Set<String> expandedRegions = java.util.concurrent.ConcurrentHashMap.newKeySet();
+    
+    // 最近一次渲染的预算统计
+    private volatile RenderBudget lastRenderBudget;
+    
+    // 超长行是否按块折行显示
+    private volatile boolean softWrapLongLines = true;
+    
+    // 代码块是否带有 fold:// 折叠链接，只有预览面板能处理这种链接，导出时关闭
+    private volatile boolean foldLinks = true;
+    
+    // 渲染结果缓存（可选），命中时跳过解析和渲染
+    private volatile RenderCache renderCache;
+    
+    // 最近一次查找或写入的缓存键，没有使用缓存时为null
+    private volatile String lastCacheKey;
+    
+    // 下一次渲染是否先查缓存：只在打开文档后的第一次渲染查找，之后的编辑不再计算缓存键
+    private volatile boolean cacheLookupPending = true;
+    
+    // 最近一次完整渲染的结果，等预览空闲或关闭时由 flushRenderCache 写入缓存
+    private final java.util.concurrent.atomic.AtomicReference<PendingCacheEntry> pendingCacheEntry =
+            new java.util.concurrent.atomic.AtomicReference<>();
+    
+    // 小于该长度的文档渲染足够快，不使用缓存
+    public static final int MIN_CACHED_CHARS = 8 * 1024;
     
-    // 性能优化：预编译正则表达式
-    private static final java.util.regex.Pattern INLINE_CODE_PATTERN = java.util.regex.Pattern.compile("`([^`]*)`");
-    private static final java.util.regex.Pattern BOLD_PATTERN = java.util.regex.Pattern.compile("\\*\\*([^*]+)\\*\\*");
-    private static final java.util.regex.Pattern ITALIC_PATTERN = java.util.regex.Pattern.compile("\\*([^*]+)\\*");
-    private static final java.util.regex.Pattern LINK_PATTERN = java.util.regex.Pattern.compile("\\[([^\\]]+)\\]\\(([^\\)]+)\\)");
     
     // 性能优化：常用字符串常量
     private static final String COMMENT_STYLE = "color: #6A9955; font-style: italic;";
@@ -34,9 +73,118 @@ public class MarkdownProcessor {
     private static final String KEYWORD_STYLE = "color: #569CD6; font-weight: bold;";
     private static final String NUMBER_STYLE = "color: #B5CEA8;";
     
+    // 展开全部降级区域的链接ID
+    public static final String EXPAND_ALL = "all";
+    
+    // 长行保护：超过该长度的代码行按块处理，避免高亮和Swing排版在单个超长的<pre>行上卡死；
+    // 段落由HTML自动换行，行内格式是线性的，不需要分块
+    static final int LONG_LINE_THRESHOLD = 2_000;
+    // 长行分块的长度
+    static final int LONG_LINE_CHUNK = 512;
+    // 超过该长度的行不再高亮，只做转义
+    static final int UNHIGHLIGHTED_LINE_THRESHOLD = 64 * 1024;
+    // 分块时向前寻找空白或标点作为断点的最大距离
+    private static final int CHUNK_BREAK_LOOKBACK = 64;
+    
     public MarkdownProcessor() {
-        this.flavour = new GFMFlavourDescriptor();
+        this.flavour = new LinearTimeFlavourDescriptor();
         this.parser = new MarkdownParser(flavour);
+        this.astRenderer = new MarkdownAstRenderer(this, flavour, parser);
+        this.incrementalParser = new IncrementalMarkdownParser(parser);
+    }
+    
+    /**
+     * 设置渲染引擎
+     */
+    public void setRenderEngine(RenderEngine renderEngine) {
+        this.renderEngine = renderEngine != null ? renderEngine : RenderEngine.REGEX;
+        if (this.renderEngine != RenderEngine.AST) {
+            incrementalParser.clear();
+        }
+    }
+    
+    public RenderEngine getRenderEngine() {
+        return renderEngine;
+    }
+    
+    /**
+     * 设置渲染时间预算，超出预算后逐级降级渲染
+     * @param renderBudgetMillis 预算毫秒数，小于等于0表示不限制
+     */
+    public void setRenderBudgetMillis(long renderBudgetMillis) {
+        this.renderBudgetMillis = renderBudgetMillis;
+    }
+    
+    public long getRenderBudgetMillis() {
+        return renderBudgetMillis;
+    }
+    
+    /**
+     * 设置是否把超长代码行按块折行显示（只影响<pre>中的内容，段落不插入换行）
+     */
+    public void setSoftWrapLongLines(boolean softWrapLongLines) {
+        this.softWrapLongLines = softWrapLongLines;
+    }
+    
+    /**
+     * 设置代码块是否输出折叠链接；关闭时代码块总是展开，页面中不含预览专用的链接
+     */
+    public void setFoldLinks(boolean foldLinks) {
+        this.foldLinks = foldLinks;
+    }
+    
+    /**
+     * 设置渲染结果缓存，为null时不使用缓存
+     */
+    public void setRenderCache(RenderCache renderCache) {
+        if (renderCache != this.renderCache) {
+            // 换了缓存（例如刚启用），下一次渲染重新查找
+            cacheLookupPending = true;
+        }
+        this.renderCache = renderCache;
+    }
+    
+    /**
+     * 下一次渲染先查渲染缓存，用同一个处理器渲染另一个文档之前调用
+     */
+    public void resetRenderCacheLookup() {
+        cacheLookupPending = true;
+        pendingCacheEntry.set(null);
+    }
+    
+    /**
+     * 把最近一次完整渲染的结果写入渲染缓存：计算缓存键并写入磁盘，不要在EDT上调用。
+     * 在预览空闲或关闭时调用，没有待写入的结果时什么也不做；处理器释放后仍可调用
+     */
+    public void flushRenderCache() {
+        PendingCacheEntry entry = pendingCacheEntry.getAndSet(null);
+        RenderCache cache = renderCache;
+        if (entry == null || cache == null) {
+            return;
+        }
+        String key = entry.key != null ? entry.key : cacheKey(entry.markdownText, entry.configuration);
+        cache.put(key, entry.html);
+        lastCacheKey = key;
+    }
+    
+    /**
+     * 最近一次渲染的耗时和启用的降级步骤，尚未渲染时为null
+     */
+    public RenderBudget getLastRenderBudget() {
+        return lastRenderBudget;
+    }
+    
+    /**
+     * 展开降级渲染中被折叠的表格或延迟的章节，"all" 表示取消当前文档的时间预算
+     */
+    public void expandRegion(String regionId) {
+        if (regionId != null && !regionId.isEmpty()) {
+            expandedRegions.add(regionId);
+        }
+    }
+    
+    boolean isRegionExpanded(String regionId) {
+        return expandedRegions.contains(regionId);
     }
     
     /**
@@ -45,6 +193,24 @@ public class MarkdownProcessor {
      * @return 渲染后的HTML字符串
      */
     public String processMarkdown(String markdownText) {
+        return processMarkdown(markdownText, null);
+    }
+    
+    /**
+     * AST引擎是否还没有可以增量更新的解析结果；只有这时调用方提供的语法树才会被使用
+     */
+    public boolean needsParsedTree() {
+        return !incrementalParser.hasState();
+    }
+    
+    /**
+     * 处理Markdown文本并转换为HTML，AST引擎下可直接使用已解析好的语法树
+     * @param markdownText 原始Markdown文本
+     * @param parsedTree 与文本对应的语法树（例如来自IDE的PSI），只用于第一次解析，
+     *                   之后按增量解析的结果渲染；为null时自行解析
+     * @return 渲染后的HTML字符串
+     */
+    public String processMarkdown(String markdownText, ASTNode parsedTree) {
         // 防御性检查：如果已释放则不处理
         if (disposed) {
             System.err.println("⚠️ MarkdownProcessor已释放，无法处理内容");
@@ -56,12 +222,58 @@ public class MarkdownProcessor {
         }
         
         try {
+            RenderBudget budget = new RenderBudget(
+                    isRegionExpanded(EXPAND_ALL) ? RenderBudget.UNLIMITED : renderBudgetMillis);
+            
+            // 缓存的是未降级的完整渲染结果，有代码块被手动折叠时输出与缓存不同，不使用缓存。
+            // 这里只读：只有打开文档后的第一次渲染计算缓存键并查找，写入推迟到 flushRenderCache
+            RenderCache cache = renderCache;
+            boolean cacheable = cache != null && markdownText.length() >= MIN_CACHED_CHARS
+                    && !codeBlockFoldStates.containsValue(true);
+            String configuration = cacheable ? cacheConfiguration() : null;
+            String cacheKey = null;
+            boolean lookUp = cacheLookupPending;
+            cacheLookupPending = false;
+            if (cacheable && lookUp) {
+                cacheKey = cacheKey(markdownText, configuration);
+                lastCacheKey = cacheKey;
+                String cached = cache.get(cacheKey);
+                if (cached != null) {
+                    pendingCacheEntry.set(null);
+                    budget.finish();
+                    lastRenderBudget = budget;
+                    return "<html><body>" + cached + "</body></html>";
+                }
+            }
             
             // 使用简化的HTML生成，避免复杂CSS
-            String basicHtml = convertToSimpleHtml(markdownText);
-            String result = "<html><body>" + basicHtml + "</body></html>";
+            String basicHtml;
+            if (renderEngine == RenderEngine.AST) {
+                budget.stage("parse");
+                java.util.List<IncrementalMarkdownParser.Block> blocks = parsedTree != null && !incrementalParser.hasState()
+                        ? incrementalParser.reset(markdownText, parsedTree)
+                        : incrementalParser.parse(markdownText);
+                budget.stage("render");
+                basicHtml = astRenderer.render(blocks, budget, markdownText);
+            } else {
+                budget.stage("render");
+                basicHtml = convertToSimpleHtml(markdownText, budget);
+            }
+            budget.finish();
+            lastRenderBudget = budget;
+            pendingCacheEntry.set(cacheable && budget.getActiveDegradations().isEmpty()
+                    ? new PendingCacheEntry(markdownText, basicHtml, configuration, cacheKey)
+                    : null);
+            
+            StringBuilder result = new StringBuilder(basicHtml.length() + 512);
+            result.append("<html><body>");
+            if (!budget.getActiveDegradations().isEmpty()) {
+                appendDegradationBanner(result, budget);
+                System.out.println("⏱️ 渲染超出预算: " + budget.describeStages() + ", 降级: " + budget.getActiveDegradations());
+            }
+            result.append(basicHtml).append("</body></html>");
             
-            return result;
+            return result.toString();
             
         } catch (Exception e) {
             return "<html><body><p style='color: red;'>解析错误: " + e.getMessage() + "</p></body></html>";
@@ -69,10 +281,99 @@ public class MarkdownProcessor {
     }
     
     
+    /**
+     * 尚未写入缓存的渲染结果，配置在渲染时记下，写入时配置可能已经改变
+     */
+    private static final class PendingCacheEntry {
+        final String markdownText;
+        final String html;
+        final String configuration;
+        // 第一次渲染查找时已经算好的缓存键，否则为null
+        final String key;
+        
+        PendingCacheEntry(String markdownText, String html, String configuration, String key) {
+            this.markdownText = markdownText;
+            this.html = html;
+            this.configuration = configuration;
+            this.key = key;
+        }
+    }
+    
+    /**
+     * 影响输出的渲染配置，参与缓存键的计算
+     */
+    private String cacheConfiguration() {
+        return "renderer=" + RENDERER_VERSION + " engine=" + renderEngine + " softWrap=" + softWrapLongLines + " foldLinks=" + foldLinks + "\n";
+    }
+    
+    /**
+     * 缓存键：文档内容与影响输出的渲染配置的SHA-256
+     */
+    private static String cacheKey(String markdownText, String configuration) {
+        try {
+            java.security.MessageDigest digest = java.security.MessageDigest.getInstance("SHA-256");
+            digest.update(configuration.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            byte[] hash = digest.digest(markdownText.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            StringBuilder key = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return key.toString();
+        } catch (java.security.NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+    
+    /**
+     * 在预览顶部列出本次渲染启用的降级步骤，并提供完整渲染的入口
+     */
+    private void appendDegradationBanner(StringBuilder html, RenderBudget budget) {
+        StringBuilder steps = new StringBuilder();
+        for (RenderBudget.Degradation degradation : budget.getActiveDegradations()) {
+            if (steps.length() > 0) {
+                steps.append("、");
+            }
+            steps.append(degradation.getDescription());
+        }
+        html.append("<p style=\"color: #E5C07B; margin: 0 0 6px 0;\">⚡ 渲染耗时 ")
+            .append(budget.getElapsedMillis()).append(" ms，超出 ").append(renderBudgetMillis)
+            .append(" ms 预算，已降级：").append(steps)
+            .append(" <a href=\"expand://").append(EXPAND_ALL)
+            .append("\" style=\"color: #4FC3F7;\">完整渲染</a></p>\n");
+    }
+    
+    /**
+     * 输出被折叠表格的提示行
+     */
+    void appendCollapsedTableNotice(StringBuilder html, String tableId, int hiddenRows) {
+        html.append("<p style=\"color: #888888; margin: 0 0 6px 0;\">⋯ 还有 ").append(hiddenRows)
+            .append(" 行未显示 <a href=\"expand://").append(tableId)
+            .append("\" style=\"color: #4FC3F7;\">展开表格</a></p>\n");
+    }
+    
+    /**
+     * 输出延迟渲染章节的占位链接
+     */
+    void appendDeferredSection(StringBuilder html, String sectionId, int deferredChars) {
+        html.append("<p style=\"color: #888888;\">⋯ 本节内容延迟渲染（约 ")
+            .append(Math.max(1, deferredChars / 1024)).append(" KB） <a href=\"expand://").append(sectionId)
+            .append("\" style=\"color: #4FC3F7;\">渲染本节</a></p>\n");
+    }
+    
+    /**
+     * 由标题文本生成章节ID；同名标题按出现次数区分，编辑其他章节时ID保持不变
+     */
+    String sectionId(String headingSource, java.util.Map<String, Integer> occurrences) {
+        String key = headingSource.trim();
+        int occurrence = occurrences.merge(key, 1, Integer::sum);
+        return "section-" + Integer.toHexString(key.hashCode()) + "-" + occurrence;
+    }
+    
     /**
      * 转换为简单HTML，只使用基础标签，避免复杂CSS
+     * 每行检查一次时间预算，超出后按 RenderBudget 的步骤降级
      */
-    private String convertToSimpleHtml(String markdown) {
+    private String convertToSimpleHtml(String markdown, RenderBudget budget) {
         StringBuilder html = new StringBuilder();
         
         String[] lines = markdown.split("\n");
@@ -83,9 +384,20 @@ public class MarkdownProcessor {
         Stack<String> listStack = new Stack<>(); // 跟踪嵌套列表类型
         int lastListLevel = -1; // 跟踪列表层级
         int codeBlockIndex = 0; // 代码块索引，基于文档位置
+        boolean highlightCodeBlock = true; // 当前代码块是否做语法高亮
+        int tableIndex = 0; // 表格索引，基于文档位置
+        int tableRows = 0; // 当前表格已处理的数据行数
+        int hiddenTableRows = 0; // 当前表格因降级未显示的数据行数
+        java.util.Map<String, Integer> sectionOccurrences = new java.util.HashMap<>();
+        int lineOffset = 0; // 当前行在文档中的偏移
+        int offsetLine = 0; // lineOffset 对应的行号
         
         for (int i = 0; i < lines.length; i++) {
             String line = lines[i];
+            for (; offsetLine < i; offsetLine++) {
+                lineOffset += lines[offsetLine].length() + 1;
+            }
+            budget.checkpoint();
             // 代码块处理 (支持折叠)
             if (line.startsWith("```")) {
                 if (inCodeBlock) {
@@ -107,28 +419,10 @@ public class MarkdownProcessor {
                     codeBlockIndex++;
                     currentCodeBlockId = "codeblock-" + codeBlockIndex;
                     
-                    // 如果是新代码块，初始化为展开状态
-                    if (!codeBlockFoldStates.containsKey(currentCodeBlockId)) {
-                        codeBlockFoldStates.put(currentCodeBlockId, false); // 默认展开
-                    }
-                    
-                    boolean isCollapsed = codeBlockFoldStates.getOrDefault(currentCodeBlockId, false);
+                    boolean isCollapsed = openCodeBlock(html, currentCodeBlockId, codeBlockLanguage, i);
+                    highlightCodeBlock = !budget.isActive(RenderBudget.Degradation.PLAIN_FENCES);
                     
                     System.out.println("📝 生成代码块: " + currentCodeBlockId + ", 语言: " + codeBlockLanguage + ", 折叠: " + isCollapsed + ", 文档位置: " + codeBlockIndex);
-                    
-                    // 创建有边框的代码块结构
-                    html.append("<div style=\"border: 1px solid #404040; margin: 6px 0; background: transparent;\">");
-                    html.append("<p style=\"margin: 0; padding: 4px 8px; background: transparent; border-bottom: 1px solid #404040;\">");
-                    html.append("<a href=\"fold://").append(currentCodeBlockId).append("\" style=\"color: #4FC3F7; text-decoration: none; font-weight: bold; background: transparent;\">");
-                    html.append(isCollapsed ? "▶ 展开" : "▼ 折叠");
-                    html.append("</a>");
-                    html.append(" <span style=\"color: #CCCCCC; font-size: 10px; background: transparent;\">").append(codeBlockLanguage.toUpperCase()).append("</span>");
-                    html.append("</p>");
-                    
-                    // 代码内容容器 - 有内边距但无额外边框
-                    if (!isCollapsed) {
-                        html.append("<pre style=\"color: #D4D4D4; font-family: monospace; font-size: 10px; padding: 8px; margin: 0; border: none; background: transparent;\"><code>");
-                    }
                     inCodeBlock = true;
                 }
                 continue;
@@ -141,8 +435,11 @@ public class MarkdownProcessor {
                     if (!inTable) {
                         closeAllLists(html, listStack);
                         lastListLevel = -1;
-                        html.append("<table>");
+                        openTag(html, "table", i);
                         inTable = true;
+                        tableIndex++;
+                        tableRows = 0;
+                        hiddenTableRows = 0;
                     }
                     // 处理表头
                     html.append("<thead><tr>");
@@ -155,7 +452,14 @@ public class MarkdownProcessor {
                     i++; // 跳过分隔符行
                     continue;
                 } else if (inTable && isTableRow(line)) {
-                    // 处理表格数据行
+                    // 处理表格数据行，预算不足时折叠超出的行
+                    tableRows++;
+                    if (tableRows > RenderBudget.COLLAPSED_TABLE_ROWS
+                            && budget.isActive(RenderBudget.Degradation.COLLAPSED_TABLES)
+                            && !isRegionExpanded("table-" + tableIndex)) {
+                        hiddenTableRows++;
+                        continue;
+                    }
                     html.append("<tr>");
                     String[] cells = parseTableRow(line);
                     for (String cell : cells) {
@@ -166,12 +470,12 @@ public class MarkdownProcessor {
                     continue;
                 } else if (inTable) {
                     // 非表格行，结束表格
-                    html.append("</tbody></table>");
+                    closeTable(html, tableIndex, hiddenTableRows);
                     inTable = false;
                 }
             } else if (inTable && !isTableRow(line)) {
                 // 结束表格
-                html.append("</tbody></table>");
+                closeTable(html, tableIndex, hiddenTableRows);
                 inTable = false;
             }
             
@@ -195,7 +499,9 @@ public class MarkdownProcessor {
                     boolean isCollapsed = codeBlockFoldStates.getOrDefault(currentCodeBlockId, false);
                     
                     if (!isCollapsed) {
-                        String highlightedCode = applySyntaxHighlighting(line, codeBlockLanguage);
+                        String highlightedCode = highlightCodeBlock
+                                ? applySyntaxHighlighting(line, codeBlockLanguage)
+                                : escapeCodeLine(line);
                         html.append(highlightedCode).append("\n");
                     }
                 }
@@ -204,17 +510,17 @@ public class MarkdownProcessor {
             
             // 标题处理
             if (line.startsWith("######")) {
-                html.append("<h6>").append(processInlineFormatting(line.substring(6).trim())).append("</h6>\n");
+                openTag(html, "h6", i).append(processInlineFormatting(line.substring(6).trim())).append("</h6>\n");
             } else if (line.startsWith("#####")) {
-                html.append("<h5>").append(processInlineFormatting(line.substring(5).trim())).append("</h5>\n");
+                openTag(html, "h5", i).append(processInlineFormatting(line.substring(5).trim())).append("</h5>\n");
             } else if (line.startsWith("####")) {
-                html.append("<h4>").append(processInlineFormatting(line.substring(4).trim())).append("</h4>\n");
+                openTag(html, "h4", i).append(processInlineFormatting(line.substring(4).trim())).append("</h4>\n");
             } else if (line.startsWith("###")) {
-                html.append("<h3>").append(processInlineFormatting(line.substring(3).trim())).append("</h3>\n");
+                openTag(html, "h3", i).append(processInlineFormatting(line.substring(3).trim())).append("</h3>\n");
             } else if (line.startsWith("##")) {
-                html.append("<h2>").append(processInlineFormatting(line.substring(2).trim())).append("</h2>\n");
+                openTag(html, "h2", i).append(processInlineFormatting(line.substring(2).trim())).append("</h2>\n");
             } else if (line.startsWith("#")) {
-                html.append("<h1>").append(processInlineFormatting(line.substring(1).trim())).append("</h1>\n");
+                openTag(html, "h1", i).append(processInlineFormatting(line.substring(1).trim())).append("</h1>\n");
             }
             // 列表处理 (支持多级嵌套)
             else if (line.matches("^\\s*[*+-]\\s+.*") || line.matches("^\\s*\\d+\\.\\s+.*")) {
@@ -232,18 +538,18 @@ public class MarkdownProcessor {
                 } else {
                     content = line.replaceAll("^\\s*[*+-]\\s+", "");
                 }
-                html.append("<li>").append(processInlineFormatting(content)).append("</li>\n");
+                openTag(html, "li", i).append(processInlineFormatting(content)).append("</li>\n");
                 
                 lastListLevel = currentLevel;
             }
             // 引用处理
             else if (line.startsWith(">")) {
                 String content = line.substring(1).trim();
-                html.append("<blockquote>").append(processInlineFormatting(content)).append("</blockquote>\n");
+                openTag(html, "blockquote", i).append(processInlineFormatting(content)).append("</blockquote>\n");
             }
             // 分隔线
             else if (line.matches("^\\s*[-*_]{3,}\\s*$")) {
-                html.append("<hr>\n");
+                openTag(html, "hr", i).append("\n");
             }
             // 空行处理
             else if (line.trim().isEmpty()) {
@@ -255,7 +561,22 @@ public class MarkdownProcessor {
             else {
                 closeAllLists(html, listStack);
                 lastListLevel = -1;
-                html.append("<p>").append(processInlineFormatting(line)).append("</p>\n");
+                openTag(html, "p", i).append(processInlineFormatting(line)).append("</p>\n");
+            }
+            
+            // 预算耗尽后，标题之后的章节只输出占位链接，点击后再渲染
+            if (line.startsWith("#") && budget.isActive(RenderBudget.Degradation.DEFERRED_SECTIONS)
+                    && lineOffset >= RenderBudget.EAGER_RENDER_CHARS) {
+                int sectionEnd = findSectionEnd(lines, i + 1);
+                String sectionId = sectionId(line, sectionOccurrences);
+                if (sectionEnd > i + 1 && !isRegionExpanded(sectionId)) {
+                    int deferredChars = 0;
+                    for (int j = i + 1; j < sectionEnd; j++) {
+                        deferredChars += lines[j].length() + 1;
+                    }
+                    appendDeferredSection(html, sectionId, deferredChars);
+                    i = sectionEnd - 1;
+                }
             }
         }
         
@@ -271,7 +592,7 @@ public class MarkdownProcessor {
         
         // 关闭未闭合的表格
         if (inTable) {
-            html.append("</tbody></table>");
+            closeTable(html, tableIndex, hiddenTableRows);
         }
         
         closeAllLists(html, listStack);
@@ -279,32 +600,177 @@ public class MarkdownProcessor {
         return html.toString();
     }
     
+    /**
+     * 关闭表格，有被折叠的行时在表格下方输出展开链接
+     */
+    private void closeTable(StringBuilder html, int tableIndex, int hiddenRows) {
+        html.append("</tbody></table>");
+        if (hiddenRows > 0) {
+            appendCollapsedTableNotice(html, "table-" + tableIndex, hiddenRows);
+        }
+    }
+    
+    /**
+     * 查找从 from 开始的章节的结束行（下一个不在代码块内的标题行）
+     */
+    private static int findSectionEnd(String[] lines, int from) {
+        boolean inFence = false;
+        for (int i = from; i < lines.length; i++) {
+            if (lines[i].startsWith("```")) {
+                inFence = !inFence;
+            } else if (!inFence && lines[i].startsWith("#")) {
+                return i;
+            }
+        }
+        return lines.length;
+    }
+    
+    /**
+     * 输出代码块的折叠头部和内容容器的开始标签
+     * 正则引擎和AST引擎共用，保证两种渲染方式的代码块结构一致
+     * @param line 代码块在源文件中的起始行，小于0时不输出行号ID
+     * @return 代码块当前是否处于折叠状态
+     */
+    boolean openCodeBlock(StringBuilder html, String codeBlockId, String language, int line) {
+        // 如果是新代码块，初始化为展开状态
+        boolean isCollapsed = false;
+        if (foldLinks) {
+            codeBlockFoldStates.putIfAbsent(codeBlockId, false); // 默认展开
+            isCollapsed = codeBlockFoldStates.getOrDefault(codeBlockId, false);
+        }
+        
+        // 创建有边框的代码块结构
+        html.append("<div");
+        if (line >= 0) {
+            SourceMap.appendLineId(html, line);
+        }
+        html.append(" style=\"border: 1px solid #404040; margin: 6px 0; background: transparent;\">");
+        html.append("<p style=\"margin: 0; padding: 4px 8px; background: transparent; border-bottom: 1px solid #404040;\">");
+        if (foldLinks) {
+            html.append("<a href=\"fold://").append(codeBlockId).append("\" style=\"color: #4FC3F7; text-decoration: none; font-weight: bold; background: transparent;\">");
+            html.append(isCollapsed ? "▶ 展开" : "▼ 折叠");
+            html.append("</a> ");
+        }
+        html.append("<span style=\"color: #CCCCCC; font-size: 10px; background: transparent;\">").append(language.toUpperCase()).append("</span>");
+        html.append("</p>");
+        
+        // 代码内容容器 - 有内边距但无额外边框
+        if (!isCollapsed) {
+            html.append("<pre style=\"color: #D4D4D4; font-family: monospace; font-size: 10px; padding: 8px; margin: 0; border: none; background: transparent;\"><code>");
+        }
+        return isCollapsed;
+    }
+    
+    /**
+     * 输出带源文件行号ID的块开始标签，供预览建立 SourceMap
+     */
+    private static StringBuilder openTag(StringBuilder html, String tag, int line) {
+        return SourceMap.appendLineId(html.append('<').append(tag), line).append('>');
+    }
+    
     /**
      * 处理行内格式（粗体、斜体、链接等） - 性能优化版本
      */
-    private String processInlineFormatting(String text) {
+    String processInlineFormatting(String text) {
         if (text == null) return "";
         
         // 先进行HTML转义
         text = escapeHtml(text);
         
-        // 使用预编译的正则表达式进行格式化，避免重复编译
+        // 每一步都是线性扫描，不使用可能回溯的正则表达式
         
         // 处理链接 [text](url)
-        text = LINK_PATTERN.matcher(text).replaceAll("<a href=\"$2\">$1</a>");
+        text = replaceLinks(text);
         
         // 处理粗体 **text**
-        text = BOLD_PATTERN.matcher(text).replaceAll("<strong>$1</strong>");
+        text = replaceDelimited(text, "**", "<strong>", "</strong>", false);
         
         // 处理斜体 *text*  
-        text = ITALIC_PATTERN.matcher(text).replaceAll("<em>$1</em>");
+        text = replaceDelimited(text, "*", "<em>", "</em>", false);
         
         // 处理行内代码 `code`
-        text = INLINE_CODE_PATTERN.matcher(text).replaceAll("<code>$1</code>");
+        text = replaceDelimited(text, "`", "<code>", "</code>", true);
         
         return text;
     }
     
+    /**
+     * 把 [text](url) 替换为链接：text 不含 ]，url 不含 )，两者都不能为空
+     * 向后查找的位置只会前进，整行只扫描常数遍
+     */
+    private static String replaceLinks(String text) {
+        if (text.indexOf('[') == -1) {
+            return text;
+        }
+        StringBuilder result = new StringBuilder(text.length() + 32);
+        int nextBracket = -1;
+        int nextParen = -1;
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (c == '[') {
+                nextBracket = nextIndexOf(text, ']', i + 1, nextBracket);
+                int labelEnd = nextBracket;
+                if (labelEnd < text.length() && labelEnd > i + 1
+                        && labelEnd + 1 < text.length() && text.charAt(labelEnd + 1) == '(') {
+                    nextParen = nextIndexOf(text, ')', labelEnd + 2, nextParen);
+                    int urlEnd = nextParen;
+                    if (urlEnd < text.length() && urlEnd > labelEnd + 2) {
+                        result.append("<a href=\"").append(text, labelEnd + 2, urlEnd).append("\">")
+                              .append(text, i + 1, labelEnd).append("</a>");
+                        i = urlEnd + 1;
+                        continue;
+                    }
+                }
+            }
+            result.append(c);
+            i++;
+        }
+        return result.toString();
+    }
+    
+    /**
+     * 把 delimiter 包围的内容替换为 openTag...closeTag，内容不能包含分隔符的首字符
+     * @param allowEmpty 是否允许空内容
+     */
+    private static String replaceDelimited(String text, String delimiter, String openTag, String closeTag, boolean allowEmpty) {
+        char marker = delimiter.charAt(0);
+        if (text.indexOf(marker) == -1) {
+            return text;
+        }
+        StringBuilder result = new StringBuilder(text.length() + 32);
+        int length = delimiter.length();
+        int nextMarker = -1;
+        int i = 0;
+        while (i < text.length()) {
+            if (text.startsWith(delimiter, i)) {
+                nextMarker = nextIndexOf(text, marker, i + length, nextMarker);
+                int contentEnd = nextMarker;
+                if (contentEnd < text.length() && (allowEmpty || contentEnd > i + length)
+                        && text.startsWith(delimiter, contentEnd)) {
+                    result.append(openTag).append(text, i + length, contentEnd).append(closeTag);
+                    i = contentEnd + length;
+                    continue;
+                }
+            }
+            result.append(text.charAt(i));
+            i++;
+        }
+        return result.toString();
+    }
+    
+    /**
+     * 查找 from 之后第一个 c 的位置，找不到时返回 text.length()
+     * cached 为上一次的结果，仍在 from 之后时直接复用，使连续查找的总开销为线性
+     */
+    private static int nextIndexOf(String text, char c, int from, int cached) {
+        if (cached >= from) {
+            return cached;
+        }
+        int index = text.indexOf(c, from);
+        return index == -1 ? text.length() : index;
+    }
+    
     /**
      * HTML转义
      */
@@ -1271,8 +1737,9 @@ public class MarkdownProcessor {
     
     /**
      * 为单行代码应用语法高亮
+     * 超长行按固定长度分块高亮（更长的行只转义），总开销与行长度成线性关系
      */
-    private String applySyntaxHighlighting(String line, String language) {
+    String applySyntaxHighlighting(String line, String language) {
         if (line == null) {
             return "";
         }
@@ -1282,6 +1749,71 @@ public class MarkdownProcessor {
             return line;
         }
         
+        if (line.length() > LONG_LINE_THRESHOLD) {
+            StringBuilder result = new StringBuilder(line.length() + line.length() / 4);
+            appendLongLine(result, line, line.length() <= UNHIGHLIGHTED_LINE_THRESHOLD ? language : null, "\n");
+            return result.toString();
+        }
+        return highlightLine(line, language);
+    }
+    
+    /**
+     * 不做高亮，只转义代码行；超长行同样按块折行
+     */
+    String escapeCodeLine(String line) {
+        if (line == null) {
+            return "";
+        }
+        if (line.length() <= LONG_LINE_THRESHOLD) {
+            return escapeHtml(line);
+        }
+        StringBuilder result = new StringBuilder(line.length() + line.length() / 8);
+        appendLongLine(result, line, null, "\n");
+        return result.toString();
+    }
+    
+    /**
+     * 按块输出超长行
+     * @param language 高亮语言，为null时只转义
+     * @param softBreak 开启折行显示时块之间插入的分隔
+     */
+    private void appendLongLine(StringBuilder result, String line, String language, String softBreak) {
+        int start = 0;
+        while (start < line.length()) {
+            int end = chunkEnd(line, start);
+            String chunk = line.substring(start, end);
+            if (start > 0 && softWrapLongLines) {
+                result.append(softBreak);
+            }
+            result.append(language != null ? highlightLine(chunk, language) : escapeHtml(chunk));
+            start = end;
+        }
+    }
+    
+    /**
+     * 计算从 start 开始的块的结束位置，尽量断在空白或标点之后，不拆开代理对
+     */
+    private static int chunkEnd(String line, int start) {
+        int end = Math.min(line.length(), start + LONG_LINE_CHUNK);
+        if (end == line.length()) {
+            return end;
+        }
+        for (int i = end; i > end - CHUNK_BREAK_LOOKBACK; i--) {
+            char c = line.charAt(i - 1);
+            if (Character.isWhitespace(c) || c == ',' || c == ';') {
+                return i;
+            }
+        }
+        if (Character.isHighSurrogate(line.charAt(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+    
+    /**
+     * 对长度受限的单行代码做语法高亮
+     */
+    private String highlightLine(String line, String language) {
         // 先处理制表符和前导空格，保持缩进
         StringBuilder processedLine = new StringBuilder();
         int i = 0;
@@ -1319,13 +1851,21 @@ public class MarkdownProcessor {
             return "";
         }
         
-        StringBuilder result = new StringBuilder();
+        StringBuilder result = new StringBuilder(highlighted.length() + 16);
         int i = 0;
+        // 下一个 '>' 的位置只向前推进，避免每个 '<' 都扫描到行尾
+        int nextTagEnd = -1;
         
         while (i < highlighted.length()) {
             // 检查是否是HTML标签开始
             if (highlighted.charAt(i) == '<') {
-                int tagEnd = highlighted.indexOf('>', i);
+                if (nextTagEnd < i) {
+                    nextTagEnd = highlighted.indexOf('>', i);
+                    if (nextTagEnd == -1) {
+                        nextTagEnd = highlighted.length();
+                    }
+                }
+                int tagEnd = nextTagEnd < highlighted.length() ? nextTagEnd : -1;
                 if (tagEnd != -1) {
                     // 这是一个完整的HTML标签，直接保留
                     result.append(highlighted.substring(i, tagEnd + 1));
@@ -1336,13 +1876,18 @@ public class MarkdownProcessor {
                     i++;
                 }
             } else if (highlighted.charAt(i) == '&') {
-                // 检查是否已经是转义序列
-                int semicolon = highlighted.indexOf(';', i);
-                if (semicolon != -1 && semicolon - i <= 8) { // 常见转义序列长度不超过8
-                    String sequence = highlighted.substring(i, semicolon + 1);
-                    if (sequence.matches("&(nbsp|amp|lt|gt|quot|#39|#x[0-9a-fA-F]+|#\\d+);")) {
+                // 检查是否已经是转义序列，只在常见转义序列的最大长度内查找分号
+                int semicolon = -1;
+                for (int j = i + 1; j < highlighted.length() && j - i <= 8; j++) {
+                    if (highlighted.charAt(j) == ';') {
+                        semicolon = j;
+                        break;
+                    }
+                }
+                if (semicolon != -1) {
+                    if (isEntity(highlighted, i + 1, semicolon)) {
                         // 已经是转义序列，保留
-                        result.append(sequence);
+                        result.append(highlighted, i, semicolon + 1);
                         i = semicolon + 1;
                     } else {
                         // 普通的&符号，转义
@@ -1379,219 +1924,47 @@ public class MarkdownProcessor {
     }
     
     /**
-     * 根据语言应用语法高亮
+     * 判断 text[start, end) 是否为 nbsp/amp/lt/gt/quot/#39 或数字字符引用的名称部分
      */
-    private String highlightByLanguage(String line, String language) {
-        if (language == null) language = "";
-        
-        // 始终使用暗黑主题
-        boolean isDark = true;
-        
-        switch (language.toLowerCase()) {
-            case "java":
-                return highlightJava(line, isDark);
-            case "javascript":
-            case "js":
-                return highlightJavaScript(line, isDark);
-            case "python":
-            case "py":
-                return highlightPython(line, isDark);
-            case "html":
-                return highlightHtml(line, isDark);
-            case "css":
-                return highlightCss(line, isDark);
-            case "json":
-                return highlightJson(line, isDark);
-            default:
-                return highlightGeneric(line, isDark);
-        }
-    }
-    
-    /**
-     * Java语法高亮
-     */
-    private String highlightJava(String line, boolean isDark) {
-        // Java关键字
-        String[] keywords = {"public", "private", "protected", "static", "final", "class", "interface", 
-                           "extends", "implements", "import", "package", "void", "int", "String", "boolean",
-                           "if", "else", "for", "while", "do", "switch", "case", "break", "continue", "return",
-                           "new", "this", "super", "try", "catch", "finally", "throw", "throws"};
-        
-        String keywordColor = isDark ? "#ff7b72" : "#cf222e";  // 红色
-        String stringColor = isDark ? "#a5d6ff" : "#0a3069";   // 蓝色
-        String commentColor = isDark ? "#8b949e" : "#6a737d";  // 灰色
-        
-        // 处理注释（优先级最高，避免在注释中进行其他高亮）
-        if (line.contains("//")) {
-            int commentIndex = line.indexOf("//");
-            String beforeComment = line.substring(0, commentIndex);
-            String comment = line.substring(commentIndex);
-            
-            // 对注释前的部分进行高亮处理
-            beforeComment = highlightJavaKeywordsAndStrings(beforeComment, keywords, keywordColor, stringColor);
-            
-            // 注释部分单独处理
-            comment = "<span style=\"color: " + commentColor + "; font-style: italic; background: transparent;\">" + comment + "</span>";
-            
-            return beforeComment + comment;
-        } else {
-            // 没有注释，正常处理
-            return highlightJavaKeywordsAndStrings(line, keywords, keywordColor, stringColor);
+    private static boolean isEntity(String text, int start, int end) {
+        if (end <= start) {
+            return false;
         }
-    }
-    
-    /**
-     * 高亮Java关键字和字符串
-     */
-    private String highlightJavaKeywordsAndStrings(String line, String[] keywords, String keywordColor, String stringColor) {
-        // 先处理字符串（避免在字符串中高亮关键字）
-        line = line.replaceAll("\"([^\"]*?)\"", 
-            "<span style=\"color: " + stringColor + "; background: transparent;\">\"$1\"</span>");
-        
-        // 然后处理关键字（避免在已高亮的内容中再次高亮）
-        for (String keyword : keywords) {
-            line = line.replaceAll("\\b" + keyword + "\\b(?![^<]*</span>)", 
-                "<span style=\"color: " + keywordColor + "; font-weight: bold; background: transparent;\">" + keyword + "</span>");
+        String name = text.substring(start, end);
+        switch (name) {
+            case "nbsp":
+            case "amp":
+            case "lt":
+            case "gt":
+            case "quot":
+            case "#39":
+                return true;
+            default:
+                break;
         }
-        
-        return line;
-    }
-    
-    /**
-     * JavaScript语法高亮
-     */
-    private String highlightJavaScript(String line, boolean isDark) {
-        String[] keywords = {"var", "let", "const", "function", "return", "if", "else", "for", "while", 
-                           "do", "switch", "case", "break", "continue", "true", "false", "null", "undefined"};
-        
-        String keywordColor = isDark ? "#ff7b72" : "#cf222e";
-        String stringColor = isDark ? "#a5d6ff" : "#0a3069";
-        
-        // 先处理字符串（避免在字符串中高亮关键字）
-        line = line.replaceAll("\"([^\"]*?)\"", 
-            "<span style=\"color: " + stringColor + "; background: transparent;\">\"$1\"</span>");
-        line = line.replaceAll("'([^']*?)'", 
-            "<span style=\"color: " + stringColor + "; background: transparent;\">'$1'</span>");
-        
-        // 然后处理关键字（避免在已高亮的内容中再次高亮）
-        for (String keyword : keywords) {
-            line = line.replaceAll("\\b" + keyword + "\\b(?![^<]*</span>)", 
-                "<span style=\"color: " + keywordColor + "; font-weight: bold; background: transparent;\">" + keyword + "</span>");
+        if (name.charAt(0) != '#' || name.length() < 2) {
+            return false;
         }
-        
-        return line;
-    }
-    
-    /**
-     * Python语法高亮
-     */
-    private String highlightPython(String line, boolean isDark) {
-        String[] keywords = {"def", "class", "import", "from", "if", "elif", "else", "for", "while", 
-                           "try", "except", "finally", "return", "yield", "pass", "break", "continue",
-                           "True", "False", "None", "and", "or", "not", "in", "is"};
-        
-        String keywordColor = isDark ? "#ff7b72" : "#cf222e";
-        String stringColor = isDark ? "#a5d6ff" : "#0a3069";
-        String commentColor = isDark ? "#8b949e" : "#6a737d";
-        
-        // 处理注释（优先级最高）
-        if (line.contains("#")) {
-            int commentIndex = line.indexOf("#");
-            String beforeComment = line.substring(0, commentIndex);
-            String comment = line.substring(commentIndex);
-            
-            // 对注释前的部分进行高亮处理
-            beforeComment = highlightPythonKeywordsAndStrings(beforeComment, keywords, keywordColor, stringColor);
-            
-            // 注释部分单独处理
-            comment = "<span style=\"color: " + commentColor + "; font-style: italic; background: transparent;\">" + comment + "</span>";
-            
-            return beforeComment + comment;
-        } else {
-            // 没有注释，正常处理
-            return highlightPythonKeywordsAndStrings(line, keywords, keywordColor, stringColor);
+        boolean hex = name.charAt(1) == 'x';
+        int digitsStart = hex ? 2 : 1;
+        if (digitsStart >= name.length()) {
+            return false;
         }
-    }
-    
-    /**
-     * 高亮Python关键字和字符串
-     */
-    private String highlightPythonKeywordsAndStrings(String line, String[] keywords, String keywordColor, String stringColor) {
-        // 先处理字符串（避免在字符串中高亮关键字）
-        line = line.replaceAll("\"([^\"]*?)\"", 
-            "<span style=\"color: " + stringColor + "; background: transparent;\">\"$1\"</span>");
-        line = line.replaceAll("'([^']*?)'", 
-            "<span style=\"color: " + stringColor + "; background: transparent;\">'$1'</span>");
-        
-        // 然后处理关键字（避免在已高亮的内容中再次高亮）
-        for (String keyword : keywords) {
-            line = line.replaceAll("\\b" + keyword + "\\b(?![^<]*</span>)", 
-                "<span style=\"color: " + keywordColor + "; font-weight: bold; background: transparent;\">" + keyword + "</span>");
+        for (int i = digitsStart; i < name.length(); i++) {
+            char c = name.charAt(i);
+            boolean digit = c >= '0' && c <= '9';
+            if (!digit && !(hex && ((c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F')))) {
+                return false;
+            }
         }
-        
-        return line;
-    }
-    
-    /**
-     * HTML语法高亮
-     */
-    private String highlightHtml(String line, boolean isDark) {
-        String tagColor = isDark ? "#7ee787" : "#116329";  // 绿色 - GitHub主题使用更深的绿色
-        
-        // HTML标签高亮
-        line = line.replaceAll("&lt;([^&gt;]+)&gt;", 
-            "<span style=\"color: " + tagColor + "; font-weight: bold; background: transparent;\">&lt;$1&gt;</span>");
-        
-        return line;
-    }
-    
-    /**
-     * CSS语法高亮
-     */
-    private String highlightCss(String line, boolean isDark) {
-        String propertyColor = isDark ? "#ff7b72" : "#cf222e";
-        
-        // CSS属性高亮
-        line = line.replaceAll("([a-zA-Z-]+):", 
-            "<span style=\"color: " + propertyColor + "; background: transparent;\">$1</span>:");
-        
-        return line;
-    }
-    
-    /**
-     * JSON语法高亮
-     */
-    private String highlightJson(String line, boolean isDark) {
-        String keyColor = isDark ? "#79c0ff" : "#0a3069";
-        String valueColor = isDark ? "#a5d6ff" : "#0a3069";
-        
-        // JSON字符串高亮
-        line = line.replaceAll("\"([^\"]*?)\":", 
-            "<span style=\"color: " + keyColor + "; font-weight: bold; background: transparent;\">\"$1\"</span>:");
-        line = line.replaceAll(":&nbsp;\"([^\"]*?)\"", 
-            ": <span style=\"color: " + valueColor + "; background: transparent;\">\"$1\"</span>");
-        
-        return line;
+        return true;
     }
     
     /**
-     * 通用语法高亮
+     * 根据语言应用语法高亮（线性时间的扫描实现见 SyntaxHighlighter）
      */
-    private String highlightGeneric(String line, boolean isDark) {
-        String stringColor = isDark ? "#a5d6ff" : "#0a3069";
-        String numberColor = isDark ? "#79c0ff" : "#0969da";
-        
-        // 字符串高亮
-        line = line.replaceAll("\"([^\"]*?)\"", 
-            "<span style=\"color: " + stringColor + "; background: transparent;\">\"$1\"</span>");
-        line = line.replaceAll("'([^']*?)'", 
-            "<span style=\"color: " + stringColor + "; background: transparent;\">'$1'</span>");
-        
-        // 数字高亮
-        line = line.replaceAll("\\b(\\d+)\\b", 
-            "<span style=\"color: " + numberColor + "; background: transparent;\">$1</span>");
-        
-        return line;
+    private String highlightByLanguage(String line, String language) {
+        return SyntaxHighlighter.highlight(line, language);
     }
     
     
@@ -1719,6 +2092,38 @@ public class MarkdownProcessor {
         return codeBlockFoldStates.getOrDefault(codeBlockId, false);
     }
     
+    /**
+     * 当前折叠的代码块ID，用于保存编辑器状态
+     */
+    public java.util.List<String> getFoldedCodeBlocks() {
+        java.util.List<String> folded = new java.util.ArrayList<>();
+        codeBlockFoldStates.forEach((id, state) -> {
+            if (state) {
+                folded.add(id);
+            }
+        });
+        java.util.Collections.sort(folded);
+        return folded;
+    }
+    
+    /**
+     * 恢复代码块折叠状态（例如重新打开文件时），在渲染之前调用可避免重复渲染
+     */
+    public void setFoldedCodeBlocks(java.util.Collection<String> codeBlockIds) {
+        codeBlockFoldStates.replaceAll((id, state) -> false);
+        for (String id : codeBlockIds) {
+            codeBlockFoldStates.put(id, true);
+        }
+    }
+    
+    /**
+     * @return 最近一次查找或写入缓存时的缓存键，未使用缓存（文档较小、未设置缓存或有折叠的代码块）时返回null；
+     *         之后的编辑在 flushRenderCache 之前不会更新它
+     */
+    public String getLastCacheKey() {
+        return lastCacheKey;
+    }
+    
     /**
      * 测试方法：输出生成的HTML用于调试
      */
@@ -1755,6 +2160,10 @@ public class MarkdownProcessor {
             
             // 清空代码块状态
             codeBlockFoldStates.clear();
+            expandedRegions.clear();
+            
+            // 释放增量解析缓存的AST
+            incrementalParser.clear();
             
             // 注意：parser和flavour是final的，让GC自动回收
             
@@ -0,0 +1,117 @@
+package com.markdown.editor.preview;
+
+import org.intellij.markdown.ast.ASTNode;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * 限制AST引擎处理的嵌套深度
+ * 内置解析器在每一层容器上都会复制一次当前行，几万层 "> " 或 "- " 组成的一行会耗尽内存；
+ * 几万层嵌套的强调则会让递归的HTML生成栈溢出。这里在解析前截断过深的容器标记，
+ * 并在渲染前识别过深的语法树，两者都是线性扫描
+ */
+final class NestingGuard {
+
+    /** 每行最多识别的容器（引用、列表）标记层数 */
+    static final int MAX_CONTAINER_DEPTH = 32;
+
+    /** 按正常方式渲染的语法树最大深度，更深的块按纯文本显示 */
+    static final int MAX_TREE_DEPTH = 256;
+
+    private NestingGuard() {
+    }
+
+    /**
+     * 返回供解析器使用的文本：长度和换行位置与原文完全相同，
+     * 每行第 MAX_CONTAINER_DEPTH 层之后的第一个容器标记被替换为普通字符，后续内容因此按段落文本解析
+     * 渲染时仍然使用原文，所以被替换的字符不会出现在预览中
+     */
+    static String limitContainerNesting(String text) {
+        char[] chars = null;
+        int length = text.length();
+        int lineStart = 0;
+        while (lineStart < length) {
+            int i = lineStart;
+            int depth = 0;
+            while (i < length) {
+                char c = text.charAt(i);
+                if (c == ' ' || c == '\t') {
+                    i++;
+                    continue;
+                }
+                int markerEnd = containerMarkerEnd(text, i);
+                if (markerEnd < 0) {
+                    break;
+                }
+                if (++depth > MAX_CONTAINER_DEPTH) {
+                    if (chars == null) {
+                        chars = text.toCharArray();
+                    }
+                    chars[i] = 'x';
+                    break;
+                }
+                i = markerEnd;
+            }
+            int lineEnd = text.indexOf('\n', i);
+            if (lineEnd < 0) {
+                break;
+            }
+            lineStart = lineEnd + 1;
+        }
+        return chars == null ? text : new String(chars);
+    }
+
+    /**
+     * 判断语法树的深度是否超过 MAX_TREE_DEPTH（使用显式栈，不会因树太深而栈溢出）
+     */
+    static boolean isTooDeep(ASTNode root) {
+        Deque<ASTNode> nodes = new ArrayDeque<>();
+        Deque<Integer> depths = new ArrayDeque<>();
+        nodes.push(root);
+        depths.push(1);
+        while (!nodes.isEmpty()) {
+            ASTNode node = nodes.pop();
+            int depth = depths.pop();
+            if (depth > MAX_TREE_DEPTH) {
+                return true;
+            }
+            List<ASTNode> children = node.getChildren();
+            for (ASTNode child : children) {
+                if (!child.getChildren().isEmpty()) {
+                    nodes.push(child);
+                    depths.push(depth + 1);
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 从 i 开始的引用或列表标记的结束位置，不是容器标记时返回 -1
+     */
+    private static int containerMarkerEnd(String text, int i) {
+        char c = text.charAt(i);
+        if (c == '>') {
+            return i + 1;
+        }
+        if (c == '-' || c == '*' || c == '+') {
+            return isBlankAt(text, i + 1) ? i + 1 : -1;
+        }
+        if (c >= '0' && c <= '9') {
+            int j = i;
+            while (j < text.length() && j - i < 9 && text.charAt(j) >= '0' && text.charAt(j) <= '9') {
+                j++;
+            }
+            if (j < text.length() && (text.charAt(j) == '.' || text.charAt(j) == ')') && isBlankAt(text, j + 1)) {
+                return j + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isBlankAt(String text, int i) {
+        return i < text.length() && (text.charAt(i) == ' ' || text.charAt(i) == '\t');
+    }
+}
@@ -0,0 +1,239 @@
+package com.markdown.editor.preview;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * 保存在磁盘上的渲染缓存，IDE重启后仍然有效
+ * 所有条目依次追加到一个数据文件中，内存里只保存键到文件位置的索引（按最近访问排序）。
+ * 文件超过大小上限时压缩：按最近访问顺序重写仍在使用的条目，丢弃最久未使用的条目，
+ * 直到文件不超过上限的一半
+ *
+ * 记录格式：魔数(int) 键长度(int) 值长度(int) 值的CRC32(int) 键(UTF-8) 值(UTF-8)
+ * 打开时顺序扫描重建索引，遇到不完整的记录时从该处截断；值的校验和在读取时检查
+ */
+public class PersistentRenderCache implements RenderCache {
+
+    private static final int RECORD_MAGIC = 0x4D445243; // "MDRC"
+    private static final int HEADER_SIZE = 16;
+
+    /** 单个条目的最大长度，更大的渲染结果不缓存 */
+    private static final int MAX_VALUE_BYTES = 64 * 1024 * 1024;
+
+    private final Path file;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> index = new LinkedHashMap<>(256, 0.75f, true);
+
+    private FileChannel channel;
+
+    private static final class Entry {
+        final long position;
+        final int keyLength;
+        final int valueLength;
+        final int checksum;
+
+        Entry(long position, int keyLength, int valueLength, int checksum) {
+            this.position = position;
+            this.keyLength = keyLength;
+            this.valueLength = valueLength;
+            this.checksum = checksum;
+        }
+
+        long recordSize() {
+            return HEADER_SIZE + keyLength + valueLength;
+        }
+    }
+
+    /**
+     * 打开（或创建）缓存文件
+     * @param maxBytes 文件大小上限（字节）
+     */
+    public PersistentRenderCache(Path file, long maxBytes) throws IOException {
+        this.file = file;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        loadIndex();
+    }
+
+    @Override
+    public synchronized String get(String key) {
+        Entry entry = index.get(key);
+        if (entry == null || channel == null) {
+            return null;
+        }
+        try {
+            ByteBuffer value = ByteBuffer.allocate(entry.valueLength);
+            readFully(value, entry.position + HEADER_SIZE + entry.keyLength);
+            if (checksum(value.array()) != entry.checksum) {
+                index.remove(key);
+                return null;
+            }
+            return new String(value.array(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            System.err.println("⚠️ 读取渲染缓存失败: " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public synchronized void put(String key, String html) {
+        if (channel == null) {
+            return;
+        }
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] valueBytes = html.getBytes(StandardCharsets.UTF_8);
+        long recordSize = HEADER_SIZE + keyBytes.length + valueBytes.length;
+        if (valueBytes.length > MAX_VALUE_BYTES || recordSize > maxBytes / 2) {
+            return;
+        }
+        try {
+            long position = channel.size();
+            int valueChecksum = checksum(valueBytes);
+            ByteBuffer record = ByteBuffer.allocate((int) recordSize);
+            record.putInt(RECORD_MAGIC).putInt(keyBytes.length).putInt(valueBytes.length).putInt(valueChecksum);
+            record.put(keyBytes).put(valueBytes).flip();
+            while (record.hasRemaining()) {
+                channel.write(record, position + record.position());
+            }
+            index.put(key, new Entry(position, keyBytes.length, valueBytes.length, valueChecksum));
+            if (position + recordSize > maxBytes) {
+                compact();
+            }
+        } catch (IOException e) {
+            System.err.println("⚠️ 写入渲染缓存失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 当前缓存的条目数
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * 清空缓存
+     */
+    public synchronized void clear() throws IOException {
+        index.clear();
+        if (channel != null) {
+            channel.truncate(0);
+        }
+    }
+
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("⚠️ 关闭渲染缓存失败: " + e.getMessage());
+        }
+        channel = null;
+        index.clear();
+    }
+
+    /**
+     * 顺序扫描数据文件重建索引，后写入的记录覆盖先写入的同键记录
+     */
+    private void loadIndex() throws IOException {
+        long size = channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (position + HEADER_SIZE <= size) {
+            header.clear();
+            readFully(header, position);
+            header.flip();
+            int magic = header.getInt();
+            int keyLength = header.getInt();
+            int valueLength = header.getInt();
+            int valueChecksum = header.getInt();
+            if (magic != RECORD_MAGIC || keyLength <= 0 || valueLength < 0 || valueLength > MAX_VALUE_BYTES
+                    || position + HEADER_SIZE + keyLength + valueLength > size) {
+                break;
+            }
+            ByteBuffer key = ByteBuffer.allocate(keyLength);
+            readFully(key, position + HEADER_SIZE);
+            Entry entry = new Entry(position, keyLength, valueLength, valueChecksum);
+            index.put(new String(key.array(), StandardCharsets.UTF_8), entry);
+            position += entry.recordSize();
+        }
+        if (position < size) {
+            // 上次写入中断留下的不完整记录
+            System.err.println("⚠️ 渲染缓存文件末尾损坏，已截断到 " + position + " 字节");
+            channel.truncate(position);
+        }
+    }
+
+    /**
+     * 按最近访问顺序重写条目：从最近使用的条目开始保留，总大小达到上限的一半时丢弃其余条目
+     */
+    private void compact() throws IOException {
+        long target = maxBytes / 2;
+        List<Map.Entry<String, Entry>> kept = new ArrayList<>();
+        long keptBytes = 0;
+        List<Map.Entry<String, Entry>> entries = new ArrayList<>(index.entrySet());
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            long recordSize = entries.get(i).getValue().recordSize();
+            if (keptBytes + recordSize > target) {
+                break;
+            }
+            kept.add(entries.get(i));
+            keptBytes += recordSize;
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".compact");
+        LinkedHashMap<String, Entry> compacted = new LinkedHashMap<>(256, 0.75f, true);
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long position = 0;
+            // 最久未使用的条目写在前面，重新打开后的索引顺序与当前访问顺序一致
+            for (int i = kept.size() - 1; i >= 0; i--) {
+                Entry entry = kept.get(i).getValue();
+                long transferred = 0;
+                while (transferred < entry.recordSize()) {
+                    transferred += channel.transferTo(entry.position + transferred, entry.recordSize() - transferred, out);
+                }
+                compacted.put(kept.get(i).getKey(), new Entry(position, entry.keyLength, entry.valueLength, entry.checksum));
+                position += entry.recordSize();
+            }
+            out.force(false);
+        }
+
+        channel.close();
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        index.clear();
+        index.putAll(compacted);
+        System.out.println("🗜️ 渲染缓存已压缩: 保留 " + compacted.size() + " 个条目, " + keptBytes / 1024 + "KB");
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("渲染缓存文件意外结束");
+            }
+        }
+    }
+
+    private static int checksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length);
+        return (int) crc.getValue();
+    }
+}
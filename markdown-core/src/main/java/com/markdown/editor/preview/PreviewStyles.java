@@ -0,0 +1,45 @@
+package com.markdown.editor.preview;
+
+/**
+ * 预览的样式表
+ * 预览面板和导出的HTML页面使用同一份样式，规则只用JTextPane也支持的CSS子集
+ */
+public final class PreviewStyles {
+
+    public static final String CSS =
+            "body { font-family: Arial, sans-serif; font-size: 11px; color: #E6E6E6; background-color: #2B2B2B; margin: 0; padding: 8px; }" +
+            "h1 { font-size: 18px; font-weight: bold; color: #FFFFFF; margin-top: 14px; margin-bottom: 6px; }" +
+            "h2 { font-size: 16px; font-weight: bold; color: #FFFFFF; margin-top: 12px; margin-bottom: 5px; }" +
+            "h3 { font-size: 14px; font-weight: bold; color: #FFFFFF; margin-top: 10px; margin-bottom: 4px; }" +
+            "h4 { font-size: 13px; font-weight: bold; color: #CCCCCC; margin-top: 8px; margin-bottom: 3px; }" +
+            "h5 { font-size: 12px; font-weight: bold; color: #CCCCCC; margin-top: 6px; margin-bottom: 2px; }" +
+            "h6 { font-size: 11px; font-weight: bold; color: #CCCCCC; margin-top: 6px; margin-bottom: 2px; }" +
+            "p { font-size: 11px; color: #E6E6E6; margin-top: 3px; margin-bottom: 6px; }" +
+            "pre { color: #D4D4D4; font-family: monospace; font-size: 10px; padding: 8px 0; margin: 0; border: none; background: transparent; }" +
+            "code { color: #E6E6E6; font-family: monospace; font-size: 10px; padding: 0; background: transparent; }" +
+            "blockquote { color: #999999; font-style: italic; border-left: 3px solid #555555; padding-left: 10px; margin: 6px 0; }" +
+            "a { color: #4FC3F7; text-decoration: underline; }" +
+            "strong { font-weight: bold; color: #FFFFFF; }" +
+            "em { font-style: italic; color: #E6E6E6; }" +
+            "ul { margin: 4px 0; padding-left: 20px; color: #E6E6E6; list-style-type: disc; }" +
+            "ol { margin: 4px 0; padding-left: 20px; color: #E6E6E6; list-style-type: decimal; }" +
+            "li { margin: 2px 0; color: #E6E6E6; display: list-item; }" +
+            "table { border: 1px solid #555555; margin: 6px 0; border-collapse: collapse; }" +
+            "th { font-weight: bold; background-color: #404040; color: #FFFFFF; padding: 6px; border: 1px solid #555555; font-size: 11px; }" +
+            "td { color: #E6E6E6; padding: 6px; border: 1px solid #555555; font-size: 11px; }" +
+            "hr { border: none; border-top: 1px solid #555555; margin: 10px 0; }";
+
+    private PreviewStyles() {
+    }
+
+    /**
+     * 为处理器输出的页面加上字符集声明和内嵌样式表，得到可以直接在浏览器中打开的独立页面
+     */
+    public static String standalonePage(String html) {
+        String head = "<head><meta charset=\"UTF-8\"><style>" + CSS + "</style></head>";
+        if (html.startsWith("<html>")) {
+            return "<html>" + head + html.substring("<html>".length());
+        }
+        return "<html>" + head + "<body>" + html + "</body></html>";
+    }
+}
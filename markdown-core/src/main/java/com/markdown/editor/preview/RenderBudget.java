@@ -0,0 +1,127 @@
+package com.markdown.editor.preview;
+
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 单次渲染的时间预算
+ * 记录每个阶段的耗时；总耗时超过预算后按步骤逐级降级，而不是截断文档：
+ * 先取消代码块高亮，再折叠大表格，最后延迟渲染剩余的章节
+ */
+public class RenderBudget {
+
+    /**
+     * 降级步骤，按启用顺序排列
+     */
+    public enum Degradation {
+        PLAIN_FENCES("代码块未高亮"),
+        COLLAPSED_TABLES("大表格已折叠"),
+        DEFERRED_SECTIONS("后续章节延迟渲染");
+
+        private final String description;
+
+        Degradation(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    /** 不限制时间的预算 */
+    public static final long UNLIMITED = 0;
+
+    /** 表格折叠后仍然显示的数据行数 */
+    public static final int COLLAPSED_TABLE_ROWS = 20;
+
+    /** 文档开头总是完整渲染的字符数，保证打开预览时首屏内容可见 */
+    public static final int EAGER_RENDER_CHARS = 16 * 1024;
+
+    private final long budgetNanos;
+    private final long startNanos = System.nanoTime();
+    private final Set<Degradation> active = EnumSet.noneOf(Degradation.class);
+    private final Map<String, Long> stageNanos = new LinkedHashMap<>();
+
+    private String currentStage;
+    private long currentStageStart;
+
+    /**
+     * @param budgetMillis 时间预算（毫秒），小于等于0表示不限制
+     */
+    public RenderBudget(long budgetMillis) {
+        this.budgetNanos = budgetMillis > 0 ? budgetMillis * 1_000_000L : UNLIMITED;
+    }
+
+    /**
+     * 开始一个新阶段，同时结束上一个阶段
+     */
+    public void stage(String name) {
+        long now = System.nanoTime();
+        endStage(now);
+        currentStage = name;
+        currentStageStart = now;
+    }
+
+    /**
+     * 结束当前阶段
+     */
+    public void finish() {
+        endStage(System.nanoTime());
+        currentStage = null;
+    }
+
+    /**
+     * 检查已用时间并在超出预算时启用下一步降级：
+     * 超过预算的1倍、1.5倍、2倍时依次启用
+     */
+    public void checkpoint() {
+        if (budgetNanos == UNLIMITED || active.size() == Degradation.values().length) {
+            return;
+        }
+        long elapsed = System.nanoTime() - startNanos;
+        if (elapsed > budgetNanos) {
+            active.add(Degradation.PLAIN_FENCES);
+        }
+        if (elapsed > budgetNanos + budgetNanos / 2) {
+            active.add(Degradation.COLLAPSED_TABLES);
+        }
+        if (elapsed > budgetNanos * 2) {
+            active.add(Degradation.DEFERRED_SECTIONS);
+        }
+    }
+
+    public boolean isActive(Degradation degradation) {
+        return active.contains(degradation);
+    }
+
+    public Set<Degradation> getActiveDegradations() {
+        return active.isEmpty() ? EnumSet.noneOf(Degradation.class) : EnumSet.copyOf(active);
+    }
+
+    public long getElapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000L;
+    }
+
+    /**
+     * 各阶段耗时摘要，例如 "parse=12ms render=80ms"
+     */
+    public String describeStages() {
+        StringBuilder result = new StringBuilder();
+        for (Map.Entry<String, Long> entry : stageNanos.entrySet()) {
+            if (result.length() > 0) {
+                result.append(' ');
+            }
+            result.append(entry.getKey()).append('=').append(entry.getValue() / 1_000_000L).append("ms");
+        }
+        return result.toString();
+    }
+
+    private void endStage(long now) {
+        if (currentStage != null) {
+            stageNanos.merge(currentStage, now - currentStageStart, Long::sum);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.markdown.editor.preview;
+
+/**
+ * 渲染结果缓存
+ * 键由文档内容和影响输出的渲染配置（渲染器版本、引擎、折行方式）计算，值为渲染得到的HTML片段
+ */
+public interface RenderCache {
+
+    /**
+     * @return 缓存的HTML片段，不存在时返回null
+     */
+    String get(String key);
+
+    void put(String key, String html);
+}
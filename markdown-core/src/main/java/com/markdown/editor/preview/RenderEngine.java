@@ -0,0 +1,12 @@
+package com.markdown.editor.preview;
+
+/**
+ * Markdown渲染引擎
+ * REGEX 为原有的逐行正则渲染，AST 为基于内置 org.intellij.markdown 解析器的单次解析渲染
+ */
+public enum RenderEngine {
+    /** 逐行正则渲染（默认） */
+    REGEX,
+    /** 基于AST的渲染：一次线性解析，结构符合CommonMark/GFM规范 */
+    AST
+}
@@ -0,0 +1,144 @@
+package com.markdown.editor.preview;
+
+import java.util.Arrays;
+
+/**
+ * 源文件行与预览文档偏移之间的对应关系，用于编辑器和预览的滚动同步
+ * 渲染时每个顶层块的开始标签带有 id="md-line-N"（N为块在源文件中的起始行，从0开始），
+ * 预览显示HTML后按文档顺序收集这些块的位置，得到两个按升序排列的int数组；
+ * 两个方向的查找都是二分查找，块内按行数线性插值，同步滚动时不需要重新渲染或遍历文档
+ */
+public final class SourceMap {
+
+    /** 块开始标签中行号ID的前缀 */
+    public static final String LINE_ID_PREFIX = "md-line-";
+
+    public static final SourceMap EMPTY = new SourceMap(new int[0], new int[0], 0);
+
+    private final int[] lines;
+    private final int[] offsets;
+    private final int size;
+
+    private SourceMap(int[] lines, int[] offsets, int size) {
+        this.lines = lines;
+        this.offsets = offsets;
+        this.size = size;
+    }
+
+    /**
+     * 输出块开始标签的行号ID属性，例如 {@code  id="md-line-12"}
+     */
+    static StringBuilder appendLineId(StringBuilder html, int line) {
+        return html.append(" id=\"").append(LINE_ID_PREFIX).append(line).append('"');
+    }
+
+    /**
+     * 解析行号ID
+     * @return 源文件行，不是行号ID时返回-1
+     */
+    public static int parseLineId(Object id) {
+        if (!(id instanceof String)) {
+            return -1;
+        }
+        String value = (String) id;
+        if (!value.startsWith(LINE_ID_PREFIX) || value.length() == LINE_ID_PREFIX.length()) {
+            return -1;
+        }
+        int line = 0;
+        for (int i = LINE_ID_PREFIX.length(); i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9' || line > (Integer.MAX_VALUE - 9) / 10) {
+                return -1;
+            }
+            line = line * 10 + (c - '0');
+        }
+        return line;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 源文件行在预览文档中的偏移
+     */
+    public int offsetForLine(int line) {
+        if (size == 0) {
+            return 0;
+        }
+        int index = floorIndex(lines, line);
+        if (index < 0) {
+            return offsets[0];
+        }
+        if (index == size - 1 || lines[index] == line) {
+            return offsets[index];
+        }
+        return interpolate(line, lines[index], lines[index + 1], offsets[index], offsets[index + 1]);
+    }
+
+    /**
+     * 预览文档偏移对应的源文件行
+     */
+    public int lineForOffset(int offset) {
+        if (size == 0) {
+            return 0;
+        }
+        int index = floorIndex(offsets, offset);
+        if (index < 0) {
+            return lines[0];
+        }
+        if (index == size - 1 || offsets[index] == offset) {
+            return lines[index];
+        }
+        return interpolate(offset, offsets[index], offsets[index + 1], lines[index], lines[index + 1]);
+    }
+
+    /**
+     * 最后一个不大于key的元素下标，不存在时返回-1
+     */
+    private int floorIndex(int[] sorted, int key) {
+        int index = Arrays.binarySearch(sorted, 0, size, key);
+        if (index >= 0) {
+            // 相同的值取最后一个，保证插值区间有效
+            while (index + 1 < size && sorted[index + 1] == key) {
+                index++;
+            }
+            return index;
+        }
+        return -index - 2;
+    }
+
+    private static int interpolate(int value, int from, int to, int mappedFrom, int mappedTo) {
+        if (to <= from) {
+            return mappedFrom;
+        }
+        return mappedFrom + (int) ((long) (value - from) * (mappedTo - mappedFrom) / (to - from));
+    }
+
+    /**
+     * 按文档顺序添加块的位置；行号或偏移没有递增的块（例如被延迟渲染的章节）被忽略
+     */
+    public static final class Builder {
+        private int[] lines = new int[64];
+        private int[] offsets = new int[64];
+        private int size;
+
+        public Builder add(int line, int offset) {
+            if (line < 0 || size > 0 && (line <= lines[size - 1] || offset < offsets[size - 1])) {
+                return this;
+            }
+            if (size == lines.length) {
+                lines = Arrays.copyOf(lines, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2);
+            }
+            lines[size] = line;
+            offsets[size] = offset;
+            size++;
+            return this;
+        }
+
+        public SourceMap build() {
+            return size == 0 ? EMPTY : new SourceMap(Arrays.copyOf(lines, size), Arrays.copyOf(offsets, size), size);
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.markdown.editor.preview;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 代码块的单行语法高亮
+ * 每种语言都是一次从左到右的扫描，每个字符只被访问常数次，
+ * 任何输入的耗时都与行长度成线性关系（原先基于正则和否定前瞻的实现在构造的输入上会大量回溯）
+ * 输出的HTML在之后由 MarkdownProcessor 统一转义标签之外的字符
+ */
+final class SyntaxHighlighter {
+
+    // 始终使用暗黑主题
+    private static final String KEYWORD_COLOR = "#ff7b72";
+    private static final String STRING_COLOR = "#a5d6ff";
+    private static final String COMMENT_COLOR = "#8b949e";
+    private static final String TAG_COLOR = "#7ee787";
+    private static final String JSON_KEY_COLOR = "#79c0ff";
+    private static final String NUMBER_COLOR = "#79c0ff";
+
+    private static final Set<String> JAVA_KEYWORDS = keywords(
+            "public", "private", "protected", "static", "final", "class", "interface",
+            "extends", "implements", "import", "package", "void", "int", "String", "boolean",
+            "if", "else", "for", "while", "do", "switch", "case", "break", "continue", "return",
+            "new", "this", "super", "try", "catch", "finally", "throw", "throws");
+
+    private static final Set<String> JAVASCRIPT_KEYWORDS = keywords(
+            "var", "let", "const", "function", "return", "if", "else", "for", "while",
+            "do", "switch", "case", "break", "continue", "true", "false", "null", "undefined");
+
+    private static final Set<String> PYTHON_KEYWORDS = keywords(
+            "def", "class", "import", "from", "if", "elif", "else", "for", "while",
+            "try", "except", "finally", "return", "yield", "pass", "break", "continue",
+            "True", "False", "None", "and", "or", "not", "in", "is");
+
+    private SyntaxHighlighter() {
+    }
+
+    /**
+     * 根据语言高亮一行代码
+     */
+    static String highlight(String line, String language) {
+        if (language == null) language = "";
+
+        switch (language.toLowerCase()) {
+            case "java":
+                return highlightCode(line, JAVA_KEYWORDS, "//", false);
+            case "javascript":
+            case "js":
+                return highlightCode(line, JAVASCRIPT_KEYWORDS, null, true);
+            case "python":
+            case "py":
+                return highlightCode(line, PYTHON_KEYWORDS, "#", true);
+            case "html":
+                return highlightHtml(line);
+            case "css":
+                return highlightCss(line);
+            case "json":
+                return highlightJson(line);
+            default:
+                return highlightGeneric(line);
+        }
+    }
+
+    /**
+     * 类C语言的高亮：字符串、关键字和行注释
+     * @param lineComment 行注释的起始标记，为null表示不处理注释
+     * @param singleQuotes 单引号是否也表示字符串
+     */
+    private static String highlightCode(String line, Set<String> keywords, String lineComment, boolean singleQuotes) {
+        StringBuilder result = new StringBuilder(line.length() + 64);
+        int length = line.length();
+        // 某种引号在行内已无闭合时，后续同类引号直接按普通字符处理，避免重复向后查找
+        boolean doubleQuoteClosable = true;
+        boolean singleQuoteClosable = true;
+
+        int i = 0;
+        while (i < length) {
+            char c = line.charAt(i);
+
+            if (lineComment != null && line.startsWith(lineComment, i)) {
+                result.append("<span style=\"color: ").append(COMMENT_COLOR)
+                      .append("; font-style: italic; background: transparent;\">")
+                      .append(line, i, length).append("</span>");
+                break;
+            }
+
+            if ((c == '"' && doubleQuoteClosable) || (c == '\'' && singleQuotes && singleQuoteClosable)) {
+                int close = line.indexOf(c, i + 1);
+                if (close != -1) {
+                    appendString(result, line, i, close + 1);
+                    i = close + 1;
+                    continue;
+                }
+                if (c == '"') {
+                    doubleQuoteClosable = false;
+                } else {
+                    singleQuoteClosable = false;
+                }
+            } else if (isWordChar(c)) {
+                int end = wordEnd(line, i);
+                String word = line.substring(i, end);
+                if (keywords.contains(word)) {
+                    result.append("<span style=\"color: ").append(KEYWORD_COLOR)
+                          .append("; font-weight: bold; background: transparent;\">").append(word).append("</span>");
+                } else {
+                    result.append(word);
+                }
+                i = end;
+                continue;
+            }
+            result.append(c);
+            i++;
+        }
+        return result.toString();
+    }
+
+    /**
+     * HTML标签高亮，只处理已经转义的 &amp;lt;...&amp;gt; 形式
+     */
+    private static String highlightHtml(String line) {
+        StringBuilder result = new StringBuilder(line.length() + 64);
+        int i = 0;
+        while (i < line.length()) {
+            int open = line.indexOf("&lt;", i);
+            if (open == -1) {
+                break;
+            }
+            // 标签内容不能包含 & g t ; 中的任何字符
+            int end = open + 4;
+            while (end < line.length() && "&gt;".indexOf(line.charAt(end)) == -1) {
+                end++;
+            }
+            if (end > open + 4 && line.startsWith("&gt;", end)) {
+                result.append(line, i, open)
+                      .append("<span style=\"color: ").append(TAG_COLOR)
+                      .append("; font-weight: bold; background: transparent;\">")
+                      .append(line, open, end + 4).append("</span>");
+                i = end + 4;
+            } else {
+                result.append(line, i, end);
+                i = end;
+            }
+        }
+        result.append(line, i, line.length());
+        return result.toString();
+    }
+
+    /**
+     * CSS属性名高亮：紧跟冒号的 [a-zA-Z-]+
+     */
+    private static String highlightCss(String line) {
+        StringBuilder result = new StringBuilder(line.length() + 64);
+        int i = 0;
+        while (i < line.length()) {
+            if (!isCssNameChar(line.charAt(i))) {
+                result.append(line.charAt(i));
+                i++;
+                continue;
+            }
+            int end = i;
+            while (end < line.length() && isCssNameChar(line.charAt(end))) {
+                end++;
+            }
+            if (end < line.length() && line.charAt(end) == ':') {
+                result.append("<span style=\"color: ").append(KEYWORD_COLOR).append("; background: transparent;\">")
+                      .append(line, i, end).append("</span>");
+            } else {
+                result.append(line, i, end);
+            }
+            i = end;
+        }
+        return result.toString();
+    }
+
+    /**
+     * JSON高亮：先处理键 "key":，再处理 :&amp;nbsp;"value"
+     */
+    private static String highlightJson(String line) {
+        StringBuilder keys = new StringBuilder(line.length() + 64);
+        int i = 0;
+        while (i < line.length()) {
+            int open = line.indexOf('"', i);
+            if (open == -1) {
+                break;
+            }
+            int close = line.indexOf('"', open + 1);
+            if (close == -1) {
+                break;
+            }
+            if (close + 1 < line.length() && line.charAt(close + 1) == ':') {
+                keys.append(line, i, open)
+                    .append("<span style=\"color: ").append(JSON_KEY_COLOR)
+                    .append("; font-weight: bold; background: transparent;\">")
+                    .append(line, open, close + 1).append("</span>:");
+                i = close + 2;
+            } else {
+                // 闭合引号可能是下一个键的开始
+                keys.append(line, i, close);
+                i = close;
+            }
+        }
+        keys.append(line, i, line.length());
+
+        String withKeys = keys.toString();
+        StringBuilder result = new StringBuilder(withKeys.length() + 64);
+        String valuePrefix = ":&nbsp;\"";
+        i = 0;
+        while (i < withKeys.length()) {
+            int start = withKeys.indexOf(valuePrefix, i);
+            if (start == -1) {
+                break;
+            }
+            int open = start + valuePrefix.length() - 1;
+            int close = withKeys.indexOf('"', open + 1);
+            if (close == -1) {
+                break;
+            }
+            result.append(withKeys, i, start)
+                  .append(": <span style=\"color: ").append(STRING_COLOR).append("; background: transparent;\">")
+                  .append(withKeys, open, close + 1).append("</span>");
+            i = close + 1;
+        }
+        result.append(withKeys, i, withKeys.length());
+        return result.toString();
+    }
+
+    /**
+     * 通用高亮：字符串和独立的数字
+     */
+    private static String highlightGeneric(String line) {
+        StringBuilder result = new StringBuilder(line.length() + 64);
+        boolean doubleQuoteClosable = true;
+        boolean singleQuoteClosable = true;
+        int i = 0;
+        while (i < line.length()) {
+            char c = line.charAt(i);
+            if ((c == '"' && doubleQuoteClosable) || (c == '\'' && singleQuoteClosable)) {
+                int close = line.indexOf(c, i + 1);
+                if (close != -1) {
+                    appendString(result, line, i, close + 1);
+                    i = close + 1;
+                    continue;
+                }
+                if (c == '"') {
+                    doubleQuoteClosable = false;
+                } else {
+                    singleQuoteClosable = false;
+                }
+            } else if (isWordChar(c)) {
+                int end = wordEnd(line, i);
+                if (isDigits(line, i, end)) {
+                    result.append("<span style=\"color: ").append(NUMBER_COLOR).append("; background: transparent;\">")
+                          .append(line, i, end).append("</span>");
+                } else {
+                    result.append(line, i, end);
+                }
+                i = end;
+                continue;
+            }
+            result.append(c);
+            i++;
+        }
+        return result.toString();
+    }
+
+    private static void appendString(StringBuilder result, String line, int start, int end) {
+        result.append("<span style=\"color: ").append(STRING_COLOR).append("; background: transparent;\">")
+              .append(line, start, end).append("</span>");
+    }
+
+    private static int wordEnd(String line, int start) {
+        int end = start;
+        while (end < line.length() && isWordChar(line.charAt(end))) {
+            end++;
+        }
+        return end;
+    }
+
+    private static boolean isDigits(String line, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = line.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    private static boolean isCssNameChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '-';
+    }
+
+    private static Set<String> keywords(String... words) {
+        return new HashSet<>(Arrays.asList(words));
+    }
+}
@@ -0,0 +1,180 @@
+package com.markdown.editor.search;
+
+import com.markdown.editor.outline.DocumentSummary;
+import com.markdown.editor.outline.Heading;
+import com.markdown.editor.outline.HeadingSlugger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 按标题把Markdown文档切分为小节，并去掉标记得到渲染后可见的纯文本
+ * 去掉块标记（引用、列表、表格分隔符、代码围栏）和行内标记（强调、链接目标、HTML标签等），
+ * 链接和图片只保留显示的文本。第一个标题之前的内容是一个标题为空的小节
+ */
+public final class MarkdownSections {
+
+    /**
+     * 一个小节
+     */
+    public static final class Section {
+        private final String title;
+        private final int offset;
+        private final String text;
+
+        Section(String title, int offset, String text) {
+            this.title = title;
+            this.offset = offset;
+            this.text = text;
+        }
+
+        /** 小节标题，第一个标题之前的内容为空字符串 */
+        public String getTitle() {
+            return title;
+        }
+
+        /** 标题在文档中的偏移，第一个标题之前的内容为0 */
+        public int getOffset() {
+            return offset;
+        }
+
+        /** 小节正文的纯文本（不含标题） */
+        public String getText() {
+            return text;
+        }
+    }
+
+    private MarkdownSections() {
+    }
+
+    public static List<Section> split(String markdown) {
+        List<Heading> headings = DocumentSummary.scan(markdown).getHeadings();
+        List<Section> sections = new ArrayList<>(headings.size() + 1);
+        int firstHeading = headings.isEmpty() ? markdown.length() : headings.get(0).getOffset();
+        String preamble = plainText(markdown, 0, firstHeading);
+        if (!preamble.isEmpty()) {
+            sections.add(new Section("", 0, preamble));
+        }
+        for (int i = 0; i < headings.size(); i++) {
+            Heading heading = headings.get(i);
+            int end = i + 1 < headings.size() ? headings.get(i + 1).getOffset() : markdown.length();
+            int bodyStart = skipHeading(markdown, heading.getOffset(), end);
+            sections.add(new Section(heading.getTitle(), heading.getOffset(), plainText(markdown, bodyStart, end)));
+        }
+        return sections;
+    }
+
+    /**
+     * 标题所占的行之后的位置：ATX标题只占一行，Setext标题到下划线为止
+     */
+    private static int skipHeading(String text, int offset, int end) {
+        int pos = skipIndent(text, offset, end);
+        boolean atx = pos < end && text.charAt(pos) == '#';
+        int lineStart = offset;
+        while (lineStart < end) {
+            int next = nextLine(text, lineStart, end);
+            if (atx || isSetextUnderline(text, lineStart, next)) {
+                return next;
+            }
+            lineStart = next;
+        }
+        return end;
+    }
+
+    private static String plainText(String text, int start, int end) {
+        StringBuilder result = new StringBuilder();
+        int lineStart = start;
+        while (lineStart < end) {
+            int next = nextLine(text, lineStart, end);
+            int contentEnd = next;
+            while (contentEnd > lineStart && (text.charAt(contentEnd - 1) == '\n' || text.charAt(contentEnd - 1) == '\r')) {
+                contentEnd--;
+            }
+            String line = stripBlockMarkers(text, lineStart, contentEnd);
+            if (!line.isEmpty()) {
+                String plain = HeadingSlugger.plainText(line);
+                if (!plain.isEmpty()) {
+                    if (result.length() > 0) {
+                        result.append('\n');
+                    }
+                    result.append(plain);
+                }
+            }
+            lineStart = next;
+        }
+        return result.toString();
+    }
+
+    /**
+     * 去掉行首的引用、列表、任务框标记和代码围栏，表格分隔符替换为空格
+     */
+    private static String stripBlockMarkers(String text, int start, int end) {
+        int pos = start;
+        while (true) {
+            pos = skipIndent(text, pos, end);
+            if (pos >= end) {
+                return "";
+            }
+            char c = text.charAt(pos);
+            if (c == '>') {
+                pos++;
+            } else if ((c == '-' || c == '*' || c == '+') && pos + 1 < end && text.charAt(pos + 1) == ' ') {
+                pos += 2;
+            } else if (Character.isDigit(c)) {
+                int digits = pos;
+                while (digits < end && digits - pos < 9 && Character.isDigit(text.charAt(digits))) {
+                    digits++;
+                }
+                if (digits + 1 < end && (text.charAt(digits) == '.' || text.charAt(digits) == ')')
+                        && text.charAt(digits + 1) == ' ') {
+                    pos = digits + 2;
+                } else {
+                    break;
+                }
+            } else {
+                break;
+            }
+        }
+        if (end - pos >= 3 && text.charAt(pos) == '[' && text.charAt(pos + 2) == ']'
+                && " xX".indexOf(text.charAt(pos + 1)) >= 0) {
+            pos = skipIndent(text, pos + 3, end);
+            if (pos >= end) {
+                return "";
+            }
+        }
+        char c = text.charAt(pos);
+        if ((c == '`' || c == '~') && end - pos >= 3 && text.charAt(pos + 1) == c && text.charAt(pos + 2) == c) {
+            // 围栏行只有语言标记，不作为正文
+            return "";
+        }
+        String line = text.substring(pos, end);
+        return line.indexOf('|') >= 0 ? line.replace('|', ' ').trim() : line;
+    }
+
+    private static boolean isSetextUnderline(String text, int start, int end) {
+        int pos = skipIndent(text, start, end);
+        if (pos >= end || (text.charAt(pos) != '=' && text.charAt(pos) != '-')) {
+            return false;
+        }
+        char c = text.charAt(pos);
+        while (pos < end && text.charAt(pos) == c) {
+            pos++;
+        }
+        while (pos < end && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+        return pos >= end;
+    }
+
+    private static int skipIndent(String text, int pos, int end) {
+        while (pos < end && (text.charAt(pos) == ' ' || text.charAt(pos) == '\t')) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int nextLine(String text, int lineStart, int end) {
+        int newline = text.indexOf('\n', lineStart);
+        return newline < 0 || newline >= end ? end : newline + 1;
+    }
+}
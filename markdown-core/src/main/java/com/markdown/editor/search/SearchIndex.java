@@ -0,0 +1,421 @@
+package com.markdown.editor.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * 内存中的Markdown全文倒排索引，以小节（标题到下一个标题）为检索单位，按BM25排序
+ * 每个词的倒排表是一个字节数组：小节编号的增量和词频都用变长整数编码，标题中出现的词另有标记。
+ * 更新文件时旧的小节只标记删除，新小节追加到末尾，编号始终递增，倒排表只需在末尾追加；
+ * 删除的小节过多时整体压缩一次（压缩前词的文档频率仍计入已删除的小节，只轻微影响排序）。
+ * 估算的内存超过上限时先压缩掉已删除的小节，仍然超过时拒绝加入新文件，不会无限增长；
+ * 已经索引的文件总是可以更新，否则编辑过的文件会从索引中消失。
+ * 所有方法都已同步，可以在任意线程调用
+ */
+public final class SearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    /** 标题中出现的词额外计入的词频 */
+    private static final int TITLE_BOOST = 3;
+
+    // 估算内存时每个词、每个小节的固定开销（对象头、引用、哈希表项）
+    private static final int TERM_OVERHEAD = 96;
+    private static final int SECTION_OVERHEAD = 48;
+
+    /**
+     * 一条检索结果
+     */
+    public static final class Hit {
+        private final String path;
+        private final String title;
+        private final int offset;
+        private final double score;
+
+        Hit(String path, String title, int offset, double score) {
+            this.path = path;
+            this.title = title;
+            this.offset = offset;
+            this.score = score;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        /** 小节标题，文档开头没有标题的部分为空字符串 */
+        public String getTitle() {
+            return title;
+        }
+
+        /** 小节标题在文档中的偏移 */
+        public int getOffset() {
+            return offset;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%.3f %s#%s@%d", score, path, title, offset);
+        }
+    }
+
+    private static final class Postings {
+        byte[] data = new byte[8];
+        int length;
+        int lastSection = -1;
+        int count;
+
+        void add(int section, int frequency, boolean inTitle) {
+            writeVarInt(section - lastSection);
+            writeVarInt(frequency << 1 | (inTitle ? 1 : 0));
+            lastSection = section;
+            count++;
+        }
+
+        private void writeVarInt(int value) {
+            if (length + 5 > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 3 / 2, length + 5));
+            }
+            while ((value & ~0x7F) != 0) {
+                data[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[length++] = (byte) value;
+        }
+    }
+
+    /**
+     * 顺序读取倒排表
+     */
+    private static final class PostingsReader {
+        private final byte[] data;
+        private final int length;
+        private int pos;
+        int section = -1;
+        int flags;
+
+        PostingsReader(Postings postings) {
+            this.data = postings.data;
+            this.length = postings.length;
+        }
+
+        boolean next() {
+            if (pos >= length) {
+                return false;
+            }
+            section += readVarInt();
+            flags = readVarInt();
+            return true;
+        }
+
+        int frequency() {
+            return flags >>> 1;
+        }
+
+        boolean inTitle() {
+            return (flags & 1) != 0;
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = data[pos++];
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        }
+    }
+
+    private final long maxMemoryBytes;
+
+    private final Map<String, Postings> terms = new HashMap<>();
+    // 小节信息，按编号保存
+    private String[] sectionPaths = new String[64];
+    private String[] sectionTitles = new String[64];
+    private int[] sectionOffsets = new int[64];
+    private int[] sectionLengths = new int[64];
+    private int sectionCount;
+    private final BitSet deleted = new BitSet();
+    private int deletedCount;
+    private long liveLength;
+    // 每个文件占用的小节编号区间 [start, end)
+    private final Map<String, int[]> files = new LinkedHashMap<>();
+    private long memoryBytes;
+    private int rejectedFiles;
+
+    /**
+     * @param maxMemoryBytes 估算内存的上限
+     */
+    public SearchIndex(long maxMemoryBytes) {
+        this.maxMemoryBytes = maxMemoryBytes;
+    }
+
+    /**
+     * 一个小节切分后的词频，在加锁之前计算
+     */
+    private static final class SectionTerms {
+        final MarkdownSections.Section section;
+        // 词 -> [词频, 是否在标题中]
+        final Map<String, int[]> frequencies = new HashMap<>();
+        int length;
+
+        SectionTerms(MarkdownSections.Section section) {
+            this.section = section;
+            SearchTokenizer.tokenize(section.getTitle(), token -> {
+                int[] entry = frequencies.computeIfAbsent(token, key -> new int[2]);
+                entry[0] += TITLE_BOOST;
+                entry[1] = 1;
+                length++;
+            });
+            SearchTokenizer.tokenize(section.getText(), token -> {
+                frequencies.computeIfAbsent(token, key -> new int[2])[0]++;
+                length++;
+            });
+        }
+    }
+
+    /**
+     * 加入或更新一个文件；切分和分词在锁外进行，只有写入倒排表时加锁
+     * @return 内存已达上限而没有加入时返回false；已索引的文件总会更新
+     */
+    public boolean put(String path, String markdown) {
+        List<SectionTerms> prepared = new ArrayList<>();
+        for (MarkdownSections.Section section : MarkdownSections.split(markdown)) {
+            prepared.add(new SectionTerms(section));
+        }
+        synchronized (this) {
+            if (!files.containsKey(path) && memoryBytes >= maxMemoryBytes) {
+                if (deletedCount > 0) {
+                    // 已删除的小节仍占用内存，压缩后可能还有空间
+                    compact();
+                }
+                if (memoryBytes >= maxMemoryBytes) {
+                    rejectedFiles++;
+                    return false;
+                }
+            }
+            remove(path);
+            int start = sectionCount;
+            for (SectionTerms terms : prepared) {
+                MarkdownSections.Section section = terms.section;
+                int id = addSection(path, section.getTitle(), section.getOffset(), terms.length);
+                for (Map.Entry<String, int[]> entry : terms.frequencies.entrySet()) {
+                    addPosting(entry.getKey(), id, entry.getValue()[0], entry.getValue()[1] != 0);
+                }
+            }
+            files.put(path, new int[]{start, sectionCount});
+            return true;
+        }
+    }
+
+    private void addPosting(String term, int section, int frequency, boolean inTitle) {
+        Postings postings = terms.get(term);
+        if (postings == null) {
+            postings = new Postings();
+            terms.put(term, postings);
+            memoryBytes += TERM_OVERHEAD + term.length() * 2L + postings.data.length;
+        }
+        int before = postings.data.length;
+        postings.add(section, frequency, inTitle);
+        memoryBytes += postings.data.length - before;
+    }
+
+    /**
+     * 删除一个文件的全部小节
+     */
+    public synchronized void remove(String path) {
+        int[] range = files.remove(path);
+        if (range == null) {
+            return;
+        }
+        for (int id = range[0]; id < range[1]; id++) {
+            deleted.set(id);
+            liveLength -= sectionLengths[id];
+        }
+        deletedCount += range[1] - range[0];
+        if (deletedCount > 1024 && deletedCount * 3 > sectionCount) {
+            compact();
+        }
+    }
+
+    public synchronized boolean contains(String path) {
+        return files.containsKey(path);
+    }
+
+    /** 已索引文件路径的快照 */
+    public synchronized List<String> getPaths() {
+        return new ArrayList<>(files.keySet());
+    }
+
+    /**
+     * 按BM25检索，同时包含更多查询词的小节排在前面
+     * @param limit 最多返回的数量
+     */
+    public synchronized List<Hit> search(String query, int limit) {
+        Set<String> queryTerms = new HashSet<>(SearchTokenizer.tokenize(query));
+        int live = sectionCount - deletedCount;
+        if (queryTerms.isEmpty() || live == 0 || limit <= 0) {
+            return Collections.emptyList();
+        }
+        double averageLength = Math.max(1.0, (double) liveLength / live);
+        double[] scores = new double[sectionCount];
+        int[] matched = new int[sectionCount];
+        for (String term : queryTerms) {
+            Postings postings = terms.get(term);
+            if (postings == null) {
+                continue;
+            }
+            double idf = Math.log(1 + (live - postings.count + 0.5) / (postings.count + 0.5));
+            PostingsReader reader = new PostingsReader(postings);
+            while (reader.next()) {
+                int section = reader.section;
+                if (deleted.get(section)) {
+                    continue;
+                }
+                int frequency = reader.frequency();
+                double norm = K1 * (1 - B + B * sectionLengths[section] / averageLength);
+                scores[section] += idf * frequency * (K1 + 1) / (frequency + norm);
+                matched[section]++;
+            }
+        }
+        int termCount = queryTerms.size();
+        PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1,
+                (a, b) -> Double.compare(finalScore(scores, matched, a, termCount), finalScore(scores, matched, b, termCount)));
+        for (int section = 0; section < sectionCount; section++) {
+            if (matched[section] == 0) {
+                continue;
+            }
+            top.add(section);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<Hit> hits = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            int section = top.poll();
+            hits.add(new Hit(sectionPaths[section], sectionTitles[section], sectionOffsets[section],
+                    finalScore(scores, matched, section, termCount)));
+        }
+        Collections.reverse(hits);
+        return hits;
+    }
+
+    private static double finalScore(double[] scores, int[] matched, int section, int termCount) {
+        return scores[section] * matched[section] / termCount;
+    }
+
+    public synchronized int getFileCount() {
+        return files.size();
+    }
+
+    /** 估算的内存占用 */
+    public synchronized long getMemoryBytes() {
+        return memoryBytes;
+    }
+
+    /** 因内存上限而没有加入的文件数 */
+    public synchronized int getRejectedFiles() {
+        return rejectedFiles;
+    }
+
+    public synchronized void clear() {
+        terms.clear();
+        files.clear();
+        Arrays.fill(sectionPaths, null);
+        Arrays.fill(sectionTitles, null);
+        sectionCount = 0;
+        deleted.clear();
+        deletedCount = 0;
+        liveLength = 0;
+        memoryBytes = 0;
+        rejectedFiles = 0;
+    }
+
+    private int addSection(String path, String title, int offset, int length) {
+        if (sectionCount == sectionPaths.length) {
+            int capacity = sectionCount * 2;
+            sectionPaths = Arrays.copyOf(sectionPaths, capacity);
+            sectionTitles = Arrays.copyOf(sectionTitles, capacity);
+            sectionOffsets = Arrays.copyOf(sectionOffsets, capacity);
+            sectionLengths = Arrays.copyOf(sectionLengths, capacity);
+        }
+        int id = sectionCount++;
+        sectionPaths[id] = path;
+        sectionTitles[id] = title;
+        sectionOffsets[id] = offset;
+        sectionLengths[id] = length;
+        liveLength += length;
+        memoryBytes += SECTION_OVERHEAD + title.length() * 2L;
+        return id;
+    }
+
+    /**
+     * 去掉已删除的小节，重新编号并重写倒排表
+     */
+    private void compact() {
+        // 每个编号之前未删除的小节数，即未删除小节的新编号
+        int[] liveBefore = new int[sectionCount + 1];
+        int next = 0;
+        for (int id = 0; id < sectionCount; id++) {
+            liveBefore[id] = next;
+            if (deleted.get(id)) {
+                memoryBytes -= SECTION_OVERHEAD + sectionTitles[id].length() * 2L;
+                continue;
+            }
+            sectionPaths[next] = sectionPaths[id];
+            sectionTitles[next] = sectionTitles[id];
+            sectionOffsets[next] = sectionOffsets[id];
+            sectionLengths[next] = sectionLengths[id];
+            next++;
+        }
+        liveBefore[sectionCount] = next;
+        Arrays.fill(sectionPaths, next, sectionCount, null);
+        Arrays.fill(sectionTitles, next, sectionCount, null);
+
+        Iterator<Map.Entry<String, Postings>> iterator = terms.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Postings> entry = iterator.next();
+            Postings old = entry.getValue();
+            Postings rewritten = new Postings();
+            PostingsReader reader = new PostingsReader(old);
+            while (reader.next()) {
+                if (!deleted.get(reader.section)) {
+                    rewritten.add(liveBefore[reader.section], reader.frequency(), reader.inTitle());
+                }
+            }
+            memoryBytes -= old.data.length;
+            if (rewritten.count == 0) {
+                memoryBytes -= TERM_OVERHEAD + entry.getKey().length() * 2L;
+                iterator.remove();
+            } else {
+                rewritten.data = Arrays.copyOf(rewritten.data, rewritten.length);
+                memoryBytes += rewritten.data.length;
+                entry.setValue(rewritten);
+            }
+        }
+        for (int[] range : files.values()) {
+            range[0] = liveBefore[range[0]];
+            range[1] = liveBefore[range[1]];
+        }
+        sectionCount = next;
+        deleted.clear();
+        deletedCount = 0;
+    }
+}
@@ -0,0 +1,63 @@
+package com.markdown.editor.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * 把纯文本切分为检索词
+ * 字母数字连续的部分转为小写作为一个词（至少两个字符）；中日韩文字没有空格分词，
+ * 连续的部分按相邻两个字作为一个词（单独一个字时作为一个词），查询时同样切分即可匹配
+ */
+public final class SearchTokenizer {
+
+    private SearchTokenizer() {
+    }
+
+    public static void tokenize(CharSequence text, Consumer<String> sink) {
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            int c = Character.codePointAt(text, i);
+            if (isCjk(c)) {
+                int start = i;
+                int previous = -1;
+                while (i < length && isCjk(c = Character.codePointAt(text, i))) {
+                    if (previous >= 0) {
+                        sink.accept(text.subSequence(previous, i + Character.charCount(c)).toString());
+                    }
+                    previous = i;
+                    i += Character.charCount(c);
+                }
+                if (previous == start) {
+                    sink.accept(text.subSequence(start, i).toString());
+                }
+            } else if (Character.isLetterOrDigit(c)) {
+                int start = i;
+                while (i < length && Character.isLetterOrDigit(c = Character.codePointAt(text, i)) && !isCjk(c)) {
+                    i += Character.charCount(c);
+                }
+                if (i - start >= 2) {
+                    sink.accept(text.subSequence(start, i).toString().toLowerCase(Locale.ROOT));
+                }
+            } else {
+                i += Character.charCount(c);
+            }
+        }
+    }
+
+    public static List<String> tokenize(CharSequence text) {
+        List<String> tokens = new ArrayList<>();
+        tokenize(text, tokens::add);
+        return tokens;
+    }
+
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
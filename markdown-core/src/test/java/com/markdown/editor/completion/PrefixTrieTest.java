@@ -0,0 +1,106 @@
+package com.markdown.editor.completion;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PrefixTrieTest {
+
+    @Test
+    public void collectReturnsValuesInKeyOrder() {
+        PrefixTrie<String> trie = new PrefixTrie<>();
+        trie.add("readme.md", "readme");
+        trie.add("api.md", "api");
+        trie.add("a.md", "a");
+        trie.add("ab.md", "ab");
+
+        assertEquals(List.of("a", "ab", "api", "readme"), trie.collect("", 10));
+        assertEquals(List.of("a", "ab", "api"), trie.collect("a", 10));
+        assertEquals(List.of("api"), trie.collect("ap", 10));
+        assertEquals(List.of(), trie.collect("x", 10));
+    }
+
+    @Test
+    public void collectStopsAtLimit() {
+        PrefixTrie<Integer> trie = new PrefixTrie<>();
+        for (int i = 0; i < 100; i++) {
+            trie.add(String.format("key%03d", i), i);
+        }
+
+        assertEquals(List.of(0, 1, 2), trie.collect("key", 3));
+        assertEquals(List.of(10, 11), trie.collect("key01", 2));
+        assertEquals(List.of(), trie.collect("key", 0));
+    }
+
+    @Test
+    public void sameKeyKeepsValuesInInsertionOrder() {
+        PrefixTrie<String> trie = new PrefixTrie<>();
+        trie.add("intro", "first");
+        trie.add("intro", "second");
+        trie.add("intro", "third");
+        trie.add("introduction", "longer");
+
+        assertEquals(List.of("first", "second", "third", "longer"), trie.collect("intro", 10));
+        assertEquals(List.of("first", "second"), trie.collect("intro", 2));
+        assertEquals(4, trie.size());
+    }
+
+    @Test
+    public void removeDeletesOnlyTheGivenPair() {
+        PrefixTrie<String> trie = new PrefixTrie<>();
+        trie.add("intro", "first");
+        trie.add("intro", "second");
+        trie.add("index", "index");
+
+        assertTrue(trie.remove("intro", "first"));
+        assertFalse(trie.remove("intro", "first"));
+        assertFalse(trie.remove("intro", "missing"));
+        assertFalse(trie.remove("in", "index"));
+        assertEquals(List.of("index", "second"), trie.collect("in", 10));
+        assertEquals(2, trie.size());
+
+        assertTrue(trie.remove("intro", "second"));
+        assertEquals(List.of("index"), trie.collect("in", 10));
+        assertEquals(List.of(), trie.collect("int", 10));
+        assertEquals(1, trie.size());
+    }
+
+    @Test
+    public void removePrunesEmptyNodesButKeepsPrefixKeys() {
+        PrefixTrie<String> trie = new PrefixTrie<>();
+        trie.add("a", "a");
+        trie.add("abc", "abc");
+
+        assertTrue(trie.remove("abc", "abc"));
+        assertEquals(List.of("a"), trie.collect("a", 10));
+        assertEquals(List.of(), trie.collect("ab", 10));
+
+        trie.add("abd", "abd");
+        assertEquals(List.of("a", "abd"), trie.collect("a", 10));
+    }
+
+    @Test
+    public void valuesThatAreListsAreNotMergedIntoValueLists() {
+        PrefixTrie<List<String>> trie = new PrefixTrie<>();
+        trie.add("k", List.of("x", "y"));
+
+        assertEquals(List.of(List.of("x", "y")), trie.collect("k", 10));
+        assertTrue(trie.remove("k", List.of("x", "y")));
+        assertEquals(0, trie.size());
+    }
+
+    @Test
+    public void clearRemovesEverything() {
+        PrefixTrie<String> trie = new PrefixTrie<>();
+        trie.add("a", "a");
+        trie.add("b", "b");
+        trie.clear();
+
+        assertEquals(0, trie.size());
+        assertEquals(List.of(), trie.collect("", 10));
+    }
+}
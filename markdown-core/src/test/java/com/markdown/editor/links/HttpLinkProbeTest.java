@@ -0,0 +1,130 @@
+package com.markdown.editor.links;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class HttpLinkProbeTest {
+
+    private static final String URL = "https://example.com/page";
+
+    /**
+     * 按调用顺序依次执行给定的动作，代替真实的HTTP请求
+     */
+    private static final class ScriptedProbe extends HttpLinkProbe {
+        interface Step {
+            int run() throws IOException, InterruptedException;
+        }
+
+        private final Step[] steps;
+        final AtomicInteger calls = new AtomicInteger();
+
+        ScriptedProbe(Step... steps) {
+            this.steps = steps;
+        }
+
+        @Override
+        int send(URI uri, String method) throws IOException, InterruptedException {
+            return steps[Math.min(calls.getAndIncrement(), steps.length - 1)].run();
+        }
+    }
+
+    @Test
+    public void resultIsRequestedOnceAndReused() {
+        ScriptedProbe probe = new ScriptedProbe(() -> 404);
+
+        assertEquals("HTTP 404", probe.probe(URL));
+        assertEquals("HTTP 404", probe.probe(URL + "#section"));
+        assertEquals(1, probe.calls.get());
+    }
+
+    @Test
+    public void nonHttpLinksAreSkipped() {
+        ScriptedProbe probe = new ScriptedProbe(() -> 500);
+
+        assertNull(probe.probe("mailto:someone@example.com"));
+        assertEquals(0, probe.calls.get());
+    }
+
+    @Test
+    public void headFallsBackToGet() {
+        ScriptedProbe probe = new ScriptedProbe(() -> 405, () -> 200);
+
+        assertNull(probe.probe(URL));
+        assertEquals(2, probe.calls.get());
+    }
+
+    @Test
+    public void uncheckedIoFailureIsReportedAsProblem() {
+        ScriptedProbe probe = new ScriptedProbe(() -> {
+            throw new UncheckedIOException(new IOException("reset"));
+        });
+
+        assertEquals("UncheckedIOException", probe.probe(URL));
+    }
+
+    @Test(timeout = 10_000)
+    public void unexpectedExceptionDoesNotBlockLaterProbes() {
+        ScriptedProbe probe = new ScriptedProbe(() -> {
+            throw new SecurityException("denied");
+        }, () -> 200);
+
+        try {
+            probe.probe(URL);
+            fail("exception expected");
+        } catch (SecurityException e) {
+            // 预期：异常交给调用方
+        }
+        assertNull(probe.probe(URL));
+        assertEquals(2, probe.calls.get());
+    }
+
+    @Test(timeout = 10_000)
+    public void concurrentProbeIsReleasedWhenRequestFails() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ScriptedProbe probe = new ScriptedProbe(() -> {
+            started.countDown();
+            release.await();
+            throw new SecurityException("denied");
+        });
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> probe.probe(URL));
+        started.await();
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> probe.probe(URL));
+        release.countDown();
+
+        for (CompletableFuture<String> future : List.of(first, second)) {
+            try {
+                future.get(5, TimeUnit.SECONDS);
+                fail("exception expected");
+            } catch (ExecutionException e) {
+                // 两个线程都收到失败，没有一直等待
+            }
+        }
+    }
+
+    @Test
+    public void interruptedCheckIsRetriedLater() {
+        ScriptedProbe probe = new ScriptedProbe(() -> {
+            throw new InterruptedException();
+        }, () -> 404);
+
+        assertEquals("检查被中断", probe.probe(URL));
+        // 清除中断标记，模拟下一次检查
+        Thread.interrupted();
+        assertEquals("HTTP 404", probe.probe(URL));
+        assertEquals(2, probe.calls.get());
+    }
+}
@@ -0,0 +1,131 @@
+package com.markdown.editor.preview;
+
+import org.intellij.markdown.parser.MarkdownParser;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class IncrementalMarkdownParserTest {
+
+    // 随机文档的行，覆盖会跨越空行或改变前一个块的结构
+    private static final String[] LINES = {
+            "", "", "  ", "Intro", "x", "text *em*", "# Heading", "---", "===", "    code", "    b",
+            "```", "```java", "- item", "  continued", "1. one", "> quote", "<div>", "</div>",
+            "| a | b |", "|---|---|", "[ref]: /url", "\t", "*", "-",
+    };
+
+    private final MarkdownParser parser = new MarkdownParser(new LinearTimeFlavourDescriptor());
+
+    @Test
+    public void indentingParagraphBeforeIndentedCodeMergesCodeBlocks() {
+        assertMatchesFullParse("Intro\n\nx\n\n    b\n", "Intro\n\n    x\n\n    b\n");
+        assertMatchesFullParse("Intro\n\na\n\nx\n\n    b\n\nEnd\n", "Intro\n\n    a\n\n    x\n\n    b\n\nEnd\n");
+    }
+
+    @Test
+    public void underlineAfterWhitespaceOnlyLineIsNotSetextHeading() {
+        assertMatchesFullParse("Para\n\n---\n", "Para\n  \n---\n");
+        assertMatchesFullParse("Para\n  \n---\n", "Para\n---\n");
+    }
+
+    @Test
+    public void unchangedTextReturnsSameBlocks() {
+        IncrementalMarkdownParser incremental = new IncrementalMarkdownParser(parser);
+        List<IncrementalMarkdownParser.Block> blocks = incremental.parse("# A\n\ntext\n");
+
+        assertSame(blocks, incremental.parse("# A\n\ntext\n"));
+        assertEquals(0, incremental.getLastReparsedLength());
+    }
+
+    @Test
+    public void editOnlyReparsesNearbyBlocks() {
+        StringBuilder document = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            document.append("# Section ").append(i).append("\n\nParagraph ").append(i).append("\n\n");
+        }
+        String text = document.toString();
+        IncrementalMarkdownParser incremental = new IncrementalMarkdownParser(parser);
+        incremental.parse(text);
+        int offset = text.indexOf("Paragraph 100") + 9;
+        String edited = text.substring(0, offset) + "X" + text.substring(offset);
+
+        assertEquals(describe(fullParse(edited)), describe(incremental.parse(edited)));
+        assertEquals(true, incremental.getLastReparsedLength() < 200);
+    }
+
+    @Test
+    public void randomEditsMatchFullParse() {
+        Random random = new Random(20240611L);
+        for (int sequence = 0; sequence < 3000; sequence++) {
+            List<String> lines = new ArrayList<>();
+            int count = 3 + random.nextInt(8);
+            for (int i = 0; i < count; i++) {
+                lines.add(LINES[random.nextInt(LINES.length)]);
+            }
+            IncrementalMarkdownParser incremental = new IncrementalMarkdownParser(parser);
+            String text = String.join("\n", lines) + "\n";
+            incremental.parse(text);
+            for (int step = 0; step < 6; step++) {
+                String previous = text;
+                text = edit(lines, random);
+                String expected = describe(fullParse(text));
+                String actual = describe(incremental.parse(text));
+                assertEquals("sequence " + sequence + " step " + step + ": " + quote(previous) + " -> " + quote(text),
+                        expected, actual);
+            }
+        }
+    }
+
+    private static String edit(List<String> lines, Random random) {
+        int index = random.nextInt(lines.size());
+        switch (random.nextInt(5)) {
+            case 0:
+                lines.set(index, LINES[random.nextInt(LINES.length)]);
+                break;
+            case 1:
+                lines.add(index, LINES[random.nextInt(LINES.length)]);
+                break;
+            case 2:
+                if (lines.size() > 1) {
+                    lines.remove(index);
+                }
+                break;
+            case 3:
+                lines.set(index, "    " + lines.get(index));
+                break;
+            default:
+                String line = lines.get(index);
+                lines.set(index, line.length() > 0 && random.nextBoolean() ? line.substring(1) : " " + line);
+                break;
+        }
+        return String.join("\n", lines) + "\n";
+    }
+
+    private void assertMatchesFullParse(String before, String after) {
+        IncrementalMarkdownParser incremental = new IncrementalMarkdownParser(parser);
+        incremental.parse(before);
+        assertEquals(quote(before) + " -> " + quote(after), describe(fullParse(after)), describe(incremental.parse(after)));
+    }
+
+    private List<IncrementalMarkdownParser.Block> fullParse(String text) {
+        return new IncrementalMarkdownParser(parser).parse(text);
+    }
+
+    private static String describe(List<IncrementalMarkdownParser.Block> blocks) {
+        StringBuilder result = new StringBuilder();
+        for (IncrementalMarkdownParser.Block block : blocks) {
+            result.append(block.getType()).append('@').append(block.getStartOffset()).append('-')
+                    .append(block.getEndOffset()).append(' ');
+        }
+        return result.toString().trim();
+    }
+
+    private static String quote(String text) {
+        return '"' + text.replace("\n", "\\n").replace("\t", "\\t") + '"';
+    }
+}
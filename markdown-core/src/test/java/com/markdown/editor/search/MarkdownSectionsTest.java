@@ -0,0 +1,74 @@
+package com.markdown.editor.search;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MarkdownSectionsTest {
+
+    @Test
+    public void splitsAtHeadingsWithPreamble() {
+        String markdown = "Intro text\n\n# First\n\nBody one\n\n## Second\n\nBody two\n";
+        List<MarkdownSections.Section> sections = MarkdownSections.split(markdown);
+
+        assertEquals(3, sections.size());
+        assertEquals("", sections.get(0).getTitle());
+        assertEquals(0, sections.get(0).getOffset());
+        assertEquals("Intro text", sections.get(0).getText());
+        assertEquals("First", sections.get(1).getTitle());
+        assertEquals(markdown.indexOf("# First"), sections.get(1).getOffset());
+        assertEquals("Body one", sections.get(1).getText());
+        assertEquals("Second", sections.get(2).getTitle());
+        assertEquals("Body two", sections.get(2).getText());
+    }
+
+    @Test
+    public void noPreambleSectionWhenDocumentStartsWithHeading() {
+        List<MarkdownSections.Section> sections = MarkdownSections.split("# Only\n\ntext\n");
+
+        assertEquals(1, sections.size());
+        assertEquals("Only", sections.get(0).getTitle());
+    }
+
+    @Test
+    public void setextUnderlineIsNotPartOfTheBody() {
+        List<MarkdownSections.Section> sections = MarkdownSections.split("Title\n=====\n\nBody\n");
+
+        assertEquals(1, sections.size());
+        assertEquals("Title", sections.get(0).getTitle());
+        assertEquals("Body", sections.get(0).getText());
+    }
+
+    @Test
+    public void blockMarkersAreStripped() {
+        String markdown = "# T\n\n> quoted\n- item\n1. first\n- [x] done\n| a | b |\n";
+        String text = MarkdownSections.split(markdown).get(0).getText();
+
+        assertEquals(List.of("quoted", "item", "first", "done"), List.of(text.split("\n")).subList(0, 4));
+        String table = text.split("\n")[4];
+        assertTrue(table, table.startsWith("a") && table.endsWith("b") && !table.contains("|"));
+    }
+
+    @Test
+    public void fenceLinesAreDroppedButCodeIsKept() {
+        String text = MarkdownSections.split("# T\n\n```java\nint x;\n```\n").get(0).getText();
+
+        assertEquals("int x;", text);
+    }
+
+    @Test
+    public void inlineMarkupKeepsOnlyVisibleText() {
+        String text = MarkdownSections.split("# T\n\nSee **bold** and [the docs](docs/readme.md).\n").get(0).getText();
+
+        assertTrue(text, text.contains("bold") && text.contains("the docs"));
+        assertTrue(text, !text.contains("**") && !text.contains("readme.md"));
+    }
+
+    @Test
+    public void emptyDocumentHasNoSections() {
+        assertEquals(List.of(), MarkdownSections.split(""));
+    }
+}
@@ -0,0 +1,129 @@
+package com.markdown.editor.search;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SearchIndexTest {
+
+    private static final long UNLIMITED = Long.MAX_VALUE;
+
+    @Test
+    public void findsSectionsByTerm() {
+        SearchIndex index = new SearchIndex(UNLIMITED);
+        index.put("/a.md", "# Install\n\nRun the installer.\n\n# Usage\n\nOpen a markdown file.\n");
+        index.put("/b.md", "# Notes\n\nNothing here.\n");
+
+        List<SearchIndex.Hit> hits = index.search("markdown", 10);
+
+        assertEquals(1, hits.size());
+        assertEquals("/a.md", hits.get(0).getPath());
+        assertEquals("Usage", hits.get(0).getTitle());
+    }
+
+    @Test
+    public void titleMatchesRankAboveBodyMatches() {
+        SearchIndex index = new SearchIndex(UNLIMITED);
+        index.put("/body.md", "# Other\n\nThe preview shows the rendered page.\n");
+        index.put("/title.md", "# Preview\n\nShows the rendered page.\n");
+
+        List<SearchIndex.Hit> hits = index.search("preview", 10);
+
+        assertEquals(2, hits.size());
+        assertEquals("/title.md", hits.get(0).getPath());
+    }
+
+    @Test
+    public void sectionsMatchingMoreTermsRankFirst() {
+        SearchIndex index = new SearchIndex(UNLIMITED);
+        index.put("/one.md", "# A\n\ncache cache cache cache\n");
+        index.put("/both.md", "# B\n\ncache render\n");
+
+        List<SearchIndex.Hit> hits = index.search("cache render", 10);
+
+        assertEquals("/both.md", hits.get(0).getPath());
+    }
+
+    @Test
+    public void putReplacesAndRemoveDeletes() {
+        SearchIndex index = new SearchIndex(UNLIMITED);
+        index.put("/a.md", "# A\n\nalpha\n");
+        index.put("/a.md", "# A\n\nbeta\n");
+
+        assertEquals(List.of(), index.search("alpha", 10));
+        assertEquals(1, index.search("beta", 10).size());
+        assertEquals(1, index.getFileCount());
+
+        index.remove("/a.md");
+        assertFalse(index.contains("/a.md"));
+        assertEquals(List.of(), index.search("beta", 10));
+    }
+
+    @Test
+    public void limitKeepsBestHits() {
+        SearchIndex index = new SearchIndex(UNLIMITED);
+        for (int i = 0; i < 20; i++) {
+            index.put("/f" + i + ".md", "# S\n\nshared " + "word ".repeat(i + 1) + "\n");
+        }
+
+        List<SearchIndex.Hit> hits = index.search("shared", 5);
+
+        assertEquals(5, hits.size());
+        for (int i = 1; i < hits.size(); i++) {
+            assertTrue(hits.get(i - 1).getScore() >= hits.get(i).getScore());
+        }
+    }
+
+    @Test
+    public void manyUpdatesCompactWithoutLosingFiles() {
+        SearchIndex index = new SearchIndex(UNLIMITED);
+        for (int round = 0; round < 50; round++) {
+            for (int i = 0; i < 40; i++) {
+                index.put("/f" + i + ".md", "# S" + i + "\n\nround" + round + " common\n\n# T\n\nmore text\n");
+            }
+        }
+
+        assertEquals(40, index.getFileCount());
+        assertEquals(40, index.search("round49", 100).size());
+        assertEquals(List.of(), index.search("round48", 100));
+        assertEquals(40, index.search("common", 100).size());
+    }
+
+    @Test
+    public void newFilesAreRejectedAtTheCap() {
+        SearchIndex index = new SearchIndex(1);
+
+        assertTrue(index.put("/first.md", "# A\n\nalpha\n"));
+        assertFalse(index.put("/second.md", "# B\n\nbeta\n"));
+        assertEquals(1, index.getRejectedFiles());
+        assertFalse(index.contains("/second.md"));
+    }
+
+    @Test
+    public void indexedFilesAreStillUpdatedAtTheCap() {
+        SearchIndex index = new SearchIndex(1);
+        index.put("/a.md", "# A\n\nalpha\n");
+
+        assertTrue(index.put("/a.md", "# A\n\nbeta\n"));
+        assertTrue(index.contains("/a.md"));
+        assertEquals(1, index.search("beta", 10).size());
+        assertEquals(0, index.getRejectedFiles());
+    }
+
+    @Test
+    public void clearResetsCounters() {
+        SearchIndex index = new SearchIndex(1);
+        index.put("/a.md", "# A\n\nalpha\n");
+        index.put("/b.md", "# B\n\nbeta\n");
+        index.clear();
+
+        assertEquals(0, index.getFileCount());
+        assertEquals(0, index.getMemoryBytes());
+        assertEquals(0, index.getRejectedFiles());
+        assertTrue(index.put("/b.md", "# B\n\nbeta\n"));
+    }
+}
@@ -0,0 +1,41 @@
+package com.markdown.editor.search;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class SearchTokenizerTest {
+
+    @Test
+    public void wordsAreLowerCasedAndSplitOnPunctuation() {
+        assertEquals(List.of("hello", "world", "foo", "bar2"), SearchTokenizer.tokenize("Hello, WORLD! foo_bar2"));
+    }
+
+    @Test
+    public void singleCharacterWordsAreDropped() {
+        assertEquals(List.of("is", "ok"), SearchTokenizer.tokenize("a is b ok c"));
+    }
+
+    @Test
+    public void cjkRunsBecomeOverlappingBigrams() {
+        assertEquals(List.of("全文", "文搜", "搜索"), SearchTokenizer.tokenize("全文搜索"));
+    }
+
+    @Test
+    public void singleCjkCharacterIsOneToken() {
+        assertEquals(List.of("中", "text"), SearchTokenizer.tokenize("中 text"));
+    }
+
+    @Test
+    public void cjkAndLatinAreSplitAtTheBoundary() {
+        assertEquals(List.of("markdown", "编辑", "辑器", "v2"), SearchTokenizer.tokenize("Markdown编辑器v2"));
+    }
+
+    @Test
+    public void emptyTextHasNoTokens() {
+        assertEquals(List.of(), SearchTokenizer.tokenize(""));
+        assertEquals(List.of(), SearchTokenizer.tokenize(" ,.;!"));
+    }
+}
@@ -1 +1,2 @@
 rootProject.name = "markdown-editor-plugin"
+include("markdown-core")
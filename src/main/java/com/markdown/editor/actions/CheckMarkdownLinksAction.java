@@ -0,0 +1,176 @@
+package com.markdown.editor.actions;
+
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectUtil;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.markdown.editor.index.MarkdownIndexing;
+import com.markdown.editor.links.HttpLinkProbe;
+import com.markdown.editor.links.LinkCheckService;
+import com.markdown.editor.links.LinkChecker;
+import com.markdown.editor.links.LinkProblemsDialog;
+import com.markdown.editor.links.LinkTarget;
+import com.markdown.editor.links.MarkdownLinkResolver;
+import com.markdown.editor.outline.LinkReference;
+import com.markdown.editor.settings.MarkdownSettings;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 检查项目中全部Markdown文件的相对链接和锚点
+ * 目标文件和锚点从索引中查找，在可取消的后台任务中用有界线程池并行检查；
+ * 结果按文件内容哈希缓存，再次检查时跳过内容和链接目标都未变化的文件。外部链接需要在设置中开启
+ */
+public class CheckMarkdownLinksAction extends AnAction {
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        if (project == null) return;
+        if (DumbService.isDumb(project)) {
+            Messages.showInfoMessage(project, "索引尚未完成，请稍后再检查链接", "检查Markdown链接");
+            return;
+        }
+        ProgressManager.getInstance().run(new CheckTask(project, MarkdownSettings.getInstance().isCheckExternalLinks()));
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        e.getPresentation().setEnabled(e.getProject() != null);
+    }
+
+    @NotNull
+    @Override
+    public ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+
+    private static final class CheckTask extends Task.Backgroundable {
+        private final boolean checkExternal;
+        private final Map<String, VirtualFile> files = new HashMap<>();
+        private LinkChecker.Result result;
+
+        CheckTask(@NotNull Project project, boolean checkExternal) {
+            super(project, "检查Markdown链接", true);
+            this.checkExternal = checkExternal;
+        }
+
+        @Override
+        public void run(@NotNull ProgressIndicator indicator) {
+            indicator.setIndeterminate(true);
+            indicator.setText("正在查找Markdown文件...");
+            List<FileSource> sources = collectSources(indicator);
+            System.out.println("🔗 开始检查 " + sources.size() + " 个Markdown文件的链接" + (checkExternal ? "（包括外部链接）" : ""));
+
+            indicator.setIndeterminate(false);
+            indicator.setText("正在检查链接...");
+            // 外部链接的检查主要在等待网络，可以多开一些线程
+            int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+            if (checkExternal) {
+                parallelism = Math.max(parallelism, 8);
+            }
+            ExecutorService executor = AppExecutorUtil.createBoundedApplicationPoolExecutor("Markdown Link Check", parallelism);
+            try {
+                result = LinkCheckService.getInstance(myProject).getChecker().checkAll(
+                        sources, checkExternal ? new HttpLinkProbe() : null, executor, new LinkChecker.Progress() {
+                            @Override
+                            public boolean isCanceled() {
+                                return indicator.isCanceled();
+                            }
+
+                            @Override
+                            public void fileDone(String path, int done, int total) {
+                                indicator.setFraction((double) done / total);
+                                indicator.setText2(path);
+                            }
+                        });
+            } catch (IOException e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            } finally {
+                executor.shutdown();
+            }
+            System.out.println("🔗 链接检查结束: " + result);
+            indicator.checkCanceled();
+        }
+
+        private List<FileSource> collectSources(ProgressIndicator indicator) {
+            return ReadAction.compute(() -> {
+                List<FileSource> sources = new ArrayList<>();
+                ProjectFileIndex.getInstance(myProject).iterateContent(file -> {
+                    indicator.checkCanceled();
+                    if (!file.isDirectory() && MarkdownIndexing.isMarkdownFile(file)) {
+                        sources.add(new FileSource(myProject, file));
+                        files.put(file.getPath(), file);
+                    }
+                    return true;
+                });
+                return sources;
+            });
+        }
+
+        @Override
+        public void onSuccess() {
+            if (result != null) {
+                new LinkProblemsDialog(myProject, result, files, ProjectUtil.guessProjectDir(myProject)).show();
+            }
+        }
+
+        @Override
+        public void onThrowable(@NotNull Throwable error) {
+            if (error instanceof ProcessCanceledException) return;
+            Messages.showErrorDialog(myProject, "链接检查失败: " + error.getMessage(), "错误");
+        }
+    }
+
+    /**
+     * 读取文件当前内容，已在编辑器中打开的文件使用未保存的文本
+     */
+    private static final class FileSource implements LinkChecker.Source {
+        private final VirtualFile file;
+        private final MarkdownLinkResolver resolver;
+
+        FileSource(Project project, VirtualFile file) {
+            this.file = file;
+            this.resolver = new MarkdownLinkResolver(project, file);
+        }
+
+        @Override
+        public String getPath() {
+            return file.getPath();
+        }
+
+        @Override
+        public String readText() throws IOException {
+            String text = ReadAction.compute(() -> {
+                Document document = FileDocumentManager.getInstance().getCachedDocument(file);
+                return document != null ? document.getText() : null;
+            });
+            return text != null ? text : VfsUtilCore.loadText(file);
+        }
+
+        @Override
+        public LinkTarget resolve(LinkReference link) {
+            return resolver.resolve(link);
+        }
+    }
+}
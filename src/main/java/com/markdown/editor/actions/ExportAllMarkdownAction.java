@@ -0,0 +1,201 @@
+package com.markdown.editor.actions;
+
+import com.intellij.ide.util.PropertiesComponent;
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileChooser.FileChooser;
+import com.intellij.openapi.fileChooser.FileChooserDescriptorFactory;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectUtil;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VfsUtil;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.markdown.editor.batch.HtmlExport;
+import com.markdown.editor.batch.RenderSummary;
+import com.markdown.editor.settings.MarkdownSettings;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 把项目中的全部Markdown文件导出为HTML
+ * 在可取消的后台任务中用有界线程池渲染，输出目录中的清单记录每个文件的内容哈希，
+ * 再次导出时只处理内容变化的文件和链接到新增、删除文件的页面
+ */
+public class ExportAllMarkdownAction extends AnAction {
+
+    private static final String EXPORT_DIR_KEY = "MarkdownEditor.exportDir";
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        if (project == null) return;
+
+        VirtualFile baseDir = ProjectUtil.guessProjectDir(project);
+        if (baseDir == null) {
+            Messages.showErrorDialog(project, "无法确定项目根目录", "导出失败");
+            return;
+        }
+
+        // 选择输出目录，默认使用上一次导出的目录
+        PropertiesComponent properties = PropertiesComponent.getInstance(project);
+        String lastDir = properties.getValue(EXPORT_DIR_KEY);
+        VirtualFile preselect = lastDir != null ? LocalFileSystem.getInstance().findFileByPath(lastDir) : null;
+        VirtualFile outputDir = FileChooser.chooseFile(
+                FileChooserDescriptorFactory.createSingleFolderDescriptor().withTitle("选择HTML输出目录"),
+                project, preselect != null ? preselect : baseDir);
+        if (outputDir == null) return;
+        properties.setValue(EXPORT_DIR_KEY, outputDir.getPath());
+
+        ProgressManager.getInstance().run(new ExportTask(project, baseDir, outputDir));
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        e.getPresentation().setEnabled(e.getProject() != null);
+    }
+
+    @NotNull
+    @Override
+    public ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+
+    private static final class ExportTask extends Task.Backgroundable {
+        private final VirtualFile baseDir;
+        private final VirtualFile outputDir;
+        private RenderSummary summary;
+
+        ExportTask(@NotNull Project project, VirtualFile baseDir, VirtualFile outputDir) {
+            super(project, "导出Markdown为HTML", true);
+            this.baseDir = baseDir;
+            this.outputDir = outputDir;
+        }
+
+        @Override
+        public void run(@NotNull ProgressIndicator indicator) {
+            indicator.setIndeterminate(true);
+            indicator.setText("正在查找Markdown文件...");
+            List<HtmlExport.Source> sources = collectSources(indicator);
+            System.out.println("📤 开始导出 " + sources.size() + " 个Markdown文件到 " + outputDir.getPath());
+
+            indicator.setIndeterminate(false);
+            indicator.setText("正在导出HTML...");
+            // 留一个核心给IDE，避免导出时界面卡顿
+            int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+            ExecutorService executor = AppExecutorUtil.createBoundedApplicationPoolExecutor("Markdown HTML Export", parallelism);
+            try {
+                HtmlExport export = new HtmlExport(outputDir.toNioPath(), MarkdownSettings.getInstance().getRenderEngine(), executor);
+                summary = export.export(sources, new HtmlExport.Progress() {
+                    @Override
+                    public boolean isCanceled() {
+                        return indicator.isCanceled();
+                    }
+
+                    @Override
+                    public void fileDone(String path, int done, int total) {
+                        indicator.setFraction((double) done / total);
+                        indicator.setText2(path);
+                    }
+                });
+            } catch (IOException e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            } finally {
+                executor.shutdown();
+                VfsUtil.markDirtyAndRefresh(true, true, true, outputDir);
+            }
+            System.out.println("📤 导出结束: " + summary);
+            indicator.checkCanceled();
+        }
+
+        /**
+         * 项目内容中的全部Markdown文件，跳过输出目录和项目根目录之外的文件
+         */
+        private List<HtmlExport.Source> collectSources(ProgressIndicator indicator) {
+            return ReadAction.compute(() -> {
+                List<HtmlExport.Source> sources = new ArrayList<>();
+                ProjectFileIndex.getInstance(myProject).iterateContent(file -> {
+                    indicator.checkCanceled();
+                    if (isMarkdownFile(file) && !VfsUtilCore.isAncestor(outputDir, file, false)) {
+                        String path = VfsUtilCore.getRelativePath(file, baseDir, '/');
+                        if (path != null) {
+                            sources.add(new FileSource(file, path));
+                        }
+                    }
+                    return true;
+                });
+                return sources;
+            });
+        }
+
+        @Override
+        public void onSuccess() {
+            if (summary != null) {
+                Messages.showInfoMessage(myProject, summary.toString(), "导出完成");
+            }
+        }
+
+        @Override
+        public void onCancel() {
+            Messages.showInfoMessage(myProject, "导出已取消，已完成的文件会在下次导出时跳过", "导出已取消");
+        }
+
+        @Override
+        public void onThrowable(@NotNull Throwable error) {
+            if (error instanceof ProcessCanceledException) return;
+            Messages.showErrorDialog(myProject, "导出失败: " + error.getMessage(), "错误");
+        }
+    }
+
+    /**
+     * 读取文件当前内容，已在编辑器中打开的文件使用未保存的文本
+     */
+    private static final class FileSource implements HtmlExport.Source {
+        private final VirtualFile file;
+        private final String path;
+
+        FileSource(VirtualFile file, String path) {
+            this.file = file;
+            this.path = path;
+        }
+
+        @Override
+        public String getPath() {
+            return path;
+        }
+
+        @Override
+        public String readText() throws IOException {
+            String text = ReadAction.compute(() -> {
+                Document document = FileDocumentManager.getInstance().getCachedDocument(file);
+                return document != null ? document.getText() : null;
+            });
+            return text != null ? text : VfsUtilCore.loadText(file);
+        }
+    }
+
+    private static boolean isMarkdownFile(VirtualFile file) {
+        if (file.isDirectory()) return false;
+        String extension = file.getExtension();
+        return extension != null &&
+               (extension.equals("md") ||
+                extension.equals("markdown") ||
+                extension.equals("mdown") ||
+                extension.equals("mkd"));
+    }
+}
@@ -9,11 +9,12 @@ import com.intellij.openapi.fileEditor.FileEditorManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.markdown.editor.editor.MarkdownFileEditor;
+import com.markdown.editor.editor.PreviewLayout;
 import com.markdown.editor.file.MarkdownFileType;
 import org.jetbrains.annotations.NotNull;
 
 /**
- * 切换预览显示操作
+ * 切换预览显示操作：在仅编辑器、分屏和仅预览三种布局之间循环
  */
 public class TogglePreviewAction extends AnAction {
     
@@ -30,18 +31,12 @@ public class TogglePreviewAction extends AnAction {
         
         if (fileEditor instanceof MarkdownFileEditor) {
             MarkdownFileEditor markdownEditor = (MarkdownFileEditor) fileEditor;
-            // 切换预览显示状态
-            togglePreviewVisibility(markdownEditor);
+            // 依次切换 仅编辑器 → 分屏 → 仅预览，并记住该文件的布局
+            PreviewLayout layout = markdownEditor.getLayout().next();
+            markdownEditor.setLayout(layout);
+            System.out.println("🔀 切换编辑器布局: " + layout.getDisplayName());
         }
     }
-    
-    private void togglePreviewVisibility(MarkdownFileEditor editor) {
-        // 实现预览面板的显示/隐藏切换
-        // 这里可以通过调整分割面板的比例来实现
-        editor.getPreviewPanel().getComponent().setVisible(
-            !editor.getPreviewPanel().getComponent().isVisible()
-        );
-    }
 
     @Override
     public void update(@NotNull AnActionEvent e) {
@@ -0,0 +1,310 @@
+package com.markdown.editor.completion;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.editor.EditorFactory;
+import com.intellij.openapi.editor.event.DocumentEvent;
+import com.intellij.openapi.editor.event.DocumentListener;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.markdown.editor.index.MarkdownIndexing;
+import com.markdown.editor.index.MarkdownSummaryIndex;
+import com.markdown.editor.outline.DocumentSummary;
+import com.markdown.editor.outline.Heading;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 链接补全的候选：项目中的Markdown文件、图片和全部标题锚点，保存在内存中的前缀树里
+ * 第一次使用时在后台从摘要索引构建，之后只处理变化的文件：文件增删改名和未保存的编辑只把文件标记为过期，
+ * 下一次补全时从索引重新读取这些文件。补全时只查前缀树，不扫描文件
+ */
+@Service(Service.Level.PROJECT)
+public final class MarkdownCompletionIndex implements Disposable {
+
+    /** 每次补全最多返回的候选数量 */
+    public static final int MAX_RESULTS = 200;
+
+    // 补全时同步刷新的过期文件数量上限，超过时转到后台刷新，避免补全卡顿
+    private static final int MAX_SYNC_REFRESH = 32;
+
+    private static final Set<String> IMAGE_EXTENSIONS = Set.of("png", "jpg", "jpeg", "gif", "svg", "webp", "bmp");
+
+    /**
+     * 一个补全候选：文件，或者文件中的一个标题
+     */
+    public static final class Candidate {
+        private final VirtualFile file;
+        private final Heading heading;
+        private final String anchor;
+        // 加入前缀树时的键，文件改名后仍能找到并删除
+        private final String key;
+
+        Candidate(VirtualFile file, Heading heading, String anchor) {
+            this.file = file;
+            this.heading = heading;
+            this.anchor = anchor;
+            this.key = anchor != null ? anchor : file.getName().toLowerCase(Locale.ROOT);
+        }
+
+        public VirtualFile getFile() {
+            return file;
+        }
+
+        /** 标题，文件候选为null */
+        public Heading getHeading() {
+            return heading;
+        }
+
+        /** 标题的锚点，文件候选为null */
+        public String getAnchor() {
+            return anchor;
+        }
+    }
+
+    private final Project project;
+    private final PrefixTrie<Candidate> files = new PrefixTrie<>();
+    private final PrefixTrie<Candidate> headings = new PrefixTrie<>();
+    // 每个文件加入前缀树的候选，用于删除
+    private final Map<VirtualFile, List<Candidate>> indexed = new HashMap<>();
+    // 每次按键都会加入，不加锁
+    private final Set<VirtualFile> stale = ConcurrentHashMap.newKeySet();
+    private boolean built;
+    private boolean building;
+    private volatile boolean disposed;
+
+    public MarkdownCompletionIndex(@NotNull Project project) {
+        this.project = project;
+        project.getMessageBus().connect(this).subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+            @Override
+            public void after(@NotNull List<? extends VFileEvent> events) {
+                for (VFileEvent event : events) {
+                    VirtualFile file = event.getFile();
+                    if (file != null) {
+                        markStale(file);
+                    }
+                }
+            }
+        });
+        EditorFactory.getInstance().getEventMulticaster().addDocumentListener(new DocumentListener() {
+            @Override
+            public void documentChanged(@NotNull DocumentEvent event) {
+                VirtualFile file = FileDocumentManager.getInstance().getFile(event.getDocument());
+                if (file != null && MarkdownIndexing.isMarkdownFile(file)) {
+                    markStale(file);
+                }
+            }
+        }, this);
+    }
+
+    public static MarkdownCompletionIndex getInstance(@NotNull Project project) {
+        return project.getService(MarkdownCompletionIndex.class);
+    }
+
+    /**
+     * 文件名以prefix开头（不区分大小写）的Markdown文件和图片；第一次调用时开始后台构建，构建完成前返回空列表
+     */
+    @NotNull
+    public List<Candidate> findFiles(@NotNull String prefix) {
+        synchronized (this) {
+            if (!prepare()) {
+                return Collections.emptyList();
+            }
+            return files.collect(prefix.toLowerCase(Locale.ROOT), MAX_RESULTS);
+        }
+    }
+
+    /**
+     * 锚点以prefix开头的全部标题
+     */
+    @NotNull
+    public List<Candidate> findHeadings(@NotNull String prefix) {
+        synchronized (this) {
+            if (!prepare()) {
+                return Collections.emptyList();
+            }
+            return headings.collect(prefix.toLowerCase(Locale.ROOT), MAX_RESULTS);
+        }
+    }
+
+    /**
+     * 确保前缀树可用并刷新少量过期文件，需要在读操作中调用
+     */
+    private boolean prepare() {
+        if (!built) {
+            scheduleBuild();
+            return false;
+        }
+        if (!stale.isEmpty() && !DumbService.isDumb(project)) {
+            if (stale.size() <= MAX_SYNC_REFRESH) {
+                refreshStale();
+            } else {
+                scheduleRefresh();
+            }
+        }
+        return true;
+    }
+
+    private void scheduleBuild() {
+        if (building || disposed) {
+            return;
+        }
+        building = true;
+        ReadAction.nonBlocking(this::collectAll)
+                .inSmartMode(project)
+                .expireWith(this)
+                .finishOnUiThread(ModalityState.any(), result -> {
+                    synchronized (this) {
+                        building = false;
+                        if (disposed) {
+                            return;
+                        }
+                        result.forEach(this::put);
+                        built = true;
+                        System.out.println("🔤 链接补全候选已就绪: " + files.size() + " 个文件, " + headings.size() + " 个标题");
+                    }
+                })
+                .submit(AppExecutorUtil.getAppExecutorService());
+    }
+
+    private void scheduleRefresh() {
+        if (building || disposed) {
+            return;
+        }
+        building = true;
+        ReadAction.nonBlocking(() -> {
+                    synchronized (this) {
+                        refreshStale();
+                    }
+                })
+                .inSmartMode(project)
+                .expireWith(this)
+                .finishOnUiThread(ModalityState.any(), ignored -> {
+                    synchronized (this) {
+                        building = false;
+                    }
+                })
+                .submit(AppExecutorUtil.getAppExecutorService());
+    }
+
+    private Map<VirtualFile, List<Candidate>> collectAll() {
+        Map<VirtualFile, List<Candidate>> result = new HashMap<>();
+        ProjectFileIndex.getInstance(project).iterateContent(file -> {
+            // 有写操作时取消，稍后自动重新开始
+            ProgressManager.checkCanceled();
+            List<Candidate> candidates = candidatesOf(file);
+            if (candidates != null) {
+                result.put(file, candidates);
+            }
+            return true;
+        });
+        return result;
+    }
+
+    /**
+     * 逐个刷新过期文件，文件重新加入后才从过期集合中移除；中途取消时剩下的文件仍然过期，下次继续。
+     * 在读操作中执行，期间文档不会变化，移除的标记不会覆盖刷新过程中新的修改
+     */
+    private void refreshStale() {
+        for (Iterator<VirtualFile> iterator = stale.iterator(); iterator.hasNext(); ) {
+            ProgressManager.checkCanceled();
+            VirtualFile file = iterator.next();
+            remove(file);
+            if (file.isValid() && ProjectFileIndex.getInstance(project).isInContent(file)) {
+                List<Candidate> candidates = candidatesOf(file);
+                if (candidates != null) {
+                    put(file, candidates);
+                }
+            }
+            iterator.remove();
+        }
+    }
+
+    /**
+     * 文件的候选：文件本身和Markdown文件中的全部标题；不需要补全的文件返回null
+     */
+    private List<Candidate> candidatesOf(VirtualFile file) {
+        if (file.isDirectory()) {
+            return null;
+        }
+        if (!MarkdownIndexing.isMarkdownFile(file)) {
+            String extension = file.getExtension();
+            return extension != null && IMAGE_EXTENSIONS.contains(extension.toLowerCase(Locale.ROOT))
+                    ? List.of(new Candidate(file, null, null))
+                    : null;
+        }
+        List<Candidate> candidates = new ArrayList<>();
+        candidates.add(new Candidate(file, null, null));
+        DocumentSummary summary = MarkdownSummaryIndex.getSummary(project, file);
+        if (summary != null) {
+            List<String> anchors = summary.getAnchors();
+            for (int i = 0; i < anchors.size(); i++) {
+                candidates.add(new Candidate(file, summary.getHeadings().get(i), anchors.get(i)));
+            }
+        }
+        return candidates;
+    }
+
+    private void put(VirtualFile file, List<Candidate> candidates) {
+        for (Candidate candidate : candidates) {
+            (candidate.anchor == null ? files : headings).add(candidate.key, candidate);
+        }
+        indexed.put(file, candidates);
+    }
+
+    private void remove(VirtualFile file) {
+        List<Candidate> candidates = indexed.remove(file);
+        if (candidates == null) {
+            return;
+        }
+        for (Candidate candidate : candidates) {
+            (candidate.anchor == null ? files : headings).remove(candidate.key, candidate);
+        }
+    }
+
+    private void markStale(VirtualFile file) {
+        if (file.isDirectory()) {
+            // 目录改名、移动或删除时，其中已加入的文件都需要重新读取
+            synchronized (this) {
+                for (VirtualFile child : indexed.keySet()) {
+                    if (VfsUtilCore.isAncestor(file, child, true)) {
+                        stale.add(child);
+                    }
+                }
+            }
+        } else {
+            stale.add(file);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        disposed = true;
+        synchronized (this) {
+            files.clear();
+            headings.clear();
+            indexed.clear();
+            stale.clear();
+        }
+    }
+}
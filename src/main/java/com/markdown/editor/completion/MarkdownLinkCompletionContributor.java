@@ -0,0 +1,161 @@
+package com.markdown.editor.completion;
+
+import com.intellij.codeInsight.completion.CompletionContributor;
+import com.intellij.codeInsight.completion.CompletionParameters;
+import com.intellij.codeInsight.completion.CompletionResultSet;
+import com.intellij.codeInsight.completion.CompletionType;
+import com.intellij.codeInsight.lookup.LookupElementBuilder;
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.markdown.editor.index.MarkdownIndexing;
+import com.markdown.editor.index.MarkdownSummaryIndex;
+import com.markdown.editor.outline.DocumentSummary;
+import com.markdown.editor.outline.Heading;
+import com.markdown.editor.outline.HeadingOutlineService;
+import com.markdown.editor.outline.LinkReference;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * 链接目标补全：在 [text]( 之后补全项目中的文件和标题，在 ]( # 之后补全当前文件的锚点，
+ * 在 ](path# 之后补全目标文件的锚点。候选来自内存中的前缀树和索引，补全时不扫描文件
+ */
+public class MarkdownLinkCompletionContributor extends CompletionContributor {
+
+    // 向前查找链接目标起点的最大距离
+    private static final int MAX_DESTINATION_LENGTH = 512;
+
+    @Override
+    public void fillCompletionVariants(@NotNull CompletionParameters parameters, @NotNull CompletionResultSet result) {
+        if (parameters.getCompletionType() != CompletionType.BASIC) {
+            return;
+        }
+        VirtualFile file = parameters.getOriginalFile().getVirtualFile();
+        if (file == null || !MarkdownIndexing.isMarkdownFile(file)) {
+            return;
+        }
+        Document document = parameters.getEditor().getDocument();
+        CharSequence text = document.getImmutableCharSequence();
+        int offset = parameters.getOffset();
+        int start = destinationStart(text, offset);
+        if (start < 0) {
+            return;
+        }
+        String typed = text.subSequence(start, offset).toString();
+        Project project = parameters.getPosition().getProject();
+
+        int hash = typed.indexOf('#');
+        if (hash >= 0) {
+            addAnchors(project, file, document, typed.substring(0, hash), result.withPrefixMatcher(typed.substring(hash + 1)));
+        } else {
+            CompletionResultSet files = result.withPrefixMatcher(typed);
+            // 候选数量有上限，继续输入时重新从前缀树查找
+            files.restartCompletionOnAnyPrefixChange();
+            addFiles(project, file, typed, files);
+        }
+        result.stopHere();
+    }
+
+    @Override
+    public boolean invokeAutoPopup(@NotNull PsiElement position, char typeChar) {
+        return typeChar == '(' || typeChar == '#';
+    }
+
+    /**
+     * 光标所在的链接目标的起点（ ]( 之后），光标不在链接目标中时返回-1
+     */
+    static int destinationStart(CharSequence text, int offset) {
+        int limit = Math.max(0, offset - MAX_DESTINATION_LENGTH);
+        for (int i = offset - 1; i >= limit; i--) {
+            char c = text.charAt(i);
+            if (c == '(') {
+                return i > 0 && text.charAt(i - 1) == ']' ? i + 1 : -1;
+            }
+            if (c == ')' || c == '\n' || Character.isWhitespace(c)) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private void addAnchors(Project project, VirtualFile file, Document document, String path, CompletionResultSet result) {
+        List<Heading> headings;
+        List<String> anchors;
+        if (path.isEmpty()) {
+            HeadingOutlineService outline = HeadingOutlineService.getInstance();
+            headings = outline.getHeadings(document);
+            anchors = outline.getAnchors(document);
+        } else {
+            VirtualFile target = MarkdownIndexing.resolveLink(project, file, new LinkReference(path, 0, false));
+            DocumentSummary summary = target != null ? MarkdownSummaryIndex.getSummary(project, target) : null;
+            if (summary == null) {
+                return;
+            }
+            headings = summary.getHeadings();
+            anchors = summary.getAnchors();
+        }
+        for (int i = 0; i < headings.size() && i < anchors.size(); i++) {
+            Heading heading = headings.get(i);
+            result.addElement(LookupElementBuilder.create(anchors.get(i))
+                    .withTailText("  " + heading.getTitle(), true)
+                    .withTypeText("H" + heading.getLevel())
+                    .withIcon(AllIcons.Nodes.Tag));
+        }
+    }
+
+    private void addFiles(Project project, VirtualFile file, String typed, CompletionResultSet result) {
+        MarkdownCompletionIndex index = MarkdownCompletionIndex.getInstance(project);
+        // 按文件名查找，输入中已有的目录部分交给前缀匹配
+        String name = typed.substring(typed.lastIndexOf('/') + 1);
+        for (MarkdownCompletionIndex.Candidate candidate : index.findFiles(name)) {
+            VirtualFile target = candidate.getFile();
+            String path = target.equals(file) ? target.getName() : relativePath(file, target);
+            if (path == null) {
+                continue;
+            }
+            result.addElement(LookupElementBuilder.create(candidate, path)
+                    .withLookupString(target.getName())
+                    .withPresentableText(path)
+                    .withIcon(target.getFileType().getIcon()));
+        }
+        if (typed.indexOf('/') >= 0) {
+            return;
+        }
+        for (MarkdownCompletionIndex.Candidate candidate : index.findHeadings(typed)) {
+            VirtualFile target = candidate.getFile();
+            String path = target.equals(file) ? "" : relativePath(file, target);
+            if (path == null) {
+                continue;
+            }
+            Heading heading = candidate.getHeading();
+            result.addElement(LookupElementBuilder.create(candidate, path + "#" + candidate.getAnchor())
+                    .withLookupString(candidate.getAnchor())
+                    .withTailText("  " + heading.getTitle(), true)
+                    .withTypeText("H" + heading.getLevel())
+                    .withIcon(AllIcons.Nodes.Tag));
+        }
+    }
+
+    /**
+     * 从file所在目录到target的相对路径，不在同一个文件系统时返回null
+     */
+    @Nullable
+    private static String relativePath(VirtualFile file, VirtualFile target) {
+        VirtualFile directory = file.getParent();
+        VirtualFile common = directory != null ? VfsUtilCore.getCommonAncestor(directory, target) : null;
+        if (common == null) {
+            return null;
+        }
+        StringBuilder path = new StringBuilder();
+        for (VirtualFile up = directory; !up.equals(common); up = up.getParent()) {
+            path.append("../");
+        }
+        return path.append(VfsUtilCore.getRelativePath(target, common, '/')).toString();
+    }
+}
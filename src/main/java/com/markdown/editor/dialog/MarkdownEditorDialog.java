@@ -71,6 +71,7 @@ public class MarkdownEditorDialog extends DialogWrapper {
         
         // 预览tab
         previewPanel = new MarkdownPreviewPanel(project);
+        previewPanel.setContentUpdater(this::loadPreviewContent);
         tabbedPane.addTab("预览", previewPanel.getComponent());
         
         mainPanel.add(tabbedPane, BorderLayout.CENTER);
@@ -150,7 +151,16 @@ public class MarkdownEditorDialog extends DialogWrapper {
         }
     }
     
+    /**
+     * 标记预览需要更新，预览Tab显示时才读取内容并渲染
+     */
     private void updatePreview() {
+        if (previewPanel != null) {
+            previewPanel.markDirty();
+        }
+    }
+    
+    private void loadPreviewContent() {
         if (document != null && previewPanel != null) {
             String content = document.getText();
             previewPanel.updateContent(content);
@@ -0,0 +1,71 @@
+package com.markdown.editor.editor;
+
+import com.intellij.codeInsight.folding.CodeFoldingState;
+import com.intellij.openapi.fileEditor.FileEditorState;
+import com.intellij.openapi.fileEditor.FileEditorStateLevel;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Markdown编辑器的状态，重新打开文件或重启IDE后恢复
+ * 包括布局、分割比例、光标、编辑器折叠、预览位置（源文件行）、预览中折叠的代码块，
+ * 以及预览对应的渲染缓存键：文档未变化时重新打开直接命中缓存，不需要重新渲染
+ */
+public final class MarkdownEditorState implements FileEditorState {
+
+    final PreviewLayout layout;
+    final float splitterProportion;
+    final int caretOffset;
+    final int previewAnchorLine;
+    @Nullable
+    final CodeFoldingState foldingState;
+    final List<String> foldedCodeBlocks;
+    @Nullable
+    final String renderCacheKey;
+
+    MarkdownEditorState(@NotNull PreviewLayout layout, float splitterProportion, int caretOffset, int previewAnchorLine,
+                        @Nullable CodeFoldingState foldingState, @NotNull List<String> foldedCodeBlocks,
+                        @Nullable String renderCacheKey) {
+        this.layout = layout;
+        this.splitterProportion = splitterProportion;
+        this.caretOffset = caretOffset;
+        this.previewAnchorLine = previewAnchorLine;
+        this.foldingState = foldingState;
+        this.foldedCodeBlocks = List.copyOf(foldedCodeBlocks);
+        this.renderCacheKey = renderCacheKey;
+    }
+
+    @Override
+    public boolean canBeMergedWith(@NotNull FileEditorState otherState, @NotNull FileEditorStateLevel level) {
+        return otherState instanceof MarkdownEditorState && level == FileEditorStateLevel.NAVIGATION;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof MarkdownEditorState)) return false;
+        MarkdownEditorState that = (MarkdownEditorState) o;
+        return Float.compare(that.splitterProportion, splitterProportion) == 0 &&
+               caretOffset == that.caretOffset &&
+               previewAnchorLine == that.previewAnchorLine &&
+               layout == that.layout &&
+               Objects.equals(foldingState, that.foldingState) &&
+               foldedCodeBlocks.equals(that.foldedCodeBlocks) &&
+               Objects.equals(renderCacheKey, that.renderCacheKey);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(layout, splitterProportion, caretOffset, previewAnchorLine, foldedCodeBlocks, renderCacheKey);
+    }
+
+    @Override
+    public String toString() {
+        return "MarkdownEditorState{layout=" + layout + ", proportion=" + splitterProportion +
+               ", caret=" + caretOffset + ", anchorLine=" + previewAnchorLine +
+               ", foldedCodeBlocks=" + foldedCodeBlocks + ", renderCacheKey=" + renderCacheKey + "}";
+    }
+}
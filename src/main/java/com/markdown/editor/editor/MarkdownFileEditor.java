@@ -1,40 +1,82 @@
 package com.markdown.editor.editor;
 
 import com.intellij.codeHighlighting.BackgroundEditorHighlighter;
+import com.intellij.codeInsight.folding.CodeFoldingManager;
+import com.intellij.codeInsight.folding.CodeFoldingState;
 import com.intellij.ide.structureView.StructureViewBuilder;
-import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.editor.EditorFactory;
 import com.intellij.openapi.editor.EditorSettings;
+import com.intellij.openapi.editor.LogicalPosition;
+import com.intellij.openapi.editor.ScrollType;
+import com.intellij.openapi.editor.ex.EditorEx;
 import com.intellij.openapi.editor.event.DocumentEvent;
 import com.intellij.openapi.editor.event.DocumentListener;
+import com.intellij.openapi.editor.event.VisibleAreaEvent;
 import com.intellij.openapi.fileEditor.*;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Disposer;
 import com.intellij.openapi.util.UserDataHolderBase;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.pom.Navigatable;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.ui.HyperlinkLabel;
 import com.intellij.ui.JBSplitter;
-import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.util.Alarm;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.markdown.editor.outline.MarkdownStructureViewBuilder;
 import com.markdown.editor.preview.MarkdownPreviewPanel;
+import com.markdown.editor.preview.PsiMarkdownTree;
+import com.markdown.editor.preview.RecentPreviewsService;
+import com.markdown.editor.preview.RenderCache;
+import com.markdown.editor.preview.RenderCacheService;
+import com.markdown.editor.preview.RenderEngine;
+import com.markdown.editor.settings.MarkdownSettings;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.HierarchyEvent;
 import java.beans.PropertyChangeListener;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Markdown文件编辑器
- * 提供分割视图：左侧为文本编辑器，右侧为预览面板
+ * 支持三种布局：仅编辑器、分屏（左侧文本编辑器，右侧预览）和仅预览，每个文件的布局单独记住。
+ * 预览面板在第一次需要显示时才创建，隐藏一段时间后释放，打开大量Markdown文件时的开销与普通文本编辑器相当。
+ * 超过大文件阈值的文件进入大文件模式：关闭折叠、缩进参考线等编辑器功能，默认只显示编辑器，预览改为手动刷新
  */
-public class MarkdownFileEditor extends UserDataHolderBase implements FileEditor {
+public class MarkdownFileEditor extends UserDataHolderBase implements NavigatableFileEditor {
+    // 预览隐藏超过该时间（毫秒）后释放
+    private static final int PREVIEW_RELEASE_DELAY_MS = 60_000;
+    
     private final Project project;
     private final VirtualFile file;
+    private final JPanel component;
     private final JBSplitter splitter;
+    private final JComponent editorComponent;
     private final Editor editor;
-    private final MarkdownPreviewPanel previewPanel;
     private final Document document;
+    private final Alarm previewReleaseAlarm;
+    private final boolean largeFileMode;
+    private MarkdownPreviewPanel previewPanel;
+    // 放入布局中的预览组件，大文件模式下带有手动刷新栏
+    private JComponent previewContainer;
+    private JBLabel largeFileStatusLabel;
+    private PreviewLayout layout;
+    // 预览尚未创建（或已释放）时保存的预览状态，创建预览时在第一次渲染之前恢复
+    private int pendingAnchorLine = -1;
+    private List<String> pendingFoldedCodeBlocks = Collections.emptyList();
+    private String lastRenderCacheKey;
+    // 正在把一侧的滚动同步到另一侧，期间忽略另一侧的滚动事件
+    private boolean syncingScroll;
     
     public MarkdownFileEditor(@NotNull Project project, @NotNull VirtualFile file) {
         this.project = project;
@@ -42,20 +84,37 @@ public class MarkdownFileEditor extends UserDataHolderBase implements FileEditor
         
         // 创建文档和编辑器
         this.document = FileDocumentManager.getInstance().getDocument(file);
+        this.largeFileMode = file.getLength() >= MarkdownSettings.getInstance().getLargeFileThresholdMb() * 1024L * 1024L;
         this.editor = createEditor();
+        // 编辑器组件自带滚动面板，不再额外包一层
+        this.editorComponent = editor.getComponent();
         
-        // 创建预览面板
-        this.previewPanel = new MarkdownPreviewPanel(project);
-        
-        // 创建分割视图
+        // 创建分割视图，预览面板延迟创建
         this.splitter = new JBSplitter(false, 0.5f);
-        setupSplitter();
+        splitter.setDividerWidth(3);
+        this.component = new JPanel(new BorderLayout());
+        this.previewReleaseAlarm = new Alarm(Alarm.ThreadToUse.SWING_THREAD, this);
+        // 大文件默认只显示编辑器，用户切换过的布局仍然保留
+        this.layout = PreviewLayoutService.getInstance(project).getLayout(file,
+                largeFileMode ? PreviewLayout.EDITOR_ONLY : PreviewLayoutService.DEFAULT_LAYOUT);
+        if (largeFileMode) {
+            System.out.println("🐘 大文件模式: " + file.getName() + " (" + file.getLength() / 1024 / 1024 + "MB)");
+        }
+        
+        // 编辑器第一次显示（或重新显示）时按需创建预览
+        component.addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0 && component.isShowing()) {
+                ensurePreviewPanel();
+            }
+        });
         
         // 设置文档监听器以实现实时预览
         setupDocumentListener();
         
-        // 初始预览内容
-        updatePreview();
+        // 分屏时编辑器和预览同步滚动
+        editor.getScrollingModel().addVisibleAreaListener(this::syncPreviewToEditor, this);
+        
+        applyLayout();
     }
     
     private Editor createEditor() {
@@ -72,42 +131,240 @@ public class MarkdownFileEditor extends UserDataHolderBase implements FileEditor
         settings.setWhitespacesShown(false);
         settings.setIndentGuidesShown(true);
         
+        if (largeFileMode) {
+            // 大文件：关闭随文档大小增长的编辑器功能
+            settings.setLineMarkerAreaShown(false);
+            settings.setFoldingOutlineShown(false);
+            settings.setAutoCodeFoldingEnabled(false);
+            settings.setIndentGuidesShown(false);
+            settings.setRightMarginShown(false);
+            if (editor instanceof EditorEx) {
+                ((EditorEx) editor).getFoldingModel().setFoldingEnabled(false);
+            }
+        }
+        
         return editor;
     }
     
-    private void setupSplitter() {
-        JBScrollPane editorScrollPane = new JBScrollPane(editor.getComponent());
-        splitter.setFirstComponent(editorScrollPane);
-        splitter.setSecondComponent(previewPanel.getComponent());
-        splitter.setDividerWidth(3);
+    /**
+     * 按当前布局摆放编辑器和预览
+     */
+    private void applyLayout() {
+        component.removeAll();
+        splitter.setFirstComponent(null);
+        splitter.setSecondComponent(null);
+        JComponent preview = previewContainer;
+        switch (layout) {
+            case EDITOR_ONLY:
+                component.add(editorComponent, BorderLayout.CENTER);
+                break;
+            case SPLIT:
+                splitter.setFirstComponent(editorComponent);
+                splitter.setSecondComponent(preview);
+                component.add(splitter, BorderLayout.CENTER);
+                break;
+            case PREVIEW_ONLY:
+                if (preview != null) {
+                    component.add(preview, BorderLayout.CENTER);
+                }
+                break;
+        }
+        component.revalidate();
+        component.repaint();
+        
+        ensurePreviewPanel();
+        schedulePreviewRelease();
+    }
+    
+    /**
+     * 布局需要预览且编辑器正在显示时创建预览面板
+     */
+    private void ensurePreviewPanel() {
+        if (previewPanel != null || !layout.showsPreview() || !component.isShowing()) {
+            return;
+        }
+        System.out.println("👁️ 创建预览面板: " + file.getName());
+        MarkdownPreviewPanel panel = new MarkdownPreviewPanel(project);
+        panel.setContentUpdater(this::updatePreview);
+        panel.setSourceLineScrollListener(this::syncEditorToPreview);
+        panel.setBaseFileSupplier(() -> file);
+        panel.getComponent().addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0) {
+                schedulePreviewRelease();
+            }
+        });
+        previewPanel = panel;
+        previewContainer = largeFileMode ? createLargeFilePreview(panel) : panel.getComponent();
+        // 先恢复折叠和滚动位置，第一次渲染即为最终结果
+        if (!pendingFoldedCodeBlocks.isEmpty()) {
+            panel.restoreFoldedCodeBlocks(pendingFoldedCodeBlocks);
+        }
+        if (pendingAnchorLine > 0) {
+            panel.restoreAnchorLine(pendingAnchorLine);
+        }
+        pendingFoldedCodeBlocks = Collections.emptyList();
+        pendingAnchorLine = -1;
+        // 初始预览内容，面板显示时渲染
+        panel.markDirty();
+        RecentPreviewsService.getInstance(project).recordPreviewed(file);
+        applyLayout();
+    }
+    
+    /**
+     * 预览不可见时开始计时，超时仍不可见则释放；重新显示时取消
+     */
+    private void schedulePreviewRelease() {
+        previewReleaseAlarm.cancelAllRequests();
+        if (previewPanel != null && !previewPanel.getComponent().isShowing()) {
+            previewReleaseAlarm.addRequest(this::releaseHiddenPreview, PREVIEW_RELEASE_DELAY_MS);
+        }
+    }
+    
+    private void releaseHiddenPreview() {
+        MarkdownPreviewPanel panel = previewPanel;
+        if (panel == null || panel.getComponent().isShowing()) {
+            return;
+        }
+        System.out.println("🗑️ 预览已隐藏较长时间，释放预览面板: " + file.getName());
+        // 保留折叠和滚动位置，重新创建时恢复
+        pendingFoldedCodeBlocks = panel.getFoldedCodeBlocks();
+        pendingAnchorLine = panel.getAnchorLine();
+        if (panel.getRenderCacheKey() != null) {
+            lastRenderCacheKey = panel.getRenderCacheKey();
+        }
+        previewPanel = null;
+        previewContainer = null;
+        largeFileStatusLabel = null;
+        applyLayout();
+        Disposer.dispose(panel);
+    }
+    
+    /**
+     * 大文件模式的预览：顶部显示预览是否过期和手动刷新链接
+     */
+    private JComponent createLargeFilePreview(MarkdownPreviewPanel panel) {
+        largeFileStatusLabel = new JBLabel("大文件模式：预览不会自动更新");
+        HyperlinkLabel refreshLink = new HyperlinkLabel("刷新预览");
+        refreshLink.addHyperlinkListener(e -> refreshPreviewManually());
+        
+        JPanel bar = new JPanel(new BorderLayout());
+        bar.setBorder(BorderFactory.createEmptyBorder(3, 8, 3, 8));
+        bar.add(largeFileStatusLabel, BorderLayout.CENTER);
+        bar.add(refreshLink, BorderLayout.EAST);
+        
+        JPanel container = new JPanel(new BorderLayout());
+        container.add(bar, BorderLayout.NORTH);
+        container.add(panel.getComponent(), BorderLayout.CENTER);
+        return container;
+    }
+    
+    /**
+     * 大文件模式下手动刷新预览
+     */
+    private void refreshPreviewManually() {
+        if (previewPanel == null) {
+            return;
+        }
+        if (largeFileStatusLabel != null) {
+            largeFileStatusLabel.setText("大文件模式：预览不会自动更新");
+        }
+        previewPanel.markDirty();
+    }
+    
+    /**
+     * 编辑器滚动后把顶部的源文件行滚动到预览顶部
+     */
+    private void syncPreviewToEditor(@NotNull VisibleAreaEvent event) {
+        Rectangle visibleArea = event.getNewRectangle();
+        if (syncingScroll || previewPanel == null || layout != PreviewLayout.SPLIT || visibleArea == null
+                || event.getOldRectangle() != null && event.getOldRectangle().y == visibleArea.y) {
+            return;
+        }
+        syncingScroll = true;
+        try {
+            previewPanel.scrollToSourceLine(editor.xyToLogicalPosition(new Point(0, visibleArea.y)).line);
+        } finally {
+            syncingScroll = false;
+        }
+    }
+    
+    /**
+     * 用户滚动预览后把编辑器滚动到预览顶部对应的源文件行
+     */
+    private void syncEditorToPreview(int line) {
+        if (syncingScroll || layout != PreviewLayout.SPLIT || editor.isDisposed()) {
+            return;
+        }
+        syncingScroll = true;
+        try {
+            int y = editor.logicalPositionToXY(new LogicalPosition(Math.min(line, Math.max(document.getLineCount() - 1, 0)), 0)).y;
+            editor.getScrollingModel().disableAnimation();
+            editor.getScrollingModel().scrollVertically(y);
+            editor.getScrollingModel().enableAnimation();
+        } finally {
+            syncingScroll = false;
+        }
     }
     
     private void setupDocumentListener() {
         document.addDocumentListener(new DocumentListener() {
             @Override
             public void documentChanged(@NotNull DocumentEvent event) {
-                // 延迟更新预览以提高性能
-                ApplicationManager.getApplication().invokeLater(() -> updatePreview());
+                if (largeFileMode) {
+                    // 大文件不做实时预览，只提示预览已过期
+                    if (largeFileStatusLabel != null) {
+                        largeFileStatusLabel.setText("大文件模式：文档已修改，预览未更新");
+                    }
+                    return;
+                }
+                // 延迟更新预览以提高性能；预览隐藏或标签页未选中时只做标记，显示时再渲染
+                if (previewPanel != null) {
+                    previewPanel.markDirty();
+                }
             }
-        });
+        }, this);
     }
     
     private void updatePreview() {
-        if (document != null) {
-            String content = document.getText();
-            previewPanel.updateContent(content);
+        if (document == null || previewPanel == null) {
+            return;
+        }
+        // 已有增量解析结果时，每次编辑只重新解析被修改的块，比转换整棵PSI树更快
+        if (MarkdownSettings.getInstance().getRenderEngine() != RenderEngine.AST || !previewPanel.needsParsedTree()) {
+            previewPanel.updateContent(document.getText());
+            return;
         }
+        
+        // AST引擎第一次渲染：在后台读锁内复用IDE Markdown插件维护的PSI树，PSI不可用时回退到独立解析
+        ReadAction.nonBlocking(() -> PsiMarkdownTree.snapshot(project, document))
+            .withDocumentsCommitted(project)
+            .expireWith(this)
+            .coalesceBy(this)
+            .finishOnUiThread(ModalityState.defaultModalityState(), snapshot -> {
+                if (previewPanel == null) {
+                    return;
+                }
+                if (snapshot != null) {
+                    previewPanel.updateContent(snapshot.getText(), snapshot.getRoot());
+                } else {
+                    previewPanel.updateContent(document.getText());
+                }
+            })
+            .submit(AppExecutorUtil.getAppExecutorService());
     }
 
     @NotNull
     @Override
     public JComponent getComponent() {
-        return splitter;
+        return component;
     }
 
     @Nullable
     @Override
     public JComponent getPreferredFocusedComponent() {
+        if (!layout.showsEditor() && previewPanel != null) {
+            return previewPanel.getComponent();
+        }
         return editor.getContentComponent();
     }
 
@@ -119,7 +376,72 @@ public class MarkdownFileEditor extends UserDataHolderBase implements FileEditor
 
     @Override
     public void setState(@NotNull FileEditorState state) {
-        // 保存编辑器状态
+        if (!(state instanceof MarkdownEditorState)) {
+            return;
+        }
+        MarkdownEditorState markdownState = (MarkdownEditorState) state;
+        
+        if (markdownState.splitterProportion > 0 && markdownState.splitterProportion < 1) {
+            splitter.setProportion(markdownState.splitterProportion);
+        }
+        if (markdownState.layout != layout) {
+            layout = markdownState.layout;
+            applyLayout();
+        }
+        
+        editor.getCaretModel().moveToOffset(Math.min(markdownState.caretOffset, document.getTextLength()));
+        if (markdownState.foldingState != null) {
+            CodeFoldingManager.getInstance(project).restoreFoldingState(editor, markdownState.foldingState);
+        }
+        editor.getScrollingModel().scrollToCaret(ScrollType.CENTER);
+        
+        lastRenderCacheKey = markdownState.renderCacheKey;
+        if (previewPanel != null) {
+            previewPanel.restoreFoldedCodeBlocks(markdownState.foldedCodeBlocks);
+            previewPanel.restoreAnchorLine(markdownState.previewAnchorLine);
+        } else {
+            pendingFoldedCodeBlocks = markdownState.foldedCodeBlocks;
+            pendingAnchorLine = markdownState.previewAnchorLine;
+            if (layout.showsPreview()) {
+                touchCachedRender(markdownState.renderCacheKey);
+            }
+        }
+    }
+    
+    @NotNull
+    @Override
+    public FileEditorState getState(@NotNull FileEditorStateLevel level) {
+        CodeFoldingState foldingState = level == FileEditorStateLevel.FULL
+                ? CodeFoldingManager.getInstance(project).saveFoldingState(editor)
+                : null;
+        int anchorLine = pendingAnchorLine;
+        List<String> foldedCodeBlocks = pendingFoldedCodeBlocks;
+        String renderCacheKey = lastRenderCacheKey;
+        if (previewPanel != null) {
+            anchorLine = previewPanel.getAnchorLine();
+            foldedCodeBlocks = previewPanel.getFoldedCodeBlocks();
+            if (previewPanel.getRenderCacheKey() != null) {
+                renderCacheKey = previewPanel.getRenderCacheKey();
+            }
+        }
+        return new MarkdownEditorState(layout, splitter.getProportion(), editor.getCaretModel().getOffset(),
+                Math.max(anchorLine, 0), foldingState, foldedCodeBlocks, renderCacheKey);
+    }
+    
+    /**
+     * 在后台读取一次保存的渲染结果：把缓存条目移到最近使用的位置，避免在预览显示之前被压缩掉，
+     * 同时预先读入文件内容，预览第一次显示时直接命中缓存
+     */
+    private void touchCachedRender(@Nullable String renderCacheKey) {
+        if (renderCacheKey == null || !MarkdownSettings.getInstance().isEnablePersistentRenderCache()) {
+            return;
+        }
+        AppExecutorUtil.getAppExecutorService().execute(() -> {
+            RenderCache cache = RenderCacheService.getInstance().getCache();
+            if (cache != null && cache.get(renderCacheKey) != null) {
+                System.out.println("💾 已找到上次的渲染结果: " + file.getName());
+            }
+        });
     }
 
     @Override
@@ -157,7 +479,28 @@ public class MarkdownFileEditor extends UserDataHolderBase implements FileEditor
     @Nullable
     @Override
     public StructureViewBuilder getStructureViewBuilder() {
-        return null;
+        PsiFile psiFile = PsiDocumentManager.getInstance(project).getPsiFile(document);
+        return psiFile != null ? new MarkdownStructureViewBuilder(psiFile, document) : null;
+    }
+    
+    @Override
+    public boolean canNavigateTo(@NotNull Navigatable navigatable) {
+        return navigatable instanceof OpenFileDescriptor
+                && (((OpenFileDescriptor) navigatable).getOffset() >= 0 || ((OpenFileDescriptor) navigatable).getLine() >= 0);
+    }
+    
+    /**
+     * 跳转到文件中的位置（结构视图、搜索结果等）；只显示预览时同时滚动预览
+     */
+    @Override
+    public void navigateTo(@NotNull Navigatable navigatable) {
+        if (!(navigatable instanceof OpenFileDescriptor)) {
+            return;
+        }
+        ((OpenFileDescriptor) navigatable).navigateIn(editor);
+        if (!layout.showsEditor() && previewPanel != null) {
+            previewPanel.scrollToSourceLine(editor.getCaretModel().getLogicalPosition().line);
+        }
     }
 
     @NotNull
@@ -171,7 +514,10 @@ public class MarkdownFileEditor extends UserDataHolderBase implements FileEditor
         if (editor != null && !editor.isDisposed()) {
             EditorFactory.getInstance().releaseEditor(editor);
         }
-        Disposer.dispose(previewPanel);
+        if (previewPanel != null) {
+            Disposer.dispose(previewPanel);
+            previewPanel = null;
+        }
     }
     
     // 获取编辑器实例（供外部使用）
@@ -179,8 +525,29 @@ public class MarkdownFileEditor extends UserDataHolderBase implements FileEditor
         return editor;
     }
     
-    // 获取预览面板（供外部使用）
+    // 获取预览面板（供外部使用），预览尚未创建或已释放时返回null
+    @Nullable
     public MarkdownPreviewPanel getPreviewPanel() {
         return previewPanel;
     }
+    
+    public PreviewLayout getLayout() {
+        return layout;
+    }
+    
+    /**
+     * 切换布局并记住该文件的选择
+     */
+    public void setLayout(@NotNull PreviewLayout layout) {
+        if (this.layout == layout) {
+            return;
+        }
+        this.layout = layout;
+        PreviewLayoutService.getInstance(project).setLayout(file, layout);
+        applyLayout();
+        JComponent focused = getPreferredFocusedComponent();
+        if (focused != null) {
+            focused.requestFocusInWindow();
+        }
+    }
 }
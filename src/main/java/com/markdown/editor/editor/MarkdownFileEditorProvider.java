@@ -1,12 +1,21 @@
 package com.markdown.editor.editor;
 
+import com.intellij.codeInsight.folding.CodeFoldingManager;
+import com.intellij.codeInsight.folding.CodeFoldingState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.fileEditor.*;
 import com.intellij.openapi.project.DumbAware;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.WriteExternalException;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.markdown.editor.file.MarkdownFileType;
+import org.jdom.Element;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Markdown文件编辑器提供者
  * 负责创建和管理Markdown文件的编辑器实例
@@ -14,6 +23,16 @@ import org.jetbrains.annotations.NotNull;
 public class MarkdownFileEditorProvider implements FileEditorProvider, DumbAware {
     private static final String EDITOR_TYPE_ID = "markdown-editor";
     
+    // 编辑器状态的XML属性和元素
+    private static final String LAYOUT_ATTR = "layout";
+    private static final String PROPORTION_ATTR = "proportion";
+    private static final String CARET_ATTR = "caret";
+    private static final String ANCHOR_LINE_ATTR = "previewAnchorLine";
+    private static final String RENDER_CACHE_KEY_ATTR = "renderCacheKey";
+    private static final String CODE_BLOCK_FOLD_ELEMENT = "foldedCodeBlock";
+    private static final String ID_ATTR = "id";
+    private static final String FOLDING_ELEMENT = "folding";
+    
     @Override
     public boolean accept(@NotNull Project project, @NotNull VirtualFile file) {
         return file.getFileType() instanceof MarkdownFileType || 
@@ -30,6 +49,93 @@ public class MarkdownFileEditorProvider implements FileEditorProvider, DumbAware
         return new MarkdownFileEditor(project, file);
     }
 
+    @NotNull
+    @Override
+    public FileEditorState readState(@NotNull Element sourceElement, @NotNull Project project, @NotNull VirtualFile file) {
+        PreviewLayout layout = PreviewLayoutService.getInstance(project).getLayout(file);
+        String layoutName = sourceElement.getAttributeValue(LAYOUT_ATTR);
+        if (layoutName != null) {
+            try {
+                layout = PreviewLayout.valueOf(layoutName);
+            } catch (IllegalArgumentException ignored) {
+                // 未知布局，使用该文件记住的布局
+            }
+        }
+        float proportion = parseFloat(sourceElement.getAttributeValue(PROPORTION_ATTR), 0.5f);
+        int caretOffset = parseInt(sourceElement.getAttributeValue(CARET_ATTR), 0);
+        int anchorLine = parseInt(sourceElement.getAttributeValue(ANCHOR_LINE_ATTR), 0);
+        String renderCacheKey = sourceElement.getAttributeValue(RENDER_CACHE_KEY_ATTR);
+        
+        List<String> foldedCodeBlocks = new ArrayList<>();
+        for (Element fold : sourceElement.getChildren(CODE_BLOCK_FOLD_ELEMENT)) {
+            String id = fold.getAttributeValue(ID_ATTR);
+            if (id != null) {
+                foldedCodeBlocks.add(id);
+            }
+        }
+        
+        CodeFoldingState foldingState = null;
+        Element folding = sourceElement.getChild(FOLDING_ELEMENT);
+        if (folding != null) {
+            Document document = ReadAction.compute(() -> FileDocumentManager.getInstance().getDocument(file));
+            if (document != null) {
+                foldingState = CodeFoldingManager.getInstance(project).readFoldingState(folding, document);
+            }
+        }
+        return new MarkdownEditorState(layout, proportion, caretOffset, anchorLine, foldingState, foldedCodeBlocks, renderCacheKey);
+    }
+
+    @Override
+    public void writeState(@NotNull FileEditorState state, @NotNull Project project, @NotNull Element targetElement) {
+        if (!(state instanceof MarkdownEditorState)) {
+            return;
+        }
+        MarkdownEditorState markdownState = (MarkdownEditorState) state;
+        targetElement.setAttribute(LAYOUT_ATTR, markdownState.layout.name());
+        targetElement.setAttribute(PROPORTION_ATTR, Float.toString(markdownState.splitterProportion));
+        targetElement.setAttribute(CARET_ATTR, Integer.toString(markdownState.caretOffset));
+        targetElement.setAttribute(ANCHOR_LINE_ATTR, Integer.toString(markdownState.previewAnchorLine));
+        if (markdownState.renderCacheKey != null) {
+            targetElement.setAttribute(RENDER_CACHE_KEY_ATTR, markdownState.renderCacheKey);
+        }
+        for (String id : markdownState.foldedCodeBlocks) {
+            targetElement.addContent(new Element(CODE_BLOCK_FOLD_ELEMENT).setAttribute(ID_ATTR, id));
+        }
+        if (markdownState.foldingState != null) {
+            Element folding = new Element(FOLDING_ELEMENT);
+            try {
+                CodeFoldingManager.getInstance(project).writeFoldingState(markdownState.foldingState, folding);
+            } catch (WriteExternalException ignored) {
+                // 折叠状态无法保存时忽略
+            }
+            if (!folding.getContent().isEmpty()) {
+                targetElement.addContent(folding);
+            }
+        }
+    }
+
+    private static int parseInt(String value, int defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static float parseFloat(String value, float defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Float.parseFloat(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
     @NotNull
     @Override
     public String getEditorTypeId() {
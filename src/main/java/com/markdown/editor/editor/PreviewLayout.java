@@ -0,0 +1,36 @@
+package com.markdown.editor.editor;
+
+/**
+ * Markdown编辑器的布局
+ */
+public enum PreviewLayout {
+    EDITOR_ONLY("仅编辑器"),
+    SPLIT("编辑器和预览"),
+    PREVIEW_ONLY("仅预览");
+
+    private final String displayName;
+
+    PreviewLayout(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public boolean showsEditor() {
+        return this != PREVIEW_ONLY;
+    }
+
+    public boolean showsPreview() {
+        return this != EDITOR_ONLY;
+    }
+
+    /**
+     * 切换预览时的下一个布局：仅编辑器 → 分屏 → 仅预览 → 仅编辑器
+     */
+    public PreviewLayout next() {
+        PreviewLayout[] values = values();
+        return values[(ordinal() + 1) % values.length];
+    }
+}
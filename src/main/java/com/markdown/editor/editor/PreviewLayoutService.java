@@ -0,0 +1,84 @@
+package com.markdown.editor.editor;
+
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+import com.intellij.openapi.components.StoragePathMacros;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 记住项目中每个Markdown文件最后使用的编辑器布局
+ * 只保存用户切换过布局的文件，数量超过上限时丢弃最早设置的记录
+ */
+@Service(Service.Level.PROJECT)
+@State(name = "MarkdownPreviewLayouts", storages = @Storage(StoragePathMacros.WORKSPACE_FILE))
+public final class PreviewLayoutService implements PersistentStateComponent<PreviewLayoutService.LayoutState> {
+
+    public static final PreviewLayout DEFAULT_LAYOUT = PreviewLayout.SPLIT;
+
+    private static final int MAX_REMEMBERED_FILES = 500;
+
+    private LayoutState state = new LayoutState();
+
+    /**
+     * 持久化状态：文件URL到布局名称
+     */
+    public static final class LayoutState {
+        public Map<String, String> layouts = new LinkedHashMap<>();
+    }
+
+    public static PreviewLayoutService getInstance(@NotNull Project project) {
+        return project.getService(PreviewLayoutService.class);
+    }
+
+    @Nullable
+    @Override
+    public synchronized LayoutState getState() {
+        return state;
+    }
+
+    @Override
+    public synchronized void loadState(@NotNull LayoutState state) {
+        this.state = state;
+    }
+
+    @NotNull
+    public PreviewLayout getLayout(@NotNull VirtualFile file) {
+        return getLayout(file, DEFAULT_LAYOUT);
+    }
+
+    /**
+     * @param defaultLayout 该文件没有记住的布局时使用
+     */
+    @NotNull
+    public synchronized PreviewLayout getLayout(@NotNull VirtualFile file, @NotNull PreviewLayout defaultLayout) {
+        String name = state.layouts.get(file.getUrl());
+        if (name != null) {
+            try {
+                return PreviewLayout.valueOf(name);
+            } catch (IllegalArgumentException ignored) {
+                // 旧版本保存的未知布局
+            }
+        }
+        return defaultLayout;
+    }
+
+    public synchronized void setLayout(@NotNull VirtualFile file, @NotNull PreviewLayout layout) {
+        Map<String, String> layouts = state.layouts;
+        layouts.remove(file.getUrl());
+        layouts.put(file.getUrl(), layout.name());
+        Iterator<String> oldest = layouts.keySet().iterator();
+        while (layouts.size() > MAX_REMEMBERED_FILES && oldest.hasNext()) {
+            oldest.next();
+            oldest.remove();
+        }
+    }
+}
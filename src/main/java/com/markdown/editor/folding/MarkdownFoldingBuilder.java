@@ -1,89 +1,196 @@
 package com.markdown.editor.folding;
 
 import com.intellij.lang.ASTNode;
-import com.intellij.lang.folding.FoldingBuilder;
+import com.intellij.lang.folding.FoldingBuilderEx;
 import com.intellij.lang.folding.FoldingDescriptor;
 import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.project.DumbAware;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.tree.IElementType;
+import com.markdown.editor.settings.MarkdownSettings;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
 
 import org.intellij.plugins.markdown.lang.MarkdownElementTypes;
 
 /**
  * Markdown代码折叠构建器
- * 为Markdown文档提供代码折叠功能
+ * 一次遍历语法树：标题折叠到下一个同级或更高级标题之前的整个小节（用标题级别栈计算范围），
+ * 代码块、引用块和表格整体折叠。不进入段落、标题等块内部的行内节点，也不依赖索引，索引期间同样可用
  */
-public class MarkdownFoldingBuilder implements FoldingBuilder {
+public class MarkdownFoldingBuilder extends FoldingBuilderEx implements DumbAware {
+
+    /**
+     * 尚未结束的标题小节
+     */
+    private static final class OpenSection {
+        final ASTNode header;
+        final int level;
+
+        OpenSection(ASTNode header, int level) {
+            this.header = header;
+            this.level = level;
+        }
+    }
 
     @NotNull
     @Override
-    public FoldingDescriptor[] buildFoldRegions(@NotNull ASTNode node, @NotNull Document document) {
+    public FoldingDescriptor[] buildFoldRegions(@NotNull PsiElement root, @NotNull Document document, boolean quick) {
+        MarkdownSettings settings = MarkdownSettings.getInstance();
+        ASTNode rootNode = root.getNode();
+        if (!settings.isEnableCodeFolding() || rootNode == null) {
+            return FoldingDescriptor.EMPTY_ARRAY;
+        }
+        int collapseLines = settings.getCollapseCodeFenceLines();
+        CharSequence text = document.getImmutableCharSequence();
         List<FoldingDescriptor> descriptors = new ArrayList<>();
-        collectFoldingRegions(node, descriptors, document);
-        return descriptors.toArray(new FoldingDescriptor[0]);
+        Deque<OpenSection> sections = new ArrayDeque<>();
+
+        // 沿子节点、兄弟节点、父节点指针按文档顺序遍历，不递归也不分配栈
+        ASTNode node = rootNode.getFirstChildNode();
+        while (node != null) {
+            IElementType type = node.getElementType();
+            int level = headerLevel(type);
+            if (level > 0) {
+                if (!isNested(node, rootNode)) {
+                    int start = node.getStartOffset();
+                    while (!sections.isEmpty() && sections.peek().level >= level) {
+                        addSection(sections.pop().header, start, text, document, descriptors);
+                    }
+                    sections.push(new OpenSection(node, level));
+                }
+            } else if (type == MarkdownElementTypes.CODE_FENCE || type == MarkdownElementTypes.CODE_BLOCK) {
+                addCodeBlock(node, document, collapseLines, descriptors);
+            } else if (type == MarkdownElementTypes.BLOCK_QUOTE || type == MarkdownElementTypes.TABLE) {
+                TextRange range = trimmed(node.getTextRange(), text);
+                if (spansLines(range, document)) {
+                    descriptors.add(new FoldingDescriptor(node, range, null, getPlaceholderText(node)));
+                }
+            }
+
+            if (isContainer(type) && node.getFirstChildNode() != null) {
+                node = node.getFirstChildNode();
+                continue;
+            }
+            while (node != rootNode && node.getTreeNext() == null) {
+                node = node.getTreeParent();
+            }
+            node = node == rootNode ? null : node.getTreeNext();
+        }
+        while (!sections.isEmpty()) {
+            addSection(sections.pop().header, text.length(), text, document, descriptors);
+        }
+        return descriptors.toArray(FoldingDescriptor.EMPTY_ARRAY);
     }
 
-    private void collectFoldingRegions(ASTNode node, List<FoldingDescriptor> descriptors, Document document) {
-        if (isFoldableElement(node)) {
-            TextRange range = node.getTextRange();
-            if (range.getLength() > 1) {
-                String placeholder = getPlaceholderText(node);
-                descriptors.add(new FoldingDescriptor(node, range, null, placeholder));
+    /**
+     * 标题小节的折叠范围从标题行末尾开始，标题本身始终可见
+     */
+    private void addSection(ASTNode header, int end, CharSequence text, Document document,
+                            List<FoldingDescriptor> descriptors) {
+        TextRange range = trimmed(new TextRange(header.getTextRange().getEndOffset(), end), text);
+        if (spansLines(range, document)) {
+            descriptors.add(new FoldingDescriptor(header, range, null, " ..."));
+        }
+    }
+
+    private void addCodeBlock(ASTNode node, Document document, int collapseLines, List<FoldingDescriptor> descriptors) {
+        TextRange range = trimmed(node.getTextRange(), document.getImmutableCharSequence());
+        if (!spansLines(range, document)) {
+            return;
+        }
+        int lines = document.getLineNumber(range.getEndOffset()) - document.getLineNumber(range.getStartOffset()) + 1;
+        // 超长代码块默认折叠，减少编辑器布局的开销
+        boolean collapsed = collapseLines > 0 && lines > collapseLines;
+        descriptors.add(new FoldingDescriptor(node, range, null, "{ 代码块 " + lines + " 行 }", collapsed,
+                Collections.emptySet()));
+    }
+
+    /**
+     * 只有顶层的标题划分小节，引用块和列表中的标题不参与
+     */
+    private static boolean isNested(ASTNode node, ASTNode rootNode) {
+        for (ASTNode parent = node.getTreeParent(); parent != null && parent != rootNode; parent = parent.getTreeParent()) {
+            IElementType type = parent.getElementType();
+            if (type == MarkdownElementTypes.BLOCK_QUOTE || type == MarkdownElementTypes.LIST_ITEM) {
+                return true;
             }
         }
+        return false;
+    }
+
+    /**
+     * 需要进入的节点：只有可能包含标题、代码块、引用块或表格的块容器
+     */
+    private static boolean isContainer(IElementType type) {
+        return type != MarkdownElementTypes.PARAGRAPH
+                && type != MarkdownElementTypes.CODE_FENCE
+                && type != MarkdownElementTypes.CODE_BLOCK
+                && type != MarkdownElementTypes.TABLE
+                && type != MarkdownElementTypes.HTML_BLOCK
+                && type != MarkdownElementTypes.LINK_DEFINITION
+                && headerLevel(type) == 0;
+    }
 
-        // 递归处理子节点
-        for (ASTNode child = node.getFirstChildNode(); child != null; child = child.getTreeNext()) {
-            collectFoldingRegions(child, descriptors, document);
+    private static int headerLevel(IElementType type) {
+        if (type == MarkdownElementTypes.ATX_1 || type == MarkdownElementTypes.SETEXT_1) {
+            return 1;
+        } else if (type == MarkdownElementTypes.ATX_2 || type == MarkdownElementTypes.SETEXT_2) {
+            return 2;
+        } else if (type == MarkdownElementTypes.ATX_3) {
+            return 3;
+        } else if (type == MarkdownElementTypes.ATX_4) {
+            return 4;
+        } else if (type == MarkdownElementTypes.ATX_5) {
+            return 5;
+        } else if (type == MarkdownElementTypes.ATX_6) {
+            return 6;
         }
+        return 0;
     }
 
-    private boolean isFoldableElement(ASTNode node) {
-        return node.getElementType() == MarkdownElementTypes.CODE_BLOCK ||
-               node.getElementType() == MarkdownElementTypes.CODE_FENCE ||
-               node.getElementType() == MarkdownElementTypes.BLOCK_QUOTE ||
-               node.getElementType() == MarkdownElementTypes.TABLE ||
-               isHeader(node);
+    /**
+     * 去掉范围末尾的空白，折叠后不吞掉小节之间的空行
+     */
+    private static TextRange trimmed(TextRange range, CharSequence text) {
+        int end = Math.min(range.getEndOffset(), text.length());
+        while (end > range.getStartOffset() && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        return new TextRange(range.getStartOffset(), end);
     }
 
-    private boolean isHeader(ASTNode node) {
-        return node.getElementType() == MarkdownElementTypes.ATX_1 ||
-               node.getElementType() == MarkdownElementTypes.ATX_2 ||
-               node.getElementType() == MarkdownElementTypes.ATX_3 ||
-               node.getElementType() == MarkdownElementTypes.ATX_4 ||
-               node.getElementType() == MarkdownElementTypes.ATX_5 ||
-               node.getElementType() == MarkdownElementTypes.ATX_6 ||
-               node.getElementType() == MarkdownElementTypes.SETEXT_1 ||
-               node.getElementType() == MarkdownElementTypes.SETEXT_2;
+    private static boolean spansLines(TextRange range, Document document) {
+        return range.getLength() > 1
+                && document.getLineNumber(range.getEndOffset()) > document.getLineNumber(range.getStartOffset());
     }
 
     @Nullable
     @Override
     public String getPlaceholderText(@NotNull ASTNode node) {
-        if (node.getElementType() == MarkdownElementTypes.CODE_BLOCK || node.getElementType() == MarkdownElementTypes.CODE_FENCE) {
+        IElementType type = node.getElementType();
+        if (type == MarkdownElementTypes.CODE_BLOCK || type == MarkdownElementTypes.CODE_FENCE) {
             return "{ 代码块 }";
-        } else if (node.getElementType() == MarkdownElementTypes.BLOCK_QUOTE) {
+        } else if (type == MarkdownElementTypes.BLOCK_QUOTE) {
             return "{ 引用块 }";
-        } else if (node.getElementType() == MarkdownElementTypes.TABLE) {
+        } else if (type == MarkdownElementTypes.TABLE) {
             return "{ 表格 }";
-        } else if (isHeader(node)) {
-            String text = node.getText();
-            if (text.length() > 50) {
-                return text.substring(0, 47) + "...";
-            }
-            return text;
+        } else if (headerLevel(type) > 0) {
+            return " ...";
         }
         return "...";
     }
 
     @Override
     public boolean isCollapsedByDefault(@NotNull ASTNode node) {
-        // 默认不折叠任何元素
+        // 代码块是否默认折叠在生成折叠区域时决定，其余元素默认不折叠
         return false;
     }
 }
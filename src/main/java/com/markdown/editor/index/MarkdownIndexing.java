@@ -0,0 +1,81 @@
+package com.markdown.editor.index;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileContent;
+import com.markdown.editor.outline.DocumentSummary;
+import com.markdown.editor.outline.LinkReference;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Markdown索引的公共部分：索引哪些文件、两个索引共用的一次扫描、链接目标的解析
+ */
+public final class MarkdownIndexing {
+
+    /** 只索引本地文件系统中的Markdown文件 */
+    static final FileBasedIndex.InputFilter INPUT_FILTER =
+            file -> file.isInLocalFileSystem() && isMarkdownFile(file);
+
+    // 同一个文件的内容会依次交给各个索引，扫描结果保存在FileContent上只算一次
+    private static final Key<DocumentSummary> SUMMARY_KEY = Key.create("com.markdown.editor.index.summary");
+
+    private MarkdownIndexing() {
+    }
+
+    public static boolean isMarkdownFile(@NotNull VirtualFile file) {
+        String extension = file.getExtension();
+        return extension != null && (extension.equalsIgnoreCase("md") ||
+                extension.equalsIgnoreCase("markdown") ||
+                extension.equalsIgnoreCase("mdown") ||
+                extension.equalsIgnoreCase("mkd"));
+    }
+
+    static DocumentSummary summaryOf(@NotNull FileContent content) {
+        DocumentSummary summary = content.getUserData(SUMMARY_KEY);
+        if (summary == null) {
+            summary = DocumentSummary.scan(content.getContentAsText());
+            content.putUserData(SUMMARY_KEY, summary);
+        }
+        return summary;
+    }
+
+    /**
+     * 链接目标在索引中的键：目标文件名；只有片段的链接指向所在文件本身
+     * @return 外部链接返回null
+     */
+    @Nullable
+    static String targetKey(@NotNull LinkReference link, @NotNull String sourceFileName) {
+        String path = link.getPath();
+        if (path == null) {
+            return null;
+        }
+        return path.isEmpty() ? sourceFileName : link.getTargetFileName();
+    }
+
+    /**
+     * 解析本地链接指向的文件：相对路径相对于所在目录，以 / 开头的路径相对于所在的内容根
+     * @return 外部链接或目标不存在时返回null
+     */
+    @Nullable
+    public static VirtualFile resolveLink(@NotNull Project project, @NotNull VirtualFile from, @NotNull LinkReference link) {
+        String path = link.getPath();
+        if (path == null) {
+            return null;
+        }
+        if (path.isEmpty()) {
+            return from;
+        }
+        VirtualFile base;
+        if (path.startsWith("/")) {
+            base = ProjectFileIndex.getInstance(project).getContentRootForFile(from);
+            path = path.substring(1);
+        } else {
+            base = from.getParent();
+        }
+        return base == null ? null : base.findFileByRelativePath(path);
+    }
+}
@@ -0,0 +1,170 @@
+package com.markdown.editor.index;
+
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.IOUtil;
+import com.intellij.util.io.KeyDescriptor;
+import com.markdown.editor.outline.DocumentSummary;
+import com.markdown.editor.outline.LinkReference;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 反向链接索引：键为链接目标的文件名，值为文件中指向该文件名的链接
+ * 文件名相同的候选文件很少，查找"哪些文件链接到这里"时只需解析这些候选链接的路径，
+ * 不必打开项目中的其他Markdown文件
+ */
+public class MarkdownLinkTargetIndex extends FileBasedIndexExtension<String, List<LinkReference>> {
+
+    public static final ID<String, List<LinkReference>> NAME = ID.create("com.markdown.editor.linkTargets");
+
+    private static final int FLAG_IMAGE = 1;
+
+    /**
+     * 一个指向目标文件的链接
+     */
+    public static final class LinkUsage {
+        private final VirtualFile file;
+        private final LinkReference link;
+
+        LinkUsage(VirtualFile file, LinkReference link) {
+            this.file = file;
+            this.link = link;
+        }
+
+        /** 链接所在的文件 */
+        public VirtualFile getFile() {
+            return file;
+        }
+
+        public LinkReference getLink() {
+            return link;
+        }
+    }
+
+    /**
+     * 查找项目中链接到目标文件的所有链接
+     * @param anchor 只返回指向该锚点的链接；为null时返回指向该文件的所有链接
+     */
+    @NotNull
+    public static List<LinkUsage> findUsages(@NotNull Project project, @NotNull VirtualFile target, @Nullable String anchor) {
+        if (DumbService.isDumb(project)) {
+            return Collections.emptyList();
+        }
+        return ReadAction.compute(() -> {
+            List<LinkUsage> usages = new ArrayList<>();
+            FileBasedIndex.getInstance().processValues(NAME, target.getName(), null, (file, links) -> {
+                for (LinkReference link : links) {
+                    if (anchor != null && !anchor.equals(link.getFragment())) {
+                        continue;
+                    }
+                    // 文件名相同不代表指向同一个文件，解析路径确认
+                    if (target.equals(MarkdownIndexing.resolveLink(project, file, link))) {
+                        usages.add(new LinkUsage(file, link));
+                    }
+                }
+                return true;
+            }, GlobalSearchScope.projectScope(project));
+            return usages;
+        });
+    }
+
+    @NotNull
+    @Override
+    public ID<String, List<LinkReference>> getName() {
+        return NAME;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<String, List<LinkReference>, FileContent> getIndexer() {
+        return inputData -> {
+            DocumentSummary summary = MarkdownIndexing.summaryOf(inputData);
+            if (summary.getLinks().isEmpty()) {
+                return Collections.emptyMap();
+            }
+            String sourceName = inputData.getFileName();
+            Map<String, List<LinkReference>> result = new HashMap<>();
+            for (LinkReference link : summary.getLinks()) {
+                String key = MarkdownIndexing.targetKey(link, sourceName);
+                if (key != null) {
+                    result.computeIfAbsent(key, k -> new ArrayList<>(2)).add(link);
+                }
+            }
+            return result;
+        };
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @NotNull
+    @Override
+    public DataExternalizer<List<LinkReference>> getValueExternalizer() {
+        return new DataExternalizer<>() {
+            @Override
+            public void save(@NotNull DataOutput out, List<LinkReference> links) throws IOException {
+                DataInputOutputUtil.writeINT(out, links.size());
+                int previous = 0;
+                for (LinkReference link : links) {
+                    out.writeByte(link.isImage() ? FLAG_IMAGE : 0);
+                    DataInputOutputUtil.writeINT(out, link.getOffset() - previous);
+                    IOUtil.writeUTF(out, link.getDestination());
+                    previous = link.getOffset();
+                }
+            }
+
+            @Override
+            public List<LinkReference> read(@NotNull DataInput in) throws IOException {
+                int count = DataInputOutputUtil.readINT(in);
+                List<LinkReference> links = new ArrayList<>(count);
+                int offset = 0;
+                for (int i = 0; i < count; i++) {
+                    int flags = in.readUnsignedByte();
+                    offset += DataInputOutputUtil.readINT(in);
+                    links.add(new LinkReference(IOUtil.readUTF(in), offset, (flags & FLAG_IMAGE) != 0));
+                }
+                return links;
+            }
+        };
+    }
+
+    @Override
+    public int getVersion() {
+        return DocumentSummary.FORMAT_VERSION;
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return MarkdownIndexing.INPUT_FILTER;
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+}
@@ -0,0 +1,86 @@
+package com.markdown.editor.index;
+
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.indexing.SingleEntryFileBasedIndexExtension;
+import com.intellij.util.indexing.SingleEntryIndexer;
+import com.intellij.util.io.DataExternalizer;
+import com.markdown.editor.outline.DocumentSummary;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * 每个Markdown文件的摘要索引：标题（锚点按需生成）和所有链接、图片引用
+ * 用于回答"某个文件有哪些标题/链接"，不必读取和解析文件内容
+ */
+public class MarkdownSummaryIndex extends SingleEntryFileBasedIndexExtension<DocumentSummary> {
+
+    public static final ID<Integer, DocumentSummary> NAME = ID.create("com.markdown.editor.summary");
+
+    private static final DataExternalizer<DocumentSummary> EXTERNALIZER = new DataExternalizer<>() {
+        @Override
+        public void save(@NotNull DataOutput out, DocumentSummary value) throws IOException {
+            value.write(out);
+        }
+
+        @Override
+        public DocumentSummary read(@NotNull DataInput in) throws IOException {
+            return DocumentSummary.read(in);
+        }
+    };
+
+    /**
+     * 从索引读取文件的摘要；索引尚未就绪或文件不是Markdown时返回null
+     */
+    @Nullable
+    public static DocumentSummary getSummary(@NotNull Project project, @NotNull VirtualFile file) {
+        if (DumbService.isDumb(project) || !MarkdownIndexing.isMarkdownFile(file)) {
+            return null;
+        }
+        return ReadAction.compute(() ->
+                FileBasedIndex.getInstance().getSingleEntryIndexData(NAME, file, project));
+    }
+
+    @NotNull
+    @Override
+    public ID<Integer, DocumentSummary> getName() {
+        return NAME;
+    }
+
+    @NotNull
+    @Override
+    public SingleEntryIndexer<DocumentSummary> getIndexer() {
+        return new SingleEntryIndexer<>(false) {
+            @Override
+            protected DocumentSummary computeValue(@NotNull FileContent inputData) {
+                return MarkdownIndexing.summaryOf(inputData);
+            }
+        };
+    }
+
+    @NotNull
+    @Override
+    public DataExternalizer<DocumentSummary> getValueExternalizer() {
+        return EXTERNALIZER;
+    }
+
+    @Override
+    public int getVersion() {
+        return DocumentSummary.FORMAT_VERSION;
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return MarkdownIndexing.INPUT_FILTER;
+    }
+}
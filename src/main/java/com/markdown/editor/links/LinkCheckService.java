@@ -0,0 +1,21 @@
+package com.markdown.editor.links;
+
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * 项目级的链接检查器，保存每个文件上一次的检查结果，再次检查时只处理变化的文件
+ */
+@Service(Service.Level.PROJECT)
+public final class LinkCheckService {
+    private final LinkChecker checker = new LinkChecker();
+
+    public static LinkCheckService getInstance(@NotNull Project project) {
+        return project.getService(LinkCheckService.class);
+    }
+
+    public LinkChecker getChecker() {
+        return checker;
+    }
+}
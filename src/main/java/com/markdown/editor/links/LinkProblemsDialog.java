@@ -0,0 +1,119 @@
+package com.markdown.editor.links;
+
+import com.intellij.openapi.fileEditor.OpenFileDescriptor;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.ui.ColoredListCellRenderer;
+import com.intellij.ui.SimpleTextAttributes;
+import com.intellij.ui.components.JBList;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.util.ui.JBUI;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 显示链接检查的结果，双击或回车跳转到无效链接
+ */
+public class LinkProblemsDialog extends DialogWrapper {
+
+    private static final class Item {
+        final VirtualFile file;
+        final String path;
+        final LinkProblem problem;
+
+        Item(VirtualFile file, String path, LinkProblem problem) {
+            this.file = file;
+            this.path = path;
+            this.problem = problem;
+        }
+    }
+
+    private final Project project;
+    private final JBList<Item> list;
+    private final String summary;
+
+    /**
+     * @param files 检查结果中的路径对应的文件
+     */
+    public LinkProblemsDialog(@NotNull Project project, @NotNull LinkChecker.Result result,
+                              @NotNull Map<String, VirtualFile> files, @Nullable VirtualFile baseDir) {
+        super(project, false);
+        this.project = project;
+        this.summary = result.toString();
+
+        List<Item> items = new ArrayList<>();
+        result.getProblems().forEach((path, problems) -> {
+            VirtualFile file = files.get(path);
+            String shown = file != null && baseDir != null ? VfsUtilCore.getRelativePath(file, baseDir, '/') : null;
+            for (LinkProblem problem : problems) {
+                items.add(new Item(file, shown != null ? shown : path, problem));
+            }
+        });
+        list = new JBList<>(items);
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        list.getEmptyText().setText("没有发现无效链接");
+        list.setCellRenderer(new ColoredListCellRenderer<Item>() {
+            @Override
+            protected void customizeCellRenderer(@NotNull JList<? extends Item> list, Item item, int index,
+                                                 boolean selected, boolean hasFocus) {
+                append(item.path, SimpleTextAttributes.REGULAR_BOLD_ATTRIBUTES);
+                append("  " + item.problem.getMessage(), SimpleTextAttributes.REGULAR_ATTRIBUTES);
+            }
+        });
+        list.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2 && SwingUtilities.isLeftMouseButton(e)) {
+                    navigateToSelected();
+                }
+            }
+        });
+        list.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (e.getKeyCode() == KeyEvent.VK_ENTER) {
+                    navigateToSelected();
+                }
+            }
+        });
+
+        setTitle("Markdown链接检查");
+        setModal(false);
+        init();
+    }
+
+    private void navigateToSelected() {
+        Item item = list.getSelectedValue();
+        if (item != null && item.file != null && item.file.isValid()) {
+            new OpenFileDescriptor(project, item.file, item.problem.getLink().getOffset()).navigate(true);
+        }
+    }
+
+    @Nullable
+    @Override
+    protected JComponent createCenterPanel() {
+        JPanel panel = new JPanel(new BorderLayout(0, JBUI.scale(6)));
+        panel.add(new JLabel(summary), BorderLayout.NORTH);
+        JBScrollPane scrollPane = new JBScrollPane(list);
+        scrollPane.setPreferredSize(JBUI.size(720, 400));
+        panel.add(scrollPane, BorderLayout.CENTER);
+        return panel;
+    }
+
+    @Override
+    protected Action @NotNull [] createActions() {
+        return new Action[]{getOKAction()};
+    }
+}
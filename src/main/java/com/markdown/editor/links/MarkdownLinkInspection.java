@@ -0,0 +1,46 @@
+package com.markdown.editor.links;
+
+import com.intellij.codeInspection.InspectionManager;
+import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemHighlightType;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.markdown.editor.index.MarkdownIndexing;
+import com.markdown.editor.outline.DocumentSummary;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 检查相对文件链接和 #锚点 是否有效
+ * 当前文件按编辑器中的文本扫描，目标文件的锚点来自索引；外部链接只在"检查Markdown链接"任务中按需检查
+ */
+public class MarkdownLinkInspection extends LocalInspectionTool {
+
+    @Override
+    public ProblemDescriptor[] checkFile(@NotNull PsiFile file, @NotNull InspectionManager manager, boolean isOnTheFly) {
+        VirtualFile virtualFile = file.getVirtualFile();
+        if (virtualFile == null || !MarkdownIndexing.isMarkdownFile(virtualFile)) {
+            return null;
+        }
+        DocumentSummary summary = DocumentSummary.scan(file.getViewProvider().getContents());
+        if (summary.getLinks().isEmpty()) {
+            return null;
+        }
+        List<LinkProblem> problems = LinkChecker.check(summary, new MarkdownLinkResolver(file.getProject(), virtualFile), null);
+        if (problems.isEmpty()) {
+            return null;
+        }
+        List<ProblemDescriptor> descriptors = new ArrayList<>(problems.size());
+        for (LinkProblem problem : problems) {
+            int offset = problem.getLink().getOffset();
+            TextRange range = new TextRange(offset, offset + problem.getLink().getDestination().length());
+            descriptors.add(manager.createProblemDescriptor(file, range, problem.getMessage(),
+                    ProblemHighlightType.GENERIC_ERROR_OR_WARNING, isOnTheFly));
+        }
+        return descriptors.toArray(ProblemDescriptor.EMPTY_ARRAY);
+    }
+}
@@ -0,0 +1,45 @@
+package com.markdown.editor.links;
+
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.markdown.editor.index.MarkdownIndexing;
+import com.markdown.editor.index.MarkdownSummaryIndex;
+import com.markdown.editor.outline.DocumentSummary;
+import com.markdown.editor.outline.LinkReference;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * 用VFS和摘要索引解析一个文件中的本地链接，不读取目标文件的内容
+ */
+public class MarkdownLinkResolver implements LinkChecker.Resolver {
+    private final Project project;
+    private final VirtualFile file;
+
+    public MarkdownLinkResolver(@NotNull Project project, @NotNull VirtualFile file) {
+        this.project = project;
+        this.file = file;
+    }
+
+    @Override
+    public LinkTarget resolve(LinkReference link) {
+        return ReadAction.compute(() -> targetOf(project, MarkdownIndexing.resolveLink(project, file, link)));
+    }
+
+    /**
+     * 已解析出的目标文件对应的检查结果，行标记等自行缓存文件解析的调用方也用它，规则保持一致；需要在读操作中调用
+     * @param target 链接指向的文件，不存在时为null
+     */
+    public static LinkTarget targetOf(@NotNull Project project, @Nullable VirtualFile target) {
+        if (target == null || !target.isValid()) {
+            return LinkTarget.MISSING;
+        }
+        if (target.isDirectory() || !MarkdownIndexing.isMarkdownFile(target)) {
+            return LinkTarget.EXISTS;
+        }
+        // 索引尚未就绪时不检查锚点
+        DocumentSummary summary = MarkdownSummaryIndex.getSummary(project, target);
+        return summary != null ? LinkTarget.markdown(summary.getAnchors()) : LinkTarget.EXISTS;
+    }
+}
@@ -0,0 +1,157 @@
+package com.markdown.editor.markers;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileContentChangeEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.markdown.editor.index.MarkdownIndexing;
+import com.markdown.editor.links.ImageInfo;
+import com.markdown.editor.links.LinkChecker;
+import com.markdown.editor.links.MarkdownLinkResolver;
+import com.markdown.editor.outline.LinkReference;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 行标记共用的缓存：链接目标的解析结果和图片的尺寸、缩略图
+ * 同一目录下的文档共用解析结果，文件创建、删除、移动或改名时整体失效；
+ * 图片信息按修改时间和大小判断是否过期，只保留最近使用的一部分
+ */
+@Service(Service.Level.PROJECT)
+public final class LinkMarkerCache implements Disposable {
+
+    private static final int MAX_RESOLVED = 10_000;
+    private static final int MAX_IMAGES = 512;
+    // 超过该大小的图片只读取尺寸，不生成缩略图
+    private static final long MAX_THUMBNAIL_FILE_BYTES = 8L * 1024 * 1024;
+    public static final int THUMBNAIL_SIZE = 16;
+
+    // 目标不存在时的占位值
+    private static final Object MISSING = new Object();
+
+    private static final class ImageEntry {
+        final long stamp;
+        final long length;
+        final ImageInfo info;
+
+        ImageEntry(long stamp, long length, ImageInfo info) {
+            this.stamp = stamp;
+            this.length = length;
+            this.info = info;
+        }
+    }
+
+    private final Project project;
+    private final Map<String, Object> resolved = new ConcurrentHashMap<>();
+    private final Map<VirtualFile, ImageEntry> images = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<VirtualFile, ImageEntry> eldest) {
+            return size() > MAX_IMAGES;
+        }
+    };
+
+    public LinkMarkerCache(@NotNull Project project) {
+        this.project = project;
+        project.getMessageBus().connect(this).subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+            @Override
+            public void after(@NotNull List<? extends VFileEvent> events) {
+                for (VFileEvent event : events) {
+                    // 内容变化不影响链接能否解析，图片按修改时间自行失效
+                    if (!(event instanceof VFileContentChangeEvent)) {
+                        resolved.clear();
+                        return;
+                    }
+                }
+            }
+        });
+    }
+
+    public static LinkMarkerCache getInstance(@NotNull Project project) {
+        return project.getService(LinkMarkerCache.class);
+    }
+
+    /**
+     * 解析本地链接指向的文件，在读操作中调用
+     * @return 目标不存在时返回null
+     */
+    @Nullable
+    public VirtualFile resolve(@NotNull VirtualFile from, @NotNull LinkReference link) {
+        String path = link.getPath();
+        VirtualFile directory = from.getParent();
+        if (path == null || path.isEmpty() || directory == null) {
+            return path != null && path.isEmpty() ? from : null;
+        }
+        String key = directory.getUrl() + '\n' + path;
+        Object cached = resolved.get(key);
+        if (cached == null) {
+            VirtualFile target = MarkdownIndexing.resolveLink(project, from, link);
+            cached = target != null && target.isValid() ? target : MISSING;
+            if (resolved.size() >= MAX_RESOLVED) {
+                resolved.clear();
+            }
+            resolved.put(key, cached);
+        }
+        if (cached == MISSING) {
+            return null;
+        }
+        VirtualFile target = (VirtualFile) cached;
+        return target.isValid() ? target : null;
+    }
+
+    /**
+     * 用缓存的文件解析结果回答链接检查，目标的判断规则与 {@link MarkdownLinkResolver} 相同；在读操作中使用
+     */
+    @NotNull
+    public LinkChecker.Resolver resolverFor(@NotNull VirtualFile from) {
+        return link -> MarkdownLinkResolver.targetOf(project, resolve(from, link));
+    }
+
+    /**
+     * 图片的尺寸和缩略图，文件未变化时直接返回缓存的结果；会读取文件，只在后台调用
+     * 无法读取或格式不支持时返回 {@link ImageInfo#UNKNOWN}，同样缓存到文件变化为止
+     */
+    @NotNull
+    public ImageInfo getImageInfo(@NotNull VirtualFile image) {
+        long stamp = image.getTimeStamp();
+        long length = image.getLength();
+        synchronized (images) {
+            ImageEntry entry = images.get(image);
+            if (entry != null && entry.stamp == stamp && entry.length == length) {
+                return entry.info;
+            }
+        }
+        boolean svg = "svg".equals(image.getExtension() != null ? image.getExtension().toLowerCase(Locale.ROOT) : null);
+        ImageInfo info;
+        try (InputStream in = image.getInputStream()) {
+            info = ImageInfo.read(in, svg, length <= MAX_THUMBNAIL_FILE_BYTES ? THUMBNAIL_SIZE : 0);
+        } catch (IOException | RuntimeException e) {
+            // 损坏的图片可能让解码器抛出任意运行时异常
+            System.err.println("❌ 读取图片失败 " + image.getPath() + ": " + e.getMessage());
+            info = ImageInfo.UNKNOWN;
+        }
+        synchronized (images) {
+            images.put(image, new ImageEntry(stamp, length, info));
+        }
+        return info;
+    }
+
+    @Override
+    public void dispose() {
+        resolved.clear();
+        synchronized (images) {
+            images.clear();
+        }
+    }
+}
@@ -1,43 +1,61 @@
 package com.markdown.editor.markers;
 
+import com.intellij.codeInsight.daemon.GutterIconNavigationHandler;
 import com.intellij.codeInsight.daemon.LineMarkerInfo;
 import com.intellij.codeInsight.daemon.LineMarkerProvider;
+import com.intellij.icons.AllIcons;
 import com.intellij.openapi.editor.markup.GutterIconRenderer;
-import com.intellij.openapi.util.IconLoader;
+import com.intellij.openapi.fileEditor.OpenFileDescriptor;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.ui.JBImageIcon;
+import com.markdown.editor.links.ImageInfo;
+import com.markdown.editor.links.LinkChecker;
+import com.markdown.editor.links.LinkProblem;
+import com.markdown.editor.outline.DocumentSummary;
+import com.markdown.editor.outline.LinkReference;
+import org.intellij.plugins.markdown.lang.MarkdownElementTypes;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
 import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 /**
  * Markdown行标记提供者
- * 为Markdown元素提供行号旁的图标标记
+ * 图片所在行显示缩略图，目标文件或锚点不存在的本地链接显示警告。
+ * 快速阶段不做任何事；在后台的慢速阶段用 {@link LinkChecker} 检查整个文档，规则与链接检查工具相同，
+ * 文件解析结果和图片信息来自项目共用的 {@link LinkMarkerCache}
  */
 public class MarkdownLineMarkerProvider implements LineMarkerProvider {
-    
-    // 使用内置图标，避免图标文件缺失问题
-    private static final Icon HEADER_ICON = null; // IconLoader.getIcon("/icons/header.svg", MarkdownLineMarkerProvider.class);
-    private static final Icon LINK_ICON = null; // IconLoader.getIcon("/icons/link.svg", MarkdownLineMarkerProvider.class);
-    private static final Icon IMAGE_ICON = null; // IconLoader.getIcon("/icons/image.svg", MarkdownLineMarkerProvider.class);
-    private static final Icon CODE_ICON = null; // IconLoader.getIcon("/icons/code.svg", MarkdownLineMarkerProvider.class);
+
+    private static final Set<String> IMAGE_EXTENSIONS = Set.of("png", "jpg", "jpeg", "gif", "svg", "webp", "bmp");
 
     @Nullable
     @Override
     public LineMarkerInfo<?> getLineMarkerInfo(@NotNull PsiElement element) {
-        // 暂时禁用行标记功能，避免图标加载问题
+        // 需要解析文件和读取图片，全部放到慢速阶段
         return null;
     }
-    
-    private LineMarkerInfo<PsiElement> createLineMarkerInfo(PsiElement element, Icon icon, String tooltip) {
+
+    private LineMarkerInfo<PsiElement> createLineMarkerInfo(PsiElement element, Icon icon, String tooltip,
+                                                            @Nullable GutterIconNavigationHandler<PsiElement> navigationHandler) {
         return new LineMarkerInfo<>(
             element,
             element.getTextRange(),
             icon,
             e -> tooltip,
-            null,
+            navigationHandler,
             GutterIconRenderer.Alignment.LEFT,
             () -> tooltip
         );
@@ -45,12 +63,96 @@ public class MarkdownLineMarkerProvider implements LineMarkerProvider {
 
     @Override
     public void collectSlowLineMarkers(@NotNull List<? extends PsiElement> elements, @NotNull Collection<? super LineMarkerInfo<?>> result) {
-        // 可以在这里进行更复杂的行标记收集
+        if (elements.isEmpty()) {
+            return;
+        }
+        PsiFile psiFile = elements.get(0).getContainingFile();
+        VirtualFile file = psiFile != null ? psiFile.getVirtualFile() : null;
+        if (file == null) {
+            return;
+        }
+        LinkMarkerCache cache = LinkMarkerCache.getInstance(psiFile.getProject());
+        // 与检查工具相同：按编辑器中的文本扫描，由LinkChecker判断链接是否有效，只是文件解析经过缓存
+        DocumentSummary summary = DocumentSummary.scan(psiFile.getViewProvider().getContents());
+        TreeMap<Integer, LinkProblem> problems = new TreeMap<>();
+        for (LinkProblem problem : LinkChecker.check(summary, cache.resolverFor(file), null)) {
+            problems.put(problem.getLink().getOffset(), problem);
+        }
+
         for (PsiElement element : elements) {
-            LineMarkerInfo<?> markerInfo = getLineMarkerInfo(element);
-            if (markerInfo != null) {
-                result.add(markerInfo);
+            ProgressManager.checkCanceled();
+            if (element.getNode() == null || element.getNode().getElementType() != MarkdownElementTypes.LINK_DESTINATION) {
+                continue;
+            }
+            LinkReference link = new LinkReference(destination(element), element.getTextOffset(), isImage(element));
+            if (link.getDestination().isEmpty() || link.isExternal() || link.getPath() == null) {
+                continue;
             }
+            PsiElement anchor = PsiTreeUtil.getDeepestFirst(element);
+            String path = link.getPath();
+            TextRange range = element.getTextRange();
+            Map.Entry<Integer, LinkProblem> problem = problems.ceilingEntry(range.getStartOffset());
+            if (problem != null && problem.getKey() < range.getEndOffset()) {
+                // 找不到锚点时点击图标打开目标文件
+                VirtualFile target = problem.getValue().getKind() == LinkProblem.Kind.MISSING_ANCHOR
+                        ? cache.resolve(file, link) : null;
+                result.add(createLineMarkerInfo(anchor, AllIcons.General.Warning, problem.getValue().getMessage(),
+                        target != null ? navigateTo(target) : null));
+                continue;
+            }
+            if (link.isImage() || isImagePath(path)) {
+                VirtualFile target = cache.resolve(file, link);
+                if (target != null) {
+                    result.add(createImageMarker(anchor, cache, target, path));
+                }
+            }
+        }
+    }
+
+    private LineMarkerInfo<PsiElement> createImageMarker(PsiElement anchor, LinkMarkerCache cache, VirtualFile image, String path) {
+        if (image.isDirectory()) {
+            return createLineMarkerInfo(anchor, AllIcons.General.Warning, "图片路径是一个目录: " + path, null);
         }
+        ImageInfo info = cache.getImageInfo(image);
+        Icon icon = info.getThumbnail() != null ? new JBImageIcon(info.getThumbnail()) : AllIcons.FileTypes.Image;
+        String tooltip = "图片 " + path + (info.hasSize() ? " (" + info.getWidth() + "×" + info.getHeight() + ")" : "");
+        return createLineMarkerInfo(anchor, icon, tooltip, navigateTo(image));
+    }
+
+    private static GutterIconNavigationHandler<PsiElement> navigateTo(VirtualFile target) {
+        return (e, element) -> {
+            if (target.isValid() && !target.isDirectory()) {
+                new OpenFileDescriptor(element.getProject(), target).navigate(true);
+            }
+        };
+    }
+
+    /**
+     * 链接目标的文本，去掉 &lt;...&gt; 形式的尖括号
+     */
+    private static String destination(PsiElement element) {
+        String text = element.getText().trim();
+        if (text.length() >= 2 && text.charAt(0) == '<' && text.charAt(text.length() - 1) == '>') {
+            return text.substring(1, text.length() - 1);
+        }
+        return text;
+    }
+
+    private static boolean isImage(PsiElement destination) {
+        for (PsiElement parent = destination.getParent(); parent != null && !(parent instanceof PsiFile); parent = parent.getParent()) {
+            IElementType type = parent.getNode() != null ? parent.getNode().getElementType() : null;
+            if (type == MarkdownElementTypes.IMAGE) {
+                return true;
+            }
+            if (type == MarkdownElementTypes.PARAGRAPH) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isImagePath(String path) {
+        int dot = path.lastIndexOf('.');
+        return dot > path.lastIndexOf('/') && IMAGE_EXTENSIONS.contains(path.substring(dot + 1).toLowerCase(Locale.ROOT));
     }
 }
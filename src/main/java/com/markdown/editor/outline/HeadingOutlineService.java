@@ -0,0 +1,76 @@
+package com.markdown.editor.outline;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.EditorFactory;
+import com.intellij.openapi.editor.event.DocumentEvent;
+import com.intellij.openapi.editor.event.DocumentListener;
+import com.intellij.openapi.util.Key;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * 文档标题目录的应用级入口
+ * 每个用到目录的文档在用户数据中保存一个增量维护的HeadingOutline；
+ * 所有文档的修改区间通过全局文档监听器记录下来，读取目录时只重新扫描被修改的块
+ */
+@Service
+public final class HeadingOutlineService implements Disposable {
+
+    private static final Key<HeadingOutline> OUTLINE_KEY = Key.create("com.markdown.editor.headingOutline");
+
+    public HeadingOutlineService() {
+        EditorFactory.getInstance().getEventMulticaster().addDocumentListener(new DocumentListener() {
+            @Override
+            public void documentChanged(@NotNull DocumentEvent event) {
+                HeadingOutline outline = event.getDocument().getUserData(OUTLINE_KEY);
+                if (outline != null) {
+                    outline.markDirty(event.getOffset(), event.getOldLength(), event.getNewLength());
+                }
+            }
+        }, this);
+    }
+
+    public static HeadingOutlineService getInstance() {
+        return ApplicationManager.getApplication().getService(HeadingOutlineService.class);
+    }
+
+    /**
+     * 文档当前的标题，按文档顺序；文档没有变化时直接返回上一次的结果
+     */
+    @NotNull
+    public List<Heading> getHeadings(@NotNull Document document) {
+        // 在读操作中读取，保证文本与已记录的修改区间一致
+        return ReadAction.compute(() -> getOutline(document).update(document.getImmutableCharSequence()));
+    }
+
+    /**
+     * 文档当前标题的GitHub风格锚点，与getHeadings的结果一一对应
+     */
+    @NotNull
+    public List<String> getAnchors(@NotNull Document document) {
+        return ReadAction.compute(() -> {
+            HeadingOutline outline = getOutline(document);
+            outline.update(document.getImmutableCharSequence());
+            return outline.getAnchors();
+        });
+    }
+
+    private synchronized HeadingOutline getOutline(Document document) {
+        HeadingOutline outline = document.getUserData(OUTLINE_KEY);
+        if (outline == null) {
+            outline = new HeadingOutline();
+            document.putUserData(OUTLINE_KEY, outline);
+        }
+        return outline;
+    }
+
+    @Override
+    public void dispose() {
+        // 文档监听器随服务一起移除
+    }
+}
@@ -0,0 +1,136 @@
+package com.markdown.editor.outline;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.editor.Document;
+import com.intellij.ui.ColoredListCellRenderer;
+import com.intellij.ui.CollectionListModel;
+import com.intellij.ui.SimpleTextAttributes;
+import com.intellij.ui.components.JBList;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.util.ui.JBUI;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 可点击的标题目录
+ * 内容变化时只做标记，目录可见时才从增量维护的标题目录读取；点击标题交给调用方跳转
+ */
+public class HeadingTocPanel {
+    private final JPanel mainPanel;
+    private final JBList<Heading> list;
+    private final CollectionListModel<Heading> model = new CollectionListModel<>();
+    private final Supplier<Document> documentSupplier;
+    private final Consumer<Heading> navigator;
+    // 当前显示的标题，与目录返回的结果相同时不刷新列表
+    private List<Heading> shownHeadings;
+    private boolean dirty = true;
+
+    public HeadingTocPanel(@NotNull Supplier<Document> documentSupplier, @NotNull Consumer<Heading> navigator) {
+        this.documentSupplier = documentSupplier;
+        this.navigator = navigator;
+
+        list = new JBList<>(model);
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        list.getEmptyText().setText("文档中没有标题");
+        list.setCellRenderer(new ColoredListCellRenderer<Heading>() {
+            @Override
+            protected void customizeCellRenderer(@NotNull JList<? extends Heading> list, Heading heading, int index,
+                                                 boolean selected, boolean hasFocus) {
+                setIpad(JBUI.insetsLeft(6 + (heading.getLevel() - 1) * 14));
+                String title = heading.getTitle().isEmpty() ? "(空标题)" : heading.getTitle();
+                append(title, heading.getLevel() == 1
+                        ? SimpleTextAttributes.REGULAR_BOLD_ATTRIBUTES
+                        : SimpleTextAttributes.REGULAR_ATTRIBUTES);
+            }
+        });
+        list.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (SwingUtilities.isLeftMouseButton(e)) {
+                    navigateToSelected();
+                }
+            }
+        });
+        list.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (e.getKeyCode() == KeyEvent.VK_ENTER) {
+                    navigateToSelected();
+                }
+            }
+        });
+
+        mainPanel = new JPanel(new BorderLayout());
+        JBScrollPane scrollPane = new JBScrollPane(list);
+        scrollPane.setBorder(null);
+        mainPanel.add(scrollPane, BorderLayout.CENTER);
+
+        // 重新显示时补做一次刷新
+        mainPanel.addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0 && mainPanel.isShowing() && dirty) {
+                scheduleRefresh();
+            }
+        });
+    }
+
+    /**
+     * 通知文档已变化，在EDT上调用；目录不可见时等到显示时再刷新
+     */
+    public void markDirty() {
+        if (dirty) {
+            return;
+        }
+        dirty = true;
+        if (mainPanel.isShowing()) {
+            scheduleRefresh();
+        }
+    }
+
+    private void scheduleRefresh() {
+        ApplicationManager.getApplication().invokeLater(() -> {
+            if (dirty && mainPanel.isShowing()) {
+                refresh();
+            }
+        }, ModalityState.any());
+    }
+
+    private void refresh() {
+        dirty = false;
+        Document document = documentSupplier.get();
+        if (document == null) {
+            return;
+        }
+        List<Heading> headings = HeadingOutlineService.getInstance().getHeadings(document);
+        if (headings == shownHeadings) {
+            return;
+        }
+        shownHeadings = headings;
+        int selected = list.getSelectedIndex();
+        model.replaceAll(headings);
+        if (selected >= 0 && selected < headings.size()) {
+            list.setSelectedIndex(selected);
+        }
+    }
+
+    private void navigateToSelected() {
+        Heading heading = list.getSelectedValue();
+        if (heading != null) {
+            navigator.accept(heading);
+        }
+    }
+
+    public JComponent getComponent() {
+        return mainPanel;
+    }
+}
@@ -0,0 +1,87 @@
+package com.markdown.editor.outline;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.ide.projectView.PresentationData;
+import com.intellij.ide.structureView.StructureViewTreeElement;
+import com.intellij.ide.util.treeView.smartTree.TreeElement;
+import com.intellij.navigation.ItemPresentation;
+import com.intellij.openapi.fileEditor.OpenFileDescriptor;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 结构视图中的一个标题，子节点为它下面级别更低的标题
+ */
+public class HeadingTreeElement implements StructureViewTreeElement {
+    private final Project project;
+    private final VirtualFile file;
+    private final Heading heading;
+    private final List<HeadingTreeElement> children = new ArrayList<>();
+
+    HeadingTreeElement(@NotNull Project project, @NotNull VirtualFile file, @NotNull Heading heading) {
+        this.project = project;
+        this.file = file;
+        this.heading = heading;
+    }
+
+    /**
+     * 按级别把文档顺序的标题组织成树，一次遍历完成
+     */
+    static List<HeadingTreeElement> buildTree(@NotNull Project project, @NotNull VirtualFile file, @NotNull List<Heading> headings) {
+        List<HeadingTreeElement> roots = new ArrayList<>();
+        List<HeadingTreeElement> stack = new ArrayList<>();
+        for (Heading heading : headings) {
+            HeadingTreeElement element = new HeadingTreeElement(project, file, heading);
+            while (!stack.isEmpty() && stack.get(stack.size() - 1).heading.getLevel() >= heading.getLevel()) {
+                stack.remove(stack.size() - 1);
+            }
+            if (stack.isEmpty()) {
+                roots.add(element);
+            } else {
+                stack.get(stack.size() - 1).children.add(element);
+            }
+            stack.add(element);
+        }
+        return roots;
+    }
+
+    @Override
+    public Object getValue() {
+        return heading;
+    }
+
+    @NotNull
+    @Override
+    public ItemPresentation getPresentation() {
+        String title = heading.getTitle().isEmpty() ? "(空标题)" : heading.getTitle();
+        return new PresentationData(title, "H" + heading.getLevel(), AllIcons.Nodes.Tag, null);
+    }
+
+    @Override
+    public TreeElement @NotNull [] getChildren() {
+        return children.toArray(new HeadingTreeElement[0]);
+    }
+
+    boolean isLeaf() {
+        return children.isEmpty();
+    }
+
+    @Override
+    public void navigate(boolean requestFocus) {
+        new OpenFileDescriptor(project, file, heading.getOffset()).navigate(requestFocus);
+    }
+
+    @Override
+    public boolean canNavigate() {
+        return file.isValid();
+    }
+
+    @Override
+    public boolean canNavigateToSource() {
+        return canNavigate();
+    }
+}
@@ -0,0 +1,33 @@
+package com.markdown.editor.outline;
+
+import com.intellij.ide.structureView.StructureViewModel;
+import com.intellij.ide.structureView.TreeBasedStructureViewBuilder;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.psi.PsiFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Markdown编辑器的结构视图（Structure工具窗口和文件结构弹窗）
+ */
+public class MarkdownStructureViewBuilder extends TreeBasedStructureViewBuilder {
+    private final PsiFile psiFile;
+    private final Document document;
+
+    public MarkdownStructureViewBuilder(@NotNull PsiFile psiFile, @NotNull Document document) {
+        this.psiFile = psiFile;
+        this.document = document;
+    }
+
+    @NotNull
+    @Override
+    public StructureViewModel createStructureViewModel(@Nullable Editor editor) {
+        return new MarkdownStructureViewModel(psiFile, editor, document);
+    }
+
+    @Override
+    public boolean isRootNodeShown() {
+        return false;
+    }
+}
@@ -0,0 +1,111 @@
+package com.markdown.editor.outline;
+
+import com.intellij.ide.projectView.PresentationData;
+import com.intellij.ide.structureView.StructureViewModel;
+import com.intellij.ide.structureView.StructureViewModelBase;
+import com.intellij.ide.structureView.StructureViewTreeElement;
+import com.intellij.ide.util.treeView.smartTree.TreeElement;
+import com.intellij.navigation.ItemPresentation;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.editor.event.DocumentEvent;
+import com.intellij.openapi.editor.event.DocumentListener;
+import com.intellij.openapi.fileEditor.OpenFileDescriptor;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Markdown文件的结构视图：按级别嵌套的标题
+ * 标题来自增量维护的标题目录，刷新结构视图和跳转到标题都不扫描文档
+ */
+public class MarkdownStructureViewModel extends StructureViewModelBase implements StructureViewModel.ElementInfoProvider {
+    private final Document document;
+
+    public MarkdownStructureViewModel(@NotNull PsiFile psiFile, @Nullable Editor editor, @NotNull Document document) {
+        super(psiFile, editor, new FileElement(psiFile.getProject(), psiFile.getVirtualFile(), document));
+        this.document = document;
+        document.addDocumentListener(new DocumentListener() {
+            @Override
+            public void documentChanged(@NotNull DocumentEvent event) {
+                fireModelUpdate();
+            }
+        }, this);
+    }
+
+    /**
+     * 光标所在的标题，用于结构视图的自动定位
+     */
+    @Nullable
+    @Override
+    public Object getCurrentEditorElement() {
+        Editor editor = getEditor();
+        if (editor == null) {
+            return null;
+        }
+        List<Heading> headings = HeadingOutlineService.getInstance().getHeadings(document);
+        int index = HeadingOutline.indexAt(headings, editor.getCaretModel().getOffset());
+        return index >= 0 ? headings.get(index) : null;
+    }
+
+    @Override
+    public boolean isAlwaysShowsPlus(StructureViewTreeElement element) {
+        return false;
+    }
+
+    @Override
+    public boolean isAlwaysLeaf(StructureViewTreeElement element) {
+        return element instanceof HeadingTreeElement && ((HeadingTreeElement) element).isLeaf();
+    }
+
+    /**
+     * 根节点：文件本身，子节点为顶层标题
+     */
+    private static final class FileElement implements StructureViewTreeElement {
+        private final Project project;
+        private final VirtualFile file;
+        private final Document document;
+
+        FileElement(Project project, VirtualFile file, Document document) {
+            this.project = project;
+            this.file = file;
+            this.document = document;
+        }
+
+        @Override
+        public Object getValue() {
+            return file;
+        }
+
+        @NotNull
+        @Override
+        public ItemPresentation getPresentation() {
+            return new PresentationData(file.getName(), null, file.getFileType().getIcon(), null);
+        }
+
+        @Override
+        public TreeElement @NotNull [] getChildren() {
+            List<Heading> headings = HeadingOutlineService.getInstance().getHeadings(document);
+            return HeadingTreeElement.buildTree(project, file, headings).toArray(new TreeElement[0]);
+        }
+
+        @Override
+        public void navigate(boolean requestFocus) {
+            new OpenFileDescriptor(project, file).navigate(requestFocus);
+        }
+
+        @Override
+        public boolean canNavigate() {
+            return file.isValid();
+        }
+
+        @Override
+        public boolean canNavigateToSource() {
+            return canNavigate();
+        }
+    }
+}
@@ -2,35 +2,101 @@ package com.markdown.editor.preview;
 
 import com.intellij.openapi.Disposable;
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.fileEditor.OpenFileDescriptor;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.ide.BrowserUtil;
+import com.intellij.util.Alarm;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.markdown.editor.index.MarkdownIndexing;
+import com.markdown.editor.index.MarkdownSummaryIndex;
+import com.markdown.editor.outline.DocumentSummary;
+import com.markdown.editor.outline.Heading;
+import com.markdown.editor.outline.LinkReference;
+import com.markdown.editor.settings.MarkdownSettings;
+import org.intellij.markdown.ast.ASTNode;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
 import javax.swing.event.HyperlinkEvent;
 import javax.swing.event.HyperlinkListener;
+import javax.swing.text.AttributeSet;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.DefaultCaret;
+import javax.swing.text.Element;
+import javax.swing.text.ElementIterator;
+import javax.swing.text.html.HTML;
 import javax.swing.text.html.HTMLDocument;
 import javax.swing.text.html.HTMLEditorKit;
 import java.awt.*;
+import java.awt.event.HierarchyEvent;
+import java.awt.geom.Rectangle2D;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
 
 /**
  * Markdown预览面板
  * 使用JTextPane实现，具备基础的HTML渲染能力和可靠的链接处理
  */
 public class MarkdownPreviewPanel implements Disposable {
+    // 最后一次渲染后停顿多久把渲染结果写入持久化缓存（毫秒）
+    private static final int CACHE_WRITE_DELAY_MS = 3000;
+    
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("[^\\s@/]+@[^\\s@/]+\\.[^\\s@/]+");
+
     private final Project project;
     private final JPanel mainPanel;
     private JTextPane textPane;
     private JScrollPane scrollPane;
     private String currentMarkdownContent = "";
+    // 与currentMarkdownContent对应的已解析语法树（来自IDE的PSI），只在下一次渲染时使用
+    private ASTNode currentParsedTree;
     private final MarkdownProcessor processor;
+    // 预览空闲后在后台写入渲染缓存
+    private final Alarm cacheWriteAlarm = new Alarm(Alarm.ThreadToUse.POOLED_THREAD, this);
+    // 不可见期间内容发生过变化，重新显示时需要补一次渲染
+    private boolean dirty;
+    // 重新读取内容并调用updateContent的回调，由使用预览的编辑器提供
+    private Runnable contentUpdater;
+    // 下一次显示渲染结果后要滚动到的源文件行，-1表示不滚动
+    private int pendingAnchorLine = -1;
+    // 是否已经显示过渲染结果
+    private boolean contentShown;
+    // 当前显示内容的源文件行到文档偏移的对应关系，每次显示渲染结果时重建
+    private SourceMap sourceMap = SourceMap.EMPTY;
+    // 由代码触发的滚动（同步、恢复位置、替换内容）不通知监听器，避免与编辑器互相触发
+    private boolean scrollingProgrammatically;
+    // 用户滚动预览时接收顶部源文件行
+    private IntConsumer sourceLineScrollListener;
+    // 当前预览的文件，用于解析相对链接
+    private Supplier<VirtualFile> baseFileSupplier;
     
     public MarkdownPreviewPanel(@NotNull Project project) {
         this.project = project;
         this.processor = new MarkdownProcessor();
         this.mainPanel = createMainPanel();
         
+        // 渲染由全局调度器执行，面板不可见时推迟到重新显示
+        PreviewRenderScheduler.getInstance().setVisible(this, false);
+        mainPanel.addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0) {
+                boolean showing = mainPanel.isShowing();
+                PreviewRenderScheduler.getInstance().setVisible(this, showing);
+                if (showing && dirty) {
+                    System.out.println("👁️ 预览重新显示，补做一次渲染");
+                    scheduleCatchUp();
+                }
+            }
+        });
+        
         System.out.println("✅ 预览面板初始化完成 (JTextPane简化模式)");
     }
     
@@ -61,13 +127,18 @@ public class MarkdownPreviewPanel implements Disposable {
             textPane.setSelectedTextColor(new java.awt.Color(255, 255, 255)); // 白色选择文本
             textPane.setCaretColor(new java.awt.Color(255, 255, 255)); // 白色光标
             
+            // 替换内容时光标不跟随移动，否则每次更新都会滚回顶部
+            if (textPane.getCaret() instanceof DefaultCaret) {
+                ((DefaultCaret) textPane.getCaret()).setUpdatePolicy(DefaultCaret.NEVER_UPDATE);
+            }
+            
             // 设置HTML编辑器
             HTMLEditorKit kit = new HTMLEditorKit();
             textPane.setEditorKit(kit);
             
             // 设置样式表
             HTMLDocument doc = (HTMLDocument) textPane.getDocument();
-            kit.getStyleSheet().addRule(getBasicCSS());
+            kit.getStyleSheet().addRule(PreviewStyles.CSS);
             
             // 设置链接处理
             setupLinkHandling();
@@ -84,6 +155,13 @@ public class MarkdownPreviewPanel implements Disposable {
             scrollPane.getViewport().setBackground(new java.awt.Color(43, 43, 43));
             scrollPane.getViewport().setOpaque(true);
             
+            // 用户滚动预览时通知编辑器同步
+            scrollPane.getVerticalScrollBar().addAdjustmentListener(e -> {
+                if (!scrollingProgrammatically && contentShown && sourceLineScrollListener != null) {
+                    sourceLineScrollListener.accept(getTopSourceLine());
+                }
+            });
+            
             panel.add(scrollPane, BorderLayout.CENTER);
             
             System.out.println("✅ JTextPane预览面板创建成功");
@@ -101,33 +179,6 @@ public class MarkdownPreviewPanel implements Disposable {
         return panel;
     }
     
-    /**
-     * 获取JTextPane兼容的CSS样式
-     */
-    private String getBasicCSS() {
-        return "body { font-family: Arial, sans-serif; font-size: 11px; color: #E6E6E6; background-color: #2B2B2B; margin: 0; padding: 8px; }" +
-               "h1 { font-size: 18px; font-weight: bold; color: #FFFFFF; margin-top: 14px; margin-bottom: 6px; }" +
-               "h2 { font-size: 16px; font-weight: bold; color: #FFFFFF; margin-top: 12px; margin-bottom: 5px; }" +
-               "h3 { font-size: 14px; font-weight: bold; color: #FFFFFF; margin-top: 10px; margin-bottom: 4px; }" +
-               "h4 { font-size: 13px; font-weight: bold; color: #CCCCCC; margin-top: 8px; margin-bottom: 3px; }" +
-               "h5 { font-size: 12px; font-weight: bold; color: #CCCCCC; margin-top: 6px; margin-bottom: 2px; }" +
-               "h6 { font-size: 11px; font-weight: bold; color: #CCCCCC; margin-top: 6px; margin-bottom: 2px; }" +
-               "p { font-size: 11px; color: #E6E6E6; margin-top: 3px; margin-bottom: 6px; }" +
-               "pre { color: #D4D4D4; font-family: monospace; font-size: 10px; padding: 8px 0; margin: 0; border: none; background: transparent; }" +
-               "code { color: #E6E6E6; font-family: monospace; font-size: 10px; padding: 0; background: transparent; }" +
-               "blockquote { color: #999999; font-style: italic; border-left: 3px solid #555555; padding-left: 10px; margin: 6px 0; }" +
-               "a { color: #4FC3F7; text-decoration: underline; }" +
-               "strong { font-weight: bold; color: #FFFFFF; }" +
-               "em { font-style: italic; color: #E6E6E6; }" +
-               "ul { margin: 4px 0; padding-left: 20px; color: #E6E6E6; list-style-type: disc; }" +
-               "ol { margin: 4px 0; padding-left: 20px; color: #E6E6E6; list-style-type: decimal; }" +
-               "li { margin: 2px 0; color: #E6E6E6; display: list-item; }" +
-               "table { border: 1px solid #555555; margin: 6px 0; border-collapse: collapse; }" +
-               "th { font-weight: bold; background-color: #404040; color: #FFFFFF; padding: 6px; border: 1px solid #555555; font-size: 11px; }" +
-               "td { color: #E6E6E6; padding: 6px; border: 1px solid #555555; font-size: 11px; }" +
-               "hr { border: none; border-top: 1px solid #555555; margin: 10px 0; }";
-    }
-    
     /**
      * 设置链接处理
      */
@@ -159,9 +210,13 @@ public class MarkdownPreviewPanel implements Disposable {
                     System.out.println("🔗 检测到代码块折叠链接: " + url);
                     handleCodeBlockFold(url);
                     return; // 重要：避免继续处理
+                } else if (url.startsWith("expand://")) {
+                    System.out.println("🔗 检测到降级区域展开链接: " + url);
+                    handleExpandRegion(url);
+                    return;
                 } else {
                     System.out.println("🔗 检测到普通链接: " + url);
-                    openLinkInBrowser(url);
+                    openLink(url);
                 }
                             }
                             
@@ -195,26 +250,7 @@ public class MarkdownPreviewPanel implements Disposable {
             System.out.println("🔀 代码块 " + codeBlockId + " 新状态: " + (newState ? "折叠" : "展开"));
             
             // 重新渲染内容以更新折叠状态
-            if (currentMarkdownContent != null) {
-                System.out.println("🔄 重新渲染内容以更新折叠状态");
-                
-                ApplicationManager.getApplication().invokeLater(() -> {
-                    try {
-                        if (textPane != null) {
-                            // 清空当前内容
-                            textPane.setText("");
-                            
-                            // 重新加载内容
-                            loadContentInTextPane(currentMarkdownContent);
-                            
-                            System.out.println("✅ 内容重新渲染完成");
-                        }
-                    } catch (Exception ex) {
-                        System.err.println("❌ 重新渲染失败: " + ex.getMessage());
-                        ex.printStackTrace();
-                    }
-                });
-            }
+            rerenderCurrentContent();
             
         } catch (Exception e) {
             System.err.println("❌ 代码块折叠处理失败: " + e.getMessage());
@@ -223,38 +259,154 @@ public class MarkdownPreviewPanel implements Disposable {
     }
     
     /**
-     * 在外部浏览器中打开链接
+     * 展开降级渲染时被折叠的表格或延迟渲染的章节
+     */
+    private void handleExpandRegion(String expandUrl) {
+        String regionId = expandUrl.substring("expand://".length());
+        System.out.println("🔀 展开降级区域: " + regionId);
+        processor.expandRegion(regionId);
+        rerenderCurrentContent();
+    }
+    
+    /**
+     * 以当前状态重新渲染已加载的内容
+     */
+    private void rerenderCurrentContent() {
+        if (currentMarkdownContent == null) {
+            return;
+        }
+        System.out.println("🔄 重新渲染内容以更新折叠状态");
+        scheduleRender();
+    }
+    
+    /**
+     * 打开预览中点击的链接：外部链接在浏览器中打开，#锚点 滚动到对应标题，
+     * 相对路径相对于当前文件解析后在IDE中打开（带锚点时定位到标题）
      */
-    private void openLinkInBrowser(String url) {
+    private void openLink(String url) {
         try {
-            System.out.println("🌐 准备在外部浏览器中打开: " + url);
-            
-            // 处理URL格式
-            if (!url.startsWith("http://") && !url.startsWith("https://") && !url.startsWith("mailto:") && !url.startsWith("file:")) {
-                if (url.contains("@") && !url.contains(".") || url.matches(".*@.*\\..+")) {
-                    url = "mailto:" + url;
-                    System.out.println("🔗 识别为邮箱链接: " + url);
-                } else {
-                    url = "https://" + url;
-                    System.out.println("🔗 添加https前缀: " + url);
+            LinkReference link = new LinkReference(url, 0, false);
+            if (link.isExternal()) {
+                System.out.println("🌐 在外部浏览器中打开: " + url);
+                BrowserUtil.browse(url);
+                return;
+            }
+            if (EMAIL_PATTERN.matcher(url).matches()) {
+                System.out.println("🔗 识别为邮箱链接: " + url);
+                BrowserUtil.browse("mailto:" + url);
+                return;
+            }
+            String fragment = link.getFragment();
+            if (link.getPath().isEmpty()) {
+                if (fragment != null) {
+                    scrollToAnchor(fragment);
                 }
+                return;
             }
-            
-            // 使用BrowserUtil打开链接
-            BrowserUtil.browse(url);
-            
-            System.out.println("✅ 链接已在外部浏览器中打开: " + url);
-            
+            VirtualFile baseFile = baseFileSupplier != null ? baseFileSupplier.get() : null;
+            VirtualFile target = baseFile != null ? MarkdownIndexing.resolveLink(project, baseFile, link) : null;
+            if (target == null) {
+                System.err.println("❌ 无法解析相对链接: " + url);
+                return;
+            }
+            int offset = 0;
+            if (fragment != null && !fragment.isEmpty()) {
+                DocumentSummary summary = MarkdownSummaryIndex.getSummary(project, target);
+                Heading heading = summary != null ? findHeading(summary, fragment) : null;
+                if (heading != null) {
+                    offset = heading.getOffset();
+                }
+            }
+            System.out.println("📄 在IDE中打开链接目标: " + target.getPath());
+            new OpenFileDescriptor(project, target, offset).navigate(true);
         } catch (Exception e) {
             System.err.println("❌ 打开链接失败: " + e.getMessage());
             e.printStackTrace();
         }
     }
+
+    /**
+     * 滚动到当前文档中锚点对应的标题
+     */
+    private void scrollToAnchor(String fragment) {
+        Heading heading = findHeading(DocumentSummary.scan(currentMarkdownContent), fragment);
+        if (heading == null) {
+            System.err.println("❌ 找不到锚点对应的标题: #" + fragment);
+            return;
+        }
+        int line = 0;
+        for (int i = 0; i < heading.getOffset(); i++) {
+            if (currentMarkdownContent.charAt(i) == '\n') {
+                line++;
+            }
+        }
+        scrollToSourceLine(line);
+    }
+
+    @Nullable
+    private static Heading findHeading(DocumentSummary summary, String fragment) {
+        Heading heading = summary.findHeading(fragment);
+        return heading != null ? heading : summary.findHeading(fragment.toLowerCase());
+    }
+    
+    /**
+     * 设置当前预览的文件，点击相对链接时相对于该文件解析
+     */
+    public void setBaseFileSupplier(@Nullable Supplier<VirtualFile> baseFileSupplier) {
+        this.baseFileSupplier = baseFileSupplier;
+    }
+
+    /**
+     * 设置读取最新内容的回调，回调中应调用updateContent
+     */
+    public void setContentUpdater(@Nullable Runnable contentUpdater) {
+        this.contentUpdater = contentUpdater;
+    }
+    
+    /**
+     * 通知预览内容已变化，在EDT上调用
+     * 预览可见时在下一次事件循环中读取内容（连续的多次变化合并为一次）；
+     * 不可见（隐藏、位于未选中的编辑器标签页等）时只记录变化，重新显示时补做一次渲染
+     */
+    public void markDirty() {
+        if (dirty) {
+            return;
+        }
+        dirty = true;
+        if (mainPanel.isShowing()) {
+            scheduleCatchUp();
+        }
+    }
+    
+    private void scheduleCatchUp() {
+        ApplicationManager.getApplication().invokeLater(() -> {
+            if (!dirty || contentUpdater == null || textPane == null || !mainPanel.isShowing()) {
+                return;
+            }
+            dirty = false;
+            contentUpdater.run();
+        }, ModalityState.any());
+    }
     
     /**
      * 更新预览内容 (优化内存管理版本)
      */
     public void updateContent(@NotNull String markdownContent) {
+        updateContent(markdownContent, null);
+    }
+    
+    /**
+     * AST引擎还没有解析过内容，下一次更新值得提供已解析的语法树；
+     * 之后由处理器增量解析，调用方不必再转换整棵语法树
+     */
+    public boolean needsParsedTree() {
+        return processor != null && processor.needsParsedTree();
+    }
+    
+    /**
+     * 更新预览内容，并提供与内容对应的已解析语法树，AST引擎只在第一次解析时使用它
+     */
+    public void updateContent(@NotNull String markdownContent, @Nullable ASTNode parsedTree) {
         // 防御性检查
         if (textPane == null || processor == null) {
             System.err.println("⚠️ 组件未就绪，无法更新内容");
@@ -266,71 +418,95 @@ public class MarkdownPreviewPanel implements Disposable {
             return;
         }
         
-        // 防止内容过大导致内存问题
-        if (markdownContent.length() > 1_000_000) { // 1MB限制
-            System.err.println("⚠️ Markdown内容过大，可能导致性能问题");
-            currentMarkdownContent = markdownContent.substring(0, 1_000_000) + "\n\n... (内容已截断以防止性能问题)";
-        } else {
-            currentMarkdownContent = markdownContent;
+        // 大文档不再截断，由处理器的渲染时间预算逐级降级，保证整篇文档都能访问
+        currentMarkdownContent = markdownContent;
+        currentParsedTree = parsedTree;
+        scheduleRender();
+    }
+    
+    /**
+     * 把当前内容交给渲染调度器：在后台线程渲染，完成后在EDT上显示；
+     * 渲染期间再次更新时，本次结果被丢弃
+     */
+    private void scheduleRender() {
+        String content = currentMarkdownContent;
+        if (content == null) {
+            return;
         }
-        
-        ApplicationManager.getApplication().invokeLater(() -> {
-            try {
-                if (textPane != null && !textPane.getText().isEmpty()) {
-                    // 清空之前的内容以释放内存
-                    textPane.setText("");
-                }
-                
-                if (textPane != null) {
-                    loadContentInTextPane(currentMarkdownContent);
-                }
-            } catch (Exception e) {
-                System.err.println("❌ 更新预览内容失败: " + e.getMessage());
-                e.printStackTrace();
-                
-                // 发生错误时显示简单错误信息，避免保留大量内容
-                if (textPane != null) {
-                    textPane.setText("<html><body><h3>预览错误</h3><p>" + e.getMessage() + "</p></body></html>");
-                }
-            }
-        });
+        // 语法树只对应本次内容，重新渲染（例如切换折叠）时由处理器自行解析
+        ASTNode parsedTree = currentParsedTree;
+        currentParsedTree = null;
+        PreviewRenderScheduler.getInstance().submit(this, () -> renderHtml(content, parsedTree), this::showHtml);
     }
     
     /**
-     * 在JTextPane中加载内容
+     * 渲染Markdown内容为HTML，在调度器的后台线程中执行
      */
-    private void loadContentInTextPane(String markdownContent) {
+    private String renderHtml(String markdownContent, @Nullable ASTNode parsedTree) {
         try {
-            System.out.println("📝 在JTextPane中加载Markdown内容");
+            System.out.println("📝 渲染Markdown内容");
             
-            // 调试：输出生成的HTML
-            if (markdownContent.contains("```")) {
-                System.out.println("🔍 检测到代码块，启用调试模式");
-                processor.debugGeneratedHtml(markdownContent);
-            }
-            
-            // 使用MarkdownProcessor处理内容
-            String html = processor.processMarkdown(markdownContent);
-            
-            // 额外调试：检查HTML中是否包含折叠结构
-            if (html.contains("fold://")) {
-                System.out.println("✅ HTML包含折叠链接");
-                System.out.println("🔍 折叠链接数量: " + (html.split("fold://").length - 1));
-            } else {
-                System.out.println("❌ HTML不包含折叠链接");
-            }
+            // 使用MarkdownProcessor处理内容（渲染引擎以设置为准，切换后下次刷新即生效）
+            MarkdownSettings settings = MarkdownSettings.getInstance();
+            processor.setRenderEngine(settings.getRenderEngine());
+            processor.setRenderBudgetMillis(settings.getRenderBudgetMillis());
+            processor.setSoftWrapLongLines(settings.isSoftWrapLongLines());
+            processor.setRenderCache(settings.isEnablePersistentRenderCache() ? RenderCacheService.getInstance().getCache() : null);
+            String html = processor.processMarkdown(markdownContent, parsedTree);
+            scheduleCacheWrite();
             
             // 确保HTML有基本结构
             if (!html.contains("<html>")) {
                 html = "<html><body>" + html + "</body></html>";
             }
+            return html;
+            
+        } catch (Exception e) {
+            System.err.println("❌ Markdown渲染失败: " + e.getMessage());
+            e.printStackTrace();
+            
+            // 显示错误内容
+            return "<html><body><h2>预览加载失败</h2><p>" + e.getMessage() + "</p></body></html>";
+        }
+    }
+    
+    /**
+     * 停止更新一段时间后再写入渲染缓存，连续编辑时不计算缓存键也不写磁盘
+     */
+    private void scheduleCacheWrite() {
+        cacheWriteAlarm.cancelAllRequests();
+        if (!cacheWriteAlarm.isDisposed()) {
+            cacheWriteAlarm.addRequest(processor::flushRenderCache, CACHE_WRITE_DELAY_MS);
+        }
+    }
+    
+    /**
+     * 在JTextPane中显示渲染结果，在EDT上执行
+     */
+    private void showHtml(String html) {
+        if (textPane == null) {
+            return;
+        }
+        try {
+            // 替换内容前记下顶部的源文件行，显示新内容后回到同一位置
+            int topLine = contentShown ? getTopSourceLine() : 0;
+            scrollingProgrammatically = true;
             
             // 设置HTML内容
             textPane.setText(html);
+            sourceMap = buildSourceMap();
+            contentShown = true;
             
-            // 滚动到顶部
+            // 布局完成后恢复位置；恢复编辑器状态时滚动到保存的位置
             SwingUtilities.invokeLater(() -> {
-                textPane.setCaretPosition(0);
+                try {
+                    if (pendingAnchorLine < 0) {
+                        pendingAnchorLine = topLine;
+                    }
+                    applyPendingAnchor();
+                } finally {
+                    scrollingProgrammatically = false;
+                }
             });
             
             System.out.println("✅ JTextPane内容加载完成");
@@ -339,11 +515,131 @@ public class MarkdownPreviewPanel implements Disposable {
             System.err.println("❌ JTextPane内容加载失败: " + e.getMessage());
             e.printStackTrace();
             
-            // 显示错误内容
-            textPane.setText("<html><body><h2>预览加载失败</h2><p>" + e.getMessage() + "</p></body></html>");
+            // 发生错误时显示简单错误信息，避免保留大量内容
+            textPane.setText("<html><body><h3>预览错误</h3><p>" + e.getMessage() + "</p></body></html>");
+        }
+    }
+    
+    /**
+     * 按块开始标签上的行号ID收集各个块在文档中的位置，每次显示渲染结果时遍历一次
+     */
+    private SourceMap buildSourceMap() {
+        if (!(textPane.getDocument() instanceof HTMLDocument)) {
+            return SourceMap.EMPTY;
+        }
+        SourceMap.Builder builder = new SourceMap.Builder();
+        ElementIterator iterator = new ElementIterator(textPane.getDocument());
+        for (Element element = iterator.first(); element != null; element = iterator.next()) {
+            AttributeSet attributes = element.getAttributes();
+            // 子元素通过父元素解析属性，只取元素自身定义的ID
+            if (attributes.isDefined(HTML.Attribute.ID)) {
+                builder.add(SourceMap.parseLineId(attributes.getAttribute(HTML.Attribute.ID)), element.getStartOffset());
+            }
+        }
+        return builder.build();
+    }
+    
+    /**
+     * 预览顶部对应的源文件行，二分查找对应关系，不遍历文档
+     */
+    public int getTopSourceLine() {
+        if (textPane == null || scrollPane == null || sourceMap.size() == 0) {
+            return 0;
+        }
+        Rectangle viewRect = scrollPane.getViewport().getViewRect();
+        int offset = textPane.viewToModel2D(new Point(viewRect.x, viewRect.y));
+        return offset < 0 ? 0 : sourceMap.lineForOffset(offset);
+    }
+    
+    /**
+     * 把源文件行滚动到预览顶部，不通知滚动监听器
+     */
+    public void scrollToSourceLine(int line) {
+        if (textPane == null || scrollPane == null || sourceMap.size() == 0) {
+            return;
+        }
+        Rectangle2D position;
+        try {
+            position = textPane.modelToView2D(sourceMap.offsetForLine(line));
+        } catch (BadLocationException e) {
+            return;
+        }
+        if (position == null) {
+            return;
+        }
+        boolean wasProgrammatic = scrollingProgrammatically;
+        scrollingProgrammatically = true;
+        try {
+            scrollPane.getVerticalScrollBar().setValue((int) position.getY());
+        } finally {
+            scrollingProgrammatically = wasProgrammatic;
+        }
+    }
+    
+    /**
+     * 设置用户滚动预览时的回调，参数为预览顶部对应的源文件行
+     */
+    public void setSourceLineScrollListener(@Nullable IntConsumer listener) {
+        this.sourceLineScrollListener = listener;
+    }
+    
+    /**
+     * 预览顶部对应的源文件行，用于保存编辑器状态
+     */
+    public int getAnchorLine() {
+        return contentShown ? getTopSourceLine() : 0;
+    }
+    
+    /**
+     * 滚动到源文件行对应的位置；还没有显示内容时在第一次显示后滚动
+     */
+    public void restoreAnchorLine(int line) {
+        pendingAnchorLine = line;
+        if (contentShown) {
+            SwingUtilities.invokeLater(this::applyPendingAnchor);
+        }
+    }
+    
+    private void applyPendingAnchor() {
+        int line = pendingAnchorLine;
+        pendingAnchorLine = -1;
+        if (line < 0 || scrollPane == null) {
+            return;
+        }
+        scrollPane.validate();
+        scrollToSourceLine(line);
+    }
+    
+    /**
+     * 当前折叠的代码块，用于保存编辑器状态
+     */
+    public List<String> getFoldedCodeBlocks() {
+        return processor.getFoldedCodeBlocks();
+    }
+    
+    /**
+     * 恢复代码块折叠状态，在第一次渲染之前调用时不会额外渲染
+     */
+    public void restoreFoldedCodeBlocks(@NotNull Collection<String> codeBlockIds) {
+        List<String> folded = new ArrayList<>(codeBlockIds);
+        Collections.sort(folded);
+        if (folded.equals(processor.getFoldedCodeBlocks())) {
+            return;
+        }
+        processor.setFoldedCodeBlocks(folded);
+        if (contentShown) {
+            rerenderCurrentContent();
         }
     }
     
+    /**
+     * @return 当前显示内容对应的渲染缓存键，未使用缓存时返回null
+     */
+    @Nullable
+    public String getRenderCacheKey() {
+        return processor.getLastCacheKey();
+    }
+    
     /**
      * 刷新预览 - 强制重新渲染，不依赖缓存
      */
@@ -368,8 +664,14 @@ public class MarkdownPreviewPanel implements Disposable {
         System.out.println("🗑️ 释放JTextPane预览面板资源");
         
         try {
+            // 丢弃尚未执行的渲染任务
+            PreviewRenderScheduler.getInstance().cancel(this);
+            
             // 清空当前内容缓存
             currentMarkdownContent = null;
+            contentUpdater = null;
+            sourceLineScrollListener = null;
+            sourceMap = SourceMap.EMPTY;
             
             // 释放JTextPane资源
             if (textPane != null) {
@@ -399,6 +701,8 @@ public class MarkdownPreviewPanel implements Disposable {
             
             // 释放处理器资源 (但不能设为null，因为是final)
             if (processor != null) {
+                // 关闭前把尚未写入的渲染结果交给后台线程写入缓存
+                AppExecutorUtil.getAppExecutorService().execute(processor::flushRenderCache);
                 processor.dispose();
             }
             
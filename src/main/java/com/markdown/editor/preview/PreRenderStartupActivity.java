@@ -0,0 +1,17 @@
+package com.markdown.editor.preview;
+
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.startup.StartupActivity;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * 项目打开后安排预渲染最近预览过的Markdown文件，实际渲染等到索引结束后在后台进行
+ */
+public class PreRenderStartupActivity implements StartupActivity, DumbAware {
+
+    @Override
+    public void runActivity(@NotNull Project project) {
+        RecentPreviewsService.getInstance(project).scheduleWarmUp();
+    }
+}
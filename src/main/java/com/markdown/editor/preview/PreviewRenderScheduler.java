@@ -0,0 +1,171 @@
+package com.markdown.editor.preview;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.components.Service;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+
+/**
+ * 所有预览面板共用的渲染调度器
+ * 渲染在有界的后台线程池中进行，结果回到EDT上应用。每个预览最多只有一个等待中的任务，
+ * 新任务直接替换尚未开始的旧任务；正在渲染的旧任务完成后结果被丢弃。
+ * 可见预览的任务优先执行，不可见预览的任务保留到它重新显示时再执行
+ */
+@Service
+public final class PreviewRenderScheduler implements Disposable {
+
+    /** 同时渲染的预览数量上限，剩余的CPU留给编辑和索引 */
+    private static final int MAX_WORKERS = Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() / 2));
+
+    private final ExecutorService executor = AppExecutorUtil.createBoundedApplicationPoolExecutor("Markdown Preview Render", MAX_WORKERS);
+
+    // 以下状态都由this保护
+    private final LinkedHashMap<Object, Job> pending = new LinkedHashMap<>();
+    private final Set<Object> running = new HashSet<>();
+    private final Set<Object> hidden = new HashSet<>();
+    private final Map<Object, Long> latestGeneration = new HashMap<>();
+    private long nextGeneration;
+    private boolean disposed;
+
+    private static final class Job {
+        final Object owner;
+        final long generation;
+        final Callable<String> render;
+        final Consumer<String> apply;
+
+        Job(Object owner, long generation, Callable<String> render, Consumer<String> apply) {
+            this.owner = owner;
+            this.generation = generation;
+            this.render = render;
+            this.apply = apply;
+        }
+    }
+
+    public static PreviewRenderScheduler getInstance() {
+        return ApplicationManager.getApplication().getService(PreviewRenderScheduler.class);
+    }
+
+    /**
+     * 提交一次渲染，替换该预览尚未开始的任务
+     * @param owner 预览面板，同一面板的任务依次执行
+     * @param render 在后台线程中执行，返回要显示的HTML
+     * @param apply 在EDT上应用渲染结果，任务被新任务取代时不调用
+     */
+    public void submit(@NotNull Object owner, @NotNull Callable<String> render, @NotNull Consumer<String> apply) {
+        synchronized (this) {
+            if (disposed) {
+                return;
+            }
+            long generation = ++nextGeneration;
+            latestGeneration.put(owner, generation);
+            if (pending.remove(owner) != null) {
+                System.out.println("⏭️ 丢弃被取代的预览渲染任务");
+            }
+            pending.put(owner, new Job(owner, generation, render, apply));
+        }
+        dispatch();
+    }
+
+    /**
+     * 预览显示或隐藏时调用；隐藏期间提交的任务在重新显示时执行
+     */
+    public void setVisible(@NotNull Object owner, boolean visible) {
+        synchronized (this) {
+            if (visible) {
+                hidden.remove(owner);
+            } else {
+                hidden.add(owner);
+            }
+        }
+        if (visible) {
+            dispatch();
+        }
+    }
+
+    /**
+     * 预览释放时调用，丢弃它的全部任务
+     */
+    public synchronized void cancel(@NotNull Object owner) {
+        pending.remove(owner);
+        hidden.remove(owner);
+        latestGeneration.remove(owner);
+    }
+
+    /**
+     * 在空闲的工作线程上启动可执行的任务：先可见预览，按提交顺序
+     */
+    private void dispatch() {
+        while (true) {
+            Job job;
+            synchronized (this) {
+                if (disposed || running.size() >= MAX_WORKERS) {
+                    return;
+                }
+                job = takeRunnable();
+                if (job == null) {
+                    return;
+                }
+                running.add(job.owner);
+            }
+            executor.execute(() -> run(job));
+        }
+    }
+
+    private Job takeRunnable() {
+        for (Iterator<Job> it = pending.values().iterator(); it.hasNext(); ) {
+            Job job = it.next();
+            if (!running.contains(job.owner) && !hidden.contains(job.owner)) {
+                it.remove();
+                return job;
+            }
+        }
+        return null;
+    }
+
+    private void run(Job job) {
+        try {
+            String html = isLatest(job) ? job.render.call() : null;
+            if (html != null) {
+                ApplicationManager.getApplication().invokeLater(() -> {
+                    if (isLatest(job)) {
+                        job.apply.accept(html);
+                    }
+                }, ModalityState.any());
+            }
+        } catch (Exception e) {
+            System.err.println("❌ 预览渲染失败: " + e.getMessage());
+        } finally {
+            synchronized (this) {
+                running.remove(job.owner);
+            }
+            dispatch();
+        }
+    }
+
+    private synchronized boolean isLatest(Job job) {
+        Long latest = latestGeneration.get(job.owner);
+        return latest != null && latest == job.generation;
+    }
+
+    @Override
+    public void dispose() {
+        synchronized (this) {
+            disposed = true;
+            pending.clear();
+            latestGeneration.clear();
+        }
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,112 @@
+package com.markdown.editor.preview;
+
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import org.intellij.markdown.IElementType;
+import org.intellij.markdown.MarkdownTokenTypes;
+import org.intellij.markdown.ast.ASTNode;
+import org.intellij.markdown.ast.CompositeASTNode;
+import org.intellij.markdown.ast.LeafASTNode;
+import org.intellij.plugins.markdown.lang.MarkdownElementType;
+import org.intellij.plugins.markdown.lang.MarkdownLanguage;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 复用IDE Markdown插件为同一个Document维护的PSI树
+ * 内置Markdown插件的PSI同样由 org.intellij.markdown 解析器生成，
+ * 这里在读锁内把它转换成渲染器使用的AST快照，省掉预览的一次完整解析
+ */
+public final class PsiMarkdownTree {
+    private final String text;
+    private final ASTNode root;
+
+    private PsiMarkdownTree(String text, ASTNode root) {
+        this.text = text;
+        this.root = root;
+    }
+
+    /** 与AST偏移量对应的文档文本 */
+    public String getText() {
+        return text;
+    }
+
+    public ASTNode getRoot() {
+        return root;
+    }
+
+    /**
+     * 在读锁内对已提交的Markdown PSI做快照
+     * @return PSI与文档不同步、文件不是Markdown或存在无法识别的节点时返回null，调用方应回退到独立解析
+     */
+    @Nullable
+    public static PsiMarkdownTree snapshot(@NotNull Project project, @NotNull Document document) {
+        PsiDocumentManager documentManager = PsiDocumentManager.getInstance(project);
+        if (!documentManager.isCommitted(document)) {
+            return null;
+        }
+        PsiFile psiFile = documentManager.getPsiFile(document);
+        if (psiFile == null || !psiFile.getLanguage().isKindOf(MarkdownLanguage.INSTANCE)) {
+            return null;
+        }
+        if (psiFile.getTextLength() != document.getTextLength()) {
+            return null;
+        }
+
+        ASTNode root = convert(psiFile.getNode(), new int[]{0}, 0);
+        if (root == null) {
+            return null;
+        }
+        return new PsiMarkdownTree(document.getText(), root);
+    }
+
+    /**
+     * 把平台的AST节点转换为 org.intellij.markdown 的AST节点，偏移量在遍历过程中累加，避免逐个节点向上求偏移
+     * 嵌套过深时返回null，由渲染器自行解析（解析时会限制嵌套深度）
+     */
+    @Nullable
+    private static ASTNode convert(com.intellij.lang.ASTNode node, int[] offset, int depth) {
+        if (depth > NestingGuard.MAX_TREE_DEPTH) {
+            return null;
+        }
+        IElementType type = MarkdownElementType.markdownType(node.getElementType());
+        com.intellij.lang.ASTNode child = node.getFirstChildNode();
+
+        if (child == null) {
+            if (type == null) {
+                // 平台专有的叶子节点（如注释、错误标记）按普通文本处理
+                type = isBlank(node.getChars()) ? MarkdownTokenTypes.WHITE_SPACE : MarkdownTokenTypes.TEXT;
+            }
+            int start = offset[0];
+            offset[0] += node.getTextLength();
+            return new LeafASTNode(type, start, offset[0]);
+        }
+
+        if (type == null) {
+            return null;
+        }
+        List<ASTNode> children = new ArrayList<>();
+        for (; child != null; child = child.getTreeNext()) {
+            ASTNode converted = convert(child, offset, depth + 1);
+            if (converted == null) {
+                return null;
+            }
+            children.add(converted);
+        }
+        return new CompositeASTNode(type, children);
+    }
+
+    private static boolean isBlank(CharSequence chars) {
+        for (int i = 0; i < chars.length(); i++) {
+            if (!Character.isWhitespace(chars.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,231 @@
+package com.markdown.editor.preview;
+
+import com.intellij.ide.IdeEventQueue;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+import com.intellij.openapi.components.StoragePathMacros;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.fileEditor.impl.LoadTextUtil;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.markdown.editor.settings.MarkdownSettings;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 记录项目中最近预览过的Markdown文件，并在项目打开后把它们预先渲染到持久化渲染缓存中
+ * 预渲染在索引结束后开始，只使用一个后台线程逐个文件进行；IDE处于索引状态或用户刚刚有输入时推迟，
+ * 项目关闭时取消。之后在编辑器或工具窗口中第一次打开这些文件时直接命中缓存
+ */
+@Service(Service.Level.PROJECT)
+@State(name = "MarkdownRecentPreviews", storages = @Storage(StoragePathMacros.WORKSPACE_FILE))
+public final class RecentPreviewsService implements PersistentStateComponent<RecentPreviewsService.RecentState>, Disposable {
+
+    /** 记住的文件数量 */
+    private static final int MAX_RECENT_FILES = 12;
+
+    /** 用户停止操作多久之后才继续预渲染（毫秒） */
+    private static final long REQUIRED_IDLE_MILLIS = 2_000;
+
+    private final Project project;
+    private final ExecutorService executor = AppExecutorUtil.createBoundedApplicationPoolExecutor("Markdown Pre-render", 1);
+    private final Object lock = new Object();
+    private RecentState state = new RecentState();
+    private volatile boolean disposed;
+
+    /**
+     * 持久化状态：最近预览过的文件URL，最近的在前
+     */
+    public static final class RecentState {
+        public List<String> fileUrls = new ArrayList<>();
+    }
+
+    public RecentPreviewsService(Project project) {
+        this.project = project;
+    }
+
+    public static RecentPreviewsService getInstance(@NotNull Project project) {
+        return project.getService(RecentPreviewsService.class);
+    }
+
+    @Nullable
+    @Override
+    public RecentState getState() {
+        synchronized (lock) {
+            return state;
+        }
+    }
+
+    @Override
+    public void loadState(@NotNull RecentState state) {
+        synchronized (lock) {
+            this.state = state;
+        }
+    }
+
+    /**
+     * 记录一次预览，把文件移到列表最前面
+     */
+    public void recordPreviewed(@Nullable VirtualFile file) {
+        if (file == null || !file.isInLocalFileSystem()) {
+            return;
+        }
+        synchronized (lock) {
+            List<String> urls = state.fileUrls;
+            urls.remove(file.getUrl());
+            urls.add(0, file.getUrl());
+            while (urls.size() > MAX_RECENT_FILES) {
+                urls.remove(urls.size() - 1);
+            }
+        }
+    }
+
+    /**
+     * 最近预览过且仍然存在的文件，最近的在前
+     */
+    @NotNull
+    public List<VirtualFile> getRecentFiles() {
+        List<String> urls;
+        synchronized (lock) {
+            urls = new ArrayList<>(state.fileUrls);
+        }
+        List<VirtualFile> files = new ArrayList<>();
+        for (String url : urls) {
+            VirtualFile file = VirtualFileManager.getInstance().findFileByUrl(url);
+            if (file != null && file.isValid() && !file.isDirectory()) {
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * 索引结束后开始预渲染最近预览过的文件
+     */
+    public void scheduleWarmUp() {
+        MarkdownSettings settings = MarkdownSettings.getInstance();
+        if (!settings.isEnablePreview() || !settings.isEnablePersistentRenderCache()) {
+            return;
+        }
+        List<VirtualFile> files = getRecentFiles();
+        if (files.isEmpty()) {
+            return;
+        }
+        System.out.println("🔥 将在索引结束后预渲染 " + files.size() + " 个最近预览的文件");
+        DumbService.getInstance(project).runWhenSmart(() -> resume(files, 0, null));
+    }
+
+    /**
+     * 在预渲染线程上渲染第index个文件，然后继续下一个；需要让路时把剩余的文件重新排队
+     */
+    private void warmUp(List<VirtualFile> files, int index, @Nullable MarkdownProcessor processor) {
+        if (disposed || index >= files.size()) {
+            finish(processor, index);
+            return;
+        }
+        if (DumbService.isDumb(project)) {
+            // 又开始索引了，等索引结束再继续
+            DumbService.getInstance(project).runWhenSmart(() -> resume(files, index, processor));
+            return;
+        }
+        long idle = IdeEventQueue.getInstance().getIdleTime();
+        if (idle < REQUIRED_IDLE_MILLIS) {
+            // 用户正在输入或操作，稍后再试
+            AppExecutorUtil.getAppScheduledExecutorService().schedule(
+                    () -> resume(files, index, processor),
+                    REQUIRED_IDLE_MILLIS - idle, TimeUnit.MILLISECONDS);
+            return;
+        }
+
+        MarkdownSettings settings = MarkdownSettings.getInstance();
+        RenderCache cache = settings.isEnablePersistentRenderCache() ? RenderCacheService.getInstance().getCache() : null;
+        if (cache == null) {
+            finish(processor, index);
+            return;
+        }
+        VirtualFile file = files.get(index);
+        String text = loadText(file);
+        if (text != null && text.length() >= MarkdownProcessor.MIN_CACHED_CHARS) {
+            MarkdownProcessor renderer = processor != null ? processor : new MarkdownProcessor();
+            // 与预览面板使用相同的配置，缓存键才能一致；不限时间预算，保证缓存的是完整渲染结果
+            renderer.setRenderEngine(settings.getRenderEngine());
+            renderer.setSoftWrapLongLines(settings.isSoftWrapLongLines());
+            renderer.setRenderBudgetMillis(RenderBudget.UNLIMITED);
+            renderer.setRenderCache(cache);
+            renderer.resetRenderCacheLookup();
+            try {
+                renderer.processMarkdown(text);
+                // 已在后台线程，缓存中没有时直接写入
+                renderer.flushRenderCache();
+            } catch (RuntimeException e) {
+                System.err.println("⚠️ 预渲染失败 " + file.getName() + ": " + e.getMessage());
+            }
+            resume(files, index + 1, renderer);
+        } else {
+            resume(files, index + 1, processor);
+        }
+    }
+
+    /**
+     * 每个文件单独提交一次任务，两个文件之间不占用线程
+     */
+    private void resume(List<VirtualFile> files, int index, @Nullable MarkdownProcessor processor) {
+        if (disposed) {
+            finish(processor, index);
+            return;
+        }
+        try {
+            executor.execute(() -> warmUp(files, index, processor));
+        } catch (RejectedExecutionException e) {
+            // 项目正在关闭
+            finish(processor, index);
+        }
+    }
+
+    private void finish(@Nullable MarkdownProcessor processor, int renderedUpTo) {
+        if (processor != null) {
+            processor.dispose();
+        }
+        System.out.println(disposed ? "🛑 预渲染已取消" : "🔥 预渲染结束，共检查 " + renderedUpTo + " 个文件");
+    }
+
+    /**
+     * 读取文件当前内容，已打开的文件使用文档中的文本（行分隔符与预览时一致）
+     */
+    @Nullable
+    private String loadText(VirtualFile file) {
+        try {
+            return ReadAction.nonBlocking(() -> {
+                        if (!file.isValid()) {
+                            return null;
+                        }
+                        Document document = FileDocumentManager.getInstance().getCachedDocument(file);
+                        return document != null ? document.getText() : LoadTextUtil.loadText(file).toString();
+                    })
+                    .expireWith(this)
+                    .executeSynchronously();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void dispose() {
+        disposed = true;
+        executor.shutdownNow();
+    }
+}
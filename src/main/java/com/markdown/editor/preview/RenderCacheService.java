@@ -0,0 +1,64 @@
+package com.markdown.editor.preview;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.components.Service;
+import com.markdown.editor.settings.MarkdownSettings;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * 应用级的持久化渲染缓存
+ * 缓存文件位于IDE的system目录，所有项目和预览共用；第一次使用时打开，IDE退出时关闭
+ */
+@Service
+public final class RenderCacheService implements Disposable {
+
+    private PersistentRenderCache cache;
+    private long openedWithMaxBytes;
+    private boolean failed;
+
+    public static RenderCacheService getInstance() {
+        return ApplicationManager.getApplication().getService(RenderCacheService.class);
+    }
+
+    /**
+     * @return 渲染缓存，缓存文件无法打开时返回null（不影响正常渲染）
+     */
+    @Nullable
+    public synchronized RenderCache getCache() {
+        long maxBytes = MarkdownSettings.getInstance().getRenderCacheSizeMb() * 1024L * 1024L;
+        if (cache != null && openedWithMaxBytes != maxBytes) {
+            // 大小上限已修改，下次写入超限时按新上限压缩
+            cache.close();
+            cache = null;
+        }
+        if (cache == null && !failed) {
+            try {
+                cache = new PersistentRenderCache(getCacheFile(), maxBytes);
+                openedWithMaxBytes = maxBytes;
+                System.out.println("💾 渲染缓存已打开: " + cache.size() + " 个条目");
+            } catch (IOException e) {
+                failed = true;
+                System.err.println("❌ 无法打开渲染缓存: " + e.getMessage());
+            }
+        }
+        return cache;
+    }
+
+    private static Path getCacheFile() {
+        return Paths.get(PathManager.getSystemPath(), "markdown-editor", "render-cache.dat");
+    }
+
+    @Override
+    public synchronized void dispose() {
+        if (cache != null) {
+            cache.close();
+            cache = null;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.markdown.editor.search;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.fileEditor.OpenFileDescriptor;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.ui.ColoredListCellRenderer;
+import com.intellij.ui.CollectionListModel;
+import com.intellij.ui.DocumentAdapter;
+import com.intellij.ui.SearchTextField;
+import com.intellij.ui.SimpleTextAttributes;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBList;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.util.Alarm;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import java.awt.*;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.List;
+
+/**
+ * 全文搜索面板
+ * 输入停顿后在后台线程检索，结果按小节列出，双击或回车跳转到小节标题所在位置
+ */
+public class MarkdownSearchPanel implements Disposable {
+    private static final int DELAY_MS = 200;
+    private static final int MAX_RESULTS = 200;
+
+    private final Project project;
+    private final JPanel mainPanel;
+    private final SearchTextField searchField = new SearchTextField(false);
+    private final JBList<SearchIndex.Hit> list;
+    private final CollectionListModel<SearchIndex.Hit> model = new CollectionListModel<>();
+    private final JBLabel statusLabel = new JBLabel(" ");
+    private final Alarm alarm = new Alarm(Alarm.ThreadToUse.POOLED_THREAD, this);
+    // 每次输入递增，丢弃过时查询的结果
+    private volatile int generation;
+
+    public MarkdownSearchPanel(@NotNull Project project) {
+        this.project = project;
+
+        list = new JBList<>(model);
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        list.getEmptyText().setText("输入关键词搜索项目中的Markdown文件");
+        list.setCellRenderer(new ColoredListCellRenderer<SearchIndex.Hit>() {
+            @Override
+            protected void customizeCellRenderer(@NotNull JList<? extends SearchIndex.Hit> list, SearchIndex.Hit hit,
+                                                 int index, boolean selected, boolean hasFocus) {
+                String path = displayPath(hit.getPath());
+                String name = path.substring(path.lastIndexOf('/') + 1);
+                append(hit.getTitle().isEmpty() ? name : hit.getTitle(), SimpleTextAttributes.REGULAR_ATTRIBUTES);
+                append("  " + path, SimpleTextAttributes.GRAYED_ATTRIBUTES);
+            }
+        });
+        list.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (SwingUtilities.isLeftMouseButton(e) && e.getClickCount() == 2) {
+                    navigateToSelected();
+                }
+            }
+        });
+        list.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (e.getKeyCode() == KeyEvent.VK_ENTER) {
+                    navigateToSelected();
+                }
+            }
+        });
+
+        searchField.addDocumentListener(new DocumentAdapter() {
+            @Override
+            protected void textChanged(@NotNull DocumentEvent e) {
+                scheduleSearch(0);
+            }
+        });
+        searchField.getTextEditor().addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (e.getKeyCode() == KeyEvent.VK_DOWN && !model.isEmpty()) {
+                    list.setSelectedIndex(0);
+                    list.requestFocusInWindow();
+                } else if (e.getKeyCode() == KeyEvent.VK_ENTER && !model.isEmpty()) {
+                    list.setSelectedIndex(0);
+                    navigateToSelected();
+                }
+            }
+        });
+
+        statusLabel.setForeground(Color.GRAY);
+        statusLabel.setFont(statusLabel.getFont().deriveFont(11f));
+        statusLabel.setBorder(BorderFactory.createEmptyBorder(3, 8, 3, 8));
+
+        mainPanel = new JPanel(new BorderLayout());
+        mainPanel.add(searchField, BorderLayout.NORTH);
+        JBScrollPane scrollPane = new JBScrollPane(list);
+        scrollPane.setBorder(null);
+        mainPanel.add(scrollPane, BorderLayout.CENTER);
+        mainPanel.add(statusLabel, BorderLayout.SOUTH);
+    }
+
+    public JComponent getComponent() {
+        return mainPanel;
+    }
+
+    private void scheduleSearch(int delayMs) {
+        int current = ++generation;
+        String query = searchField.getText().trim();
+        alarm.cancelAllRequests();
+        if (query.isEmpty()) {
+            model.removeAll();
+            statusLabel.setText(" ");
+            return;
+        }
+        alarm.addRequest(() -> search(query, current), delayMs > 0 ? delayMs : DELAY_MS);
+    }
+
+    private void search(String query, int current) {
+        if (project.isDisposed()) {
+            return;
+        }
+        MarkdownSearchService service = MarkdownSearchService.getInstance(project);
+        long start = System.nanoTime();
+        List<SearchIndex.Hit> hits = service.search(query, MAX_RESULTS);
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        boolean ready = service.isReady();
+        SearchIndex index = service.getIndex();
+        StringBuilder status = new StringBuilder();
+        status.append(hits.size() >= MAX_RESULTS ? "前 " + MAX_RESULTS : String.valueOf(hits.size()))
+                .append(" 个结果，").append(elapsed).append("ms，已索引 ").append(index.getFileCount()).append(" 个文件");
+        if (index.getRejectedFiles() > 0) {
+            status.append("，").append(index.getRejectedFiles()).append(" 个文件超出内存上限未索引");
+        }
+        if (!ready) {
+            status.append("（正在建立索引…）");
+        }
+        ApplicationManager.getApplication().invokeLater(() -> {
+            if (current != generation) {
+                return;
+            }
+            model.replaceAll(hits);
+            statusLabel.setText(status.toString());
+            if (!ready) {
+                // 索引建立完成前定期重新检索，结果随索引进度补全
+                scheduleSearch(500);
+            }
+        }, ModalityState.any(), project.getDisposed());
+    }
+
+    private void navigateToSelected() {
+        SearchIndex.Hit hit = list.getSelectedValue();
+        if (hit == null) {
+            return;
+        }
+        VirtualFile file = MarkdownSearchService.getInstance(project).findFile(hit.getPath());
+        if (file == null || !file.isValid()) {
+            statusLabel.setText("文件已不存在: " + displayPath(hit.getPath()));
+            return;
+        }
+        new OpenFileDescriptor(project, file, hit.getOffset()).navigate(true);
+    }
+
+    private String displayPath(String path) {
+        String basePath = project.getBasePath();
+        if (basePath != null && path.startsWith(basePath + "/")) {
+            return path.substring(basePath.length() + 1);
+        }
+        return path;
+    }
+
+    @Override
+    public void dispose() {
+        generation++;
+        model.removeAll();
+    }
+}
@@ -0,0 +1,209 @@
+package com.markdown.editor.search;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileDeleteEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.markdown.editor.index.MarkdownIndexing;
+import com.markdown.editor.settings.MarkdownSettings;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 项目中Markdown文件的全文检索
+ * 第一次搜索时在后台线程读取全部文件建立内存索引，之后按VFS事件只重新索引变化的文件
+ * （按磁盘上已保存的内容）。目录改名、移动或删除时重新比对一次文件列表
+ */
+@Service(Service.Level.PROJECT)
+public final class MarkdownSearchService implements Disposable {
+
+    private final Project project;
+    private final SearchIndex index;
+    // 单线程依次处理建立索引和增量更新，更新不会与建立索引交错
+    private final ExecutorService executor =
+            AppExecutorUtil.createBoundedApplicationPoolExecutor("Markdown Search Index", 1);
+    private volatile boolean started;
+    private volatile boolean ready;
+    private volatile boolean disposed;
+
+    public MarkdownSearchService(@NotNull Project project) {
+        this.project = project;
+        this.index = new SearchIndex(MarkdownSettings.getInstance().getSearchIndexSizeMb() * 1024L * 1024L);
+        project.getMessageBus().connect(this).subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+            @Override
+            public void after(@NotNull List<? extends VFileEvent> events) {
+                if (started) {
+                    onFilesChanged(events);
+                }
+            }
+        });
+    }
+
+    public static MarkdownSearchService getInstance(@NotNull Project project) {
+        return project.getService(MarkdownSearchService.class);
+    }
+
+    /**
+     * 检索；第一次调用时开始在后台建立索引，建立完成前返回已索引部分的结果
+     */
+    @NotNull
+    public List<SearchIndex.Hit> search(@NotNull String query, int limit) {
+        ensureStarted();
+        return index.search(query, limit);
+    }
+
+    /** 索引是否已经建立完成 */
+    public boolean isReady() {
+        return ready;
+    }
+
+    @NotNull
+    public SearchIndex getIndex() {
+        return index;
+    }
+
+    @Nullable
+    public VirtualFile findFile(@NotNull String path) {
+        return LocalFileSystem.getInstance().findFileByPath(path);
+    }
+
+    public void ensureStarted() {
+        if (started || disposed) {
+            return;
+        }
+        started = true;
+        submit(() -> {
+            long start = System.nanoTime();
+            synchronize();
+            ready = true;
+            System.out.println("🔍 Markdown全文索引已建立: " + index.getFileCount() + " 个文件, 约 "
+                    + index.getMemoryBytes() / 1024 + "KB, 耗时 " + (System.nanoTime() - start) / 1_000_000 + "ms"
+                    + (index.getRejectedFiles() > 0 ? ", " + index.getRejectedFiles() + " 个文件因内存上限未索引" : ""));
+        });
+    }
+
+    private void onFilesChanged(List<? extends VFileEvent> events) {
+        Set<String> removed = new LinkedHashSet<>();
+        Set<VirtualFile> changed = new LinkedHashSet<>();
+        boolean directoryChanged = false;
+        for (VFileEvent event : events) {
+            VirtualFile file = event.getFile();
+            if (file != null && file.isDirectory()) {
+                if (event instanceof VFileDeleteEvent || event instanceof VFileMoveEvent
+                        || event instanceof VFilePropertyChangeEvent) {
+                    directoryChanged = true;
+                }
+                continue;
+            }
+            if (event instanceof VFileDeleteEvent) {
+                removed.add(event.getPath());
+            } else if (event instanceof VFileMoveEvent) {
+                removed.add(((VFileMoveEvent) event).getOldPath());
+            } else if (event instanceof VFilePropertyChangeEvent && ((VFilePropertyChangeEvent) event).isRename()) {
+                removed.add(((VFilePropertyChangeEvent) event).getOldPath());
+            }
+            if (file != null && file.isValid() && MarkdownIndexing.isMarkdownFile(file)) {
+                changed.add(file);
+            }
+        }
+        if (directoryChanged) {
+            submit(this::synchronize);
+            return;
+        }
+        if (removed.isEmpty() && changed.isEmpty()) {
+            return;
+        }
+        submit(() -> {
+            removed.forEach(index::remove);
+            for (VirtualFile file : changed) {
+                if (disposed) {
+                    return;
+                }
+                update(file);
+            }
+        });
+    }
+
+    /**
+     * 与项目中当前的Markdown文件比对：删除已不存在的文件，加入尚未索引的文件
+     */
+    private void synchronize() {
+        List<VirtualFile> files = ReadAction.compute(() -> {
+            List<VirtualFile> result = new ArrayList<>();
+            ProjectFileIndex.getInstance(project).iterateContent(file -> {
+                if (!file.isDirectory() && MarkdownIndexing.isMarkdownFile(file)) {
+                    result.add(file);
+                }
+                return !disposed;
+            });
+            return result;
+        });
+        Set<String> current = new HashSet<>();
+        for (VirtualFile file : files) {
+            current.add(file.getPath());
+        }
+        for (String path : index.getPaths()) {
+            if (!current.contains(path)) {
+                index.remove(path);
+            }
+        }
+        for (VirtualFile file : files) {
+            if (disposed) {
+                return;
+            }
+            if (!index.contains(file.getPath())) {
+                update(file);
+            }
+        }
+    }
+
+    private void update(VirtualFile file) {
+        boolean inContent = ReadAction.compute(() ->
+                file.isValid() && ProjectFileIndex.getInstance(project).isInContent(file));
+        if (!inContent) {
+            index.remove(file.getPath());
+            return;
+        }
+        try {
+            index.put(file.getPath(), VfsUtilCore.loadText(file));
+        } catch (IOException e) {
+            index.remove(file.getPath());
+            System.err.println("❌ 建立全文索引失败 " + file.getPath() + ": " + e.getMessage());
+        }
+    }
+
+    private void submit(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // 项目已关闭
+        }
+    }
+
+    @Override
+    public void dispose() {
+        disposed = true;
+        executor.shutdownNow();
+        index.clear();
+    }
+}
@@ -6,6 +6,7 @@ import com.intellij.openapi.components.Service;
 import com.intellij.openapi.components.State;
 import com.intellij.openapi.components.Storage;
 import com.intellij.util.xmlb.XmlSerializerUtil;
+import com.markdown.editor.preview.RenderEngine;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -19,8 +20,17 @@ public final class MarkdownSettings implements PersistentStateComponent<Markdown
     private boolean enablePreview = true;
     private boolean enableSyntaxHighlight = true;
     private boolean enableCodeFolding = true;
+    private int collapseCodeFenceLines = 0;
     private boolean enableAutoSave = false;
     private int autoSaveInterval = 30;
+    private RenderEngine renderEngine = RenderEngine.REGEX;
+    private int renderBudgetMillis = 200;
+    private boolean softWrapLongLines = true;
+    private boolean enablePersistentRenderCache = true;
+    private int renderCacheSizeMb = 64;
+    private int largeFileThresholdMb = 5;
+    private boolean checkExternalLinks = false;
+    private int searchIndexSizeMb = 32;
     
     public static MarkdownSettings getInstance() {
         return ApplicationManager.getApplication().getService(MarkdownSettings.class);
@@ -78,4 +88,76 @@ public final class MarkdownSettings implements PersistentStateComponent<Markdown
     public void setAutoSaveInterval(int autoSaveInterval) {
         this.autoSaveInterval = autoSaveInterval;
     }
+
+    public RenderEngine getRenderEngine() {
+        return renderEngine;
+    }
+
+    public void setRenderEngine(RenderEngine renderEngine) {
+        this.renderEngine = renderEngine;
+    }
+
+    public int getRenderBudgetMillis() {
+        return renderBudgetMillis;
+    }
+
+    public void setRenderBudgetMillis(int renderBudgetMillis) {
+        this.renderBudgetMillis = renderBudgetMillis;
+    }
+
+    public boolean isSoftWrapLongLines() {
+        return softWrapLongLines;
+    }
+
+    public void setSoftWrapLongLines(boolean softWrapLongLines) {
+        this.softWrapLongLines = softWrapLongLines;
+    }
+
+    public boolean isEnablePersistentRenderCache() {
+        return enablePersistentRenderCache;
+    }
+
+    public void setEnablePersistentRenderCache(boolean enablePersistentRenderCache) {
+        this.enablePersistentRenderCache = enablePersistentRenderCache;
+    }
+
+    public int getRenderCacheSizeMb() {
+        return renderCacheSizeMb;
+    }
+
+    public void setRenderCacheSizeMb(int renderCacheSizeMb) {
+        this.renderCacheSizeMb = renderCacheSizeMb;
+    }
+
+    public int getLargeFileThresholdMb() {
+        return largeFileThresholdMb;
+    }
+
+    public void setLargeFileThresholdMb(int largeFileThresholdMb) {
+        this.largeFileThresholdMb = largeFileThresholdMb;
+    }
+
+    public boolean isCheckExternalLinks() {
+        return checkExternalLinks;
+    }
+
+    public void setCheckExternalLinks(boolean checkExternalLinks) {
+        this.checkExternalLinks = checkExternalLinks;
+    }
+
+    public int getSearchIndexSizeMb() {
+        return searchIndexSizeMb;
+    }
+
+    public void setSearchIndexSizeMb(int searchIndexSizeMb) {
+        this.searchIndexSizeMb = searchIndexSizeMb;
+    }
+
+    public int getCollapseCodeFenceLines() {
+        return collapseCodeFenceLines;
+    }
+
+    public void setCollapseCodeFenceLines(int collapseCodeFenceLines) {
+        this.collapseCodeFenceLines = collapseCodeFenceLines;
+    }
 }
@@ -6,6 +6,7 @@ import com.intellij.openapi.util.NlsContexts;
 import com.intellij.ui.components.JBCheckBox;
 import com.intellij.ui.components.JBLabel;
 import com.intellij.util.ui.FormBuilder;
+import com.markdown.editor.preview.RenderEngine;
 import org.jetbrains.annotations.Nls;
 import org.jetbrains.annotations.Nullable;
 
@@ -19,8 +20,17 @@ public class MarkdownSettingsConfigurable implements Configurable {
     private JBCheckBox enablePreviewCheckBox;
     private JBCheckBox enableSyntaxHighlightCheckBox;
     private JBCheckBox enableCodeFoldingCheckBox;
+    private JTextField collapseCodeFenceLinesField;
     private JBCheckBox enableAutoSaveCheckBox;
     private JTextField autoSaveIntervalField;
+    private JComboBox<RenderEngine> renderEngineComboBox;
+    private JTextField renderBudgetField;
+    private JBCheckBox softWrapLongLinesCheckBox;
+    private JBCheckBox enablePersistentRenderCacheCheckBox;
+    private JTextField renderCacheSizeField;
+    private JTextField largeFileThresholdField;
+    private JBCheckBox checkExternalLinksCheckBox;
+    private JTextField searchIndexSizeField;
     
     private final MarkdownSettings settings = MarkdownSettings.getInstance();
 
@@ -38,13 +48,35 @@ public class MarkdownSettingsConfigurable implements Configurable {
         enableCodeFoldingCheckBox = new JBCheckBox("启用代码折叠");
         enableAutoSaveCheckBox = new JBCheckBox("启用自动保存");
         
+        collapseCodeFenceLinesField = new JTextField(10);
         autoSaveIntervalField = new JTextField(10);
+        renderEngineComboBox = new JComboBox<>(RenderEngine.values());
+        renderBudgetField = new JTextField(10);
+        softWrapLongLinesCheckBox = new JBCheckBox("超长代码行分段折行显示");
+        enablePersistentRenderCacheCheckBox = new JBCheckBox("在磁盘上缓存大文档的渲染结果（重启后仍然有效）");
+        renderCacheSizeField = new JTextField(10);
+        largeFileThresholdField = new JTextField(10);
+        checkExternalLinksCheckBox = new JBCheckBox("检查链接时同时访问外部链接（需要网络）");
+        searchIndexSizeField = new JTextField(10);
         
         return FormBuilder.createFormBuilder()
             .addComponent(new JBLabel("编辑器功能"))
             .addComponent(enablePreviewCheckBox)
             .addComponent(enableSyntaxHighlightCheckBox)
             .addComponent(enableCodeFoldingCheckBox)
+            .addLabeledComponent("代码块超过N行时默认折叠(0为不折叠):", collapseCodeFenceLinesField)
+            .addLabeledComponent("渲染引擎:", renderEngineComboBox)
+            .addLabeledComponent("渲染时间预算(毫秒, 0为不限制):", renderBudgetField)
+            .addComponent(softWrapLongLinesCheckBox)
+            .addComponent(enablePersistentRenderCacheCheckBox)
+            .addLabeledComponent("渲染缓存上限(MB):", renderCacheSizeField)
+            .addLabeledComponent("大文件模式阈值(MB，超过后关闭折叠和实时预览):", largeFileThresholdField)
+            .addSeparator()
+            .addComponent(new JBLabel("链接检查"))
+            .addComponent(checkExternalLinksCheckBox)
+            .addSeparator()
+            .addComponent(new JBLabel("全文搜索"))
+            .addLabeledComponent("搜索索引内存上限(MB，重启项目后生效):", searchIndexSizeField)
             .addSeparator()
             .addComponent(new JBLabel("自动保存"))
             .addComponent(enableAutoSaveCheckBox)
@@ -58,7 +90,16 @@ public class MarkdownSettingsConfigurable implements Configurable {
         return enablePreviewCheckBox.isSelected() != settings.isEnablePreview() ||
                enableSyntaxHighlightCheckBox.isSelected() != settings.isEnableSyntaxHighlight() ||
                enableCodeFoldingCheckBox.isSelected() != settings.isEnableCodeFolding() ||
+               !collapseCodeFenceLinesField.getText().equals(String.valueOf(settings.getCollapseCodeFenceLines())) ||
                enableAutoSaveCheckBox.isSelected() != settings.isEnableAutoSave() ||
+               renderEngineComboBox.getSelectedItem() != settings.getRenderEngine() ||
+               !renderBudgetField.getText().equals(String.valueOf(settings.getRenderBudgetMillis())) ||
+               softWrapLongLinesCheckBox.isSelected() != settings.isSoftWrapLongLines() ||
+               enablePersistentRenderCacheCheckBox.isSelected() != settings.isEnablePersistentRenderCache() ||
+               !renderCacheSizeField.getText().equals(String.valueOf(settings.getRenderCacheSizeMb())) ||
+               !largeFileThresholdField.getText().equals(String.valueOf(settings.getLargeFileThresholdMb())) ||
+               checkExternalLinksCheckBox.isSelected() != settings.isCheckExternalLinks() ||
+               !searchIndexSizeField.getText().equals(String.valueOf(settings.getSearchIndexSizeMb())) ||
                !autoSaveIntervalField.getText().equals(String.valueOf(settings.getAutoSaveInterval()));
     }
 
@@ -69,10 +110,39 @@ public class MarkdownSettingsConfigurable implements Configurable {
             settings.setEnableSyntaxHighlight(enableSyntaxHighlightCheckBox.isSelected());
             settings.setEnableCodeFolding(enableCodeFoldingCheckBox.isSelected());
             settings.setEnableAutoSave(enableAutoSaveCheckBox.isSelected());
+            settings.setRenderEngine((RenderEngine) renderEngineComboBox.getSelectedItem());
+            settings.setSoftWrapLongLines(softWrapLongLinesCheckBox.isSelected());
+            settings.setEnablePersistentRenderCache(enablePersistentRenderCacheCheckBox.isSelected());
+            settings.setCheckExternalLinks(checkExternalLinksCheckBox.isSelected());
             settings.setAutoSaveInterval(Integer.parseInt(autoSaveIntervalField.getText()));
         } catch (NumberFormatException e) {
             throw new ConfigurationException("自动保存间隔必须是一个有效的数字");
         }
+        try {
+            settings.setRenderBudgetMillis(Math.max(0, Integer.parseInt(renderBudgetField.getText().trim())));
+        } catch (NumberFormatException e) {
+            throw new ConfigurationException("渲染时间预算必须是一个有效的数字");
+        }
+        try {
+            settings.setCollapseCodeFenceLines(Math.max(0, Integer.parseInt(collapseCodeFenceLinesField.getText().trim())));
+        } catch (NumberFormatException e) {
+            throw new ConfigurationException("代码块折叠行数必须是一个有效的数字");
+        }
+        try {
+            settings.setRenderCacheSizeMb(Math.max(1, Integer.parseInt(renderCacheSizeField.getText().trim())));
+        } catch (NumberFormatException e) {
+            throw new ConfigurationException("渲染缓存上限必须是一个有效的数字");
+        }
+        try {
+            settings.setLargeFileThresholdMb(Math.max(1, Integer.parseInt(largeFileThresholdField.getText().trim())));
+        } catch (NumberFormatException e) {
+            throw new ConfigurationException("大文件模式阈值必须是一个有效的数字");
+        }
+        try {
+            settings.setSearchIndexSizeMb(Math.max(1, Integer.parseInt(searchIndexSizeField.getText().trim())));
+        } catch (NumberFormatException e) {
+            throw new ConfigurationException("搜索索引内存上限必须是一个有效的数字");
+        }
     }
 
     @Override
@@ -80,7 +150,16 @@ public class MarkdownSettingsConfigurable implements Configurable {
         enablePreviewCheckBox.setSelected(settings.isEnablePreview());
         enableSyntaxHighlightCheckBox.setSelected(settings.isEnableSyntaxHighlight());
         enableCodeFoldingCheckBox.setSelected(settings.isEnableCodeFolding());
+        collapseCodeFenceLinesField.setText(String.valueOf(settings.getCollapseCodeFenceLines()));
         enableAutoSaveCheckBox.setSelected(settings.isEnableAutoSave());
+        renderEngineComboBox.setSelectedItem(settings.getRenderEngine());
+        renderBudgetField.setText(String.valueOf(settings.getRenderBudgetMillis()));
+        softWrapLongLinesCheckBox.setSelected(settings.isSoftWrapLongLines());
+        enablePersistentRenderCacheCheckBox.setSelected(settings.isEnablePersistentRenderCache());
+        renderCacheSizeField.setText(String.valueOf(settings.getRenderCacheSizeMb()));
+        largeFileThresholdField.setText(String.valueOf(settings.getLargeFileThresholdMb()));
+        checkExternalLinksCheckBox.setSelected(settings.isCheckExternalLinks());
+        searchIndexSizeField.setText(String.valueOf(settings.getSearchIndexSizeMb()));
         autoSaveIntervalField.setText(String.valueOf(settings.getAutoSaveInterval()));
     }
 }
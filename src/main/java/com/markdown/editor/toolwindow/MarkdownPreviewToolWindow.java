@@ -72,6 +72,7 @@ public class MarkdownPreviewToolWindow {
             
             // 创建新的预览面板
             previewPanel = new MarkdownPreviewPanel(project);
+            previewPanel.setBaseFileSupplier(() -> file);
             
             // 读取文件内容
             String content = new String(file.contentsToByteArray(), file.getCharset());
@@ -6,6 +6,7 @@ import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.editor.EditorFactory;
 import com.intellij.openapi.editor.EditorSettings;
+import com.intellij.openapi.editor.ScrollType;
 import com.intellij.openapi.editor.event.DocumentEvent;
 import com.intellij.openapi.editor.event.DocumentListener;
 import com.intellij.openapi.fileChooser.FileChooser;
@@ -23,7 +24,11 @@ import com.intellij.ui.components.JBPanel;
 import com.intellij.ui.components.JBLabel;
 import com.intellij.ui.components.JBTabbedPane;
 import com.intellij.ui.components.JBScrollPane;
+import com.markdown.editor.outline.Heading;
+import com.markdown.editor.outline.HeadingTocPanel;
 import com.markdown.editor.preview.MarkdownPreviewPanel;
+import com.markdown.editor.preview.RecentPreviewsService;
+import com.markdown.editor.search.MarkdownSearchPanel;
 import org.jetbrains.annotations.NotNull;
 
 import javax.swing.*;
@@ -45,6 +50,8 @@ public class MarkdownToolWindow implements com.intellij.openapi.Disposable {
     private JBTabbedPane tabbedPane;
     private Editor editor;
     private MarkdownPreviewPanel previewPanel;
+    private HeadingTocPanel tocPanel;
+    private MarkdownSearchPanel searchPanel;
     private Document document;
     private VirtualFile currentFile;
     private JLabel statusLabel;
@@ -101,19 +108,20 @@ public class MarkdownToolWindow implements com.intellij.openapi.Disposable {
         
         // 预览Tab
         previewPanel = new MarkdownPreviewPanel(project);
+        previewPanel.setContentUpdater(this::loadPreviewContent);
+        previewPanel.setBaseFileSupplier(() -> currentFile);
         tabbedPane.addTab("👁️ 预览", previewPanel.getComponent());
         
-        // 添加Tab切换监听器，确保切换到预览时自动刷新
-        tabbedPane.addChangeListener(e -> {
-            int selectedIndex = tabbedPane.getSelectedIndex();
-            if (selectedIndex == 1) { // 预览Tab的索引是1
-                ApplicationManager.getApplication().invokeLater(() -> {
-                    // 强制刷新预览内容，不依赖缓存
-                    forceRefreshPreview();
-                    updateStatus("预览已刷新");
-                });
-            }
-        });
+        // 预览Tab未选中时编辑只标记预览过期，切换到预览Tab时由预览面板补做一次渲染
+        
+        // 目录Tab：点击标题跳转到编辑Tab中的对应位置
+        tocPanel = new HeadingTocPanel(() -> document, this::navigateToHeading);
+        tabbedPane.addTab("📑 目录", tocPanel.getComponent());
+        
+        // 搜索Tab：在项目的全部Markdown文件中全文检索
+        searchPanel = new MarkdownSearchPanel(project);
+        com.intellij.openapi.util.Disposer.register(this, searchPanel);
+        tabbedPane.addTab("🔍 搜索", searchPanel.getComponent());
         
         mainPanel.add(tabbedPane, BorderLayout.CENTER);
         
@@ -276,22 +284,40 @@ public class MarkdownToolWindow implements com.intellij.openapi.Disposable {
         }
     }
     
+    /**
+     * 标记预览和目录需要更新，对应的Tab显示时才读取内容
+     */
     private void updatePreview() {
-        if (document != null && previewPanel != null) {
-            String content = document.getText();
-            previewPanel.updateContent(content);
+        if (previewPanel != null) {
+            previewPanel.markDirty();
+        }
+        if (tocPanel != null) {
+            tocPanel.markDirty();
         }
     }
     
     /**
-     * 强制刷新预览，清除缓存并重新渲染
+     * 切换到编辑Tab并把标题滚动到可见位置
      */
-    private void forceRefreshPreview() {
+    private void navigateToHeading(Heading heading) {
+        if (editor == null || document == null) {
+            return;
+        }
+        tabbedPane.setSelectedIndex(0);
+        int offset = Math.min(heading.getOffset(), document.getTextLength());
+        ApplicationManager.getApplication().invokeLater(() -> {
+            if (editor == null || editor.isDisposed()) {
+                return;
+            }
+            editor.getCaretModel().moveToOffset(offset);
+            editor.getScrollingModel().scrollToCaret(ScrollType.CENTER_UP);
+            editor.getContentComponent().requestFocusInWindow();
+        });
+    }
+    
+    private void loadPreviewContent() {
         if (document != null && previewPanel != null) {
             String content = document.getText();
-            // 调用预览面板的刷新方法，强制重新渲染
-            previewPanel.refresh();
-            // 然后更新内容，确保最新内容被渲染
             previewPanel.updateContent(content);
         }
     }
@@ -383,6 +409,7 @@ public class MarkdownToolWindow implements com.intellij.openapi.Disposable {
                     document.setText(content);
                     currentFile = file;
                     isDocumentModified = false; // 重置修改状态
+                    RecentPreviewsService.getInstance(project).recordPreviewed(file);
                     updateStatus("已打开: " + file.getName());
                     updatePreview();
                     updateFilePathDisplay();
@@ -848,15 +875,8 @@ public class MarkdownToolWindow implements com.intellij.openapi.Disposable {
                 // 标签页切换时刷新预览（如果切换到预览Tab）
                 int selectedIndex = tabbedPane.getSelectedIndex();
                 if (selectedIndex == 1) { // 1是预览Tab
-                    System.out.println("🔄 切换到预览Tab，刷新预览内容");
-                    // 这里可以添加刷新预览的逻辑，但不保存文件
-                    if (previewPanel != null) {
-                        String currentContent = "";
-                        if (editor != null && !editor.isDisposed()) {
-                            currentContent = editor.getDocument().getText();
-                        }
-                        previewPanel.updateContent(currentContent);
-                    }
+                    // 预览内容由预览面板在显示时补做渲染，这里不重复渲染，也不保存文件
+                    System.out.println("🔄 切换到预览Tab");
                 }
             });
         }
@@ -1190,6 +1210,9 @@ public class MarkdownToolWindow implements com.intellij.openapi.Disposable {
                 System.out.println("🗑️ 已释放预览面板资源");
             }
             
+            tocPanel = null;
+            searchPanel = null;
+            
             // 释放UI组件
             if (tabbedPane != null) {
                 tabbedPane.removeAll();